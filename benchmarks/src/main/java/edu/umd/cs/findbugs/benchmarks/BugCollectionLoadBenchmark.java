@@ -0,0 +1,121 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2026, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.dom4j.DocumentException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.umd.cs.findbugs.BugInstance;
+import edu.umd.cs.findbugs.Project;
+import edu.umd.cs.findbugs.SortedBugCollection;
+import edu.umd.cs.findbugs.SourceLineAnnotation;
+import edu.umd.cs.findbugs.SystemProperties;
+
+/**
+ * Loads a saved bug collection, as the GUI does when it opens a result file.
+ * The collection is generated during setup: <code>numBugs</code> bugs in
+ * classes of <code>numClasses</code> packages, each with a class, method,
+ * field and source line annotation, saved with the given file
+ * <code>extension</code> (".xml", ".xml.gz" or the binary format).
+ * <p>
+ * Use the path of a real result file as <code>file</code> to measure that
+ * instead, and <code>threads</code> to parse the bugs on several threads (see
+ * the findbugs.load.threads property).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BugCollectionLoadBenchmark {
+
+    @Param({ "" })
+    public String file;
+
+    @Param({ "100000" })
+    public int numBugs;
+
+    @Param({ "5000" })
+    public int numClasses;
+
+    @Param({ ".xml", ".xml.gz", SortedBugCollection.BINARY_FILE_EXTENSION })
+    public String extension;
+
+    @Param({ "1" })
+    public int threads;
+
+    private File generated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SystemProperties.setProperty("findbugs.load.threads", String.valueOf(threads));
+        if (!file.isEmpty()) {
+            return;
+        }
+        SortedBugCollection bugs = new SortedBugCollection(new Project());
+        String[] types = { "NP_NULL_ON_SOME_PATH", "DM_EXIT", "UUF_UNUSED_FIELD", "SIC_INNER_SHOULD_BE_STATIC",
+                "RV_RETURN_VALUE_IGNORED" };
+        for (int i = 0; i < numBugs; i++) {
+            int c = i % numClasses;
+            String className = "com.example.pkg" + (c % 50) + ".Class" + c;
+            String sourceFile = "Class" + c + ".java";
+            BugInstance bug = new BugInstance(types[i % types.length], 1 + i % 3);
+            bug.addClass(className, sourceFile);
+            bug.addMethod(className, "method" + (i % 20), "(Ljava/lang/String;I)V", false);
+            bug.addField(className, "field" + (i % 10), "Ljava/util/List;", false);
+            bug.addSourceLine(new SourceLineAnnotation(className, sourceFile, 10 + i % 500, 10 + i % 500, i % 100,
+                    i % 100));
+            bugs.add(bug);
+        }
+        generated = File.createTempFile("findbugs-bugs", extension);
+        bugs.writeXML(generated);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (generated != null && !generated.delete()) {
+            generated.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public SortedBugCollection load() throws IOException, DocumentException {
+        SortedBugCollection bugs = new SortedBugCollection(new Project());
+        bugs.readXML(generated != null ? generated : new File(file));
+        return bugs;
+    }
+}
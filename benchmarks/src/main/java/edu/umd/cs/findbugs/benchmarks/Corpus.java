@@ -0,0 +1,236 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2026, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.Method;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.DetectorFactoryCollection;
+import edu.umd.cs.findbugs.FindBugs2;
+import edu.umd.cs.findbugs.NoOpFindBugsProgress;
+import edu.umd.cs.findbugs.PrintingBugReporter;
+import edu.umd.cs.findbugs.Project;
+import edu.umd.cs.findbugs.ba.AnalysisContext;
+import edu.umd.cs.findbugs.ba.CFG;
+import edu.umd.cs.findbugs.ba.ClassContext;
+import edu.umd.cs.findbugs.ba.deref.UnconditionalValueDerefDataflow;
+import edu.umd.cs.findbugs.ba.npe.IsNullValueDataflow;
+import edu.umd.cs.findbugs.ba.type.TypeDataflow;
+import edu.umd.cs.findbugs.ba.vna.ValueNumberDataflow;
+import edu.umd.cs.findbugs.bcel.BCELUtil;
+import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.Global;
+import edu.umd.cs.findbugs.classfile.IAnalysisCache;
+import edu.umd.cs.findbugs.classfile.IClassFactory;
+import edu.umd.cs.findbugs.classfile.IClassPath;
+import edu.umd.cs.findbugs.classfile.IClassPathBuilder;
+import edu.umd.cs.findbugs.classfile.MethodDescriptor;
+import edu.umd.cs.findbugs.classfile.impl.ClassFactory;
+
+/**
+ * The fixed corpus of class files the benchmarks run over, together with
+ * the analysis cache and AnalysisContext needed to analyze it.
+ * <p>
+ * The corpus is a jar file or directory given by the <code>corpus</code>
+ * parameter. By default it is a fixed release of Guava (see the
+ * <code>corpus.*</code> properties of the pom), packaged into the benchmark
+ * jar, so that the numbers of different FindBugs builds are measured on the
+ * same classes. The first <code>maxClasses</code> classes whose names start
+ * with <code>classPrefix</code>, in name order, are used.
+ * <p>
+ * All analyses the benchmarked code depends on are computed, and cached,
+ * during setup. Only the methods for which all of them succeed are
+ * benchmarked.
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+
+    private static final String DEFAULT_CORPUS = "/corpus/corpus.jar";
+
+    @Param({ "" })
+    public String corpus;
+
+    @Param({ "com.google.common." })
+    public String classPrefix;
+
+    @Param({ "250" })
+    public int maxClasses;
+
+    private IClassPath classPath;
+
+    /** The default corpus extracted from the benchmark jar, or null */
+    private File extractedCorpus;
+
+    private IAnalysisCache analysisCache;
+
+    private AnalysisContext analysisContext;
+
+    private final List<ClassDescriptor> classList = new ArrayList<ClassDescriptor>();
+
+    private final List<MethodDescriptor> methodList = new ArrayList<MethodDescriptor>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String corpusPath;
+        if (corpus.isEmpty()) {
+            extractedCorpus = extractDefaultCorpus();
+            corpusPath = extractedCorpus.getPath();
+        } else {
+            corpusPath = corpus;
+        }
+        BugReporter bugReporter = new PrintingBugReporter();
+        Project project = new Project();
+        project.addFile(corpusPath);
+
+        IClassFactory classFactory = ClassFactory.instance();
+        classPath = classFactory.createClassPath();
+
+        analysisCache = classFactory.createAnalysisCache(classPath, bugReporter);
+        FindBugs2.registerBuiltInAnalysisEngines(analysisCache);
+        analysisCache.eagerlyPutDatabase(DetectorFactoryCollection.class, DetectorFactoryCollection.instance());
+        Global.setAnalysisCacheForCurrentThread(analysisCache);
+
+        IClassPathBuilder builder = classFactory.createClassPathBuilder(bugReporter);
+        builder.addCodeBase(classFactory.createFilesystemCodeBaseLocator(corpusPath), true);
+        builder.build(classPath, new NoOpFindBugsProgress());
+
+        List<ClassDescriptor> appClassList = new ArrayList<ClassDescriptor>();
+        for (ClassDescriptor classDescriptor : builder.getAppClassList()) {
+            if (classDescriptor.getDottedClassName().startsWith(classPrefix)) {
+                appClassList.add(classDescriptor);
+            }
+        }
+        Collections.sort(appClassList);
+        if (appClassList.size() > maxClasses) {
+            appClassList = appClassList.subList(0, maxClasses);
+        }
+
+        FindBugs2.createAnalysisContext(project, appClassList, null);
+        FindBugs2.setAppClassList(appClassList);
+        analysisContext = AnalysisContext.currentAnalysisContext();
+
+        for (ClassDescriptor classDescriptor : appClassList) {
+            ClassContext classContext;
+            try {
+                classContext = analysisCache.getClassAnalysis(ClassContext.class, classDescriptor);
+            } catch (CheckedAnalysisException e) {
+                continue;
+            }
+            classList.add(classDescriptor);
+            JavaClass jclass = classContext.getJavaClass();
+            for (Method method : jclass.getMethods()) {
+                if (method.getCode() == null) {
+                    continue;
+                }
+                MethodDescriptor methodDescriptor = BCELUtil.getMethodDescriptor(jclass, method);
+                try {
+                    analysisCache.getMethodAnalysis(CFG.class, methodDescriptor);
+                    analysisCache.getMethodAnalysis(TypeDataflow.class, methodDescriptor);
+                    analysisCache.getMethodAnalysis(ValueNumberDataflow.class, methodDescriptor);
+                    analysisCache.getMethodAnalysis(IsNullValueDataflow.class, methodDescriptor);
+                    analysisCache.getMethodAnalysis(UnconditionalValueDerefDataflow.class, methodDescriptor);
+                } catch (CheckedAnalysisException e) {
+                    continue;
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                methodList.add(methodDescriptor);
+            }
+        }
+        if (methodList.isEmpty()) {
+            throw new IllegalStateException("No analyzable methods in " + corpusPath);
+        }
+    }
+
+    /**
+     * JMH may run iterations on threads other than the one which ran the
+     * trial setup, so make sure the analysis cache and AnalysisContext are
+     * installed on the current thread.
+     */
+    @Setup(Level.Iteration)
+    public void setUpThread() {
+        Global.setAnalysisCacheForCurrentThread(analysisCache);
+        AnalysisContext.setCurrentAnalysisContext(analysisContext);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Global.removeAnalysisCacheForCurrentThread();
+        AnalysisContext.removeCurrentAnalysisContext();
+        classPath.close();
+        if (extractedCorpus != null && !extractedCorpus.delete()) {
+            extractedCorpus.deleteOnExit();
+        }
+    }
+
+    public IAnalysisCache getAnalysisCache() {
+        return analysisCache;
+    }
+
+    /**
+     * @return the classes of the corpus
+     */
+    public List<ClassDescriptor> getClassList() {
+        return classList;
+    }
+
+    /**
+     * @return the methods of the corpus which have code
+     */
+    public List<MethodDescriptor> getMethodList() {
+        return methodList;
+    }
+
+    /**
+     * Copy the default corpus, a resource of the benchmark jar, to a
+     * temporary file the class path can be built from.
+     */
+    private static File extractDefaultCorpus() throws IOException {
+        InputStream in = Corpus.class.getResourceAsStream(DEFAULT_CORPUS);
+        if (in == null) {
+            throw new FileNotFoundException("No " + DEFAULT_CORPUS + " in the benchmark jar; build it with mvn package");
+        }
+        try {
+            File file = File.createTempFile("findbugs-corpus", ".jar");
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2026, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
+import edu.umd.cs.findbugs.classfile.IAnalysisCache;
+import edu.umd.cs.findbugs.classfile.MethodDescriptor;
+import edu.umd.cs.findbugs.classfile.engine.bcel.AnalysisFactory;
+import edu.umd.cs.findbugs.classfile.engine.bcel.IsNullValueDataflowFactory;
+import edu.umd.cs.findbugs.classfile.engine.bcel.TypeDataflowFactory;
+import edu.umd.cs.findbugs.classfile.engine.bcel.UnconditionalValueDerefDataflowFactory;
+import edu.umd.cs.findbugs.classfile.engine.bcel.ValueNumberDataflowFactory;
+
+/**
+ * Runs one dataflow analysis (creating the analysis and calling
+ * Dataflow.execute()) over every method of the corpus. The CFG and the
+ * other dataflow analyses the analysis depends on come from the analysis
+ * cache, so only the analysis itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DataflowBenchmark {
+
+    @Param({ "TypeDataflow", "ValueNumberDataflow", "IsNullValueDataflow", "UnconditionalValueDerefDataflow" })
+    public String analysis;
+
+    private AnalysisFactory<?> factory;
+
+    @Setup
+    public void setUp() {
+        if ("TypeDataflow".equals(analysis)) {
+            factory = new TypeDataflowFactory();
+        } else if ("ValueNumberDataflow".equals(analysis)) {
+            factory = new ValueNumberDataflowFactory();
+        } else if ("IsNullValueDataflow".equals(analysis)) {
+            factory = new IsNullValueDataflowFactory();
+        } else if ("UnconditionalValueDerefDataflow".equals(analysis)) {
+            factory = new UnconditionalValueDerefDataflowFactory();
+        } else {
+            throw new IllegalArgumentException("Unknown analysis " + analysis);
+        }
+    }
+
+    @Benchmark
+    public void execute(Corpus corpus, Blackhole blackhole) throws CheckedAnalysisException {
+        IAnalysisCache analysisCache = corpus.getAnalysisCache();
+        for (MethodDescriptor method : corpus.getMethodList()) {
+            blackhole.consume(factory.analyze(analysisCache, method));
+        }
+    }
+}
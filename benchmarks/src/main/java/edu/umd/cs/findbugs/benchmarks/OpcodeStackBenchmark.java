@@ -0,0 +1,69 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2026, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.umd.cs.findbugs.ba.ClassContext;
+import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
+import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.IAnalysisCache;
+
+/**
+ * Runs the OpcodeStack over every method of the corpus, the way an
+ * OpcodeStackDetector does: OpcodeStack.sawOpcode() for every instruction,
+ * with the jump information computed by the first iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OpcodeStackBenchmark {
+
+    static class StackScanner extends OpcodeStackDetector {
+        int stackDepth;
+
+        @Override
+        public void sawOpcode(int seen) {
+            stackDepth += stack.getStackDepth();
+        }
+    }
+
+    @Benchmark
+    public void sawOpcode(Corpus corpus, Blackhole blackhole) throws CheckedAnalysisException {
+        IAnalysisCache analysisCache = corpus.getAnalysisCache();
+        StackScanner scanner = new StackScanner();
+        for (ClassDescriptor classDescriptor : corpus.getClassList()) {
+            scanner.visitClassContext(analysisCache.getClassAnalysis(ClassContext.class, classDescriptor));
+        }
+        blackhole.consume(scanner.stackDepth);
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * JMH benchmarks for the dataflow engine and the core analyses, run over a
+ * fixed corpus of class files (see {@link edu.umd.cs.findbugs.benchmarks.Corpus}).
+ */
+package edu.umd.cs.findbugs.benchmarks;
+
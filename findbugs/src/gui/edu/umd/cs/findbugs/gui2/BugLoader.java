@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URL;
+import java.util.logging.Logger;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -63,6 +64,8 @@ import edu.umd.cs.findbugs.workflow.Update;
  */
 public class BugLoader {
 
+    private static final Logger LOGGER = Logger.getLogger(BugLoader.class.getName());
+
     private static UserPreferences preferencesSingleton = UserPreferences.createDefaultUserPreferences();
 
     /**
@@ -146,6 +149,7 @@ public class BugLoader {
         SortedBugCollection col = new SortedBugCollection(project);
         try {
             col.readXML(source);
+            LOGGER.info(col.getLoadThroughput());
             initiateCommunication(col);
             if (col.hasDeadBugs()) {
                 addDeadBugMatcher(col);
@@ -174,6 +178,7 @@ public class BugLoader {
 
             }
             col.readXML(url);
+            LOGGER.info(col.getLoadThroughput());
             if (MainFrame.GUI2_DEBUG) {
                 System.out.println("finished reading: " + url);
                 JOptionPane.showMessageDialog(mainFrame, "loaded: " + url);
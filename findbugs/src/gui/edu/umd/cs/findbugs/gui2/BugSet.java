@@ -26,8 +26,10 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import edu.umd.cs.findbugs.BugCollection;
 import edu.umd.cs.findbugs.BugInstance;
@@ -66,6 +68,15 @@ public class BugSet implements Iterable<BugLeafNode> {
 
     private HashMap<Sortables, String[]> sortablesToStrings;
 
+    /** Index of each value in the arrays of sortablesToStrings */
+    private HashMap<Sortables, HashMap<String, Integer>> distinctValueIndexes;
+
+    /** The Sortables whose values have all been put in doneMap */
+    private final HashSet<Sortables> groupedSortables = new HashSet<Sortables>();
+
+    /** Index of each bug in mainList, computed on demand */
+    private IdentityHashMap<BugInstance, Integer> indexOfBug;
+
     private static BugSet mainBugSet = null;
 
     /**
@@ -126,6 +137,17 @@ public class BugSet implements Iterable<BugLeafNode> {
         bs.cacheSortables();
     }
 
+    /**
+     * Like {@link #setAsRootAndCache(BugSet)}, but without sorting the
+     * BugSet, for when its order is still right.
+     *
+     * @param bs
+     */
+    static void setAsRoot(BugSet bs) {
+        mainBugSet = bs;
+        bs.cacheSortables();
+    }
+
     static boolean suppress(BugLeafNode p) {
         return !MainFrame.getInstance().shouldDisplayIssue(p.getBug());
     }
@@ -138,6 +160,7 @@ public class BugSet implements Iterable<BugLeafNode> {
      */
     void cacheSortables() {
         sortablesToStrings = new HashMap<Sortables, String[]>();
+        distinctValueIndexes = new HashMap<Sortables, HashMap<String, Integer>>();
     }
 
     String[] getDistinctValues(Sortables key) {
@@ -149,6 +172,27 @@ public class BugSet implements Iterable<BugLeafNode> {
         return list;
     }
 
+    /**
+     * Get the position of a value in {@link #getDistinctValues(Sortables)}.
+     *
+     * @return the index of the value, or -1 if no unsuppressed bug has it
+     */
+    int indexOfDistinctValue(Sortables key, String value) {
+        String[] values = getDistinctValues(key);
+        HashMap<String, Integer> index = distinctValueIndexes.get(key);
+        Integer i = index == null ? null : index.get(value);
+        if (i == null || !values[i].equals(value)) {
+            // Sortables.getAllSorted() may have reordered the values
+            index = new HashMap<String, Integer>();
+            for (int j = 0; j < values.length; j++) {
+                index.put(values[j], j);
+            }
+            distinctValueIndexes.put(key, index);
+            i = index.get(value);
+        }
+        return i == null ? -1 : i;
+    }
+
     private static final String[] EMPTY_STRING_ARRAY = new String[0];
 
     String[] computeDistinctValues(Sortables key) {
@@ -216,20 +260,45 @@ public class BugSet implements Iterable<BugLeafNode> {
      * is used again.
      */
     BugSet query(SortableValue keyValuePair) {
-        if (doneMap.containsKey(keyValuePair)) {
-            return doneMap.get(keyValuePair);
+        BugSet result = doneMap.get(keyValuePair);
+        if (result != null) {
+            return result;
         }
-        ArrayList<BugLeafNode> bugs = new ArrayList<BugLeafNode>();
+        if (groupedSortables.add(keyValuePair.key)) {
+            // A tree node queries all the values of its key, one child at a
+            // time, so split the list by all of them in a single pass
+            groupBy(keyValuePair.key);
+            result = doneMap.get(keyValuePair);
+            if (result != null) {
+                return result;
+            }
+        }
+        result = new BugSet(Collections.<BugLeafNode> emptyList());
+        doneMap.put(keyValuePair, result);
+        return result;
+    }
 
+    /**
+     * Put the bugs having each value of the given Sortables in doneMap, in
+     * the order of the list.
+     */
+    private void groupBy(Sortables key) {
+        HashMap<String, ArrayList<BugLeafNode>> groups = new HashMap<String, ArrayList<BugLeafNode>>();
         for (BugLeafNode b : mainList) {
-            if (b.matches(keyValuePair)) {
-                bugs.add(b);
+            String value = key.getFrom(b.getBug());
+            ArrayList<BugLeafNode> group = groups.get(value);
+            if (group == null) {
+                group = new ArrayList<BugLeafNode>();
+                groups.put(value, group);
+            }
+            group.add(b);
+        }
+        for (Map.Entry<String, ArrayList<BugLeafNode>> e : groups.entrySet()) {
+            SortableValue keyValuePair = new SortableValue(key, e.getKey());
+            if (!doneMap.containsKey(keyValuePair)) {
+                doneMap.put(keyValuePair, new BugSet(e.getValue()));
             }
         }
-
-        BugSet temp = new BugSet(bugs);
-        doneMap.put(keyValuePair, temp);
-        return temp;
     }
 
     /*
@@ -294,6 +363,7 @@ public class BugSet implements Iterable<BugLeafNode> {
         ArrayList<BugLeafNode> copy = new ArrayList<BugLeafNode>(mainList);
         Collections.sort(copy, comparator);
         mainList = copy;
+        indexOfBug = null;
 
         if (SystemProperties.ASSERTIONS_ENABLED) {
             for(int i = 0; i < mainList.size(); i++) {
@@ -321,18 +391,12 @@ public class BugSet implements Iterable<BugLeafNode> {
      * @return true if a bug leaf from filterNoCache() matches the pair
      */
     public boolean contains(SortableValue keyValuePair) {
-        if (doneContainsMap.containsKey(keyValuePair)) {
-            return doneContainsMap.get(keyValuePair);
-        }
-
-        for (BugLeafNode p : filteredBugsCached().mainList) {
-            if (p.matches(keyValuePair)) {
-                doneContainsMap.put(keyValuePair, true);
-                return true;
-            }
+        Boolean result = doneContainsMap.get(keyValuePair);
+        if (result == null) {
+            result = filteredBugsCached().query(keyValuePair).sizeUnfiltered() > 0;
+            doneContainsMap.put(keyValuePair, result);
         }
-        doneContainsMap.put(keyValuePair, false);
-        return false;
+        return result;
     }
 
     /**
@@ -352,7 +416,16 @@ public class BugSet implements Iterable<BugLeafNode> {
     }
 
     public int indexOfUnfiltered(BugLeafNode p) {
-        return mainList.indexOf(p);
+        // BugLeafNodes are equal if they have the same BugInstance
+        if (indexOfBug == null) {
+            IdentityHashMap<BugInstance, Integer> index = new IdentityHashMap<BugInstance, Integer>(mainList.size());
+            for (int i = mainList.size() - 1; i >= 0; i--) {
+                index.put(mainList.get(i).getBug(), i);
+            }
+            indexOfBug = index;
+        }
+        Integer i = indexOfBug.get(p.getBug());
+        return i == null ? -1 : i;
     }
 
     public BugLeafNode getUnfiltered(int index) {
@@ -20,9 +20,9 @@
 package edu.umd.cs.findbugs.gui2;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.swing.JTree;
 import javax.swing.SwingUtilities;
@@ -203,7 +203,8 @@ public class BugTreeModel implements TreeModel, TableColumnModelListener, TreeEx
         }
 
         if (queryDepth < treeLevels) {
-            BugAspects child = a.addToNew(enumsThatExist(a).get(index));
+            Sortables key = childKey(a);
+            BugAspects child = a.addToNew(new SortableValue(key, key.getAll(bugSet.query(a))[index]));
             child.setCount(bugSet.query(child).size());
             return child;
         } else {
@@ -233,46 +234,43 @@ public class BugTreeModel implements TreeModel, TableColumnModelListener, TreeEx
         }
 
         if ((a.size() == 0) || (a.last().key != st.getOrderBeforeDivider().get(st.getOrderBeforeDivider().size() - 1))) {
-            return enumsThatExist(a).size();
+            return childValues(a).length;
         } else {
             return bugSet.query(a).size();
         }
     }
 
     /*
-     * This contract has been changed to return a HashList of Stringpair, our
-     * own data structure in which finding the index of an object in the list is
-     * very fast
+     * The children of a branch are the values of the next Sortables which
+     * occur in its bugs. They are kept as the array cached by the BugSet of
+     * the branch, rather than copied into a list for every child looked at,
+     * so that a branch with many children opens in linear time.
      */
 
-    private @Nonnull List<SortableValue> enumsThatExist(BugAspects a) {
+    private @CheckForNull Sortables childKey(BugAspects a) {
         List<Sortables> orderBeforeDivider = st.getOrderBeforeDivider();
         if (orderBeforeDivider.size() == 0) {
-            List<SortableValue> result = Collections.emptyList();
             assert false;
-            return result;
+            return null;
         }
 
-        Sortables key;
         if (a.size() == 0) {
-            key = orderBeforeDivider.get(0);
-        } else {
-            Sortables lastKey = a.last().key;
-            int index = orderBeforeDivider.indexOf(lastKey);
-            if (index + 1 < orderBeforeDivider.size()) {
-                key = orderBeforeDivider.get(index + 1);
-            } else {
-                key = lastKey;
-            }
+            return orderBeforeDivider.get(0);
         }
-
-        String[] all = key.getAll(bugSet.query(a));
-        ArrayList<SortableValue> result = new ArrayList<SortableValue>(all.length);
-        for (String i : all) {
-            result.add(new SortableValue(key, i));
+        Sortables lastKey = a.last().key;
+        int index = orderBeforeDivider.indexOf(lastKey);
+        if (index + 1 < orderBeforeDivider.size()) {
+            return orderBeforeDivider.get(index + 1);
         }
-        return result;
+        return lastKey;
+    }
 
+    private @Nonnull String[] childValues(BugAspects a) {
+        Sortables key = childKey(a);
+        if (key == null) {
+            return new String[0];
+        }
+        return key.getAll(bugSet.query(a));
     }
 
     @Override
@@ -293,8 +291,12 @@ public class BugTreeModel implements TreeModel, TableColumnModelListener, TreeEx
         if (isLeaf(child)) {
             return bugSet.query((BugAspects) parent).indexOf((BugLeafNode) child);
         } else {
-            List<SortableValue> stringPairs = enumsThatExist((BugAspects) parent);
-            return stringPairs.indexOf(((BugAspects) child).last());
+            Sortables key = childKey((BugAspects) parent);
+            SortableValue last = ((BugAspects) child).last();
+            if (key == null || !key.equals(last.key)) {
+                return -1;
+            }
+            return bugSet.query((BugAspects) parent).indexOfDistinctValue(key, last.value);
 
         }
     }
@@ -376,6 +378,7 @@ public class BugTreeModel implements TreeModel, TableColumnModelListener, TreeEx
                     newModel.listeners = listeners;
                     newModel.resetData();
                     newModel.bugSet.sortList();
+                    newModel.computeTopLevel();
                 } finally {
                     rebuildingThread = null;
                     SwingUtilities.invokeLater(new Runnable() {
@@ -396,6 +399,21 @@ public class BugTreeModel implements TreeModel, TableColumnModelListener, TreeEx
 
     }
 
+    /**
+     * Compute the branches at the top of the tree and their counts, which the
+     * new tree shows first, while the model is still private to the
+     * rebuilding thread rather than on the event dispatch thread.
+     */
+    private void computeTopLevel() {
+        if (st.getOrderBeforeDivider().isEmpty()) {
+            return;
+        }
+        int childCount = getChildCount(root);
+        for (int i = 0; i < childCount; i++) {
+            getChild(root, i);
+        }
+    }
+
     public void crawl(final ArrayList<BugAspects> path, final int depth) {
         for (int i = 0; i < getChildCount(path.get(path.size() - 1)); i++) {
             if (depth > 0) {
@@ -478,7 +496,10 @@ public class BugTreeModel implements TreeModel, TableColumnModelListener, TreeEx
                 System.out.println("clearing cache in bug tree model");
             }
             resetData();
-            BugSet.setAsRootAndCache(bugSet);// FIXME: Should this be in
+            // Filtering doesn't change the order of the bugs, and the
+            // rebuilding thread sorts them again anyway, so don't sort them
+            // on the event dispatch thread here
+            BugSet.setAsRoot(bugSet);// FIXME: Should this be in
             // resetData? Does this allow our
             // main list to not be the same as
             // the data in our tree?
@@ -295,7 +295,7 @@ public abstract class AbstractBugReporter implements BugReporter {
     /**
      * @param message
      */
-    private void logMissingClass(String message) {
+    private synchronized void logMissingClass(String message) {
         if (!isValidMissingClassMessage(message)) {
             return;
         }
@@ -313,7 +313,7 @@ public abstract class AbstractBugReporter implements BugReporter {
     }
 
     @Override
-    public void logError(String message) {
+    public synchronized void logError(String message) {
         if (verbosityLevel == SILENT) {
             return;
         }
@@ -339,7 +339,7 @@ public abstract class AbstractBugReporter implements BugReporter {
     }
 
     @Override
-    public void logError(String message, Throwable e) {
+    public synchronized void logError(String message, Throwable e) {
 
         if (e instanceof MethodUnprofitableException) {
             // TODO: log this
@@ -372,7 +372,7 @@ public abstract class AbstractBugReporter implements BugReporter {
     }
 
     @Override
-    public void reportQueuedErrors() {
+    public synchronized void reportQueuedErrors() {
         // Report unique errors in order of their sequence
         Error[] errorList = errorSet.toArray(new Error[errorSet.size()]);
         Arrays.sort(errorList, new Comparator<Error>() {
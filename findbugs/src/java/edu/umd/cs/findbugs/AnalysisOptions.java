@@ -76,6 +76,25 @@ public class AnalysisOptions {
      */
     public boolean noClassOk;
 
+    /**
+     * Number of threads used to run class-local detectors; 1 means
+     * the analysis is done entirely on the calling thread.
+     */
+    public int numAnalysisThreads = 1;
+
+    /**
+     * Directory of the incremental analysis cache, or null if results of
+     * earlier analyses are not reused.
+     */
+    public String incrementalCacheDirectory;
+
+    /**
+     * File to which per-detector CPU time and allocation metrics are
+     * written (as CSV if it ends with ".csv", as JSON otherwise), or null if
+     * they are not collected.
+     */
+    public String detectorMetricsFile;
+
     String releaseName;
 
     String projectName;
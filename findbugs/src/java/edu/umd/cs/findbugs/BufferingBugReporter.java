@@ -0,0 +1,176 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import edu.umd.cs.findbugs.ba.MethodUnprofitableException;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.MethodDescriptor;
+
+/**
+ * A BugReporter which records reported bugs and errors instead of passing
+ * them on, so that they can be replayed to the real BugReporter later. Used by
+ * the analysis threads of a parallel analysis to make the order in which
+ * results reach the real BugReporter independent of thread scheduling. All
+ * other methods are delegated.
+ *
+ * @see FindBugs2
+ */
+class BufferingBugReporter extends DelegatingBugReporter {
+
+    interface Event {
+        void replay(BugReporter target);
+    }
+
+    private static class BugEvent implements Event {
+        final BugInstance bugInstance;
+
+        BugEvent(BugInstance bugInstance) {
+            this.bugInstance = bugInstance;
+        }
+
+        @Override
+        public void replay(BugReporter target) {
+            target.reportBug(bugInstance);
+        }
+    }
+
+    private List<Event> events = new ArrayList<Event>();
+
+    /**
+     * Constructor.
+     *
+     * @param delegate
+     *            the BugReporter that buffered events are eventually replayed
+     *            to, and to which all other methods are delegated
+     */
+    BufferingBugReporter(BugReporter delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Get the events recorded since the last call, and start a new buffer.
+     *
+     * @return the recorded events; pass them to
+     *         {@link #replay(List, BugReporter)} to report them
+     */
+    List<Event> drain() {
+        List<Event> result = events;
+        events = new ArrayList<Event>();
+        return result;
+    }
+
+    /**
+     * Replay events obtained from {@link #drain()} to a BugReporter, in the
+     * order they were recorded.
+     *
+     * @param drained
+     *            events returned by drain()
+     * @param target
+     *            the BugReporter to report the events to
+     */
+    static void replay(List<Event> drained, BugReporter target) {
+        for (Event e : drained) {
+            e.replay(target);
+        }
+    }
+
+    /**
+     * Get the bugs among events obtained from {@link #drain()}.
+     *
+     * @param drained
+     *            events returned by drain()
+     * @return the reported bugs, in the order they were reported, or null if
+     *         any of the events is not a reported bug
+     */
+    static @CheckForNull List<BugInstance> getBugs(List<Event> drained) {
+        List<BugInstance> result = new ArrayList<BugInstance>(drained.size());
+        for (Event e : drained) {
+            if (!(e instanceof BugEvent)) {
+                return null;
+            }
+            result.add(((BugEvent) e).bugInstance);
+        }
+        return result;
+    }
+
+    @Override
+    public void reportBug(@Nonnull BugInstance bugInstance) {
+        events.add(new BugEvent(bugInstance));
+    }
+
+    @Override
+    public void logError(final String message) {
+        events.add(new Event() {
+            @Override
+            public void replay(BugReporter target) {
+                target.logError(message);
+            }
+        });
+    }
+
+    @Override
+    public void logError(final String message, final Throwable e) {
+        if (e instanceof MethodUnprofitableException) {
+            return;
+        }
+        events.add(new Event() {
+            @Override
+            public void replay(BugReporter target) {
+                target.logError(message, e);
+            }
+        });
+    }
+
+    @Override
+    public void reportMissingClass(final ClassNotFoundException ex) {
+        events.add(new Event() {
+            @Override
+            public void replay(BugReporter target) {
+                target.reportMissingClass(ex);
+            }
+        });
+    }
+
+    @Override
+    public void reportMissingClass(final ClassDescriptor classDescriptor) {
+        events.add(new Event() {
+            @Override
+            public void replay(BugReporter target) {
+                target.reportMissingClass(classDescriptor);
+            }
+        });
+    }
+
+    @Override
+    public void reportSkippedAnalysis(final MethodDescriptor method) {
+        events.add(new Event() {
+            @Override
+            public void replay(BugReporter target) {
+                target.reportSkippedAnalysis(method);
+            }
+        });
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.util.Util;
+
+/**
+ * A pool of the class, method, field and source line annotations of the bugs
+ * of a collection. Many bugs refer to the same classes, methods and lines, so
+ * the bugs added to a collection share a single instance of each equal
+ * annotation.
+ * <p>
+ * Annotations are only shared once they are in a collection: detectors
+ * modify the annotations of the bugs they are building. Two annotations are
+ * shared only if they are the same in every respect, not just equal, so
+ * sharing them doesn't change what is written or displayed.
+ *
+ * @see SortedBugCollection
+ */
+final class BugAnnotationPool {
+
+    /** Name of the table reported in the interning statistics */
+    static final String STATS_NAME = "BugAnnotation";
+
+    /**
+     * Estimated sizes in bytes of the annotation objects, without the strings
+     * they refer to, which are already shared.
+     */
+    private static final int CLASS_ANNOTATION_SIZE = 32;
+
+    private static final int MEMBER_ANNOTATION_SIZE = 48;
+
+    private static final int SOURCE_LINE_ANNOTATION_SIZE = 48;
+
+    /**
+     * Key comparing annotations in every respect.
+     */
+    private static final class Key {
+        final BugAnnotation annotation;
+
+        final int hashCode;
+
+        Key(BugAnnotation annotation) {
+            this.annotation = annotation;
+            this.hashCode = annotation.hashCode() * 31 + Util.nullSafeHashcode(getDescription(annotation));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            BugAnnotation other = ((Key) o).annotation;
+            return annotation.getClass() == other.getClass() && annotation.equals(other)
+                    && Util.nullSafeEquals(getDescription(annotation), getDescription(other)) && sameDetails(annotation, other);
+        }
+    }
+
+    private final Map<Key, BugAnnotation> pool = new HashMap<Key, BugAnnotation>();
+
+    private long hits;
+
+    private long misses;
+
+    private long savedBytes;
+
+    /**
+     * Get the shared annotation equal to the given one. The source lines of a
+     * class, method or field annotation are shared first.
+     *
+     * @param annotation
+     *            an annotation of a bug being added to the collection
+     * @return the shared annotation, or the given annotation if it is the
+     *         first one of its kind or can't be shared
+     */
+    BugAnnotation intern(BugAnnotation annotation) {
+        Class<?> c = annotation.getClass();
+        if (c == SourceLineAnnotation.class) {
+            return lookup(annotation, SOURCE_LINE_ANNOTATION_SIZE);
+        }
+        if (c != ClassAnnotation.class && c != MethodAnnotation.class && c != FieldAnnotation.class) {
+            return annotation;
+        }
+        BugAnnotationWithSourceLines member = (BugAnnotationWithSourceLines) annotation;
+        if (member.sourceLines != null) {
+            member.sourceLines = (SourceLineAnnotation) lookup(member.sourceLines, SOURCE_LINE_ANNOTATION_SIZE);
+        }
+        return lookup(annotation, c == ClassAnnotation.class ? CLASS_ANNOTATION_SIZE : MEMBER_ANNOTATION_SIZE);
+    }
+
+    private BugAnnotation lookup(BugAnnotation annotation, int size) {
+        Key key = new Key(annotation);
+        BugAnnotation shared = pool.get(key);
+        if (shared == null) {
+            pool.put(key, annotation);
+            misses++;
+            return annotation;
+        }
+        if (shared != annotation) {
+            hits++;
+            savedBytes += size;
+        }
+        return shared;
+    }
+
+    /**
+     * Forget the shared annotations and the statistics.
+     */
+    void clear() {
+        pool.clear();
+        hits = 0;
+        misses = 0;
+        savedBytes = 0;
+    }
+
+    /**
+     * @return the estimated number of bytes saved by sharing annotations
+     */
+    long getSavedBytes() {
+        return savedBytes;
+    }
+
+    /**
+     * Report the number of annotations shared and the memory saved.
+     */
+    void reportInterningStats(InterningStats stats) {
+        stats.setCounts(STATS_NAME, hits, misses);
+        stats.setSavedBytes(STATS_NAME, savedBytes);
+    }
+
+    private static String getDescription(BugAnnotation annotation) {
+        if (annotation instanceof PackageMemberAnnotation) {
+            return ((PackageMemberAnnotation) annotation).description;
+        }
+        return ((SourceLineAnnotation) annotation).getDescription();
+    }
+
+    /**
+     * Compare what equals() doesn't, for two equal annotations of the same
+     * class.
+     */
+    private static boolean sameDetails(BugAnnotation a, BugAnnotation b) {
+        if (a instanceof SourceLineAnnotation) {
+            SourceLineAnnotation x = (SourceLineAnnotation) a;
+            SourceLineAnnotation y = (SourceLineAnnotation) b;
+            return Util.nullSafeEquals(x.getSourceFile(), y.getSourceFile()) && x.getStartLine() == y.getStartLine()
+                    && x.getEndLine() == y.getEndLine() && x.getStartBytecode() == y.getStartBytecode()
+                    && x.getEndBytecode() == y.getEndBytecode() && x.isSynthetic() == y.isSynthetic();
+        }
+        BugAnnotationWithSourceLines x = (BugAnnotationWithSourceLines) a;
+        BugAnnotationWithSourceLines y = (BugAnnotationWithSourceLines) b;
+        // The source lines have been shared already
+        if (x.sourceLines != y.sourceLines || !Util.nullSafeEquals(x.sourceFileName, y.sourceFileName)) {
+            return false;
+        }
+        if (a instanceof MethodAnnotation) {
+            return ((MethodAnnotation) a).isStatic() == ((MethodAnnotation) b).isStatic();
+        }
+        if (a instanceof FieldAnnotation) {
+            return Util.nullSafeEquals(((FieldAnnotation) a).getFieldSourceSignature(),
+                    ((FieldAnnotation) b).getFieldSourceSignature());
+        }
+        return true;
+    }
+}
@@ -136,6 +136,9 @@ public class BugInstance implements Comparable<BugInstance>, XMLWriteable, Seria
 
     private String instanceHash;
 
+    /** The instance key, or null if it has to be computed */
+    private String instanceKey;
+
     private int instanceOccurrenceNum;
 
     private int instanceOccurrenceMax;
@@ -571,8 +574,12 @@ public class BugInstance implements Comparable<BugInstance>, XMLWriteable, Seria
 
 
     public String getInstanceKey() {
-        String newValue = getInstanceKeyNew();
-        return newValue;
+        String key = instanceKey;
+        if (key == null) {
+            key = getInstanceKeyNew();
+            instanceKey = key;
+        }
+        return key;
     }
 
     private String getInstanceKeyNew() {
@@ -2172,6 +2179,7 @@ public class BugInstance implements Comparable<BugInstance>, XMLWriteable, Seria
     @Nonnull
     public BugInstance describe(String description) {
         annotationList.get(annotationList.size() - 1).setDescription(description);
+        instanceKey = null;
         return this;
     }
 
@@ -2357,7 +2365,12 @@ public class BugInstance implements Comparable<BugInstance>, XMLWriteable, Seria
         }
         if (!foundSourceAnnotation && addMessages) {
             SourceLineAnnotation synth = getPrimarySourceLineAnnotation();
-            synth.setSynthetic(true);
+            if (!synth.isSynthetic()) {
+                // Don't modify an annotation which may be shared with other
+                // bugs
+                synth = (SourceLineAnnotation) synth.clone();
+                synth.setSynthetic(true);
+            }
             synth.writeXML(xmlOutput, addMessages, false);
         }
 
@@ -2418,9 +2431,37 @@ public class BugInstance implements Comparable<BugInstance>, XMLWriteable, Seria
         // This object is being modified, so the cached hashcode
         // must be invalidated
         cachedHashCode = INVALID_HASH_CODE;
+        instanceKey = null;
         return this;
     }
 
+    /**
+     * Replace the annotations of this bug with equal shared instances from a
+     * pool. An annotation is kept if its shared instance is already used by
+     * this bug, as the primary annotations are found by identity.
+     *
+     * @param pool
+     *            the pool of shared annotations
+     */
+    void internAnnotations(BugAnnotationPool pool) {
+        for (int i = 0; i < annotationList.size(); i++) {
+            BugAnnotation annotation = annotationList.get(i);
+            BugAnnotation shared = pool.intern(annotation);
+            if (shared != annotation && !containsIdentical(shared)) {
+                annotationList.set(i, shared);
+            }
+        }
+    }
+
+    private boolean containsIdentical(BugAnnotation annotation) {
+        for (BugAnnotation a : annotationList) {
+            if (a == annotation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public BugInstance addSomeSourceForTopTwoStackValues(ClassContext classContext, Method method, Location location) {
         int pc = location.getHandle().getPosition();
         try {
@@ -0,0 +1,47 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2026, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+/**
+ * A Detector which only looks at one class at a time, so separate instances
+ * of it may analyze different classes concurrently.
+ *
+ * A detector is class-local if:
+ * <ul>
+ * <li>It reports warnings, and isn't a FirstPassDetector or TrainingDetector,
+ * <li>It doesn't populate databases used by other detectors, and
+ * <li>It doesn't keep information from one class to the next; in particular,
+ * it reports nothing from report() or finishPass(), and
+ * <li>The shared databases it reads, and caches behind them, are safe to use
+ * from several threads (see for example AnnotationDatabase and
+ * InnerClassAccessMap)
+ * </ul>
+ * <p>
+ * The detectors of a pass which aren't class-local are applied to all
+ * classes before the class-local ones. A class-local detector may therefore
+ * only read what detectors of the same pass record if an intra-pass ordering
+ * constraint puts them before it; such a detector is then run serially, in
+ * its place in the pass.
+ *
+ * @see DetectorFactory#isClassLocal()
+ */
+public interface ClassLocalDetector {
+
+}
@@ -19,9 +19,17 @@
 
 package edu.umd.cs.findbugs;
 
-import java.util.LinkedList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
 
 /**
  * Class to pre-screen class files, so that only a subset are analyzed. This
@@ -33,6 +41,14 @@ import java.util.regex.Pattern;
  * FooBar and Foo$Bar no longer match Bar d) addAllowedPackage() can now handle
  * unicode chars in filenames, though we still may not be handling every case
  * mentioned in section 7.2.1 of the JLS
+ * <p>
+ * The allowed classes, packages and prefixes used to be regular expressions
+ * tried one after the other. They are now kept in tries of name segments (the
+ * parts of a name between dots, or between directory separators in a file
+ * name), so the time taken to match a file name doesn't grow with the number
+ * of classes and packages allowed. A class or package matches the last
+ * segments of the file name, and a prefix matches segments anywhere in the
+ * file name's directory, as the regular expressions did.
  *
  * @see FindBugs
  * @author David Hovemeyer
@@ -40,25 +56,45 @@ import java.util.regex.Pattern;
 public class ClassScreener implements IClassScreener {
     private static final boolean DEBUG = SystemProperties.getBoolean("findbugs.classscreener.debug");
 
+    private static final String CLASS_SUFFIX = ".class";
+
     /**
-     * regular expression fragment to match a directory separator. note: could
-     * use File.separatorChar instead, but that could be argued to be not
-     * general enough
+     * A node of a trie of name segments.
      */
-    private static final String SEP = "[/\\\\]"; // could include ':' for
-    // classic macOS
+    private static class Node {
+        @CheckForNull
+        Map<String, Node> children;
 
-    private static final String START = "(?:^|" + SEP + ")"; // (?:) is a
-    // non-capturing
-    // group
+        /** Whether the segments leading to this node are an allowed name */
+        boolean allowed;
 
-    /**
-     * regular expression fragment to match a char of a class or package name.
-     * Actually, we just allow any char except a dot or a directory separator.
-     */
-    private static final String JAVA_IDENTIFIER_PART = "[^./\\\\]";
+        Node getChild(String segment) {
+            return children == null ? null : children.get(segment);
+        }
+
+        Node addChild(String segment) {
+            if (children == null) {
+                children = new HashMap<String, Node>();
+            }
+            Node child = children.get(segment);
+            if (child == null) {
+                child = new Node();
+                children.put(segment, child);
+            }
+            return child;
+        }
+    }
+
+    /** Allowed classes, by the segments of their names from last to first */
+    private final Node classTrie = new Node();
+
+    /** Allowed packages, by the segments of their names from last to first */
+    private final Node packageTrie = new Node();
 
-    private final LinkedList<Matcher> patternList;
+    /** Allowed prefixes, by the segments of their names from first to last */
+    private final Node prefixTrie = new Node();
+
+    private boolean vacuous = true;
 
     /**
      * Constructor. By default, the ClassScreener will match <em>all</em> class
@@ -67,31 +103,39 @@ public class ClassScreener implements IClassScreener {
      * packages.
      */
     public ClassScreener() {
-        this.patternList = new LinkedList<Matcher>();
     }
 
     /**
-     * replace the dots in a fully-qualified class/package name to a regular
-     * expression fragment that will match file names.
+     * Split a fully-qualified class/package name, or a file name, into its
+     * segments. Empty segments are kept, as they were matched by the regular
+     * expressions.
      *
-     * @param dotsName
-     *            such as "java.io" or "java.io.File"
-     * @return regex fragment such as "java[/\\\\]io" (single backslash escaped
-     *         twice)
+     * @param name
+     *            such as "java.io" or "java/io/File.class"
+     * @param dotSeparates
+     *            true to split at dots, false to split at directory
+     *            separators
      */
-    private static String dotsToRegex(String dotsName) {
-        /*
-         * oops, next line requires JDK 1.5 return dotsName.replace("$",
-         * "\\$").replace(".", SEP); could use String.replaceAll(regex, repl)
-         * but that can be problematic--javadoc says "Note that backslashes (\)
-         * and dollar signs ($) in the replacement string may cause the results
-         * to be different than if it were being treated as a literal
-         * replacement"
-         */
-        String tmp = dotsName.replace("$", "\\$");
-        return tmp.replace(".", SEP);
-        // note: The original code used the \Q and \E regex quoting constructs
-        // to escape $.
+    private static List<String> split(String name, boolean dotSeparates) {
+        List<String> segments = new ArrayList<String>();
+        int start = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (dotSeparates ? c == '.' : (c == '/' || c == '\\')) {
+                segments.add(name.substring(start, i));
+                start = i + 1;
+            }
+        }
+        segments.add(name.substring(start));
+        return segments;
+    }
+
+    private static void addReversed(Node trie, List<String> segments) {
+        Node node = trie;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            node = node.addChild(segments.get(i));
+        }
+        node.allowed = true;
     }
 
     /**
@@ -101,11 +145,11 @@ public class ClassScreener implements IClassScreener {
      *            name of a class to be matched
      */
     public void addAllowedClass(String className) {
-        String classRegex = START + dotsToRegex(className) + ".class$";
         if (DEBUG) {
-            System.out.println("Class regex: " + classRegex);
+            System.out.println("Allowed class: " + className);
         }
-        patternList.add(Pattern.compile(classRegex).matcher(""));
+        addReversed(classTrie, split(className, true));
+        vacuous = false;
     }
 
     /**
@@ -119,12 +163,11 @@ public class ClassScreener implements IClassScreener {
         if (packageName.endsWith(".")) {
             packageName = packageName.substring(0, packageName.length() - 1);
         }
-
-        String packageRegex = START + dotsToRegex(packageName) + SEP + JAVA_IDENTIFIER_PART + "+.class$";
         if (DEBUG) {
-            System.out.println("Package regex: " + packageRegex);
+            System.out.println("Allowed package: " + packageName);
         }
-        patternList.add(Pattern.compile(packageRegex).matcher(""));
+        addReversed(packageTrie, split(packageName, true));
+        vacuous = false;
     }
 
     /**
@@ -142,11 +185,12 @@ public class ClassScreener implements IClassScreener {
         if (DEBUG) {
             System.out.println("Allowed prefix: " + prefix);
         }
-        String packageRegex = START + dotsToRegex(prefix) + SEP;
-        if (DEBUG) {
-            System.out.println("Prefix regex: " + packageRegex);
+        Node node = prefixTrie;
+        for (String segment : split(prefix, true)) {
+            node = node.addChild(segment);
         }
-        patternList.add(Pattern.compile(packageRegex).matcher(""));
+        node.allowed = true;
+        vacuous = false;
     }
 
     /*
@@ -158,28 +202,109 @@ public class ClassScreener implements IClassScreener {
     public boolean matches(String fileName) {
         // Special case: if no classes or packages have been defined,
         // then the screener matches all class files.
-        if (patternList.isEmpty()) {
+        if (vacuous) {
             return true;
         }
 
+        List<String> segments = split(fileName, false);
+        boolean result = matchesPrefix(segments) || matchesClassOrPackage(segments);
         if (DEBUG) {
-            System.out.println("Matching: " + fileName);
+            System.out.println("Matching: " + fileName + ": " + (result ? "yes!" : "no"));
         }
+        return result;
+    }
 
-        // Scan through list of regexes
-        for (Matcher matcher : patternList) {
-            if (DEBUG) {
-                System.out.print("\tTrying [" + matcher.pattern());
+    /**
+     * Screen a batch of classes. This gives the same result as calling
+     * {@link #matches(String)} with the resource name of each class, but
+     * matches the prefixes only once for all the classes of a package.
+     *
+     * @param classes
+     *            the classes to screen
+     * @return the classes which match
+     */
+    public Set<ClassDescriptor> getMatchingClasses(Collection<? extends ClassDescriptor> classes) {
+        Set<ClassDescriptor> result = new HashSet<ClassDescriptor>();
+        if (vacuous) {
+            result.addAll(classes);
+            return result;
+        }
+        Map<String, Boolean> prefixMatchByPackage = new HashMap<String, Boolean>();
+        for (ClassDescriptor classDescriptor : classes) {
+            String resourceName = classDescriptor.toResourceName();
+            List<String> segments = split(resourceName, false);
+            String packageName = resourceName.substring(0, resourceName.length() - segments.get(segments.size() - 1).length());
+            Boolean prefixMatch = prefixMatchByPackage.get(packageName);
+            if (prefixMatch == null) {
+                prefixMatch = matchesPrefix(segments);
+                prefixMatchByPackage.put(packageName, prefixMatch);
             }
-            matcher.reset(fileName);
-            if (matcher.find()) {
-                if (DEBUG) {
-                    System.out.println("]: yes!");
+            if (prefixMatch || matchesClassOrPackage(segments)) {
+                result.add(classDescriptor);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Does an allowed prefix match segments of the directory of a file? The
+     * prefix may start anywhere, but must be followed by a separator.
+     */
+    private boolean matchesPrefix(List<String> segments) {
+        if (prefixTrie.children == null) {
+            return false;
+        }
+        int directorySegments = segments.size() - 1;
+        for (int start = 0; start < directorySegments; start++) {
+            Node node = prefixTrie;
+            for (int i = start; i < directorySegments; i++) {
+                node = node.getChild(segments.get(i));
+                if (node == null) {
+                    break;
                 }
-                return true;
+                if (node.allowed) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does an allowed class match the last segments of a class file name, or
+     * an allowed package the segments of its directory?
+     */
+    private boolean matchesClassOrPackage(List<String> segments) {
+        String fileName = segments.get(segments.size() - 1);
+        if (!fileName.endsWith(CLASS_SUFFIX)) {
+            return false;
+        }
+        String simpleName = fileName.substring(0, fileName.length() - CLASS_SUFFIX.length());
+        Node node = classTrie.getChild(simpleName);
+        if (node != null && (node.allowed || matchesReversed(node, segments, segments.size() - 2))) {
+            return true;
+        }
+        // A package matches the classes directly in it, which have a simple
+        // name without dots
+        return simpleName.length() > 0 && simpleName.indexOf('.') < 0
+                && matchesReversed(packageTrie, segments, segments.size() - 2);
+    }
+
+    /**
+     * Walk down a trie of reversed names with the segments of a file name,
+     * from the given one back to the first.
+     *
+     * @return true if an allowed name is found
+     */
+    private static boolean matchesReversed(Node trie, List<String> segments, int from) {
+        Node node = trie;
+        for (int i = from; i >= 0; i--) {
+            node = node.getChild(segments.get(i));
+            if (node == null) {
+                return false;
             }
-            if (DEBUG) {
-                System.out.println("]: no");
+            if (node.allowed) {
+                return true;
             }
         }
         return false;
@@ -192,7 +317,6 @@ public class ClassScreener implements IClassScreener {
      */
     @Override
     public boolean vacuous() {
-        return patternList.isEmpty();
+        return vacuous;
     }
 }
-
@@ -233,6 +233,18 @@ public class DetectorFactory {
     }
 
 
+    /**
+     * Return whether or not the detectors produced by this factory only look
+     * at one class at a time, so that separate instances of them may analyze
+     * different classes concurrently.
+     *
+     * @return true if the created detectors are class-local, false if not
+     * @see ClassLocalDetector
+     */
+    public boolean isClassLocal() {
+        return isDetectorClassSubtypeOf(ClassLocalDetector.class);
+    }
+
     /**
      * Check to see if we are running on a recent-enough JRE for this detector
      * to be enabled.
@@ -51,23 +51,23 @@ public class ErrorCountingBugReporter extends DelegatingBugReporter {
         return bugCount;
     }
 
-    public int getMissingClassCount() {
+    public synchronized int getMissingClassCount() {
         return missingClassSet.size();
     }
 
-    public int getErrorCount() {
+    public synchronized int getErrorCount() {
         return errors.size();
     }
 
     @Override
-    public void logError(String message) {
+    public synchronized void logError(String message) {
         if (errors.add(message)) {
             super.logError(message);
         }
     }
 
     @Override
-    public void reportMissingClass(ClassNotFoundException ex) {
+    public synchronized void reportMissingClass(ClassNotFoundException ex) {
         String missing = AbstractBugReporter.getMissingClassName(ex);
         if (missing == null || missing.startsWith("[") || "java.lang.Synthetic".equals(missing)) {
             return;
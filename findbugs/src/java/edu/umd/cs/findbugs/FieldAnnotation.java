@@ -21,6 +21,8 @@ package edu.umd.cs.findbugs;
 
 import java.io.IOException;
 
+import javax.annotation.CheckForNull;
+
 import org.apache.bcel.Constants;
 import org.apache.bcel.classfile.Field;
 import org.apache.bcel.classfile.JavaClass;
@@ -219,6 +221,14 @@ public class FieldAnnotation extends PackageMemberAnnotation {
         return isStatic;
     }
 
+    /**
+     * Get the generic type signature of the field, if known.
+     */
+    @CheckForNull
+    String getFieldSourceSignature() {
+        return fieldSourceSig;
+    }
+
     /**
      * Is the given instruction a read of a field?
      *
@@ -19,11 +19,13 @@
 
 package edu.umd.cs.findbugs;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -32,6 +34,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -63,11 +73,14 @@ import edu.umd.cs.findbugs.classfile.IClassPathBuilder;
 import edu.umd.cs.findbugs.classfile.ICodeBase;
 import edu.umd.cs.findbugs.classfile.ICodeBaseEntry;
 import edu.umd.cs.findbugs.classfile.MissingClassException;
+import edu.umd.cs.findbugs.classfile.impl.AnalysisCache;
 import edu.umd.cs.findbugs.classfile.impl.ClassFactory;
+import edu.umd.cs.findbugs.classfile.impl.WorkerAnalysisCache;
 import edu.umd.cs.findbugs.config.AnalysisFeatureSetting;
 import edu.umd.cs.findbugs.config.UserPreferences;
 import edu.umd.cs.findbugs.detect.NoteSuppressedWarnings;
 import edu.umd.cs.findbugs.filter.FilterException;
+import edu.umd.cs.findbugs.log.DetectorMetrics;
 import edu.umd.cs.findbugs.log.Profiler;
 import edu.umd.cs.findbugs.log.YourKitController;
 import edu.umd.cs.findbugs.plan.AnalysisPass;
@@ -93,6 +106,9 @@ public class FindBugs2 implements IFindBugsEngine {
 
     private static final boolean SCREEN_FIRST_PASS_CLASSES = SystemProperties.getBoolean("findbugs.screenFirstPass");
 
+    /** Number of slowest (detector, class) pairs in the detector metrics */
+    private static final int DETECTOR_METRICS_SLOWEST = SystemProperties.getInt("findbugs.detectorMetrics.slowest", 50);
+
     public static final String PROP_FINDBUGS_HOST_APP = "findbugs.hostApp";
     public static final String PROP_FINDBUGS_HOST_APP_VERSION = "findbugs.hostAppVersion";
 
@@ -128,6 +144,8 @@ public class FindBugs2 implements IFindBugsEngine {
 
     private final AnalysisOptions analysisOptions = new AnalysisOptions(true);
 
+    private IncrementalAnalysisCache incrementalAnalysisCache;
+
     /**
      * Constructor.
      */
@@ -575,6 +593,29 @@ public class FindBugs2 implements IFindBugsEngine {
         this.analysisOptions.noClassOk = noClassOk;
     }
 
+    @Override
+    public void setNumAnalysisThreads(int numAnalysisThreads) {
+        this.analysisOptions.numAnalysisThreads = Math.max(1, numAnalysisThreads);
+    }
+
+    @Override
+    public void setIncrementalCacheDirectory(String incrementalCacheDirectory) {
+        this.analysisOptions.incrementalCacheDirectory = incrementalCacheDirectory;
+    }
+
+    /**
+     * @return the incremental analysis cache used by the last analysis, or
+     *         null if none was used
+     */
+    public @CheckForNull IncrementalAnalysisCache getIncrementalAnalysisCache() {
+        return incrementalAnalysisCache;
+    }
+
+    @Override
+    public void setDetectorMetricsFile(String detectorMetricsFile) {
+        this.analysisOptions.detectorMetricsFile = detectorMetricsFile;
+    }
+
     /**
      * Create the analysis cache object and register it for current execution thread.
      * <p>
@@ -673,6 +714,7 @@ public class FindBugs2 implements IFindBugsEngine {
         }
 
         builder.scanNestedArchives(analysisOptions.scanNestedArchives);
+        builder.setNumThreads(analysisOptions.numAnalysisThreads);
 
         builder.build(classPath, progress);
 
@@ -721,19 +763,107 @@ public class FindBugs2 implements IFindBugsEngine {
         int count = 0;
         Set<ClassDescriptor> addedToWorkList = new HashSet<ClassDescriptor>(appClassList);
 
-        // add fields
-        //noinspection ConstantIfStatement
-        /*
-        if (false)
-            for (ClassDescriptor classDesc : appClassList) {
+        // With multiple threads, the classes on the worklist are parsed in
+        // parallel ahead of the loop below, which then finds them in the
+        // analysis cache. Errors are cached too, so they are reported by the
+        // loop, in the same order as without threads.
+        ExecutorService executor = null;
+        Set<ClassDescriptor> parsedAhead = null;
+        if (analysisOptions.numAnalysisThreads > 1 && Global.getAnalysisCache() instanceof AnalysisCache) {
+            executor = Executors.newFixedThreadPool(analysisOptions.numAnalysisThreads, new ThreadFactory() {
+                int count;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "FindBugs class scanning thread " + (++count));
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            parsedAhead = new HashSet<ClassDescriptor>();
+        }
+        try {
+
+            // add fields
+            //noinspection ConstantIfStatement
+            /*
+            if (false)
+                for (ClassDescriptor classDesc : appClassList) {
+                    try {
+                        XClass classNameAndInfo = Global.getAnalysisCache().getClassAnalysis(XClass.class, classDesc);
+                        for (XField f : classNameAndInfo.getXFields()) {
+                            String sig = f.getSignature();
+                            ClassDescriptor d = DescriptorFactory.createClassDescriptorFromFieldSignature(sig);
+                            if (d != null && addedToWorkList.add(d))
+                                workList.addLast(d);
+                        }
+                    } catch (RuntimeException e) {
+                        bugReporter.logError("Error scanning " + classDesc + " for referenced classes", e);
+                        if (appClassSet.contains(classDesc)) {
+                            badAppClassSet.add(classDesc);
+                        }
+                    } catch (MissingClassException e) {
+                        // Just log it as a missing class
+                        bugReporter.reportMissingClass(e.getClassDescriptor());
+                        if (appClassSet.contains(classDesc)) {
+                            badAppClassSet.add(classDesc);
+                        }
+                    }
+                }
+             */
+            while (!workList.isEmpty()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                ClassDescriptor classDesc = workList.removeFirst();
+
+                if (seen.contains(classDesc)) {
+                    continue;
+                }
+                seen.add(classDesc);
+
+                if (executor != null && !parsedAhead.contains(classDesc)) {
+                    List<ClassDescriptor> batch = new ArrayList<ClassDescriptor>(workList.size() + 1);
+                    batch.add(classDesc);
+                    for (ClassDescriptor d : workList) {
+                        if (!seen.contains(d)) {
+                            batch.add(d);
+                        }
+                    }
+                    parseClassesAhead(executor, batch);
+                    parsedAhead.addAll(batch);
+                }
+
+                if (!knownDescriptors.contains(classDesc)) {
+                    count++;
+                    if (PROGRESS && count % 5000 == 0) {
+                        System.out.println("Adding referenced class " + classDesc);
+                    }
+                }
+
+                referencedPackageSet.add(classDesc.getPackageName());
+
+                // Get list of referenced classes and add them to set.
+                // Add superclasses and superinterfaces to worklist.
                 try {
                     XClass classNameAndInfo = Global.getAnalysisCache().getClassAnalysis(XClass.class, classDesc);
-                    for (XField f : classNameAndInfo.getXFields()) {
-                        String sig = f.getSignature();
-                        ClassDescriptor d = DescriptorFactory.createClassDescriptorFromFieldSignature(sig);
-                        if (d != null && addedToWorkList.add(d))
-                            workList.addLast(d);
+
+                    ClassDescriptor superclassDescriptor = classNameAndInfo.getSuperclassDescriptor();
+                    if (superclassDescriptor != null && addedToWorkList.add(superclassDescriptor)) {
+                        workList.addLast(superclassDescriptor);
+                    }
+
+                    for (ClassDescriptor ifaceDesc : classNameAndInfo.getInterfaceDescriptorList()) {
+                        if (addedToWorkList.add(ifaceDesc)) {
+                            workList.addLast(ifaceDesc);
+                        }
                     }
+
+                    ClassDescriptor enclosingClass = classNameAndInfo.getImmediateEnclosingClass();
+                    if (enclosingClass != null && addedToWorkList.add(enclosingClass)) {
+                        workList.addLast(enclosingClass);
+                    }
+
                 } catch (RuntimeException e) {
                     bugReporter.logError("Error scanning " + classDesc + " for referenced classes", e);
                     if (appClassSet.contains(classDesc)) {
@@ -745,68 +875,18 @@ public class FindBugs2 implements IFindBugsEngine {
                     if (appClassSet.contains(classDesc)) {
                         badAppClassSet.add(classDesc);
                     }
-                }
-            }
-         */
-        while (!workList.isEmpty()) {
-            if (Thread.interrupted()) {
-                throw new InterruptedException();
-            }
-            ClassDescriptor classDesc = workList.removeFirst();
-
-            if (seen.contains(classDesc)) {
-                continue;
-            }
-            seen.add(classDesc);
-
-            if (!knownDescriptors.contains(classDesc)) {
-                count++;
-                if (PROGRESS && count % 5000 == 0) {
-                    System.out.println("Adding referenced class " + classDesc);
-                }
-            }
-
-            referencedPackageSet.add(classDesc.getPackageName());
-
-            // Get list of referenced classes and add them to set.
-            // Add superclasses and superinterfaces to worklist.
-            try {
-                XClass classNameAndInfo = Global.getAnalysisCache().getClassAnalysis(XClass.class, classDesc);
-
-                ClassDescriptor superclassDescriptor = classNameAndInfo.getSuperclassDescriptor();
-                if (superclassDescriptor != null && addedToWorkList.add(superclassDescriptor)) {
-                    workList.addLast(superclassDescriptor);
-                }
-
-                for (ClassDescriptor ifaceDesc : classNameAndInfo.getInterfaceDescriptorList()) {
-                    if (addedToWorkList.add(ifaceDesc)) {
-                        workList.addLast(ifaceDesc);
+                } catch (CheckedAnalysisException e) {
+                    // Failed to scan a referenced class --- just log the error and
+                    // continue
+                    bugReporter.logError("Error scanning " + classDesc + " for referenced classes", e);
+                    if (appClassSet.contains(classDesc)) {
+                        badAppClassSet.add(classDesc);
                     }
                 }
-
-                ClassDescriptor enclosingClass = classNameAndInfo.getImmediateEnclosingClass();
-                if (enclosingClass != null && addedToWorkList.add(enclosingClass)) {
-                    workList.addLast(enclosingClass);
-                }
-
-            } catch (RuntimeException e) {
-                bugReporter.logError("Error scanning " + classDesc + " for referenced classes", e);
-                if (appClassSet.contains(classDesc)) {
-                    badAppClassSet.add(classDesc);
-                }
-            } catch (MissingClassException e) {
-                // Just log it as a missing class
-                bugReporter.reportMissingClass(e.getClassDescriptor());
-                if (appClassSet.contains(classDesc)) {
-                    badAppClassSet.add(classDesc);
-                }
-            } catch (CheckedAnalysisException e) {
-                // Failed to scan a referenced class --- just log the error and
-                // continue
-                bugReporter.logError("Error scanning " + classDesc + " for referenced classes", e);
-                if (appClassSet.contains(classDesc)) {
-                    badAppClassSet.add(classDesc);
-                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
             }
         }
         // Delete any application classes that could not be read
@@ -830,6 +910,41 @@ public class FindBugs2 implements IFindBugsEngine {
         }
     }
 
+    /**
+     * Compute the XClass analyses of the given classes in parallel, and wait
+     * until all of them are in the analysis cache.
+     *
+     * @param executor
+     *            the executor to run the analyses
+     * @param classList
+     *            the classes
+     */
+    private static void parseClassesAhead(ExecutorService executor, List<ClassDescriptor> classList) throws InterruptedException {
+        final IAnalysisCache analysisCache = Global.getAnalysisCache();
+        List<Future<?>> resultList = new ArrayList<Future<?>>(classList.size());
+        for (final ClassDescriptor classDesc : classList) {
+            resultList.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        analysisCache.getClassAnalysis(XClass.class, classDesc);
+                    } catch (RuntimeException e) {
+                        // cached; reported when the class is scanned
+                    } catch (CheckedAnalysisException e) {
+                        // cached; reported when the class is scanned
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : resultList) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                // Only an Error can get here; scanning the class will show it
+            }
+        }
+    }
+
     public List<ClassDescriptor> sortByCallGraph(Collection<ClassDescriptor> classList, OutEdges<ClassDescriptor> outEdges) {
         List<ClassDescriptor> evaluationOrder = edu.umd.cs.findbugs.util.TopologicalSort.sortByCallGraph(classList, outEdges);
         edu.umd.cs.findbugs.util.TopologicalSort.countBadEdges(evaluationOrder, outEdges);
@@ -942,6 +1057,55 @@ public class FindBugs2 implements IFindBugsEngine {
         }
     }
 
+    /**
+     * Screen the referenced and application classes once, rather than each
+     * class in every pass.
+     *
+     * @return the classes matched by the class screener, or null if it
+     *         matches every class
+     */
+    private @CheckForNull Set<ClassDescriptor> screenClasses() {
+        if (classScreener.vacuous()) {
+            return null;
+        }
+        Set<ClassDescriptor> classes = new LinkedHashSet<ClassDescriptor>(referencedClassSet);
+        classes.addAll(appClassList);
+        if (classScreener instanceof ClassScreener) {
+            return ((ClassScreener) classScreener).getMatchingClasses(classes);
+        }
+        Set<ClassDescriptor> result = new HashSet<ClassDescriptor>();
+        for (ClassDescriptor classDescriptor : classes) {
+            if (classScreener.matches(classDescriptor.toResourceName())) {
+                result.add(classDescriptor);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isScreenedOut(@CheckForNull Set<ClassDescriptor> matchingClasses, ClassDescriptor classDescriptor) {
+        return matchingClasses != null && !matchingClasses.contains(classDescriptor);
+    }
+
+    /**
+     * Check whether an intra-pass ordering constraint requires a detector to
+     * be applied to each class after one of the given detectors. The serial
+     * detectors run over all classes before the class-local detectors, so a
+     * class-local detector constrained to follow a serial one would see what
+     * the serial detector recorded about later classes, too. Such a detector
+     * is run serially instead.
+     */
+    private static boolean followsAny(AnalysisPass pass, DetectorFactory factory, Set<DetectorFactory> serialFactories) {
+        for (DetectorFactory predecessor : pass.getPredecessors(factory)) {
+            if (serialFactories.contains(predecessor)) {
+                if (DEBUG) {
+                    System.out.println(factory.getShortName() + " runs serially after " + predecessor.getShortName());
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Analyze the classes in the application codebase.
      */
@@ -950,6 +1114,7 @@ public class FindBugs2 implements IFindBugsEngine {
         Profiler profiler = bugReporter.getProjectStats().getProfiler();
         profiler.start(this.getClass());
         AnalysisContext.currentXFactory().canonicalizeAll();
+        DetectorMetrics detectorMetrics = null;
         try {
             boolean multiplePasses = executionPlan.getNumPasses() > 1;
             if (executionPlan.getNumPasses() == 0) {
@@ -979,6 +1144,23 @@ public class FindBugs2 implements IFindBugsEngine {
                 referencedClassSet = new LinkedHashSet<ClassDescriptor>(referencedClassSet);
                 referencedClassSet.removeAll(badClasses);
             }
+            Set<ClassDescriptor> matchingClasses = screenClasses();
+
+            IncrementalAnalysisCache incrementalCache = null;
+            if (analysisOptions.incrementalCacheDirectory != null) {
+                incrementalCache = new IncrementalAnalysisCache(new File(analysisOptions.incrementalCacheDirectory), project);
+                try {
+                    incrementalCache.load();
+                } catch (IOException e) {
+                    bugReporter.logError("Could not read incremental analysis cache", e);
+                    incrementalCache = null;
+                }
+            }
+            incrementalAnalysisCache = incrementalCache;
+
+            if (analysisOptions.detectorMetricsFile != null) {
+                detectorMetrics = new DetectorMetrics(DETECTOR_METRICS_SLOWEST);
+            }
 
             long startTime = System.currentTimeMillis();
             bugReporter.getProjectStats().setReferencedClasses(referencedClassSet.size());
@@ -989,8 +1171,46 @@ public class FindBugs2 implements IFindBugsEngine {
                 // gathers information about referenced classes.
                 boolean isNonReportingFirstPass = multiplePasses && passCount == 0;
 
-                // Instantiate the detectors
-                Detector2[] detectorList = pass.instantiateDetector2sInPass(bugReporter);
+                // Instantiate the detectors. When analyzing in parallel, or
+                // reusing earlier results, class-local detectors are
+                // instantiated separately by each analysis thread.
+                boolean parallel = !isNonReportingFirstPass
+                        && (analysisOptions.numAnalysisThreads > 1 || incrementalCache != null)
+                        && Global.getAnalysisCache() instanceof AnalysisCache;
+                Detector2[] detectorList;
+                List<DetectorFactory> classLocalFactoryList = new ArrayList<DetectorFactory>();
+                // Positions in the pass of the detectors in detectorList and
+                // classLocalFactoryList
+                List<Integer> detectorPositions = new ArrayList<Integer>();
+                List<Integer> classLocalPositions = new ArrayList<Integer>();
+                // The results of the detectors which aren't class-local are
+                // buffered, so they can be reported together with those of
+                // the class-local detectors, in the same order as when all
+                // detectors are applied to one class after the other
+                BufferingBugReporter serialReporter = null;
+                Map<ClassDescriptor, TreeMap<Integer, List<BufferingBugReporter.Event>>> serialEvents = null;
+                if (parallel) {
+                    serialReporter = new BufferingBugReporter(bugReporter);
+                    serialEvents = new HashMap<ClassDescriptor, TreeMap<Integer, List<BufferingBugReporter.Event>>>();
+                    List<Detector2> serialDetectorList = new ArrayList<Detector2>();
+                    Set<DetectorFactory> serialFactories = new HashSet<DetectorFactory>();
+                    int position = 0;
+                    for (Iterator<DetectorFactory> j = pass.iterator(); j.hasNext(); position++) {
+                        DetectorFactory detectorFactory = j.next();
+                        if (detectorFactory.isClassLocal() && !followsAny(pass, detectorFactory, serialFactories)) {
+                            classLocalFactoryList.add(detectorFactory);
+                            classLocalPositions.add(position);
+                        } else {
+                            serialDetectorList.add(detectorFactory.createDetector2(serialReporter));
+                            serialFactories.add(detectorFactory);
+                            detectorPositions.add(position);
+                        }
+                    }
+                    detectorList = serialDetectorList.toArray(new Detector2[serialDetectorList.size()]);
+                } else {
+                    detectorList = pass.instantiateDetector2sInPass(bugReporter);
+                }
+                BugReporter detectorReporter = parallel ? serialReporter : bugReporter;
 
                 // If there are multiple passes, then on the first pass,
                 // we apply detectors to all classes referenced by the
@@ -1054,7 +1274,7 @@ public class FindBugs2 implements IFindBugsEngine {
                     // In general, we do not want to screen classes from the
                     // first pass, even if they would otherwise be excluded.
                     if ((SCREEN_FIRST_PASS_CLASSES || !isNonReportingFirstPass)
-                            && !classScreener.matches(classDescriptor.toResourceName())) {
+                            && isScreenedOut(matchingClasses, classDescriptor)) {
                         if (DEBUG) {
                             System.out.println("*** Excluded by class screener");
                         }
@@ -1062,16 +1282,21 @@ public class FindBugs2 implements IFindBugsEngine {
                     }
                     boolean isHuge = currentAnalysisContext.isTooBig(classDescriptor);
                     if (isHuge && currentAnalysisContext.isApplicationClass(classDescriptor)) {
-                        bugReporter.reportBug(new BugInstance("SKIPPED_CLASS_TOO_BIG", Priorities.NORMAL_PRIORITY)
+                        detectorReporter.reportBug(new BugInstance("SKIPPED_CLASS_TOO_BIG", Priorities.NORMAL_PRIORITY)
                         .addClass(classDescriptor));
+                        if (parallel) {
+                            addEvents(serialEvents, classDescriptor, -1, serialReporter.drain());
+                        }
                     }
                     currentClassName = ClassName.toDottedClassName(classDescriptor.getClassName());
                     notifyClassObservers(classDescriptor);
                     profiler.startContext(currentClassName);
                     currentAnalysisContext.setClassBeingAnalyzed(classDescriptor);
+                    int numMethods = detectorMetrics != null ? countMethods(classDescriptor) : 0;
 
                     try {
-                        for (Detector2 detector : detectorList) {
+                        for (int j = 0; j < detectorList.length; j++) {
+                            Detector2 detector = detectorList[j];
                             if (Thread.interrupted()) {
                                 throw new InterruptedException();
                             }
@@ -1084,24 +1309,34 @@ public class FindBugs2 implements IFindBugsEngine {
                                 // NonReportingDetector.class.isAssignableFrom(detector.getClass())
                                 // + ", bar: " + detector.getClass().getName());
                             }
+                            DetectorMetrics.Sample sample = detectorMetrics != null ? detectorMetrics.start() : null;
                             try {
                                 profiler.start(detector.getClass());
                                 detector.visitClass(classDescriptor);
                             } catch (ClassFormatException e) {
-                                logRecoverableException(classDescriptor, detector, e);
+                                logRecoverableException(detectorReporter, classDescriptor, detector, e);
                             } catch (MissingClassException e) {
                                 Global.getAnalysisCache().getErrorLogger().reportMissingClass(e.getClassDescriptor());
                             } catch (CheckedAnalysisException e) {
-                                logRecoverableException(classDescriptor, detector, e);
+                                logRecoverableException(detectorReporter, classDescriptor, detector, e);
                             } catch (RuntimeException e) {
-                                logRecoverableException(classDescriptor, detector, e);
+                                logRecoverableException(detectorReporter, classDescriptor, detector, e);
                             } finally {
                                 profiler.end(detector.getClass());
+                                if (sample != null) {
+                                    detectorMetrics.end(sample, passCount, detector.getDetectorClassName(), classDescriptor,
+                                            numMethods);
+                                }
+                            }
+                            if (parallel) {
+                                addEvents(serialEvents, classDescriptor, detectorPositions.get(j), serialReporter.drain());
                             }
                         }
                     } finally {
 
-                        progress.finishClass();
+                        if (!parallel) {
+                            progress.finishClass();
+                        }
                         profiler.endContext(currentClassName);
                         currentAnalysisContext.clearClassBeingAnalyzed();
                         if (PROGRESS) {
@@ -1119,6 +1354,14 @@ public class FindBugs2 implements IFindBugsEngine {
                     }
                 }
 
+                if (parallel) {
+                    if (incrementalCache != null) {
+                        incrementalCache.computeKeys(executionPlan, passCount, referencedClassSet, classCollection);
+                    }
+                    analyzeClassesInParallel(classLocalFactoryList, classLocalPositions, serialEvents, classCollection,
+                            matchingClasses, incrementalCache, profiler, detectorMetrics, passCount);
+                }
+
                 if (!passIterator.hasNext()) {
                     yourkitController.captureMemorySnapshot();
                 }
@@ -1126,15 +1369,40 @@ public class FindBugs2 implements IFindBugsEngine {
                 for (Detector2 detector : detectorList) {
                     detector.finishPass();
                 }
+                if (parallel) {
+                    BufferingBugReporter.replay(serialReporter.drain(), bugReporter);
+                }
 
                 progress.finishPerClassAnalysis();
 
                 passCount++;
             }
 
+            if (incrementalCache != null) {
+                try {
+                    incrementalCache.save();
+                } catch (IOException e) {
+                    bugReporter.logError("Could not save incremental analysis cache", e);
+                }
+                if (PROGRESS) {
+                    System.out.printf("Incremental analysis: %d classes reused, %d analyzed%n", incrementalCache.getHits(),
+                            incrementalCache.getMisses());
+                }
+            }
 
         } finally {
+            // Write the metrics even if the analysis failed or was interrupted
+            if (detectorMetrics != null) {
+                try {
+                    detectorMetrics.write(new File(analysisOptions.detectorMetricsFile));
+                } catch (IOException e) {
+                    bugReporter.logError("Could not write detector metrics to " + analysisOptions.detectorMetricsFile, e);
+                }
+            }
 
+            InterningStats interningStats = bugReporter.getProjectStats().getInterningStats();
+            DescriptorFactory.instance().reportInterningStats(interningStats);
+            AnalysisContext.currentXFactory().reportInterningStats(interningStats);
             bugReporter.finish();
             bugReporter.reportQueuedErrors();
             profiler.end(this.getClass());
@@ -1145,6 +1413,19 @@ public class FindBugs2 implements IFindBugsEngine {
 
     }
 
+    /**
+     * Count the methods declared by a class, for the detector metrics.
+     */
+    private static int countMethods(ClassDescriptor classDescriptor) {
+        try {
+            return Global.getAnalysisCache().getClassAnalysis(XClass.class, classDescriptor).getXMethods().size();
+        } catch (CheckedAnalysisException e) {
+            return 0;
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
     /**
      * Notify all IClassObservers that we are visiting given class.
      *
@@ -1161,6 +1442,8 @@ public class FindBugs2 implements IFindBugsEngine {
      * Report an exception that occurred while analyzing a class with a
      * detector.
      *
+     * @param reporter
+     *            the BugReporter to log the exception to
      * @param classDescriptor
      *            class being analyzed
      * @param detector
@@ -1168,12 +1451,252 @@ public class FindBugs2 implements IFindBugsEngine {
      * @param e
      *            the exception
      */
-    private void logRecoverableException(ClassDescriptor classDescriptor, Detector2 detector, Throwable e) {
-        bugReporter.logError(
+    private static void logRecoverableException(BugReporter reporter, ClassDescriptor classDescriptor, Detector2 detector,
+            Throwable e) {
+        reporter.logError(
                 "Exception analyzing " + classDescriptor.toDottedClassName() + " using detector "
                         + detector.getDetectorClassName(), e);
     }
 
+    /**
+     * State of one thread of a parallel analysis: its own instances of the
+     * class-local detectors, reporting to a buffer.
+     */
+    private static class AnalysisWorker {
+        final BufferingBugReporter reporter;
+
+        final Detector2[] detectorList;
+
+        AnalysisWorker(BufferingBugReporter reporter, Detector2[] detectorList) {
+            this.reporter = reporter;
+            this.detectorList = detectorList;
+        }
+    }
+
+    /**
+     * Record the events reported for a class by a detector which isn't
+     * class-local, in a parallel pass.
+     *
+     * @param serialEvents
+     *            the events of each class, by position of the detector in the
+     *            pass
+     * @param classDescriptor
+     *            the class being analyzed
+     * @param position
+     *            position of the detector in the pass, or -1 for events
+     *            reported before any detector is applied
+     * @param events
+     *            the events
+     */
+    private static void addEvents(Map<ClassDescriptor, TreeMap<Integer, List<BufferingBugReporter.Event>>> serialEvents,
+            ClassDescriptor classDescriptor, int position, List<BufferingBugReporter.Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        TreeMap<Integer, List<BufferingBugReporter.Event>> classEvents = serialEvents.get(classDescriptor);
+        if (classEvents == null) {
+            classEvents = new TreeMap<Integer, List<BufferingBugReporter.Event>>();
+            serialEvents.put(classDescriptor, classEvents);
+        }
+        classEvents.put(position, events);
+    }
+
+    /**
+     * Apply class-local detectors to the classes of a reporting pass, using
+     * analysisOptions.numAnalysisThreads threads. The detectors which are not
+     * class-local must already have been applied. Each thread uses its own
+     * detector instances and its own ClassContexts (and therefore method
+     * analyses); everything else comes from the shared analysis cache. Bugs
+     * and errors are buffered, and reported class by class together with
+     * those of the other detectors, in the order of the detectors in the
+     * pass. The results are therefore the same as, and reported in the same
+     * order as, when the detectors are applied to one class after the other.
+     * <p>
+     * If an incremental analysis cache is used, classes for which it has
+     * results are not analyzed; the cached bugs are reported instead.
+     *
+     * @param factoryList
+     *            factories of the class-local detectors in the pass
+     * @param positionList
+     *            positions of the class-local detectors in the pass
+     * @param serialEvents
+     *            events reported by the other detectors, for each class by
+     *            position of the detector in the pass
+     * @param classCollection
+     *            classes to analyze, in analysis order
+     * @param matchingClasses
+     *            the classes matched by the class screener, or null for all
+     * @param incrementalCache
+     *            the incremental analysis cache, or null
+     * @param profiler
+     *            the profiler
+     * @param detectorMetrics
+     *            the detector metrics, or null if not collected
+     * @param passCount
+     *            number of the pass
+     */
+    private void analyzeClassesInParallel(final List<DetectorFactory> factoryList, List<Integer> positionList,
+            Map<ClassDescriptor, TreeMap<Integer, List<BufferingBugReporter.Event>>> serialEvents,
+            Collection<ClassDescriptor> classCollection, @CheckForNull Set<ClassDescriptor> matchingClasses,
+            @CheckForNull IncrementalAnalysisCache incrementalCache, final Profiler profiler,
+            @CheckForNull final DetectorMetrics detectorMetrics, final int passCount) throws InterruptedException {
+        final AnalysisCache sharedCache = (AnalysisCache) Global.getAnalysisCache();
+        final AnalysisContext analysisContext = AnalysisContext.currentAnalysisContext();
+        final BugReporter reporter = bugReporter;
+        final ThreadLocal<AnalysisWorker> currentWorker = new ThreadLocal<AnalysisWorker>();
+
+        ThreadFactory threadFactory = new ThreadFactory() {
+            int count;
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                Thread t = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        BufferingBugReporter workerReporter = new BufferingBugReporter(reporter);
+                        Global.setAnalysisCacheForCurrentThread(new WorkerAnalysisCache(sharedCache, workerReporter));
+                        Detector2[] workerDetectorList = new Detector2[factoryList.size()];
+                        for (int i = 0; i < workerDetectorList.length; i++) {
+                            workerDetectorList[i] = factoryList.get(i).createDetector2(workerReporter);
+                        }
+                        currentWorker.set(new AnalysisWorker(workerReporter, workerDetectorList));
+                        r.run();
+                    }
+                }, "FindBugs analysis thread " + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(analysisOptions.numAnalysisThreads, threadFactory);
+        try {
+            // The events of each class, for each class-local detector
+            List<Future<List<List<BufferingBugReporter.Event>>>> resultList = new ArrayList<Future<List<List<BufferingBugReporter.Event>>>>();
+            List<ClassDescriptor> classList = new ArrayList<ClassDescriptor>();
+            Set<ClassDescriptor> cachedClasses = new HashSet<ClassDescriptor>();
+            for (final ClassDescriptor classDescriptor : classCollection) {
+                if (isScreenedOut(matchingClasses, classDescriptor)) {
+                    continue;
+                }
+                classList.add(classDescriptor);
+                final List<List<BugInstance>> cachedBugs = incrementalCache != null ? incrementalCache.getBugs(
+                        classDescriptor, factoryList.size()) : null;
+                if (cachedBugs != null) {
+                    FutureTask<List<List<BufferingBugReporter.Event>>> cachedResult = new FutureTask<List<List<BufferingBugReporter.Event>>>(
+                            new Callable<List<List<BufferingBugReporter.Event>>>() {
+                                @Override
+                                public List<List<BufferingBugReporter.Event>> call() {
+                                    BufferingBugReporter cachedReporter = new BufferingBugReporter(reporter);
+                                    List<List<BufferingBugReporter.Event>> result = new ArrayList<List<BufferingBugReporter.Event>>();
+                                    for (List<BugInstance> detectorBugs : cachedBugs) {
+                                        for (BugInstance bug : detectorBugs) {
+                                            cachedReporter.reportBug(bug);
+                                        }
+                                        result.add(cachedReporter.drain());
+                                    }
+                                    return result;
+                                }
+                            });
+                    cachedResult.run();
+                    resultList.add(cachedResult);
+                    cachedClasses.add(classDescriptor);
+                    continue;
+                }
+                final boolean isHuge = analysisContext.isTooBig(classDescriptor);
+                resultList.add(executor.submit(new Callable<List<List<BufferingBugReporter.Event>>>() {
+                    @Override
+                    public List<List<BufferingBugReporter.Event>> call() {
+                        AnalysisWorker worker = currentWorker.get();
+                        List<List<BufferingBugReporter.Event>> result = new ArrayList<List<BufferingBugReporter.Event>>();
+                        if (isHuge) {
+                            // Class-local detectors are never FirstPassDetectors
+                            return result;
+                        }
+                        String className = classDescriptor.toDottedClassName();
+                        profiler.startContext(className);
+                        analysisContext.setClassBeingAnalyzed(classDescriptor);
+                        int numMethods = detectorMetrics != null ? countMethods(classDescriptor) : 0;
+                        try {
+                            for (Detector2 detector : worker.detectorList) {
+                                if (Thread.currentThread().isInterrupted()) {
+                                    break;
+                                }
+                                DetectorMetrics.Sample sample = detectorMetrics != null ? detectorMetrics.start() : null;
+                                try {
+                                    profiler.start(detector.getClass());
+                                    detector.visitClass(classDescriptor);
+                                } catch (ClassFormatException e) {
+                                    logRecoverableException(worker.reporter, classDescriptor, detector, e);
+                                } catch (MissingClassException e) {
+                                    worker.reporter.reportMissingClass(e.getClassDescriptor());
+                                } catch (CheckedAnalysisException e) {
+                                    logRecoverableException(worker.reporter, classDescriptor, detector, e);
+                                } catch (RuntimeException e) {
+                                    logRecoverableException(worker.reporter, classDescriptor, detector, e);
+                                } finally {
+                                    profiler.end(detector.getClass());
+                                    if (sample != null) {
+                                        detectorMetrics.end(sample, passCount, detector.getDetectorClassName(),
+                                                classDescriptor, numMethods);
+                                    }
+                                }
+                                result.add(worker.reporter.drain());
+                            }
+                        } finally {
+                            profiler.endContext(className);
+                            analysisContext.clearClassBeingAnalyzed();
+                        }
+                        return result;
+                    }
+                }));
+            }
+
+            for (int i = 0; i < resultList.size(); i++) {
+                ClassDescriptor classDescriptor = classList.get(i);
+                List<List<BufferingBugReporter.Event>> classLocalEvents;
+                try {
+                    classLocalEvents = resultList.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException("Unexpected exception in analysis thread", cause);
+                }
+                if (incrementalCache != null && !cachedClasses.contains(classDescriptor)
+                        && classLocalEvents.size() == factoryList.size()) {
+                    List<List<BugInstance>> bugs = new ArrayList<List<BugInstance>>();
+                    for (List<BufferingBugReporter.Event> events : classLocalEvents) {
+                        List<BugInstance> detectorBugs = BufferingBugReporter.getBugs(events);
+                        if (detectorBugs == null) {
+                            bugs = null;
+                            break;
+                        }
+                        bugs.add(detectorBugs);
+                    }
+                    if (bugs != null) {
+                        incrementalCache.putBugs(classDescriptor, bugs);
+                    }
+                }
+
+                // Report the events of all detectors in the order of the pass
+                TreeMap<Integer, List<BufferingBugReporter.Event>> classEvents = serialEvents.remove(classDescriptor);
+                if (classEvents == null) {
+                    classEvents = new TreeMap<Integer, List<BufferingBugReporter.Event>>();
+                }
+                for (int j = 0; j < classLocalEvents.size(); j++) {
+                    classEvents.put(positionList.get(j), classLocalEvents.get(j));
+                }
+                for (List<BufferingBugReporter.Event> events : classEvents.values()) {
+                    BufferingBugReporter.replay(events, bugReporter);
+                }
+                progress.finishClass();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public static void main(String[] args) throws Exception {
         // Sanity-check the loaded BCEL classes
         if (!CheckBcel.check()) {
@@ -274,6 +274,39 @@ public interface IFindBugsEngine {
      */
     public void setNoClassOk(boolean noClassOk);
 
+    /**
+     * Set the number of threads used to apply detectors to application
+     * classes. Detectors which only look at one class at a time are run in
+     * parallel; the reported warnings do not depend on the number of threads.
+     *
+     * @param numAnalysisThreads
+     *            number of analysis threads; 1 (the default) disables
+     *            parallel analysis
+     */
+    public void setNumAnalysisThreads(int numAnalysisThreads);
+
+    /**
+     * Set the directory in which the results of class-local detectors are
+     * saved, so that later analyses don't need to analyze unchanged classes
+     * again.
+     *
+     * @param incrementalCacheDirectory
+     *            the cache directory, or null (the default) to analyze every
+     *            class
+     */
+    public void setIncrementalCacheDirectory(String incrementalCacheDirectory);
+
+    /**
+     * Set the file to which the CPU time, allocated bytes and numbers of
+     * visited classes and methods of each detector are written after the
+     * analysis, together with the slowest (detector, class) pairs.
+     *
+     * @param detectorMetricsFile
+     *            the file (CSV if the name ends with ".csv", JSON otherwise),
+     *            or null (the default) to not collect detector metrics
+     */
+    public void setDetectorMetricsFile(String detectorMetricsFile);
+
     /**
      * Set the DetectorFactoryCollection from which plugins/detectors may be
      * accessed.
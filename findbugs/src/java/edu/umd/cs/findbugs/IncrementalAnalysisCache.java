@@ -0,0 +1,900 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.CheckForNull;
+
+import org.dom4j.DocumentException;
+import org.objectweb.asm.ClassReader;
+
+import edu.umd.cs.findbugs.ba.AnalysisContext;
+import edu.umd.cs.findbugs.ba.ClassHash;
+import edu.umd.cs.findbugs.ba.ClassMember;
+import edu.umd.cs.findbugs.ba.FieldSummary;
+import edu.umd.cs.findbugs.ba.XClass;
+import edu.umd.cs.findbugs.ba.XFactory;
+import edu.umd.cs.findbugs.ba.XField;
+import edu.umd.cs.findbugs.ba.XMethod;
+import edu.umd.cs.findbugs.ba.npe.ParameterNullnessPropertyDatabase;
+import edu.umd.cs.findbugs.ba.npe.ReturnValueNullnessPropertyDatabase;
+import edu.umd.cs.findbugs.charsets.UTF8;
+import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.DescriptorFactory;
+import edu.umd.cs.findbugs.classfile.Global;
+import edu.umd.cs.findbugs.classfile.IAnalysisCache;
+import edu.umd.cs.findbugs.classfile.analysis.ClassData;
+import edu.umd.cs.findbugs.classfile.engine.ClassParserUsingASM;
+import edu.umd.cs.findbugs.detect.UnreadFieldsData;
+import edu.umd.cs.findbugs.plan.AnalysisPass;
+import edu.umd.cs.findbugs.plan.ExecutionPlan;
+import edu.umd.cs.findbugs.util.Util;
+
+/**
+ * Persistent cache of the warnings reported by class-local detectors (see
+ * {@link DetectorFactory#isClassLocal()}), used to avoid re-running them on
+ * classes that have not changed since an earlier analysis.
+ * <p>
+ * Each application class gets a key for each reporting pass. The key covers
+ * the analysis configuration (FindBugs version, plugins, enabled detectors,
+ * analysis properties), the class bytes, the names of its direct subtypes,
+ * and the bytes of every application class it depends on, directly or
+ * indirectly: its superclass, interfaces, enclosing class, the classes named
+ * in its constant pool and the classes mentioned in its field and method
+ * signatures and annotations. Library classes are hashed without following
+ * their own dependencies or subtypes, so that a class everything depends
+ * on, like <code>java.lang.Object</code>, does not tie the keys of all
+ * classes together. What the
+ * whole-program databases built by earlier passes record about the fields
+ * and methods of each of these classes (field summaries, unread field data,
+ * return value and parameter nullness) is hashed together with its bytes,
+ * since these facts depend on classes outside the closure. Facts recorded
+ * about the class itself by the first pass (which of its methods are
+ * called, whether it is used reflectively, which of its fields are always
+ * empty arrays) are included as well. If a key was seen by an earlier run,
+ * the warnings recorded for it are reported instead of analyzing the class
+ * again.
+ * <p>
+ * The cache directory contains a file <code>index</code> listing the known
+ * keys, and a directory <code>bugs</code> with the warnings of each key that
+ * has any, in the usual XML format. Besides the key, each line of the index
+ * has the number of warnings reported by each class-local detector, and the
+ * position in the order of reporting of each warning of the XML file, so
+ * that the warnings are reported in the same order as by the analysis.
+ * Classes whose analysis logged errors are never cached.
+ * <p>
+ * Detectors which are not class-local, and the first pass, are not affected:
+ * they always run.
+ */
+public class IncrementalAnalysisCache {
+
+    private static final boolean DEBUG = SystemProperties.getBoolean("findbugs.incremental.debug");
+
+    private static final String INDEX_FILE_NAME = "index";
+
+    private static final String BUGS_DIRECTORY_NAME = "bugs";
+
+    private static final String BUGS_FILE_SUFFIX = ".xml";
+
+    private final File directory;
+
+    private final Project project;
+
+    /** Keys recorded by previous runs, with their index entries */
+    private final Map<String, IndexEntry> storedKeys = new HashMap<String, IndexEntry>();
+
+    /** Keys used by this run; the only ones kept when saving */
+    private final Map<String, IndexEntry> usedKeys = new TreeMap<String, IndexEntry>();
+
+    /** Keys of the classes of the current pass */
+    private final Map<ClassDescriptor, String> classKeys = new HashMap<ClassDescriptor, String>();
+
+    /** Dependencies between the referenced classes; same in every pass */
+    private DependencyGraph dependencyGraph;
+
+    private String configuration;
+
+    private int hits;
+
+    private int misses;
+
+    /**
+     * The warnings of a key: how many each class-local detector reported, and
+     * for each warning in the order of the XML file (the order of a
+     * SortedBugCollection), its position in the order of reporting.
+     */
+    private static class IndexEntry {
+        final int[] counts;
+
+        final int[] order;
+
+        IndexEntry(int[] counts, int[] order) {
+            this.counts = counts;
+            this.order = order;
+        }
+
+        int getNumBugs() {
+            return order.length;
+        }
+
+        /**
+         * Parse the fields of an index line after the key.
+         *
+         * @return the entry, or null if the fields are not valid
+         */
+        static @CheckForNull IndexEntry parse(String[] fields) {
+            if (fields.length < 2 || fields.length > 3) {
+                return null;
+            }
+            try {
+                int[] counts = parseNumbers(fields[1]);
+                int[] order = fields.length == 3 ? parseNumbers(fields[2]) : new int[0];
+                int numBugs = 0;
+                for (int count : counts) {
+                    numBugs += count;
+                }
+                if (numBugs != order.length) {
+                    return null;
+                }
+                boolean[] seen = new boolean[numBugs];
+                for (int position : order) {
+                    if (position < 0 || position >= numBugs || seen[position]) {
+                        return null;
+                    }
+                    seen[position] = true;
+                }
+                return new IndexEntry(counts, order);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static int[] parseNumbers(String field) {
+            if (field.equals("-")) {
+                return new int[0];
+            }
+            String[] numbers = field.split(",");
+            int[] result = new int[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                result[i] = Integer.parseInt(numbers[i]);
+                if (result[i] < 0) {
+                    throw new NumberFormatException(field);
+                }
+            }
+            return result;
+        }
+
+        private static void appendNumbers(StringBuilder buf, int[] numbers) {
+            if (numbers.length == 0) {
+                buf.append('-');
+            }
+            for (int i = 0; i < numbers.length; i++) {
+                if (i > 0) {
+                    buf.append(',');
+                }
+                buf.append(numbers[i]);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder buf = new StringBuilder();
+            appendNumbers(buf, counts);
+            if (order.length > 0) {
+                buf.append(' ');
+                appendNumbers(buf, order);
+            }
+            return buf.toString();
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directory
+     *            the cache directory; created if it does not exist
+     * @param project
+     *            the project being analyzed
+     */
+    public IncrementalAnalysisCache(File directory, Project project) {
+        this.directory = directory;
+        this.project = project;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return number of class analyses replaced by cached results
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of class analyses that were not found in the cache
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Read the index of the cache. A missing cache directory is treated as an
+     * empty cache.
+     *
+     * @throws IOException
+     *             if the index exists but can't be read
+     */
+    public void load() throws IOException {
+        storedKeys.clear();
+        File indexFile = new File(directory, INDEX_FILE_NAME);
+        if (!indexFile.isFile()) {
+            return;
+        }
+        BufferedReader in = new BufferedReader(Util.getFileReader(indexFile));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.trim().split(" ");
+                IndexEntry entry = IndexEntry.parse(fields);
+                // ignore corrupt entries; the class will just be reanalyzed
+                if (entry != null) {
+                    storedKeys.put(fields[0], entry);
+                }
+            }
+        } finally {
+            Util.closeSilently(in);
+        }
+        if (DEBUG) {
+            System.out.println("Incremental analysis cache " + directory + ": " + storedKeys.size() + " entries");
+        }
+    }
+
+    /**
+     * Compute the keys of the classes analyzed in a reporting pass. Must be
+     * called after the databases built by earlier passes are complete, and
+     * before {@link #getBugs(ClassDescriptor, int)} and
+     * {@link #putBugs(ClassDescriptor, List)} are used for the pass.
+     *
+     * @param executionPlan
+     *            the execution plan
+     * @param passNumber
+     *            number of the pass
+     * @param referencedClassSet
+     *            all classes referenced by the application
+     * @param classCollection
+     *            the classes analyzed by the pass
+     */
+    public void computeKeys(ExecutionPlan executionPlan, int passNumber, Collection<ClassDescriptor> referencedClassSet,
+            Collection<ClassDescriptor> classCollection) {
+        if (configuration == null) {
+            configuration = computeConfiguration(executionPlan);
+        }
+        if (dependencyGraph == null) {
+            dependencyGraph = new DependencyGraph(referencedClassSet);
+        }
+        // The databases may have changed since the last pass
+        Map<ClassDescriptor, String> closureHashes = dependencyGraph.computeClosureHashes();
+        classKeys.clear();
+        XFactory xFactory = AnalysisContext.currentXFactory();
+        IAnalysisCache analysisCache = Global.getAnalysisCache();
+        for (ClassDescriptor classDescriptor : classCollection) {
+            String closureHash = closureHashes.get(classDescriptor);
+            if (closureHash == null) {
+                continue;
+            }
+            XClass xclass;
+            try {
+                xclass = analysisCache.getClassAnalysis(XClass.class, classDescriptor);
+            } catch (CheckedAnalysisException e) {
+                continue;
+            }
+            StringBuilder buf = new StringBuilder();
+            buf.append(configuration).append('\n');
+            buf.append(passNumber).append('\n');
+            buf.append(classDescriptor.getClassName()).append('\n');
+            buf.append(closureHash).append('\n');
+            buf.append(xFactory.isReflectiveClass(classDescriptor)).append('\n');
+            for (XMethod m : xclass.getXMethods()) {
+                if (xFactory.isCalled(m)) {
+                    buf.append("called ").append(m.getName()).append(m.getSignature()).append('\n');
+                }
+            }
+            for (XField f : xclass.getXFields()) {
+                if (xFactory.isEmptyArrayField(f)) {
+                    buf.append("emptyArray ").append(f.getName()).append('\n');
+                }
+            }
+            classKeys.put(classDescriptor, hash(buf.toString()));
+        }
+    }
+
+    /**
+     * Get the cached warnings for a class of the current pass.
+     *
+     * @param classDescriptor
+     *            the class
+     * @param numDetectors
+     *            number of class-local detectors in the pass
+     * @return the warnings reported for the class by each class-local
+     *         detector of an earlier analysis, in the order they were
+     *         reported, or null if the class has to be analyzed
+     */
+    public @CheckForNull List<List<BugInstance>> getBugs(ClassDescriptor classDescriptor, int numDetectors) {
+        String key = classKeys.get(classDescriptor);
+        IndexEntry entry = key == null ? null : storedKeys.get(key);
+        if (entry == null || entry.counts.length != numDetectors) {
+            misses++;
+            return null;
+        }
+        BugInstance[] reported = new BugInstance[entry.getNumBugs()];
+        if (reported.length > 0) {
+            List<BugInstance> stored = readBugs(key);
+            if (stored == null || stored.size() != reported.length) {
+                misses++;
+                return null;
+            }
+            for (int i = 0; i < reported.length; i++) {
+                reported[entry.order[i]] = stored.get(i);
+            }
+        }
+        List<List<BugInstance>> result = new ArrayList<List<BugInstance>>(numDetectors);
+        int start = 0;
+        for (int count : entry.counts) {
+            result.add(Arrays.asList(reported).subList(start, start + count));
+            start += count;
+        }
+        usedKeys.put(key, entry);
+        hits++;
+        return result;
+    }
+
+    /**
+     * Record the warnings reported for a class of the current pass.
+     *
+     * @param classDescriptor
+     *            the class
+     * @param bugs
+     *            the warnings reported for the class by each class-local
+     *            detector, in the order they were reported
+     */
+    public void putBugs(ClassDescriptor classDescriptor, List<List<BugInstance>> bugs) {
+        String key = classKeys.get(classDescriptor);
+        if (key == null) {
+            return;
+        }
+        int[] counts = new int[bugs.size()];
+        List<BugInstance> reported = new ArrayList<BugInstance>();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = bugs.get(i).size();
+            reported.addAll(bugs.get(i));
+        }
+        int[] order = new int[0];
+        if (!reported.isEmpty()) {
+            try {
+                order = writeBugs(key, reported);
+            } catch (IOException e) {
+                AnalysisContext.logError("Could not write incremental analysis results for " + classDescriptor, e);
+                return;
+            }
+            if (order == null) {
+                return;
+            }
+        }
+        usedKeys.put(key, new IndexEntry(counts, order));
+    }
+
+    /**
+     * Write the index of the cache, and delete the warnings of keys which were
+     * not used by this analysis.
+     *
+     * @throws IOException
+     *             if the cache can't be written
+     */
+    public void save() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create incremental analysis cache " + directory);
+        }
+        File indexFile = new File(directory, INDEX_FILE_NAME);
+        File tmpFile = new File(directory, INDEX_FILE_NAME + ".tmp");
+        PrintWriter out = UTF8.printWriter(tmpFile);
+        try {
+            for (Map.Entry<String, IndexEntry> e : usedKeys.entrySet()) {
+                out.print(e.getKey());
+                out.print(' ');
+                out.println(e.getValue());
+            }
+        } finally {
+            out.close();
+        }
+        if (out.checkError()) {
+            throw new IOException("Could not write " + tmpFile);
+        }
+        if (indexFile.exists() && !indexFile.delete() || !tmpFile.renameTo(indexFile)) {
+            throw new IOException("Could not update " + indexFile);
+        }
+
+        File[] bugFiles = getBugsDirectory().listFiles();
+        if (bugFiles != null) {
+            for (File f : bugFiles) {
+                String name = f.getName();
+                if (name.endsWith(BUGS_FILE_SUFFIX)
+                        && !usedKeys.containsKey(name.substring(0, name.length() - BUGS_FILE_SUFFIX.length()))) {
+                    if (!f.delete() && DEBUG) {
+                        System.out.println("Could not delete " + f);
+                    }
+                }
+            }
+        }
+        if (DEBUG) {
+            System.out.println("Incremental analysis cache " + directory + ": " + hits + " hits, " + misses + " misses");
+        }
+    }
+
+    private File getBugsDirectory() {
+        return new File(directory, BUGS_DIRECTORY_NAME);
+    }
+
+    private @CheckForNull List<BugInstance> readBugs(String key) {
+        File file = new File(getBugsDirectory(), key + BUGS_FILE_SUFFIX);
+        if (!file.isFile()) {
+            return null;
+        }
+        SortedBugCollection bugCollection = new SortedBugCollection(new Project());
+        try {
+            bugCollection.readXML(file);
+        } catch (IOException e) {
+            AnalysisContext.logError("Could not read incremental analysis results from " + file, e);
+            return null;
+        } catch (DocumentException e) {
+            AnalysisContext.logError("Could not read incremental analysis results from " + file, e);
+            return null;
+        }
+        return new ArrayList<BugInstance>(bugCollection.getCollection());
+    }
+
+    /**
+     * Write the warnings of a key.
+     *
+     * @return for each warning in the order of the file, its position in
+     *         given list, or null if the warnings can't be cached because
+     *         some of them are equal, or have a priority the project
+     *         statistics can't count
+     */
+    private @CheckForNull int[] writeBugs(String key, List<BugInstance> bugs) throws IOException {
+        SortedBugCollection bugCollection = new SortedBugCollection(project);
+        Map<BugInstance, Integer> positions = new IdentityHashMap<BugInstance, Integer>();
+        for (BugInstance bug : bugs) {
+            if (bug.getPriority() > Priorities.EXP_PRIORITY) {
+                return null;
+            }
+            bugCollection.add(bug, false);
+            positions.put(bug, positions.size());
+        }
+        int[] order = new int[bugs.size()];
+        int i = 0;
+        for (BugInstance bug : bugCollection.getCollection()) {
+            Integer position = positions.get(bug);
+            if (position == null || i == order.length) {
+                return null;
+            }
+            order[i++] = position.intValue();
+        }
+        if (i != order.length) {
+            return null;
+        }
+
+        File bugsDirectory = getBugsDirectory();
+        if (!bugsDirectory.isDirectory() && !bugsDirectory.mkdirs()) {
+            throw new IOException("Could not create " + bugsDirectory);
+        }
+        bugCollection.writeXML(new File(bugsDirectory, key + BUGS_FILE_SUFFIX));
+        return order;
+    }
+
+    /**
+     * Describe everything besides the analyzed classes that influences the
+     * warnings reported by detectors.
+     */
+    static String computeConfiguration(ExecutionPlan executionPlan) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(Version.RELEASE).append('\n');
+        int passNumber = 0;
+        for (Iterator<AnalysisPass> i = executionPlan.passIterator(); i.hasNext();) {
+            AnalysisPass pass = i.next();
+            buf.append("pass ").append(passNumber++).append('\n');
+            for (Iterator<DetectorFactory> j = pass.iterator(); j.hasNext();) {
+                DetectorFactory factory = j.next();
+                Plugin plugin = factory.getPlugin();
+                buf.append(factory.getFullName()).append(' ').append(factory.getPriorityAdjustment()).append(' ')
+                .append(plugin.getPluginId()).append(' ').append(plugin.getVersion()).append('\n');
+            }
+        }
+        buf.append(AnalysisContext.currentAnalysisContext().getBoolProperties()).append('\n');
+        buf.append(FindBugsAnalysisFeatures.isRelaxedMode()).append('\n');
+        return hash(buf.toString());
+    }
+
+    /**
+     * Describe what the databases built by earlier passes record about the
+     * fields and methods of a class. These facts can change when classes
+     * which don't depend on the class change: a field summary, for example,
+     * merges the stores to the field from all classes.
+     */
+    static String describeDatabaseFacts(XClass xclass) {
+        AnalysisContext analysisContext = AnalysisContext.currentAnalysisContext();
+        FieldSummary fieldSummary = analysisContext.getFieldSummary();
+        UnreadFieldsData unreadFields = analysisContext.unreadFieldsAvailable() ? analysisContext.getUnreadFieldsData() : null;
+        ReturnValueNullnessPropertyDatabase returnValueDatabase = analysisContext.getReturnValueNullnessPropertyDatabase();
+        ParameterNullnessPropertyDatabase derefParamDatabase = analysisContext.getUnconditionalDerefParamDatabase();
+        ClassDescriptor superclass = xclass.getSuperclassDescriptor();
+
+        StringBuilder buf = new StringBuilder();
+        buf.append(fieldSummary.callsOverriddenMethodsFromConstructor(xclass.getClassDescriptor())).append('\n');
+        for (XField f : xclass.getXFields()) {
+            buf.append(f.getName()).append(' ').append(fieldSummary.getSummary(f)).append(' ')
+            .append(fieldSummary.isWrittenOutsideOfConstructor(f));
+            if (unreadFields != null) {
+                buf.append(' ').append(unreadFields.isContainerField(f)).append(' ')
+                .append(unreadFields.isWrittenOutsideOfInitialization(f)).append(' ').append(unreadFields.isReflexive(f))
+                .append(' ').append(unreadFields.isWrittenInConstructor(f)).append(' ')
+                .append(unreadFields.isWrittenDuringInitialization(f));
+            }
+            buf.append('\n');
+        }
+        for (XMethod m : xclass.getXMethods()) {
+            buf.append(m.getName()).append(m.getSignature());
+            TreeSet<String> written = new TreeSet<String>();
+            for (XField f : fieldSummary.getFieldsWritten(m)) {
+                written.add(f.toString());
+            }
+            buf.append(' ').append(written).append(' ').append(fieldSummary.getSuperCall(m));
+            if (superclass != null) {
+                TreeSet<String> calledFrom = new TreeSet<String>();
+                for (ProgramPoint p : fieldSummary.getCalledFromSuperConstructor(superclass, m)) {
+                    calledFrom.add(p.toString());
+                }
+                buf.append(' ').append(calledFrom);
+            }
+            if (returnValueDatabase != null) {
+                buf.append(' ').append(returnValueDatabase.getProperty(m.getMethodDescriptor()));
+            }
+            if (derefParamDatabase != null) {
+                buf.append(' ').append(derefParamDatabase.getProperty(m.getMethodDescriptor()));
+            }
+            buf.append('\n');
+        }
+        return buf.toString();
+    }
+
+    private static String hash(String s) {
+        MessageDigest digest = Util.getMD5Digest();
+        return ClassHash.hashToString(digest.digest(s.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Dependencies between the referenced classes. A class depends on every
+     * class whose changes could change the warnings reported for it.
+     */
+    static class DependencyGraph {
+        private final ClassDescriptor[] classes;
+
+        private final Map<ClassDescriptor, Integer> index = new HashMap<ClassDescriptor, Integer>();
+
+        private final int[][] successors;
+
+        /**
+         * Names of the direct subtypes of each application class, or null
+         * if it has none
+         */
+        private final String[] subtypeNames;
+
+        /** Hashes of the bytes of each class */
+        private String[] byteHashes;
+
+        DependencyGraph(Collection<ClassDescriptor> referencedClassSet) {
+            classes = referencedClassSet.toArray(new ClassDescriptor[referencedClassSet.size()]);
+            for (int i = 0; i < classes.length; i++) {
+                index.put(classes[i], i);
+            }
+
+            List<Set<Integer>> edges = new ArrayList<Set<Integer>>(classes.length);
+            List<TreeSet<String>> subtypes = new ArrayList<TreeSet<String>>(classes.length);
+            for (int i = 0; i < classes.length; i++) {
+                edges.add(new LinkedHashSet<Integer>());
+                subtypes.add(null);
+            }
+            IAnalysisCache analysisCache = Global.getAnalysisCache();
+            AnalysisContext analysisContext = AnalysisContext.currentAnalysisContext();
+            for (int i = 0; i < classes.length; i++) {
+                if (!analysisContext.isApplicationClass(classes[i])) {
+                    // Library classes are leaves of the graph
+                    continue;
+                }
+                XClass xclass;
+                try {
+                    xclass = analysisCache.getClassAnalysis(XClass.class, classes[i]);
+                } catch (CheckedAnalysisException e) {
+                    continue;
+                }
+                Set<ClassDescriptor> dependencies = new HashSet<ClassDescriptor>();
+                ClassDescriptor superclass = xclass.getSuperclassDescriptor();
+                if (superclass != null) {
+                    dependencies.add(superclass);
+                    addSubtype(subtypes, superclass, i);
+                }
+                for (ClassDescriptor iface : xclass.getInterfaceDescriptorList()) {
+                    dependencies.add(iface);
+                    addSubtype(subtypes, iface, i);
+                }
+                ClassDescriptor enclosing = xclass.getImmediateEnclosingClass();
+                if (enclosing != null) {
+                    dependencies.add(enclosing);
+                }
+                dependencies.addAll(xclass.getCalledClassDescriptors());
+                try {
+                    byte[] data = analysisCache.getClassAnalysis(ClassData.class, classes[i]).getData();
+                    ClassParserUsingASM.addReferencedClasses(new ClassReader(data), dependencies);
+                } catch (CheckedAnalysisException e) {
+                    // The class is hashed as missing
+                }
+                dependencies.addAll(xclass.getAnnotationDescriptors());
+                for (XField f : xclass.getXFields()) {
+                    addMemberDependencies(dependencies, f);
+                    dependencies.addAll(f.getAnnotationDescriptors());
+                }
+                for (XMethod m : xclass.getXMethods()) {
+                    addMemberDependencies(dependencies, m);
+                    dependencies.addAll(m.getAnnotationDescriptors());
+                }
+                for (ClassDescriptor d : dependencies) {
+                    Integer j = index.get(d);
+                    if (j != null) {
+                        edges.get(i).add(j);
+                    }
+                }
+            }
+
+            successors = new int[classes.length][];
+            subtypeNames = new String[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                Set<Integer> s = edges.get(i);
+                s.remove(i);
+                successors[i] = new int[s.size()];
+                int j = 0;
+                for (Integer k : s) {
+                    successors[i][j++] = k;
+                }
+                if (subtypes.get(i) != null) {
+                    subtypeNames[i] = subtypes.get(i).toString();
+                }
+            }
+        }
+
+        /**
+         * Record a direct subtype of an application class. Subtypes are not
+         * edges of the graph, since an edge back to the subtype would put
+         * each class in one component with its supertypes. Only the names
+         * of the subtypes are hashed with the supertype, so editing a
+         * subtype does not change the keys of the other classes depending
+         * on the supertype.
+         */
+        private void addSubtype(List<TreeSet<String>> subtypes, ClassDescriptor supertype, int subtype) {
+            Integer i = index.get(supertype);
+            if (i == null || !AnalysisContext.currentAnalysisContext().isApplicationClass(supertype)) {
+                return;
+            }
+            TreeSet<String> names = subtypes.get(i);
+            if (names == null) {
+                names = new TreeSet<String>();
+                subtypes.set(i, names);
+            }
+            names.add(classes[subtype].getClassName());
+        }
+
+        private static void addMemberDependencies(Set<ClassDescriptor> dependencies, ClassMember member) {
+            String signature = member.getSignature();
+            int i = 0;
+            while ((i = signature.indexOf('L', i)) >= 0) {
+                int end = signature.indexOf(';', i);
+                if (end < 0) {
+                    break;
+                }
+                dependencies.add(DescriptorFactory.createClassDescriptor(signature.substring(i + 1, end)));
+                i = end + 1;
+            }
+        }
+
+        /**
+         * Hash the bytes of each class (and whether it is an application
+         * class), the names of its direct subtypes, and what the databases
+         * record about it.
+         */
+        private String[] computeOwnHashes() {
+            if (byteHashes == null) {
+                byteHashes = computeByteHashes();
+            }
+            IAnalysisCache analysisCache = Global.getAnalysisCache();
+            String[] ownHashes = new String[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                XClass xclass;
+                try {
+                    xclass = analysisCache.getClassAnalysis(XClass.class, classes[i]);
+                } catch (CheckedAnalysisException e) {
+                    ownHashes[i] = byteHashes[i];
+                    continue;
+                }
+                String subtypes = subtypeNames[i] != null ? subtypeNames[i] : "";
+                ownHashes[i] = hash(byteHashes[i] + '\n' + subtypes + '\n' + describeDatabaseFacts(xclass));
+            }
+            return ownHashes;
+        }
+
+        private String[] computeByteHashes() {
+            IAnalysisCache analysisCache = Global.getAnalysisCache();
+            AnalysisContext analysisContext = AnalysisContext.currentAnalysisContext();
+            String[] ownHashes = new String[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                MessageDigest digest = Util.getMD5Digest();
+                digest.update(classes[i].getClassName().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) (analysisContext.isApplicationClass(classes[i]) ? 1 : 0));
+                try {
+                    digest.update(analysisCache.getClassAnalysis(ClassData.class, classes[i]).getData());
+                } catch (CheckedAnalysisException e) {
+                    digest.update((byte) -1);
+                }
+                ownHashes[i] = ClassHash.hashToString(digest.digest());
+            }
+            return ownHashes;
+        }
+
+        /**
+         * Compute, for each class, a hash of all of the classes it depends on
+         * directly or indirectly. Strongly connected components are hashed as
+         * a whole, after the components they depend on, so each class is
+         * hashed only once.
+         */
+        Map<ClassDescriptor, String> computeClosureHashes() {
+            String[] ownHashes = computeOwnHashes();
+            int n = classes.length;
+            int[] component = new int[n];
+            List<int[]> components = findStronglyConnectedComponents(component);
+
+            // Tarjan's algorithm finds a component only after all of the
+            // components reachable from it
+            String[] componentHashes = new String[components.size()];
+            Map<ClassDescriptor, String> result = new HashMap<ClassDescriptor, String>();
+            for (int c = 0; c < componentHashes.length; c++) {
+                int[] members = components.get(c);
+                TreeSet<String> memberHashes = new TreeSet<String>();
+                TreeSet<String> successorHashes = new TreeSet<String>();
+                for (int v : members) {
+                    memberHashes.add(ownHashes[v]);
+                    for (int w : successors[v]) {
+                        if (component[w] != c) {
+                            successorHashes.add(componentHashes[component[w]]);
+                        }
+                    }
+                }
+                StringBuilder buf = new StringBuilder();
+                for (String h : memberHashes) {
+                    buf.append(h).append('\n');
+                }
+                buf.append("->\n");
+                for (String h : successorHashes) {
+                    buf.append(h).append('\n');
+                }
+                componentHashes[c] = hash(buf.toString());
+                for (int v : members) {
+                    result.put(classes[v], componentHashes[c]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Iterative version of Tarjan's strongly connected components
+         * algorithm.
+         *
+         * @param component
+         *            filled in with the component number of each class
+         * @return the members of each component, in the order found
+         */
+        private List<int[]> findStronglyConnectedComponents(int[] component) {
+            int n = classes.length;
+            int[] number = new int[n];
+            int[] lowLink = new int[n];
+            boolean[] onStack = new boolean[n];
+            Arrays.fill(number, -1);
+            int[] stack = new int[n];
+            int stackSize = 0;
+            int[] callStack = new int[n];
+            int[] nextSuccessor = new int[n];
+            int counter = 0;
+            List<int[]> components = new ArrayList<int[]>();
+
+            for (int root = 0; root < n; root++) {
+                if (number[root] >= 0) {
+                    continue;
+                }
+                int depth = 0;
+                callStack[depth++] = root;
+                number[root] = lowLink[root] = counter++;
+                stack[stackSize++] = root;
+                onStack[root] = true;
+                while (depth > 0) {
+                    int v = callStack[depth - 1];
+                    if (nextSuccessor[v] < successors[v].length) {
+                        int w = successors[v][nextSuccessor[v]++];
+                        if (number[w] < 0) {
+                            number[w] = lowLink[w] = counter++;
+                            stack[stackSize++] = w;
+                            onStack[w] = true;
+                            callStack[depth++] = w;
+                        } else if (onStack[w]) {
+                            lowLink[v] = Math.min(lowLink[v], number[w]);
+                        }
+                        continue;
+                    }
+                    depth--;
+                    if (depth > 0) {
+                        int parent = callStack[depth - 1];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                    }
+                    if (lowLink[v] == number[v]) {
+                        int start = stackSize;
+                        do {
+                            start--;
+                        } while (stack[start] != v);
+                        int[] members = Arrays.copyOfRange(stack, start, stackSize);
+                        for (int m : members) {
+                            onStack[m] = false;
+                            component[m] = components.size();
+                        }
+                        stackSize = start;
+                        components.add(members);
+                    }
+                }
+            }
+            return components;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import edu.umd.cs.findbugs.xml.XMLOutput;
+import edu.umd.cs.findbugs.xml.XMLWriteable;
+
+/**
+ * Hit and miss counts of the interning tables used during the analysis
+ * (descriptors, XMethods, canonical strings, ...), written as part of the
+ * project summary.
+ */
+public class InterningStats implements XMLWriteable {
+
+    /**
+     * Counts for one interning table.
+     */
+    public static class Table {
+        private final String name;
+
+        private long hits;
+
+        private long misses;
+
+        private long savedBytes;
+
+        Table(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return estimated number of bytes saved by sharing the entries
+         *         found, or 0 if not estimated
+         */
+        public long getSavedBytes() {
+            return savedBytes;
+        }
+
+        /**
+         * @return fraction of lookups that found an existing entry, or 0 if
+         *         there were no lookups
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    private final Map<String, Table> tables = new TreeMap<String, Table>();
+
+    private Table getTable(String name) {
+        Table table = tables.get(name);
+        if (table == null) {
+            table = new Table(name);
+            tables.put(name, table);
+        }
+        return table;
+    }
+
+    /**
+     * Record the counts of an interning table, replacing previously recorded
+     * counts for a table with the same name.
+     *
+     * @param name
+     *            name of the table
+     * @param hits
+     *            number of lookups that found an existing entry
+     * @param misses
+     *            number of lookups that added a new entry
+     */
+    public synchronized void setCounts(String name, long hits, long misses) {
+        Table table = getTable(name);
+        table.hits = hits;
+        table.misses = misses;
+    }
+
+    /**
+     * Record an estimate of the memory saved by an interning table.
+     *
+     * @param name
+     *            name of the table
+     * @param savedBytes
+     *            estimated number of bytes saved by sharing entries
+     */
+    public synchronized void setSavedBytes(String name, long savedBytes) {
+        getTable(name).savedBytes = savedBytes;
+    }
+
+    public synchronized Collection<Table> getTables() {
+        return new ArrayList<Table>(tables.values());
+    }
+
+    public synchronized boolean isEmpty() {
+        return tables.isEmpty();
+    }
+
+    @Override
+    public synchronized void writeXML(XMLOutput xmlOutput) throws IOException {
+        if (tables.isEmpty()) {
+            return;
+        }
+        xmlOutput.openTag("InterningStats");
+        for (Table table : tables.values()) {
+            xmlOutput.startTag("Table");
+            xmlOutput.addAttribute("name", table.name);
+            xmlOutput.addAttribute("hits", String.valueOf(table.hits));
+            xmlOutput.addAttribute("misses", String.valueOf(table.misses));
+            xmlOutput.addAttribute("hitRate", String.format(Locale.ENGLISH, "%.3f", table.getHitRate()));
+            if (table.savedBytes > 0) {
+                xmlOutput.addAttribute("savedBytes", String.valueOf(table.savedBytes));
+            }
+            xmlOutput.stopTag(true);
+        }
+        xmlOutput.closeTag("InterningStats");
+    }
+}
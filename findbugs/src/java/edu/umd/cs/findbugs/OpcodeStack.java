@@ -26,6 +26,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
@@ -76,6 +77,7 @@ import edu.umd.cs.findbugs.classfile.analysis.MethodInfo;
 import edu.umd.cs.findbugs.internalAnnotations.SlashedClassName;
 import edu.umd.cs.findbugs.internalAnnotations.StaticConstant;
 import edu.umd.cs.findbugs.util.ClassName;
+import edu.umd.cs.findbugs.util.MapCache;
 import edu.umd.cs.findbugs.util.Util;
 import edu.umd.cs.findbugs.visitclass.Constants2;
 import edu.umd.cs.findbugs.visitclass.DismantleBytecode;
@@ -2768,25 +2770,132 @@ public class OpcodeStack implements Constants2 {
         }
     }
 
+    /**
+     * The values of the locals and of the stack at each jump target of a
+     * method. It is immutable, and stored in arrays indexed by the rank of the
+     * jump target, so that it can be kept cheaply and shared by all the
+     * OpcodeStacks analyzing the method.
+     */
     public static class JumpInfo {
-        final Map<Integer, List<Item>> jumpEntries;
+        private static final Item[] NO_ITEMS = new Item[0];
+
+        /** The jump targets, in increasing order */
+        private final int[] targets;
 
-        final Map<Integer, List<Item>> jumpStackEntries;
+        /** Values of the locals at each target; null if unknown */
+        private final Item[][] locals;
 
-        final BitSet jumpEntryLocations;
+        /** Values of the stack at each target; null if the stack is empty */
+        private final Item[][] stacks;
+
+        private final BitSet jumpEntryLocations;
 
         JumpInfo(Map<Integer, List<Item>> jumpEntries, Map<Integer, List<Item>> jumpStackEntries, BitSet jumpEntryLocations) {
-            this.jumpEntries = jumpEntries;
-            this.jumpStackEntries = jumpStackEntries;
-            this.jumpEntryLocations = jumpEntryLocations;
+            this.jumpEntryLocations = (BitSet) jumpEntryLocations.clone();
+            int count = jumpEntryLocations.cardinality();
+            targets = new int[count];
+            locals = new Item[count][];
+            stacks = new Item[count][];
+            int i = 0;
+            for (int pc = jumpEntryLocations.nextSetBit(0); pc >= 0; pc = jumpEntryLocations.nextSetBit(pc + 1)) {
+                targets[i] = pc;
+                locals[i] = toArray(jumpEntries.get(pc));
+                stacks[i] = toArray(jumpStackEntries.get(pc));
+                i++;
+            }
+        }
+
+        private static @CheckForNull Item[] toArray(@CheckForNull List<Item> items) {
+            if (items == null) {
+                return null;
+            }
+            if (items.isEmpty()) {
+                return NO_ITEMS;
+            }
+            return items.toArray(new Item[items.size()]);
         }
 
         public int getNextJump(int pc) {
             return jumpEntryLocations.nextSetBit(pc);
         }
+
+        /**
+         * Copy the jump entries into the mutable maps of an OpcodeStack.
+         */
+        void copyTo(Map<Integer, List<Item>> jumpEntries, Map<Integer, List<Item>> jumpStackEntries, BitSet locations) {
+            for (int i = 0; i < targets.length; i++) {
+                Integer pc = Integer.valueOf(targets[i]);
+                if (locals[i] != null) {
+                    jumpEntries.put(pc, new ArrayList<Item>(Arrays.asList(locals[i])));
+                }
+                if (stacks[i] != null) {
+                    jumpStackEntries.put(pc, new ArrayList<Item>(Arrays.asList(stacks[i])));
+                }
+            }
+            locations.or(jumpEntryLocations);
+        }
     }
 
 
+    /**
+     * Jump info already computed in the current analysis, kept when the
+     * method analyses are purged at the start of each pass or when a
+     * ClassContext is evicted. This is a database, so it is dropped together
+     * with the analysis cache: jump info refers to the fields, methods and
+     * field summary of one analysis.
+     */
+    public static class JumpInfoCache {
+
+        /** Number of methods whose jump info is kept across passes */
+        private static final int MAX_JUMP_INFO_TO_CACHE = 5000;
+
+        private final MapCache<MethodBody, JumpInfo> computed = new MapCache<MethodBody, JumpInfo>(MAX_JUMP_INFO_TO_CACHE);
+
+        synchronized @CheckForNull JumpInfo get(MethodBody body) {
+            return computed.get(body);
+        }
+
+        synchronized void put(MethodBody body, JumpInfo jumpInfo) {
+            computed.put(body, jumpInfo);
+        }
+
+        /**
+         * Identifies the code of a method analyzed with a given field summary
+         * state.
+         */
+        static final class MethodBody {
+            final MethodDescriptor descriptor;
+
+            final byte[] code;
+
+            final boolean fieldSummaryComplete;
+
+            final int hashCode;
+
+            MethodBody(MethodDescriptor descriptor, byte[] code, boolean fieldSummaryComplete) {
+                this.descriptor = descriptor;
+                this.code = code;
+                this.fieldSummaryComplete = fieldSummaryComplete;
+                this.hashCode = descriptor.hashCode() * 31 + Arrays.hashCode(code) + (fieldSummaryComplete ? 1 : 0);
+            }
+
+            @Override
+            public int hashCode() {
+                return hashCode;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof MethodBody)) {
+                    return false;
+                }
+                MethodBody other = (MethodBody) o;
+                return hashCode == other.hashCode && fieldSummaryComplete == other.fieldSummaryComplete
+                        && descriptor.equals(other.descriptor) && Arrays.equals(code, other.code);
+            }
+        }
+    }
+
     public static class JumpInfoFactory extends edu.umd.cs.findbugs.classfile.engine.bcel.AnalysisFactory<JumpInfo> {
 
         public JumpInfoFactory() {
@@ -2802,9 +2911,23 @@ public class OpcodeStack implements Constants2 {
                 return null;
             }
 
+            // The values loaded from fields depend on whether the field
+            // summary is complete, which changes after the first pass
+            JumpInfoCache cache = analysisCache.getDatabase(JumpInfoCache.class);
+            JumpInfoCache.MethodBody body = new JumpInfoCache.MethodBody(descriptor, code.getCode(), AnalysisContext
+                    .currentAnalysisContext().getFieldSummary().isComplete());
+            JumpInfo jumpInfo = cache.get(body);
+            if (jumpInfo != null) {
+                return jumpInfo;
+            }
+
             JumpStackComputation branchAnalysis = new JumpStackComputation(descriptor);
 
-            return computeJumpInfo(jclass, method, branchAnalysis);
+            jumpInfo = computeJumpInfo(jclass, method, branchAnalysis);
+            if (jumpInfo != null) {
+                cache.put(body, jumpInfo);
+            }
+            return jumpInfo;
         }
 
         static class JumpStackComputation extends BytecodeScanningDetector {
@@ -2943,9 +3066,11 @@ public class OpcodeStack implements Constants2 {
         if (info == null) {
             return;
         }
-        jumpEntries = new HashMap<Integer, List<Item>>(info.jumpEntries);
-        jumpStackEntries = new HashMap<Integer, List<Item>>(info.jumpStackEntries);
-        jumpEntryLocations = (BitSet) info.jumpEntryLocations.clone();
+        // Copy the lists, as merging jumps modifies them
+        jumpEntries = new HashMap<Integer, List<Item>>();
+        jumpStackEntries = new HashMap<Integer, List<Item>>();
+        jumpEntryLocations = new BitSet();
+        info.copyTo(jumpEntries, jumpStackEntries, jumpEntryLocations);
     }
 
     public void initialize() {
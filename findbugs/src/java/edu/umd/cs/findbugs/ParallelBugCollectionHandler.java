@@ -0,0 +1,243 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2004, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.annotation.CheckForNull;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Pass the events of a bug collection document to a SAXBugCollectionHandler,
+ * except those of the top-level BugInstance elements, which are parsed in
+ * chunks by the threads of an executor.
+ * <p>
+ * The BugInstances parsed are added to the collection in document order,
+ * before the next element that isn't a BugInstance is passed on, so the
+ * collection read is the same as with the SAXBugCollectionHandler alone.
+ */
+class ParallelBugCollectionHandler extends DefaultHandler {
+    /** Number of BugInstance elements parsed by a task */
+    private static final int CHUNK_SIZE = 256;
+
+    private static final String BUG_COLLECTION = "BugCollection";
+
+    private static final String BUG_INSTANCE = "BugInstance";
+
+    private final BugCollection bugCollection;
+
+    private final SAXBugCollectionHandler handler;
+
+    private final ExecutorService executor;
+
+    /** Largest number of chunks parsed or waiting to be parsed */
+    private final int maxPending;
+
+    private final ArrayDeque<Future<List<BugInstance>>> pending = new ArrayDeque<Future<List<BugInstance>>>();
+
+    /** Events of the BugInstance elements of the current chunk */
+    private List<Event> chunk = new ArrayList<Event>();
+
+    private int bugInstancesInChunk;
+
+    private int depth;
+
+    private boolean inBugCollection;
+
+    private boolean inBugInstance;
+
+    /**
+     * Constructor.
+     *
+     * @param bugCollection
+     *            the BugCollection being read
+     * @param handler
+     *            the handler reading it
+     * @param executor
+     *            the executor parsing the chunks of BugInstance elements
+     * @param numThreads
+     *            the number of threads of the executor
+     */
+    ParallelBugCollectionHandler(BugCollection bugCollection, SAXBugCollectionHandler handler, ExecutorService executor,
+            int numThreads) {
+        this.bugCollection = bugCollection;
+        this.handler = handler;
+        this.executor = executor;
+        this.maxPending = 2 * numThreads;
+    }
+
+    /**
+     * The event of an element or text in a BugInstance element.
+     */
+    private static class Event {
+        final @CheckForNull String name;
+
+        final @CheckForNull Attributes attributes;
+
+        final @CheckForNull char[] text;
+
+        Event(@CheckForNull String name, @CheckForNull Attributes attributes, @CheckForNull char[] text) {
+            this.name = name;
+            this.attributes = attributes;
+            this.text = text;
+        }
+
+        void replay(ContentHandler contentHandler) throws SAXException {
+            if (text != null) {
+                contentHandler.characters(text, 0, text.length);
+            } else if (attributes != null) {
+                contentHandler.startElement("", name, name, attributes);
+            } else {
+                contentHandler.endElement("", name, name);
+            }
+        }
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        handler.startDocument();
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        addParsedBugInstances();
+        handler.endDocument();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        depth++;
+        if (inBugInstance) {
+            chunk.add(new Event(qName, new AttributesImpl(attributes), null));
+            return;
+        }
+        if (depth == 1) {
+            inBugCollection = BUG_COLLECTION.equals(qName);
+        } else if (depth == 2 && inBugCollection && BUG_INSTANCE.equals(qName)) {
+            inBugInstance = true;
+            chunk.add(new Event(qName, new AttributesImpl(attributes), null));
+            return;
+        } else if (depth == 2) {
+            addParsedBugInstances();
+        }
+        handler.startElement(uri, localName, qName, attributes);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        depth--;
+        if (inBugInstance) {
+            chunk.add(new Event(qName, null, null));
+            if (depth == 1) {
+                inBugInstance = false;
+                if (++bugInstancesInChunk == CHUNK_SIZE) {
+                    submitChunk();
+                }
+            }
+            return;
+        }
+        if (depth == 0) {
+            addParsedBugInstances();
+        }
+        handler.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (inBugInstance) {
+            char[] text = new char[length];
+            System.arraycopy(ch, start, text, 0, length);
+            chunk.add(new Event(null, null, text));
+            return;
+        }
+        handler.characters(ch, start, length);
+    }
+
+    private void submitChunk() throws SAXException {
+        final List<Event> events = chunk;
+        final int numBugInstances = bugInstancesInChunk;
+        chunk = new ArrayList<Event>();
+        bugInstancesInChunk = 0;
+        pending.add(executor.submit(new Callable<List<BugInstance>>() {
+            @Override
+            public List<BugInstance> call() throws SAXException {
+                List<BugInstance> result = new ArrayList<BugInstance>(numBugInstances);
+                SAXBugCollectionHandler chunkHandler = new SAXBugCollectionHandler(bugCollection, handler.getNamePool(),
+                        result);
+                for (Event event : events) {
+                    event.replay(chunkHandler);
+                }
+                return result;
+            }
+        }));
+        while (pending.size() > maxPending) {
+            addBugInstances(pending.remove());
+        }
+    }
+
+    /**
+     * Add the BugInstances of all chunks to the collection, once they are
+     * parsed.
+     */
+    private void addParsedBugInstances() throws SAXException {
+        if (bugInstancesInChunk > 0) {
+            submitChunk();
+        }
+        while (!pending.isEmpty()) {
+            addBugInstances(pending.remove());
+        }
+    }
+
+    private void addBugInstances(Future<List<BugInstance>> parsed) throws SAXException {
+        List<BugInstance> bugInstances;
+        try {
+            bugInstances = parsed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SAXException("Interrupted while reading bug collection", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SAXException) {
+                throw (SAXException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SAXException("Couldn't read bug instances", e);
+        }
+        for (BugInstance bugInstance : bugInstances) {
+            bugCollection.add(bugInstance, false);
+        }
+    }
+}
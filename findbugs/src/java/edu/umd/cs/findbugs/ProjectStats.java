@@ -94,6 +94,8 @@ public class ProjectStats implements XMLWriteable, Cloneable {
 
     private final Profiler profiler;
 
+    private final InterningStats interningStats = new InterningStats();
+
     @Override
     public String toString() {
         StringBuilder buf = new StringBuilder();
@@ -458,6 +460,7 @@ public class ProjectStats implements XMLWriteable, Cloneable {
         }
 
         getProfiler().writeXML(xmlOutput);
+        interningStats.writeXML(xmlOutput);
         xmlOutput.closeTag("FindBugsSummary");
     }
 
@@ -610,6 +613,13 @@ public class ProjectStats implements XMLWriteable, Cloneable {
         return profiler;
     }
 
+    /**
+     * @return hit and miss counts of the interning tables, never null
+     */
+    public InterningStats getInterningStats() {
+        return interningStats;
+    }
+
     public void setTotalClasses(int totalClasses) {
         this.totalClasses = totalClasses;
     }
@@ -28,11 +28,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 import javax.annotation.CheckForNull;
 
@@ -40,6 +42,7 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import edu.umd.cs.findbugs.classfile.DescriptorFactory;
 import edu.umd.cs.findbugs.filter.AndMatcher;
 import edu.umd.cs.findbugs.filter.BugMatcher;
 import edu.umd.cs.findbugs.filter.ClassMatcher;
@@ -60,7 +63,6 @@ import edu.umd.cs.findbugs.filter.RankMatcher;
 import edu.umd.cs.findbugs.filter.SourceMatcher;
 import edu.umd.cs.findbugs.filter.TypeMatcher;
 import edu.umd.cs.findbugs.model.ClassFeatureSet;
-import edu.umd.cs.findbugs.util.MapCache;
 import edu.umd.cs.findbugs.util.Strings;
 
 /**
@@ -78,8 +80,15 @@ public class SAXBugCollectionHandler extends DefaultHandler {
 
     private static final Logger LOGGER = Logger.getLogger(SAXBugCollectionHandler.class.getName());
 
+    /**
+     * Attributes holding class, method, field and source file names and
+     * signatures, which are repeated across many annotations
+     */
+    private static final Set<String> NAME_ATTRIBUTES = new HashSet<String>(asList("classname", "name",
+            "signature", "sourceSignature", "sourcefile", "sourceFile", "sourcepath", "type", "role", "descriptor"));
+
     public String getOptionalAttribute(Attributes attributes, String qName) {
-        return memoized(attributes.getValue(qName));
+        return memoized(qName, attributes.getValue(qName));
     }
 
     @CheckForNull
@@ -92,7 +101,14 @@ public class SAXBugCollectionHandler extends DefaultHandler {
 
     private Filter filter;
 
-    private final MapCache<String, String> cache = new MapCache<String, String>(2000);
+    /** Names and signatures read, so that each is only kept once per load */
+    private final ConcurrentMap<String, String> namePool;
+
+    /**
+     * If not null, the BugInstances read are added to this list instead of
+     * the BugCollection
+     */
+    private final @CheckForNull List<BugInstance> bugInstances;
 
     private final ArrayList<String> elementStack;
 
@@ -119,9 +135,17 @@ public class SAXBugCollectionHandler extends DefaultHandler {
 
     private SAXBugCollectionHandler(String topLevelName, @CheckForNull BugCollection bugCollection,
             @CheckForNull Project project, @CheckForNull File base) {
+        this(topLevelName, bugCollection, project, base, new ConcurrentHashMap<String, String>(), null);
+    }
+
+    private SAXBugCollectionHandler(String topLevelName, @CheckForNull BugCollection bugCollection,
+            @CheckForNull Project project, @CheckForNull File base, ConcurrentMap<String, String> namePool,
+            @CheckForNull List<BugInstance> bugInstances) {
         this.topLevelName = topLevelName;
         this.bugCollection = bugCollection;
         this.project = project;
+        this.namePool = namePool;
+        this.bugInstances = bugInstances;
 
         this.elementStack = new ArrayList<String>();
         this.textBuffer = new StringBuilder();
@@ -138,6 +162,25 @@ public class SAXBugCollectionHandler extends DefaultHandler {
         this(BUG_COLLECTION, bugCollection, bugCollection.getProject(), null);
     }
 
+    /**
+     * Create a handler for top-level BugInstance elements of a bug collection,
+     * without the enclosing BugCollection element. The BugInstances read are
+     * added to the given list rather than to the collection.
+     *
+     * @param bugCollection
+     *            the BugCollection being read
+     * @param namePool
+     *            the names read so far, shared with the handler of the
+     *            collection
+     * @param bugInstances
+     *            list to add the BugInstances read to
+     */
+    SAXBugCollectionHandler(BugCollection bugCollection, ConcurrentMap<String, String> namePool,
+            List<BugInstance> bugInstances) {
+        this(BUG_COLLECTION, bugCollection, bugCollection.getProject(), null, namePool, bugInstances);
+        elementStack.add(BUG_COLLECTION);
+    }
+
     public SAXBugCollectionHandler(Project project, File base) {
         this(PROJECT, null, project, base);
     }
@@ -148,27 +191,48 @@ public class SAXBugCollectionHandler extends DefaultHandler {
         pushCompoundMatcher(filter);
     }
 
-    Pattern ignoredElement = Pattern.compile("Message|ShortMessage|LongMessage");
-
     public boolean discardedElement(String qName) {
-        return ignoredElement.matcher(qName).matches();
-
+        return "Message".equals(qName) || "ShortMessage".equals(qName) || "LongMessage".equals(qName);
     }
 
     public String getTextContents() {
-        return memoized(Strings.unescapeXml(textBuffer.toString()));
+        return Strings.unescapeXml(textBuffer.toString());
+    }
+
+    /**
+     * @return the names and signatures read so far
+     */
+    ConcurrentMap<String, String> getNamePool() {
+        return namePool;
     }
 
-    private String memoized(String s) {
-        if (s == null) {
+    /**
+     * Keep a single copy of each name and signature read, rather than one
+     * for every annotation. Other values, such as instance hashes and
+     * numbers, are rarely repeated and are not pooled.
+     */
+    private String memoized(String attrName, String s) {
+        if (s == null || !NAME_ATTRIBUTES.contains(attrName)) {
             return s;
         }
-        String result = cache.get(s);
-        if (result != null) {
-            return result;
+        return pooled(s);
+    }
+
+    /**
+     * Names are shared with the descriptors created by the DescriptorFactory.
+     * Its pool of strings is bounded, so they are also kept in the pool of
+     * this load, where they stay shared after being dropped from it.
+     */
+    private String pooled(String s) {
+        String result = namePool.get(s);
+        if (result == null) {
+            result = DescriptorFactory.canonicalizeString(s);
+            String existing = namePool.putIfAbsent(result, result);
+            if (existing != null) {
+                result = existing;
+            }
         }
-        cache.put(s, s);
-        return s;
+        return result;
     }
 
     private static boolean DEBUG = false;
@@ -754,7 +818,11 @@ public class SAXBugCollectionHandler extends DefaultHandler {
                 BugCollection bugCollection = this.bugCollection;
                 assert bugCollection != null;
                 if ("BugInstance".equals(qName)) {
-                    bugCollection.add(bugInstance, false);
+                    if (bugInstances != null) {
+                        bugInstances.add(bugInstance);
+                    } else {
+                        bugCollection.add(bugInstance, false);
+                    }
                 }
             } else if (PROJECT.equals(outerElement)) {
                 Project project = this.project;
@@ -841,7 +909,7 @@ public class SAXBugCollectionHandler extends DefaultHandler {
         if (value == null) {
             throw new SAXException(elementName + " element missing " + attrName + " attribute");
         }
-        return memoized(Strings.unescapeXml(value));
+        return memoized(attrName, Strings.unescapeXml(value));
     }
 
 }
@@ -20,11 +20,13 @@
 package edu.umd.cs.findbugs;
 
 import java.awt.GraphicsEnvironment;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -47,6 +49,9 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
@@ -61,11 +66,9 @@ import javax.xml.transform.TransformerException;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.DocumentFactory;
-import org.xml.sax.InputSource;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 import edu.umd.cs.findbugs.ba.AnalysisContext;
 import edu.umd.cs.findbugs.ba.MissingClassException;
@@ -75,8 +78,12 @@ import edu.umd.cs.findbugs.cloud.CloudFactory;
 import edu.umd.cs.findbugs.log.Profiler;
 import edu.umd.cs.findbugs.model.ClassFeatureSet;
 import edu.umd.cs.findbugs.util.Util;
+import edu.umd.cs.findbugs.workflow.FileBugHash;
 import edu.umd.cs.findbugs.xml.Dom4JXMLOutput;
+import edu.umd.cs.findbugs.xml.BinaryXMLInput;
+import edu.umd.cs.findbugs.xml.BinaryXMLOutput;
 import edu.umd.cs.findbugs.xml.OutputStreamXMLOutput;
+import edu.umd.cs.findbugs.xml.PullXMLInput;
 import edu.umd.cs.findbugs.xml.XMLAttributeList;
 import edu.umd.cs.findbugs.xml.XMLOutput;
 import edu.umd.cs.findbugs.xml.XMLOutputUtil;
@@ -93,6 +100,9 @@ public class SortedBugCollection implements BugCollection {
 
     private static final Logger LOGGER = Logger.getLogger(SortedBugCollection.class.getName());
 
+    /** File extension for bug collections written in the binary format. */
+    public static final String BINARY_FILE_EXTENSION = ".fbb";
+
     private static final boolean REPORT_SUMMARY_HTML = SystemProperties.getBoolean("findbugs.report.SummaryHTML");
 
     long analysisTimestamp = System.currentTimeMillis();
@@ -115,6 +125,9 @@ public class SortedBugCollection implements BugCollection {
 
     long timeStartedLoading, timeFinishedLoading;
 
+    /** Number of bytes read by the last load, or -1 if unknown */
+    private long bytesLoaded = -1;
+
     String dataSource = "";
 
     private Map<String, String> xmlCloudDetails = Collections.emptyMap();
@@ -123,6 +136,12 @@ public class SortedBugCollection implements BugCollection {
 
     private final TreeSet<BugInstance> bugSet;
 
+    /** Annotations shared by the bugs of the collection */
+    private final BugAnnotationPool annotationPool = new BugAnnotationPool();
+
+    /** True if the counters of the annotation pool are not yet in the interning statistics */
+    private boolean annotationPoolChanged;
+
     private final LinkedHashSet<AnalysisError> errorList;
 
     private final TreeSet<String> missingClassSet;
@@ -164,6 +183,14 @@ public class SortedBugCollection implements BugCollection {
         return timeFinishedLoading;
     }
 
+    /**
+     * @return the number of bytes read when this collection was loaded, or -1
+     *         if it was loaded from a Reader or not loaded at all
+     */
+    public long getBytesLoaded() {
+        return bytesLoaded;
+    }
+
     public String getDataSource() {
         return dataSource;
     }
@@ -374,12 +401,26 @@ public class SortedBugCollection implements BugCollection {
     public void readXML(@WillClose Reader reader) throws IOException, DocumentException {
         assert project != null;
         assert reader != null;
+        bytesLoaded = -1;
         doReadXML(reader, null);
     }
 
     private void doReadXML(@WillClose InputStream in, @CheckForNull File base) throws IOException, DocumentException {
         try {
-            checkInputStream(in);
+            // Only streams that could be checked before are checked for XML
+            boolean checkXML = in.markSupported();
+            if (!checkXML) {
+                in = new BufferedInputStream(in);
+            }
+            bytesLoaded = 0;
+            in = new CountingInputStream(in);
+            if (BinaryXMLInput.isBinaryXML(in)) {
+                doReadBinary(in, base);
+                return;
+            }
+            if (checkXML) {
+                checkInputStream(in);
+            }
             Reader reader = Util.getReader(in);
             doReadXML(reader, base);
         } catch (RuntimeException e) {
@@ -397,19 +438,10 @@ public class SortedBugCollection implements BugCollection {
         SAXBugCollectionHandler handler = new SAXBugCollectionHandler(this, base);
         Profiler profiler = getProjectStats().getProfiler();
         profiler.start(handler.getClass());
+        int numThreads = getNumLoadThreads();
+        ExecutorService executor = createLoadExecutor(numThreads);
         try {
-
-            XMLReader xr;
-            try {
-                xr = XMLReaderFactory.createXMLReader();
-            } catch (SAXException e) {
-                AnalysisContext.logError("Couldn't create XMLReaderFactory", e);
-                throw new DocumentException("Sax error ", e);
-            }
-            xr.setContentHandler(handler);
-            xr.setErrorHandler(handler);
-
-            xr.parse(new InputSource(reader));
+            new PullXMLInput(reader).parse(createLoadHandler(handler, executor, numThreads));
         } catch (SAXParseException e) {
             if (base != null) {
                 throw new DocumentException("Parse error at line " + e.getLineNumber() + " : " + e.getColumnNumber() + " of "
@@ -424,12 +456,152 @@ public class SortedBugCollection implements BugCollection {
             throw new DocumentException("Sax error ", e);
         } finally {
             Util.closeSilently(reader);
+            if (executor != null) {
+                executor.shutdownNow();
+            }
             profiler.end(handler.getClass());
         }
+        finishedLoading();
+    }
+
+    /**
+     * Read a collection written by {@link #writeBinary(OutputStream)}.
+     */
+    private void doReadBinary(@WillClose InputStream in, @CheckForNull File base) throws IOException, DocumentException {
+        timeStartedLoading = System.currentTimeMillis();
+
+        SAXBugCollectionHandler handler = new SAXBugCollectionHandler(this, base);
+        Profiler profiler = getProjectStats().getProfiler();
+        profiler.start(handler.getClass());
+        int numThreads = getNumLoadThreads();
+        ExecutorService executor = createLoadExecutor(numThreads);
+        try {
+            new BinaryXMLInput(in).parse(createLoadHandler(handler, executor, numThreads));
+        } catch (SAXException e) {
+            if (base != null) {
+                throw new DocumentException("Sax error while reading " + base, e);
+            }
+            throw new DocumentException("Sax error ", e);
+        } finally {
+            Util.closeSilently(in);
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            profiler.end(handler.getClass());
+        }
+        finishedLoading();
+    }
+
+    private void finishedLoading() {
         timeFinishedLoading = System.currentTimeMillis();
         bugsPopulated();
         // Presumably, project is now up-to-date
         project.setModified(false);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(getLoadThroughput());
+        }
+    }
+
+    /**
+     * @return a description of the time taken by the last load, and of the
+     *         number of bugs and bytes read per second
+     */
+    public String getLoadThroughput() {
+        long millis = Math.max(1, timeFinishedLoading - timeStartedLoading);
+        StringBuilder buf = new StringBuilder();
+        buf.append("Loaded ").append(bugSet.size()).append(" bugs");
+        if (bytesLoaded >= 0) {
+            buf.append(" (").append(bytesLoaded / 1024).append(" KB)");
+        }
+        buf.append(" from ").append(dataSource.length() > 0 ? dataSource : "stream");
+        buf.append(" in ").append(millis).append(" ms: ").append(bugSet.size() * 1000L / millis).append(" bugs/s");
+        if (bytesLoaded >= 0) {
+            buf.append(", ").append(bytesLoaded * 1000L / 1024 / millis).append(" KB/s");
+        }
+        return buf.toString();
+    }
+
+    /**
+     * @return the number of threads parsing the BugInstances of a collection
+     *         read, from the findbugs.load.threads property; with a single
+     *         thread, they are parsed by the thread reading the document
+     */
+    private static int getNumLoadThreads() {
+        return Math.max(1, SystemProperties.getInt("findbugs.load.threads", 1));
+    }
+
+    private static @CheckForNull ExecutorService createLoadExecutor(int numThreads) {
+        if (numThreads <= 1) {
+            return null;
+        }
+        // The threads inherit the DescriptorFactory, whose strings are shared
+        // with the names read
+        return Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            int count;
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "FindBugs load thread " + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    private ContentHandler createLoadHandler(SAXBugCollectionHandler handler, @CheckForNull ExecutorService executor,
+            int numThreads) {
+        if (executor == null) {
+            return handler;
+        }
+        return new ParallelBugCollectionHandler(this, handler, executor, numThreads);
+    }
+
+    /**
+     * Counts the bytes read in {@link #bytesLoaded}.
+     */
+    private class CountingInputStream extends FilterInputStream {
+        private long markedCount;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bytesLoaded++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                bytesLoaded += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytesLoaded += skipped;
+            return skipped;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            super.mark(readlimit);
+            markedCount = bytesLoaded;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            super.reset();
+            bytesLoaded = markedCount;
+        }
     }
 
 
@@ -450,7 +622,11 @@ public class SortedBugCollection implements BugCollection {
         if (fileName.endsWith(".gz")) {
             out = new GZIPOutputStream(out);
         }
-        writeXML(out);
+        if (isBinaryFileName(fileName)) {
+            writeBinary(out);
+        } else {
+            writeXML(out);
+        }
     }
 
     /**
@@ -464,7 +640,38 @@ public class SortedBugCollection implements BugCollection {
         if (file.getName().endsWith(".gz")) {
             out = new GZIPOutputStream(out);
         }
-        writeXML(out);
+        if (isBinaryFileName(file.getName())) {
+            writeBinary(out);
+        } else {
+            writeXML(out);
+        }
+    }
+
+    /**
+     * Write this BugCollection in the compact binary format. The binary
+     * format encodes exactly the XML writeXML would write, but with every
+     * repeated name and value replaced by a reference to its first
+     * occurrence; readXML recognizes it automatically.
+     *
+     * @param out
+     *            the OutputStream to write to
+     * @see BinaryXMLOutput
+     */
+    public void writeBinary(@WillClose OutputStream out) throws IOException {
+        assert project != null;
+        bugsPopulated();
+        writeXML(new BinaryXMLOutput(out));
+    }
+
+    /**
+     * @param fileName
+     *            name of a file
+     * @return true if writeXML should write the file in the binary format,
+     *         i.e. its name ends in {@value #BINARY_FILE_EXTENSION} (optionally
+     *         followed by .gz)
+     */
+    public static boolean isBinaryFileName(String fileName) {
+        return fileName.endsWith(BINARY_FILE_EXTENSION) || fileName.endsWith(BINARY_FILE_EXTENSION + ".gz");
     }
 
     /**
@@ -500,6 +707,57 @@ public class SortedBugCollection implements BugCollection {
     public void writeXML(@WillClose Writer out) throws IOException {
         assert project != null;
         bugsPopulated();
+        writeXML(createXMLOutput(out));
+    }
+
+    /**
+     * Write this BugCollection as XML, with the given bugs in place of the
+     * ones in the collection. This is used to write more bugs than fit in
+     * memory: the bugs are read once to compute the summary information and
+     * once more to write them. The bug statistics are not recounted; they
+     * must already count the bugs as add() counts them, i.e., every live bug
+     * added, including those dropped as duplicates. The output stream will be
+     * closed, even if an exception is thrown.
+     *
+     * @param out
+     *            the Writer to write to
+     * @param sortedBugs
+     *            the bugs, without duplicates and in the order of the
+     *            collection's comparator
+     */
+    public void writeXML(@WillClose Writer out, Iterable<BugInstance> sortedBugs) throws IOException {
+        assert project != null;
+        bugsPopulated();
+        writeXML(createXMLOutput(out), sortedBugs);
+    }
+
+    /**
+     * Write this BugCollection to a file, with the given bugs in place of the
+     * ones in the collection, in the format writeXML(String) would use for
+     * the file.
+     *
+     * @param fileName
+     *            the file to write to
+     * @param sortedBugs
+     *            the bugs, without duplicates and in the order of the
+     *            collection's comparator
+     * @see #writeXML(Writer, Iterable)
+     */
+    public void writeXML(String fileName, Iterable<BugInstance> sortedBugs) throws IOException {
+        OutputStream out = new FileOutputStream(fileName);
+        if (fileName.endsWith(".gz")) {
+            out = new GZIPOutputStream(out);
+        }
+        if (isBinaryFileName(fileName)) {
+            assert project != null;
+            bugsPopulated();
+            writeXML(new BinaryXMLOutput(out), sortedBugs);
+        } else {
+            writeXML(UTF8.writer(out), sortedBugs);
+        }
+    }
+
+    private XMLOutput createXMLOutput(@WillClose Writer out) {
         XMLOutput xmlOutput;
         // if (project == null) throw new NullPointerException("No project");
 
@@ -517,8 +775,7 @@ public class SortedBugCollection implements BugCollection {
         } else {
             xmlOutput = new OutputStreamXMLOutput(out);
         }
-
-        writeXML(xmlOutput);
+        return xmlOutput;
     }
 
     @Override
@@ -573,12 +830,49 @@ public class SortedBugCollection implements BugCollection {
      */
     @Override
     public void writeXML(@WillClose XMLOutput xmlOutput) throws IOException {
+        writeXML(xmlOutput, null);
+    }
+
+    /**
+     * Write the BugCollection to an XMLOutput object, either with its own
+     * bugs or with the given ones.
+     *
+     * @see #writeXML(Writer, Iterable)
+     */
+    private void writeXML(@WillClose XMLOutput xmlOutput, @CheckForNull Iterable<BugInstance> sortedBugs) throws IOException {
         assert project != null;
         try {
+            Iterable<BugInstance> bugs;
+            Set<BugPattern> reportedPatterns;
+            Map<String, Integer> occurrenceMax = null;
+            if (sortedBugs == null) {
+                bugs = getCollection();
+                reportedPatterns = withMessages ? getReportedBugPatterns(bugs) : Collections.<BugPattern>emptySet();
+            } else {
+                bugs = sortedBugs;
+                reportedPatterns = new HashSet<BugPattern>();
+                occurrenceMax = new HashMap<String, Integer>();
+                FileBugHash fileBugHash = withMessages ? new FileBugHash(getProjectStats()) : null;
+                for (BugInstance bugInstance : sortedBugs) {
+                    reportedPatterns.add(bugInstance.getBugPattern());
+                    if (withMessages) {
+                        String hash = bugInstance.getInstanceHash();
+                        Integer count = occurrenceMax.get(hash);
+                        occurrenceMax.put(hash, count == null ? 0 : count + 1);
+                        fileBugHash.add(bugInstance);
+                    }
+                }
+                if (withMessages) {
+                    getProjectStats().fileBugHashes = fileBugHash;
+                }
+            }
+
             writePrologue(xmlOutput);
             if (withMessages) {
-                computeBugHashes();
-                getProjectStats().computeFileStats(this);
+                if (sortedBugs == null) {
+                    computeBugHashes();
+                    getProjectStats().computeFileStats(this);
+                }
                 String commonBase = null;
                 for (String s : project.getSourceDirList()) {
                     if (commonBase == null) {
@@ -603,13 +897,23 @@ public class SortedBugCollection implements BugCollection {
             }
 
             // Write BugInstances
-            for (BugInstance bugInstance : getCollection()) {
+            HashMap<String, Integer> seen = new HashMap<String, Integer>();
+            for (BugInstance bugInstance : bugs) {
+                if (occurrenceMax != null && withMessages) {
+                    // As computeBugHashes would
+                    String hash = bugInstance.getInstanceHash();
+                    Integer count = seen.get(hash);
+                    count = count == null ? 0 : count + 1;
+                    seen.put(hash, count);
+                    bugInstance.setInstanceOccurrenceNum(count);
+                    bugInstance.setInstanceOccurrenceMax(occurrenceMax.get(hash));
+                }
                 if (!applySuppressions || !project.getSuppressionFilter().match(bugInstance)) {
                     bugInstance.writeXML(xmlOutput, this, withMessages);
                 }
             }
 
-            writeEpilogue(xmlOutput);
+            writeEpilogue(xmlOutput, reportedPatterns);
 
         } finally {
             xmlOutput.finish();
@@ -627,10 +931,22 @@ public class SortedBugCollection implements BugCollection {
 
     @Override
     public void writeEpilogue(XMLOutput xmlOutput) throws IOException {
+        writeEpilogue(xmlOutput, withMessages ? getReportedBugPatterns(getCollection()) : Collections.<BugPattern>emptySet());
+    }
+
+    private static Set<BugPattern> getReportedBugPatterns(Iterable<BugInstance> bugs) {
+        Set<BugPattern> result = new HashSet<BugPattern>();
+        for (BugInstance bugInstance : bugs) {
+            result.add(bugInstance.getBugPattern());
+        }
+        return result;
+    }
+
+    private void writeEpilogue(XMLOutput xmlOutput, Set<BugPattern> reportedPatterns) throws IOException {
         if (withMessages) {
-            writeBugCategories(xmlOutput);
-            writeBugPatterns(xmlOutput);
-            writeBugCodes(xmlOutput);
+            writeBugCategories(xmlOutput, reportedPatterns);
+            writeBugPatterns(xmlOutput, reportedPatterns);
+            writeBugCodes(xmlOutput, reportedPatterns);
         }
         // Errors, missing classes
         if (!minimalXML) {
@@ -678,12 +994,10 @@ public class SortedBugCollection implements BugCollection {
         xmlOutput.closeTag(ROOT_ELEMENT_NAME);
     }
 
-    private void writeBugPatterns(XMLOutput xmlOutput) throws IOException {
+    private void writeBugPatterns(XMLOutput xmlOutput, Set<BugPattern> reportedPatterns) throws IOException {
         // Find bug types reported
         Set<String> bugTypeSet = new HashSet<String>();
-        for (Iterator<BugInstance> i = iterator(); i.hasNext();) {
-            BugInstance bugInstance = i.next();
-            BugPattern bugPattern = bugInstance.getBugPattern();
+        for (BugPattern bugPattern : reportedPatterns) {
             bugTypeSet.add(bugPattern.getType());
         }
         // Emit element describing each reported bug pattern
@@ -714,12 +1028,11 @@ public class SortedBugCollection implements BugCollection {
         }
     }
 
-    private void writeBugCodes(XMLOutput xmlOutput) throws IOException {
+    private void writeBugCodes(XMLOutput xmlOutput, Set<BugPattern> reportedPatterns) throws IOException {
         // Find bug codes reported
         Set<String> bugCodeSet = new HashSet<String>();
-        for (Iterator<BugInstance> i = iterator(); i.hasNext();) {
-            BugInstance bugInstance = i.next();
-            String bugCode = bugInstance.getAbbrev();
+        for (BugPattern bugPattern : reportedPatterns) {
+            String bugCode = bugPattern.getAbbrev();
             if (bugCode != null) {
                 bugCodeSet.add(bugCode);
             }
@@ -747,12 +1060,10 @@ public class SortedBugCollection implements BugCollection {
         }
     }
 
-    private void writeBugCategories(XMLOutput xmlOutput) throws IOException {
+    private void writeBugCategories(XMLOutput xmlOutput, Set<BugPattern> reportedPatterns) throws IOException {
         // Find bug categories reported
         Set<String> bugCatSet = new HashSet<String>();
-        for (Iterator<BugInstance> i = iterator(); i.hasNext();) {
-            BugInstance bugInstance = i.next();
-            BugPattern bugPattern = bugInstance.getBugPattern();
+        for (BugPattern bugPattern : reportedPatterns) {
             bugCatSet.add(bugPattern.getCategory());
         }
         // Emit element describing each reported bug code
@@ -1021,7 +1332,12 @@ public class SortedBugCollection implements BugCollection {
         if (!bugInstance.isDead()) {
             projectStats.addBug(bugInstance);
         }
-        return bugSet.add(bugInstance);
+        if (!bugSet.add(bugInstance)) {
+            return false;
+        }
+        bugInstance.internAnnotations(annotationPool);
+        annotationPoolChanged = true;
+        return true;
     }
 
     private void invalidateHashes() {
@@ -1126,6 +1442,12 @@ public class SortedBugCollection implements BugCollection {
 
     @Override
     public ProjectStats getProjectStats() {
+        if (annotationPoolChanged) {
+            // Published when the statistics are read rather than on every
+            // add, as InterningStats is synchronized
+            annotationPoolChanged = false;
+            annotationPool.reportInterningStats(projectStats.getInterningStats());
+        }
         return projectStats;
     }
 
@@ -1198,9 +1520,17 @@ public class SortedBugCollection implements BugCollection {
 
     public void clearBugInstances() {
         bugSet.clear();
+        annotationPool.clear();
         invalidateHashes();
     }
 
+    /**
+     * @return the comparator ordering the bugs of this collection
+     */
+    Comparator<BugInstance> getComparator() {
+        return comparator;
+    }
+
     @Override
     public void clearMissingClasses() {
         missingClassSet.clear();
@@ -0,0 +1,329 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.xml.sax.SAXException;
+
+import edu.umd.cs.findbugs.util.Util;
+import edu.umd.cs.findbugs.xml.BinaryXMLInput;
+import edu.umd.cs.findbugs.xml.BinaryXMLOutput;
+import edu.umd.cs.findbugs.xml.XMLOutput;
+
+/**
+ * Sorted runs of bugs kept in temporary files, and merged back in order when
+ * they are read. This is an external sort, which lets a reporter write more
+ * bugs than fit in memory in the order of a SortedBugCollection.
+ * <p>
+ * Each bug is stored as a separate binary XML document containing just the
+ * bug in a BugCollection element, preceded by its length, and is read back
+ * with SAXBugCollectionHandler.
+ *
+ * @see XMLBugReporter#setStreaming(boolean)
+ * @see edu.umd.cs.findbugs.workflow.Update
+ */
+public final class SortedBugRuns {
+
+    private final SortedBugCollection owner;
+
+    private final Comparator<BugInstance> comparator;
+
+    private final List<File> runFiles = new ArrayList<File>();
+
+    private final List<Integer> runSizes = new ArrayList<Integer>();
+
+    private final List<RunReader> openReaders = new ArrayList<RunReader>();
+
+    /**
+     * @param owner
+     *            the collection whose comparator orders the bugs
+     */
+    public SortedBugRuns(SortedBugCollection owner) {
+        this.owner = owner;
+        this.comparator = owner.getComparator();
+    }
+
+    /**
+     * @return the number of runs written
+     */
+    int getNumRuns() {
+        return runFiles.size();
+    }
+
+    /**
+     * Write a run of bugs to a temporary file.
+     *
+     * @param sortedBugs
+     *            the bugs, in the order of the collection's comparator
+     */
+    public void write(Collection<BugInstance> sortedBugs) throws IOException {
+        RunWriter run = openRun();
+        try {
+            for (BugInstance bugInstance : sortedBugs) {
+                run.write(bugInstance);
+            }
+        } finally {
+            run.close();
+        }
+    }
+
+    /**
+     * Start writing a run to a temporary file, one bug at a time, for runs
+     * which are produced in order rather than held in memory. The run is
+     * merged with the others once it is closed.
+     *
+     * @return the writer of the run
+     */
+    public RunWriter openRun() throws IOException {
+        File file = File.createTempFile("findbugs", ".run");
+        file.deleteOnExit();
+        runFiles.add(file);
+        runSizes.add(0);
+        return new RunWriter(runFiles.size() - 1, file);
+    }
+
+    /**
+     * Writer of a run, which must be given the bugs in the order of the
+     * collection's comparator.
+     */
+    public class RunWriter implements Closeable {
+        private final int index;
+
+        private final DataOutputStream out;
+
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+        private int size;
+
+        RunWriter(int index, File file) throws IOException {
+            this.index = index;
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        }
+
+        public void write(BugInstance bugInstance) throws IOException {
+            record.reset();
+            XMLOutput xmlOutput = new BinaryXMLOutput(record);
+            try {
+                xmlOutput.beginDocument();
+                xmlOutput.openTag(BugCollection.ROOT_ELEMENT_NAME);
+                bugInstance.writeXML(xmlOutput, owner, false);
+                xmlOutput.closeTag(BugCollection.ROOT_ELEMENT_NAME);
+            } finally {
+                xmlOutput.finish();
+            }
+            out.writeInt(record.size());
+            record.writeTo(out);
+            size++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            runSizes.set(index, size);
+            out.close();
+        }
+    }
+
+    /**
+     * Merge the runs written with a last run kept in memory. Each iteration
+     * over the result reads the runs again. Bugs equal to a bug of an earlier
+     * run are dropped, as SortedBugCollection would drop them. Errors reading
+     * the runs are thrown as UncheckedIOExceptions.
+     *
+     * @param sortedBugs
+     *            the last run of bugs, in the order of the collection's
+     *            comparator
+     * @return the bugs of all runs, in order and without duplicates
+     */
+    public Iterable<BugInstance> merge(final Collection<BugInstance> sortedBugs) {
+        return new Iterable<BugInstance>() {
+            @Override
+            public Iterator<BugInstance> iterator() {
+                return new MergeIterator(sortedBugs);
+            }
+        };
+    }
+
+    /**
+     * Close any runs still being read, and delete the temporary files.
+     */
+    public void delete() {
+        for (RunReader reader : openReaders) {
+            Util.closeSilently(reader.in);
+        }
+        openReaders.clear();
+        for (File file : runFiles) {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+        runFiles.clear();
+        runSizes.clear();
+    }
+
+    /**
+     * A run being merged, positioned at its smallest bug not yet merged.
+     */
+    private abstract static class Run {
+        /** Position of the run; bugs of earlier runs come first among equal bugs */
+        final int index;
+
+        BugInstance current;
+
+        Run(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Move to the next bug of the run, setting current to null at the end
+         * of the run.
+         */
+        abstract void advance() throws IOException;
+    }
+
+    private class RunReader extends Run {
+        final DataInputStream in;
+
+        int remaining;
+
+        final SortedBugCollection scratch = new SortedBugCollection();
+
+        final SAXBugCollectionHandler handler = new SAXBugCollectionHandler(scratch);
+
+        RunReader(int index) throws IOException {
+            super(index);
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFiles.get(index)), 64 * 1024));
+            remaining = runSizes.get(index);
+            openReaders.add(this);
+        }
+
+        @Override
+        void advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                openReaders.remove(this);
+                in.close();
+                return;
+            }
+            remaining--;
+            byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            try {
+                new BinaryXMLInput(new ByteArrayInputStream(record)).parse(handler);
+            } catch (SAXException e) {
+                throw new IOException("Invalid bug in " + runFiles.get(index), e);
+            }
+            current = scratch.getCollection().iterator().next();
+            scratch.clearBugInstances();
+        }
+    }
+
+    private static class MemoryRun extends Run {
+        final Iterator<BugInstance> iterator;
+
+        MemoryRun(int index, Collection<BugInstance> bugs) {
+            super(index);
+            iterator = bugs.iterator();
+        }
+
+        @Override
+        void advance() {
+            current = iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    private class MergeIterator implements Iterator<BugInstance> {
+        final PriorityQueue<Run> queue = new PriorityQueue<Run>(runFiles.size() + 1, new Comparator<Run>() {
+            @Override
+            public int compare(Run lhs, Run rhs) {
+                int cmp = comparator.compare(lhs.current, rhs.current);
+                if (cmp != 0) {
+                    return cmp;
+                }
+                return lhs.index - rhs.index;
+            }
+        });
+
+        MergeIterator(Collection<BugInstance> sortedBugs) {
+            try {
+                for (int i = 0; i < runFiles.size(); i++) {
+                    advanceAndQueue(new RunReader(i));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            advanceAndQueue(new MemoryRun(runFiles.size(), sortedBugs));
+        }
+
+        private void advanceAndQueue(Run run) {
+            try {
+                run.advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (run.current != null) {
+                queue.add(run);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public BugInstance next() {
+            Run run = queue.poll();
+            if (run == null) {
+                throw new NoSuchElementException();
+            }
+            BugInstance result = run.current;
+            advanceAndQueue(run);
+            // Drop duplicates from later runs
+            while (!queue.isEmpty() && comparator.compare(queue.peek().current, result) == 0) {
+                advanceAndQueue(queue.poll());
+            }
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
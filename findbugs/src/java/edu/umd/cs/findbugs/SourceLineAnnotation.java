@@ -32,12 +32,14 @@ import org.apache.bcel.classfile.LineNumber;
 import org.apache.bcel.classfile.LineNumberTable;
 import org.apache.bcel.classfile.Method;
 import org.apache.bcel.generic.InstructionHandle;
+import org.apache.bcel.generic.InstructionList;
 import org.apache.bcel.generic.MethodGen;
 
 import edu.umd.cs.findbugs.ba.AnalysisContext;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.ba.Hierarchy;
 import edu.umd.cs.findbugs.ba.JavaClassAndMethod;
+import edu.umd.cs.findbugs.ba.LineNumberIndex;
 import edu.umd.cs.findbugs.ba.Location;
 import edu.umd.cs.findbugs.ba.SourceFinder;
 import edu.umd.cs.findbugs.ba.SourceInfoMap;
@@ -235,9 +237,13 @@ public class SourceLineAnnotation implements BugAnnotation {
      *         information for the method
      */
     public static SourceLineAnnotation fromVisitedMethod(MethodGen methodGen, String sourceFile) {
-        LineNumberTable lineNumberTable = methodGen.getLineNumberTable(methodGen.getConstantPool());
         String className = methodGen.getClassName();
         int codeSize = methodGen.getInstructionList().getLength();
+        LineNumberIndex.MethodLines lines = getMethodLines(methodGen);
+        if (lines != null) {
+            return new SourceLineAnnotation(className, sourceFile, lines.getFirstLine(), lines.getLastLine(), 0, codeSize - 1);
+        }
+        LineNumberTable lineNumberTable = methodGen.getLineNumberTable(methodGen.getConstantPool());
         if (lineNumberTable == null) {
             return createUnknown(className, sourceFile, 0, codeSize - 1);
         }
@@ -284,6 +290,14 @@ public class SourceLineAnnotation implements BugAnnotation {
             return createUnknown(javaClass.getClassName(), sourceFile);
         }
         Code code = method.getCode();
+        if (code != null) {
+            LineNumberIndex.MethodLines lines = LineNumberIndex.lookup(javaClass.getClassName(), method.getName(),
+                    method.getSignature(), code.getLength());
+            if (lines != null) {
+                return new SourceLineAnnotation(javaClass.getClassName(), sourceFile, lines.getFirstLine(), lines.getLastLine(),
+                        0, code.getLength() - 1);
+            }
+        }
         LineNumberTable lineNumberTable = method.getLineNumberTable();
         if (code == null || lineNumberTable == null) {
             return createUnknown(javaClass.getClassName(), sourceFile);
@@ -323,24 +337,16 @@ public class SourceLineAnnotation implements BugAnnotation {
         SourceLineAnnotation result = null;
 
         try {
-            Method m = Global.getAnalysisCache().getMethodAnalysis(Method.class, methodDescriptor);
             XClass xclass = Global.getAnalysisCache().getClassAnalysis(XClass.class, methodDescriptor.getClassDescriptor());
-            LineNumberTable lnt = m.getLineNumberTable();
             String sourceFile = xclass.getSource();
-            if (sourceFile != null && lnt != null) {
-                int firstLine = Integer.MAX_VALUE;
-                int bytecode = 0;
-                LineNumber[] entries = lnt.getLineNumberTable();
-                for (LineNumber entry : entries) {
-                    if (entry.getLineNumber() < firstLine) {
-                        firstLine = entry.getLineNumber();
-                        bytecode = entry.getStartPC();
-                    }
-                }
-                if (firstLine < Integer.MAX_VALUE) {
-
-                    result = new SourceLineAnnotation(methodDescriptor.getClassDescriptor().toDottedClassName(), sourceFile,
-                            firstLine, firstLine, bytecode, bytecode);
+            if (sourceFile != null) {
+                String className = methodDescriptor.getClassDescriptor().toDottedClassName();
+                LineNumberIndex.MethodLines lines = LineNumberIndex.lookup(className, methodDescriptor.getName(),
+                        methodDescriptor.getSignature(), -1);
+                if (lines != null) {
+                    int firstLine = lines.getMinLine();
+                    int bytecode = lines.getMinLinePC();
+                    result = new SourceLineAnnotation(className, sourceFile, firstLine, firstLine, bytecode, bytecode);
                 }
             }
         } catch (CheckedAnalysisException e) {
@@ -466,9 +472,16 @@ public class SourceLineAnnotation implements BugAnnotation {
      * @return SourceLineAnnotation describing visited instruction
      */
     public static SourceLineAnnotation fromVisitedInstruction(JavaClass jclass, Method method, int pc) {
-        LineNumberTable lineNumberTable = method.getCode().getLineNumberTable();
+        Code code = method.getCode();
         String className = jclass.getClassName();
         String sourceFile = jclass.getSourceFileName();
+        LineNumberIndex.MethodLines lines = LineNumberIndex.lookup(className, method.getName(), method.getSignature(),
+                code.getLength());
+        if (lines != null) {
+            int startLine = lines.getSourceLine(pc);
+            return new SourceLineAnnotation(className, sourceFile, startLine, startLine, pc, pc);
+        }
+        LineNumberTable lineNumberTable = code.getLineNumberTable();
         if (lineNumberTable == null) {
             return createUnknown(className, sourceFile, pc, pc);
         }
@@ -492,10 +505,15 @@ public class SourceLineAnnotation implements BugAnnotation {
      *         information for the instruction
      */
     public static SourceLineAnnotation fromVisitedInstructionRange(BytecodeScanningDetector visitor, int startPC, int endPC) {
-        LineNumberTable lineNumberTable = getLineNumberTable(visitor);
         String className = visitor.getDottedClassName();
         String sourceFile = visitor.getSourceFile();
+        LineNumberIndex.MethodLines lines = getMethodLines(visitor);
+        if (lines != null) {
+            return new SourceLineAnnotation(className, sourceFile, lines.getSourceLine(startPC), lines.getSourceLine(endPC),
+                    startPC, endPC);
+        }
 
+        LineNumberTable lineNumberTable = getLineNumberTable(visitor);
         if (lineNumberTable == null) {
             return createUnknown(className, sourceFile, startPC, endPC);
         }
@@ -527,10 +545,15 @@ public class SourceLineAnnotation implements BugAnnotation {
             throw new IllegalArgumentException("Start pc " + startPC + " greater than end pc " + endPC);
         }
 
-        LineNumberTable lineNumberTable = getLineNumberTable(visitor);
         String className = visitor.getDottedClassName();
         String sourceFile = visitor.getSourceFile();
+        LineNumberIndex.MethodLines lines = getMethodLines(visitor);
+        if (lines != null) {
+            return new SourceLineAnnotation(className, sourceFile, lines.getSourceLine(startPC), lines.getSourceLine(endPC),
+                    startPC, endPC);
+        }
 
+        LineNumberTable lineNumberTable = getLineNumberTable(visitor);
         if (lineNumberTable == null) {
             return createUnknown(className, sourceFile, startPC, endPC);
         }
@@ -578,11 +601,17 @@ public class SourceLineAnnotation implements BugAnnotation {
     @Nonnull
     public static SourceLineAnnotation fromVisitedInstruction(ClassContext classContext, MethodGen methodGen, String sourceFile,
             @Nonnull InstructionHandle handle) {
-        LineNumberTable table = methodGen.getLineNumberTable(methodGen.getConstantPool());
         String className = methodGen.getClassName();
 
         int bytecodeOffset = handle.getPosition();
 
+        LineNumberIndex.MethodLines lines = getMethodLines(methodGen);
+        if (lines != null) {
+            int lineNumber = lines.getSourceLine(bytecodeOffset);
+            return new SourceLineAnnotation(className, sourceFile, lineNumber, lineNumber, bytecodeOffset, bytecodeOffset);
+        }
+
+        LineNumberTable table = methodGen.getLineNumberTable(methodGen.getConstantPool());
         if (table == null) {
             return createUnknown(className, sourceFile, bytecodeOffset, bytecodeOffset);
         }
@@ -606,9 +635,15 @@ public class SourceLineAnnotation implements BugAnnotation {
      */
     public static SourceLineAnnotation fromVisitedInstructionRange(ClassContext classContext, MethodGen methodGen,
             String sourceFile, InstructionHandle start, InstructionHandle end) {
-        LineNumberTable lineNumberTable = methodGen.getLineNumberTable(methodGen.getConstantPool());
         String className = methodGen.getClassName();
 
+        LineNumberIndex.MethodLines lines = getMethodLines(methodGen);
+        if (lines != null) {
+            return new SourceLineAnnotation(className, sourceFile, lines.getSourceLine(start.getPosition()),
+                    lines.getSourceLine(end.getPosition()), start.getPosition(), end.getPosition());
+        }
+
+        LineNumberTable lineNumberTable = methodGen.getLineNumberTable(methodGen.getConstantPool());
         if (lineNumberTable == null) {
             return createUnknown(className, sourceFile, start.getPosition(), end.getPosition());
         }
@@ -618,6 +653,33 @@ public class SourceLineAnnotation implements BugAnnotation {
         return new SourceLineAnnotation(className, sourceFile, startLine, endLine, start.getPosition(), end.getPosition());
     }
 
+    /**
+     * Get the line numbers of the visited method from the shared
+     * LineNumberIndex, or null if they are not available there.
+     */
+    private static @CheckForNull LineNumberIndex.MethodLines getMethodLines(PreorderVisitor visitor) {
+        Method method = visitor.getMethod();
+        Code code = method.getCode();
+        if (code == null) {
+            return null;
+        }
+        return LineNumberIndex.lookup(visitor.getDottedClassName(), method.getName(), method.getSignature(), code.getLength());
+    }
+
+    /**
+     * Get the line numbers of a method from the shared LineNumberIndex, rather
+     * than building a LineNumberTable from the MethodGen.
+     */
+    private static @CheckForNull LineNumberIndex.MethodLines getMethodLines(MethodGen methodGen) {
+        InstructionList il = methodGen.getInstructionList();
+        if (il == null || il.isEmpty()) {
+            return null;
+        }
+        InstructionHandle last = il.getEnd();
+        int codeLength = last.getPosition() + last.getInstruction().getLength();
+        return LineNumberIndex.lookup(methodGen.getClassName(), methodGen.getName(), methodGen.getSignature(), codeLength);
+    }
+
     private static LineNumberTable getLineNumberTable(PreorderVisitor visitor) {
         Code code = visitor.getMethod().getCode();
         if (code == null) {
@@ -96,6 +96,8 @@ public class TextUICommandLine extends FindBugsCommandLine {
 
     private boolean xmlWithAbridgedMessages = false;
 
+    private boolean xmlStreaming = false;
+
     private String stylesheet = null;
 
     private boolean quiet = false;
@@ -110,6 +112,12 @@ public class TextUICommandLine extends FindBugsCommandLine {
 
     private boolean noClassOk = false;
 
+    private int numAnalysisThreads = 1;
+
+    private String incrementalCacheDirectory;
+
+    private String detectorMetricsFile;
+
     private int priorityThreshold = Detector.NORMAL_PRIORITY;
 
     private int rankThreshold = SystemProperties.getInt("findbugs.maxRank", BugRanker.VISIBLE_RANK_MAX);
@@ -168,7 +176,8 @@ public class TextUICommandLine extends FindBugsCommandLine {
         addSwitch("-dontCombineWarnings", "Don't combine warnings that differ only in line number");
 
         addSwitch("-sortByClass", "sort warnings by class");
-        addSwitchWithOptionalExtraPart("-xml", "withMessages", "XML output (optionally with messages)");
+        addSwitchWithOptionalExtraPart("-xml", "withMessages,streaming",
+                "XML output (optionally with messages, optionally streaming bugs through temporary files)");
         addSwitch("-xdocs", "xdoc XML output to use with Apache Maven");
         addSwitchWithOptionalExtraPart("-html", "stylesheet", "Generate HTML output (default stylesheet is default.xsl)");
         addSwitch("-emacs", "Use emacs reporting format");
@@ -185,6 +194,9 @@ public class TextUICommandLine extends FindBugsCommandLine {
         addOption("-output", "filename", "Save output in named file");
         makeOptionUnlisted("-outputFile");
         addSwitchWithOptionalExtraPart("-nested", "true|false", "analyze nested jar/zip archives (default=true)");
+        addOption("-threads", "number", "number of threads used to analyze classes (default=1)");
+        addOption("-incrementalCache", "directory", "reuse results for unchanged classes from, and save results to, directory");
+        addOption("-detectorMetrics", "file", "write CPU time and allocations per detector to file (.csv or .json)");
 
         startOptionGroup("Output filtering options:");
         addOption("-bugCategories", "cat1[,cat2...]", "only report bugs in given categories");
@@ -308,16 +320,20 @@ public class TextUICommandLine extends FindBugsCommandLine {
         } else if ("-xml".equals(option)) {
             bugReporterType = XML_REPORTER;
             if (!"".equals(optionExtraPart)) {
-                if ("withMessages".equals(optionExtraPart)) {
-                    xmlWithMessages = true;
-                } else if ("withAbridgedMessages".equals(optionExtraPart)) {
-                    xmlWithMessages = true;
-                    xmlWithAbridgedMessages = true;
-                } else if ("minimal".equals(optionExtraPart)) {
-                    xmlWithMessages = false;
-                    xmlMinimal = true;
-                } else {
-                    throw new IllegalArgumentException("Unknown option: -xml:" + optionExtraPart);
+                for (String part : optionExtraPart.split(",")) {
+                    if ("withMessages".equals(part)) {
+                        xmlWithMessages = true;
+                    } else if ("withAbridgedMessages".equals(part)) {
+                        xmlWithMessages = true;
+                        xmlWithAbridgedMessages = true;
+                    } else if ("minimal".equals(part)) {
+                        xmlWithMessages = false;
+                        xmlMinimal = true;
+                    } else if ("streaming".equals(part)) {
+                        xmlStreaming = true;
+                    } else {
+                        throw new IllegalArgumentException("Unknown option: -xml:" + part);
+                    }
                 }
             }
         } else if ("-emacs".equals(option)) {
@@ -408,6 +424,19 @@ public class TextUICommandLine extends FindBugsCommandLine {
                 System.err.println("Couldn't open " + outputFile + " for output: " + e.toString());
                 System.exit(1);
             }
+        } else if ("-threads".equals(option)) {
+            try {
+                numAnalysisThreads = Integer.parseInt(argument);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad number of threads: " + argument);
+            }
+            if (numAnalysisThreads < 1) {
+                throw new IllegalArgumentException("Number of threads must be positive: " + argument);
+            }
+        } else if ("-incrementalCache".equals(option)) {
+            incrementalCacheDirectory = argument;
+        } else if ("-detectorMetrics".equals(option)) {
+            detectorMetricsFile = argument;
         } else if ("-cloud".equals(option)) {
             project.setCloudId(argument);
         } else if ("-cloudProperty".equals(option)) {
@@ -639,6 +668,7 @@ public class TextUICommandLine extends FindBugsCommandLine {
             XMLBugReporter xmlBugReporter = new XMLBugReporter(project);
             xmlBugReporter.setAddMessages(xmlWithMessages);
             xmlBugReporter.setMinimalXML(xmlMinimal);
+            xmlBugReporter.setStreaming(xmlStreaming);
 
             textuiBugReporter = xmlBugReporter;
         }
@@ -707,6 +737,9 @@ public class TextUICommandLine extends FindBugsCommandLine {
 
         findBugs.setScanNestedArchives(scanNestedArchives);
         findBugs.setNoClassOk(noClassOk);
+        findBugs.setNumAnalysisThreads(numAnalysisThreads);
+        findBugs.setIncrementalCacheDirectory(incrementalCacheDirectory);
+        findBugs.setDetectorMetricsFile(detectorMetricsFile);
 
         findBugs.setBugReporterDecorators(enabledBugReporterDecorators, disabledBugReporterDecorators);
         if (applySuppression) {
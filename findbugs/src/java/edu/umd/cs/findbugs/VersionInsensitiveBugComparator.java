@@ -50,6 +50,10 @@ public class VersionInsensitiveBugComparator implements WarningComparator {
         comparePriorities = b;
     }
 
+    public boolean isComparePriorities() {
+        return comparePriorities;
+    }
+
     /**
      * Wrapper for BugAnnotation iterators, which filters out annotations we
      * don't care about.
@@ -20,6 +20,11 @@
 package edu.umd.cs.findbugs;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
 
 /**
  * Report warnings as an XML document.
@@ -28,10 +33,70 @@ import java.io.IOException;
  */
 public class XMLBugReporter extends BugCollectionBugReporter {
 
+    /**
+     * In streaming mode, the number of bugs kept in memory before they are
+     * written to a temporary file.
+     */
+    private static final int STREAMING_RUN_SIZE = SystemProperties.getInt("findbugs.xml.streaming.runSize", 20000);
+
+    private boolean streaming;
+
+    private int streamingRunSize = STREAMING_RUN_SIZE;
+
+    private @CheckForNull SortedBugRuns runs;
+
     public XMLBugReporter(Project project) {
         super(project);
     }
 
+    /**
+     * Set whether to stream the bugs to the output rather than keeping them
+     * all in memory until the end of the analysis. In streaming mode, each
+     * time a few thousand bugs have been reported they are sorted and written
+     * to a temporary file; when the analysis finishes, the files are merged
+     * into the XML document. The document is the same as in the normal mode.
+     * As a bug may be reported again after an equal bug has been written to a
+     * file, observers are only notified when the analysis finishes, once for
+     * each bug, in the order of the document.
+     *
+     * @param streaming
+     *            true to stream the bugs
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    @Override
+    public void doReportBug(BugInstance bugInstance) {
+        if (!streaming) {
+            super.doReportBug(bugInstance);
+            return;
+        }
+        if (VERIFY_INTEGRITY) {
+            checkBugInstance(bugInstance);
+        }
+        // Observers are notified in finish(). The bug is counted in the
+        // statistics now, as in the normal mode, even if an equal bug has
+        // already been written to a run and this one is dropped by the merge
+        getBugCollection().add(bugInstance);
+        if (getBugCollection().getCollection().size() >= streamingRunSize) {
+            SortedBugCollection bugCollection = (SortedBugCollection) getBugCollection();
+            try {
+                if (runs == null) {
+                    runs = new SortedBugRuns(bugCollection);
+                }
+                runs.write(bugCollection.getCollection());
+            } catch (IOException e) {
+                throw new FatalException("Error writing bugs to temporary file: " + e.getMessage(), e);
+            }
+            bugCollection.clearBugInstances();
+        }
+    }
+
+    void setStreamingRunSize(int streamingRunSize) {
+        this.streamingRunSize = streamingRunSize;
+    }
+
     public void setAddMessages(boolean enable) {
         getBugCollection().setWithMessages(enable);
     }
@@ -43,8 +108,32 @@ public class XMLBugReporter extends BugCollectionBugReporter {
             if (project == null) {
                 throw new NullPointerException("No project");
             }
-            getBugCollection().bugsPopulated();
-            getBugCollection().writeXML(outputStream);
+            SortedBugRuns runs = this.runs;
+            if (runs == null) {
+                if (streaming) {
+                    for (BugInstance bugInstance : getBugCollection().getCollection()) {
+                        notifyObservers(bugInstance);
+                    }
+                }
+                getBugCollection().bugsPopulated();
+                getBugCollection().writeXML(outputStream);
+            } else {
+                SortedBugCollection bugCollection = (SortedBugCollection) getBugCollection();
+                List<BugInstance> lastRun = new ArrayList<BugInstance>(bugCollection.getCollection());
+                bugCollection.clearBugInstances();
+                try {
+                    Iterable<BugInstance> bugs = runs.merge(lastRun);
+                    for (BugInstance bugInstance : bugs) {
+                        notifyObservers(bugInstance);
+                    }
+                    bugCollection.writeXML(outputStream, bugs);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                } finally {
+                    runs.delete();
+                    this.runs = null;
+                }
+            }
             outputStream.close();
 
         } catch (IOException e) {
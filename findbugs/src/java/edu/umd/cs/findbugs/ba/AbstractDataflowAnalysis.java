@@ -40,6 +40,12 @@ import edu.umd.cs.findbugs.annotations.CheckReturnValue;
 public abstract class AbstractDataflowAnalysis<Fact> extends BasicAbstractDataflowAnalysis<Fact> {
     private static final boolean DEBUG = SystemProperties.getBoolean("dataflow.transfer");
 
+    /**
+     * Facts at locations, computed on demand once the analysis has been
+     * executed.
+     */
+    private @CheckForNull LocationFacts<Fact> locationFacts;
+
     /*
      * ----------------------------------------------------------------------
      * Public methods
@@ -67,6 +73,18 @@ public abstract class AbstractDataflowAnalysis<Fact> extends BasicAbstractDatafl
     @CheckReturnValue
     public abstract boolean isFactValid(Fact fact);
 
+    /**
+     * Determine whether the fact at a location is the start fact of its block
+     * transferred through the instructions before the location, one
+     * instruction at a time. If so, the fact at a location may be computed by
+     * continuing from the fact at an earlier location of the same block.
+     * Subclasses whose transfer() modifies the result in other ways must
+     * return false.
+     */
+    protected boolean isLocationFactReplayable() {
+        return true;
+    }
+
     /**
      * Get the dataflow fact representing the point just before given Location.
      * Note "before" is meant in the logical sense, so for backward analyses,
@@ -78,6 +96,9 @@ public abstract class AbstractDataflowAnalysis<Fact> extends BasicAbstractDatafl
      */
     @Override
     public Fact getFactAtLocation(Location location) throws DataflowAnalysisException {
+        if (locationFacts != null) {
+            return locationFacts.getFactAtLocation(location);
+        }
         Fact start = getStartFact(location.getBasicBlock());
         Fact result = createFact();
         makeFactTop(result);
@@ -106,6 +127,14 @@ public abstract class AbstractDataflowAnalysis<Fact> extends BasicAbstractDatafl
         }
     }
 
+    /**
+     * Start or stop computing the facts at locations through a cursor and a
+     * cache, which is only correct while the facts of the blocks don't change.
+     */
+    void setLocationFactsCached(boolean cached) {
+        locationFacts = cached ? new LocationFacts<Fact>(this) : null;
+    }
+
     /*
      * ----------------------------------------------------------------------
      * Implementations of interface methods
@@ -26,10 +26,13 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -147,15 +150,20 @@ public class AnalysisContext {
 
     private ClassSummary classSummary;
 
-    private ClassDescriptor classBeingAnalyzed;
+    /**
+     * Class being analyzed by the current thread; there may be several
+     * analysis threads sharing one AnalysisContext.
+     */
+    private final ThreadLocal<ClassDescriptor> classBeingAnalyzed = new ThreadLocal<ClassDescriptor>();
 
     private FieldSummary fieldSummary;
 
     private UnreadFields unreadFields;
 
-    private TypeQualifierNullnessAnnotationDatabase tqNullnessDatabase;
+    private volatile TypeQualifierNullnessAnnotationDatabase tqNullnessDatabase;
 
-    private final HashSet<MethodDescriptor> skippedDueToInvokeDynamic;
+    /** Concurrent: methods may be skipped by any analysis thread */
+    private final Set<MethodDescriptor> skippedDueToInvokeDynamic;
 
     private final Project project;
 
@@ -167,6 +175,9 @@ public class AnalysisContext {
 
     protected final RepositoryLookupFailureCallback lookupFailureCallback;
 
+    // Bridge methods are recorded when a class is parsed, which may happen
+    // on any analysis thread
+
     private final Map<MethodInfo, MethodInfo> bridgeTo;
 
     private final Map<MethodInfo, MethodInfo> bridgeFrom;
@@ -177,12 +188,12 @@ public class AnalysisContext {
         this.project = project;
         this.boolPropertySet = new BitSet();
         this.lookupFailureCallback = new DelegatingRepositoryLookupFailureCallback();
-        skippedDueToInvokeDynamic = new HashSet<>();
+        skippedDueToInvokeDynamic = Collections.newSetFromMap(new ConcurrentHashMap<MethodDescriptor, Boolean>());
         equalsKindSummary = new EqualsKindSummary();
         unreadFieldsData = new UnreadFieldsData();
         suppressionMatcher = new SuppressionMatcher();
-        bridgeTo = new IdentityHashMap<>();
-        bridgeFrom = new IdentityHashMap<>();
+        bridgeTo = Collections.synchronizedMap(new IdentityHashMap<MethodInfo, MethodInfo>());
+        bridgeFrom = Collections.synchronizedMap(new IdentityHashMap<MethodInfo, MethodInfo>());
     }
 
     private void clear() {
@@ -203,15 +214,15 @@ public class AnalysisContext {
     }
 
     public ClassDescriptor getClassBeingAnalyzed() {
-        return classBeingAnalyzed;
+        return classBeingAnalyzed.get();
     }
 
     public void setClassBeingAnalyzed(@Nonnull ClassDescriptor classBeingAnalyzed) {
-        this.classBeingAnalyzed = classBeingAnalyzed;
+        this.classBeingAnalyzed.set(classBeingAnalyzed);
     }
 
     public void clearClassBeingAnalyzed() {
-        this.classBeingAnalyzed = null;
+        this.classBeingAnalyzed.remove();
     }
 
     public ClassSummary getClassSummary() {
@@ -622,6 +633,15 @@ public class AnalysisContext {
         return boolPropertySet.get(prop);
     }
 
+    /**
+     * Get the boolean properties which are set.
+     *
+     * @return the set of the properties which are set
+     */
+    public final BitSet getBoolProperties() {
+        return (BitSet) boolPropertySet.clone();
+    }
+
     /**
      * Set the interprocedural database input directory.
      *
@@ -1046,10 +1066,16 @@ public class AnalysisContext {
     }
 
     public TypeQualifierNullnessAnnotationDatabase getNullnessAnnotationDatabase() {
-        if (tqNullnessDatabase == null) {
-            tqNullnessDatabase = new TypeQualifierNullnessAnnotationDatabase();
+        TypeQualifierNullnessAnnotationDatabase result = tqNullnessDatabase;
+        if (result == null) {
+            synchronized (this) {
+                result = tqNullnessDatabase;
+                if (result == null) {
+                    result = tqNullnessDatabase = new TypeQualifierNullnessAnnotationDatabase();
+                }
+            }
         }
-        return tqNullnessDatabase;
+        return result;
 
     }
 
@@ -100,9 +100,11 @@ public class AnnotationDatabase<AnnotationEnum extends AnnotationEnumeration<Ann
     }
 
     // TODO: Parameterize these values?
-    Map<Object, AnnotationEnum> cachedMinimal = new MapCache<Object, AnnotationEnum>(20000);
+    // The caches are access ordered, so even reading them modifies them:
+    // always hold their lock, since they are shared by the analysis threads
+    private final Map<Object, AnnotationEnum> cachedMinimal = new MapCache<Object, AnnotationEnum>(20000);
 
-    Map<Object, AnnotationEnum> cachedMaximal = new MapCache<Object, AnnotationEnum>(20000);
+    private final Map<Object, AnnotationEnum> cachedMaximal = new MapCache<Object, AnnotationEnum>(20000);
 
     @CheckForNull
     public AnnotationEnum getResolvedAnnotation(Object o, boolean getMinimal) {
@@ -129,14 +131,19 @@ public class AnnotationDatabase<AnnotationEnum extends AnnotationEnumeration<Ann
             cache = cachedMaximal;
         }
 
-        if (cache.containsKey(o)) {
-            return cache.get(o);
+        synchronized (cache) {
+            if (cache.containsKey(o)) {
+                return cache.get(o);
+            }
         }
+        // Not holding the lock: resolving looks up overridden methods
         AnnotationEnum n = getUncachedResolvedAnnotation(o, getMinimal);
         if (DEBUG) {
             System.out.println("TTT: " + o + " " + n);
         }
-        cache.put(o, n);
+        synchronized (cache) {
+            cache.put(o, n);
+        }
         return n;
     }
 
@@ -20,8 +20,13 @@
 package edu.umd.cs.findbugs.ba;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.apache.bcel.generic.InstructionHandle;
@@ -47,6 +52,11 @@ import edu.umd.cs.findbugs.classfile.Global;
  * The analysis's transfer function is applied to transform the meet of the
  * results of the block's logical predecessors (the block's start facts) into
  * the block's result facts.
+ * <p>
+ * Large CFGs (and all CFGs, if the dataflow.worklist property is set) are
+ * solved with a worklist of the blocks whose input facts changed, taken in
+ * the order of the analysis's BlockOrder, rather than by iterating over all
+ * blocks until nothing changes.
  *
  * @author David Hovemeyer
  * @see CFG
@@ -103,6 +113,56 @@ public class Dataflow<Fact, AnalysisType extends DataflowAnalysis<Fact>> {
     // Maximum number of iterations before we assume there is a bug and give up.
     private static final int MAX_ITERS = SystemProperties.getInt("dataflow.maxiters", 97);
 
+    /** Use the worklist solver for every CFG */
+    private static final boolean USE_WORKLIST = SystemProperties.getBoolean("dataflow.worklist");
+
+    /** Number of basic blocks from which the worklist solver is used */
+    private static final int WORKLIST_MIN_BLOCKS = SystemProperties.getInt("dataflow.worklist.minblocks", 1000);
+
+    private static final boolean STATS = SystemProperties.getBoolean("dataflow.stats");
+
+    /**
+     * Convergence statistics of the dataflow analyses of one kind.
+     */
+    private static class ConvergenceStats {
+        int runs;
+
+        int worklistRuns;
+
+        int failures;
+
+        long blocks;
+
+        long blockVisits;
+
+        int maxIterations;
+    }
+
+    /** Statistics by analysis class name */
+    private static final Map<String, ConvergenceStats> convergenceStats = new TreeMap<String, ConvergenceStats>();
+
+    static {
+        if (STATS) {
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    synchronized (convergenceStats) {
+                        System.err.println("Dataflow convergence: runs, worklist runs, failures, visits per block, max iterations");
+                        for (Map.Entry<String, ConvergenceStats> e : convergenceStats.entrySet()) {
+                            ConvergenceStats stats = e.getValue();
+                            System.err.printf("%-60s %7d %7d %5d %8.2f %5d%n", e.getKey(), stats.runs, stats.worklistRuns,
+                                    stats.failures, stats.blocks == 0 ? 0.0 : (double) stats.blockVisits / stats.blocks,
+                                    stats.maxIterations);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /** Number of blocks whose facts were recomputed */
+    private int blockVisits;
+
     private String getFullyQualifiedMethodName() {
         String methodName;
         MethodGen methodGen = cfg.getMethodGen();
@@ -140,6 +200,67 @@ public class Dataflow<Fact, AnalysisType extends DataflowAnalysis<Fact>> {
      * points of each block.
      */
     public void execute() throws DataflowAnalysisException {
+        execute(USE_WORKLIST || cfg.getNumBasicBlocks() >= WORKLIST_MIN_BLOCKS);
+    }
+
+    /**
+     * Run the algorithm with the worklist solver, or by iterating over all
+     * of the blocks.
+     */
+    void execute(boolean useWorklist) throws DataflowAnalysisException {
+        boolean failed = true;
+        setLocationFactsCached(false);
+        try {
+            if (useWorklist) {
+                executeWorklist();
+            } else {
+                executeInBlockOrder();
+            }
+            failed = false;
+        } finally {
+            if (STATS) {
+                recordStats(useWorklist, failed);
+            }
+        }
+        setLocationFactsCached(true);
+    }
+
+    /**
+     * Facts at locations may only be cached while the start facts of the
+     * blocks don't change.
+     */
+    private void setLocationFactsCached(boolean cached) {
+        if (analysis instanceof AbstractDataflowAnalysis) {
+            ((AbstractDataflowAnalysis<?>) analysis).setLocationFactsCached(cached);
+        }
+    }
+
+    private void recordStats(boolean useWorklist, boolean failed) {
+        String name = analysis.getClass().getName();
+        synchronized (convergenceStats) {
+            ConvergenceStats stats = convergenceStats.get(name);
+            if (stats == null) {
+                stats = new ConvergenceStats();
+                convergenceStats.put(name, stats);
+            }
+            stats.runs++;
+            if (useWorklist) {
+                stats.worklistRuns++;
+            }
+            if (failed) {
+                stats.failures++;
+            }
+            stats.blocks += cfg.getNumBasicBlocks();
+            stats.blockVisits += blockVisits;
+            stats.maxIterations = Math.max(stats.maxIterations, numIterations);
+        }
+    }
+
+    /**
+     * Iterate over all of the blocks, in the order of the BlockOrder, until no
+     * result fact changes.
+     */
+    private void executeInBlockOrder() throws DataflowAnalysisException {
         boolean change;
         boolean debugWas = DEBUG;
         if (DEBUG) {
@@ -361,6 +482,8 @@ public class Dataflow<Fact, AnalysisType extends DataflowAnalysis<Fact>> {
                     debug(block, "start fact is " + analysis.factToString(start) + "\n");
                 }
 
+                blockVisits++;
+
                 // making a copy of result facts (so we can detect if it
                 // changed).
                 boolean resultWasTop = analysis.isTop(result);
@@ -439,6 +562,140 @@ public class Dataflow<Fact, AnalysisType extends DataflowAnalysis<Fact>> {
         DEBUG = debugWas;
     }
 
+    /**
+     * Solve the dataflow equations with a worklist. Blocks are taken from the
+     * worklist in the order of the BlockOrder (reverse postorder for forward
+     * analyses), and a block is put back on the worklist only when the result
+     * of one of its logical predecessors changes.
+     * <p>
+     * Once the worklist is empty, a final iteration over all of the blocks
+     * checks that nothing changes, so that analyses which collect information
+     * in each iteration (see {@link DataflowAnalysis#startIteration()}) see a
+     * complete iteration at the fixpoint, as with executeInBlockOrder().
+     */
+    private void executeWorklist() throws DataflowAnalysisException {
+        List<BasicBlock> blocks = new ArrayList<BasicBlock>(cfg.getNumBasicBlocks());
+        int[] rankByLabel = new int[cfg.getNumVertexLabels()];
+        for (Iterator<BasicBlock> i = blockOrder.blockIterator(); i.hasNext();) {
+            BasicBlock block = i.next();
+            rankByLabel[block.getLabel()] = blocks.size();
+            blocks.add(block);
+        }
+        int numBlocks = blocks.size();
+        long maxVisits = (long) MAX_ITERS * numBlocks;
+        int timestamp = 0;
+
+        BitSet worklist = new BitSet(numBlocks);
+        worklist.set(0, numBlocks);
+        boolean firstTime = true;
+        do {
+            ++numIterations;
+            analysis.startIteration();
+            int visits = 0;
+            for (int rank = worklist.nextSetBit(0); rank >= 0; rank = worklist.nextSetBit(0)) {
+                worklist.clear(rank);
+                if (blockVisits >= maxVisits) {
+                    throw new DataflowAnalysisException("Too many iterations (" + numIterations + ", " + blockVisits
+                            + " block visits) in dataflow when analyzing " + getFullyQualifiedMethodName());
+                }
+                visits++;
+                BasicBlock block = blocks.get(rank);
+                if (updateBlock(block, timestamp)) {
+                    ++timestamp;
+                    analysis.setLastUpdateTimestamp(analysis.getResultFact(block), timestamp);
+                    addLogicalSuccessors(block, worklist, rankByLabel);
+                }
+            }
+            analysis.finishIteration();
+            if (firstTime && visits == numBlocks) {
+                // Each block was visited once, in order: that was a complete
+                // iteration, and no result changed afterwards
+                break;
+            }
+            firstTime = false;
+
+            ++numIterations;
+            analysis.startIteration();
+            for (BasicBlock block : blocks) {
+                if (updateBlock(block, timestamp)) {
+                    ++timestamp;
+                    analysis.setLastUpdateTimestamp(analysis.getResultFact(block), timestamp);
+                    addLogicalSuccessors(block, worklist, rankByLabel);
+                }
+            }
+            analysis.finishIteration();
+        } while (!worklist.isEmpty());
+
+        if (DEBUG) {
+            reportAnalysis("Worklist converged after " + blockVisits + " block visits:");
+        }
+    }
+
+    /**
+     * Recompute the start fact of a block from the results of its logical
+     * predecessors, and its result fact from the start fact.
+     *
+     * @return true if the result fact changed
+     */
+    private boolean updateBlock(BasicBlock block, int timestamp) throws DataflowAnalysisException {
+        blockVisits++;
+        Fact start = analysis.getStartFact(block);
+        Fact result = analysis.getResultFact(block);
+        int originalResultTimestamp = analysis.getLastUpdateTimestamp(result);
+
+        analysis.makeFactTop(start);
+        if (block == logicalEntryBlock()) {
+            analysis.initEntryFact(start);
+        } else {
+            int rawPredCount = 0;
+            for (Iterator<Edge> i = logicalPredecessorEdgeIterator(block); i.hasNext(); i.next()) {
+                rawPredCount++;
+            }
+            for (Iterator<Edge> i = logicalPredecessorEdgeIterator(block); i.hasNext();) {
+                Edge edge = i.next();
+                BasicBlock logicalPred = isForwards ? edge.getSource() : edge.getTarget();
+
+                // Apply the edge transfer function to the predecessor result,
+                // and merge it into the start fact
+                Fact edgeFact = analysis.createFact();
+                analysis.copy(analysis.getResultFact(logicalPred), edgeFact);
+                analysis.edgeTransfer(edge, edgeFact);
+                if (analysis instanceof UnconditionalValueDerefAnalysis) {
+                    ((UnconditionalValueDerefAnalysis) analysis).meetInto((UnconditionalValueDerefSet) edgeFact, edge,
+                            (UnconditionalValueDerefSet) start, rawPredCount == 1);
+                } else {
+                    analysis.meetInto(edgeFact, edge, start);
+                }
+                analysis.setLastUpdateTimestamp(start, timestamp);
+            }
+        }
+
+        boolean resultWasTop = analysis.isTop(result);
+        Fact origResult = null;
+        if (!resultWasTop) {
+            origResult = analysis.createFact();
+            analysis.copy(result, origResult);
+        }
+        analysis.transfer(block, null, start, result);
+        boolean changed = resultWasTop ? !analysis.isTop(result) : !analysis.same(result, origResult);
+        if (!changed) {
+            analysis.setLastUpdateTimestamp(result, originalResultTimestamp);
+        }
+        if (DEBUG) {
+            debug(block, "worklist result is " + analysis.factToString(result) + (changed ? " (changed)\n" : "\n"));
+        }
+        return changed;
+    }
+
+    private void addLogicalSuccessors(BasicBlock block, BitSet worklist, int[] rankByLabel) {
+        Iterator<Edge> i = isForwards ? cfg.outgoingEdgeIterator(block) : cfg.incomingEdgeIterator(block);
+        while (i.hasNext()) {
+            Edge edge = i.next();
+            BasicBlock logicalSucc = isForwards ? edge.getTarget() : edge.getSource();
+            worklist.set(rankByLabel[logicalSucc.getLabel()]);
+        }
+    }
+
     private void reportAnalysis(String msg) {
         String shortAnalysisName = analysis.getClass().getName();
         int pkgEnd = shortAnalysisName.lastIndexOf('.');
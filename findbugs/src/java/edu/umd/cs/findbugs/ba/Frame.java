@@ -21,10 +21,10 @@ package edu.umd.cs.findbugs.ba;
 
 import static edu.umd.cs.findbugs.ba.Debug.VERIFY_INTEGRITY;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
-import java.util.Collections;
 
 import org.apache.bcel.Constants;
 import org.apache.bcel.generic.ConstantPoolGen;
@@ -57,6 +57,12 @@ import edu.umd.cs.findbugs.SystemProperties;
  * <p>
  * A Frame may have the special "BOTTOM" value. The result of merging any frame
  * with BOTTOM is BOTTOM.
+ * <p/>
+ * <p>
+ * The slots are kept in an array, which copyFrom() shares between the two
+ * frames. A frame copies the array before its first modification of the
+ * slots, so frames which are copied but never modified (as is common for the
+ * facts of basic blocks) do not allocate any slot storage of their own.
  *
  * @author David Hovemeyer
  * @see FrameDataflowAnalysis
@@ -76,8 +82,23 @@ public abstract class Frame<ValueType> {
 
     /**
      * Array storing the values of local variables and operand stack slots.
+     * Only the first numSlots elements are used. If slotsShared is set, the
+     * array may be shared with other frames, and must be copied before it is
+     * modified.
+     */
+    private ValueType[] slots;
+
+    /**
+     * Number of local variable and operand stack slots.
+     */
+    private int numSlots;
+
+    /**
+     * Whether the slots array may be shared with other frames. Volatile, as
+     * copying a frame sets it on the frame copied from, which may be a
+     * dataflow fact read by several analysis threads.
      */
-    private final ArrayList<ValueType> slotList;
+    private volatile boolean slotsShared;
 
     /**
      * Flag marking this frame as a special "TOP" value. Such Frames serve as
@@ -96,6 +117,11 @@ public abstract class Frame<ValueType> {
      */
     private static final int DEFAULT_STACK_CAPACITY = 4;
 
+    /**
+     * Array of nulls, shared by new frames until they set a slot.
+     */
+    private static volatile Object[] nullSlots = new Object[64];
+
     // //////////////////////////////////////////////////////////////////////////////////
     // Methods
     // //////////////////////////////////////////////////////////////////////////////////
@@ -108,11 +134,38 @@ public abstract class Frame<ValueType> {
      * @param numLocals
      *            number of local variable slots in the method
      */
+    @SuppressWarnings("unchecked")
     public Frame(int numLocals) {
         this.numLocals = numLocals;
-        this.slotList = new ArrayList<ValueType>(numLocals + DEFAULT_STACK_CAPACITY);
-        for (int i = 0; i < numLocals; ++i) {
-            slotList.add(null);
+        Object[] nulls = nullSlots;
+        if (nulls.length < numLocals) {
+            nulls = new Object[Math.max(numLocals, 2 * nulls.length)];
+            nullSlots = nulls;
+        }
+        this.slots = (ValueType[]) nulls;
+        this.numSlots = numLocals;
+        this.slotsShared = true;
+    }
+
+    /**
+     * Make sure the slots array is not shared with another frame, and has
+     * room for at least the given number of slots.
+     */
+    @SuppressWarnings("unchecked")
+    private void prepareSlotsForUpdate(int minCapacity) {
+        if (slotsShared) {
+            ValueType[] copy = (ValueType[]) new Object[Math.max(minCapacity, numSlots + DEFAULT_STACK_CAPACITY)];
+            System.arraycopy(slots, 0, copy, 0, numSlots);
+            slots = copy;
+            slotsShared = false;
+        } else if (minCapacity > slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(minCapacity, slots.length + (slots.length >> 1) + 1));
+        }
+    }
+
+    private void checkSlot(int n) {
+        if (n < 0 || n >= numSlots) {
+            throw new IndexOutOfBoundsException("Slot " + n + " of frame with " + numSlots + " slots");
         }
     }
 
@@ -178,7 +231,8 @@ public abstract class Frame<ValueType> {
         if (!isValid()) {
             throw new IllegalStateException("accessing top or bottom frame");
         }
-        slotList.add(value);
+        prepareSlotsForUpdate(numSlots + 1);
+        slots[numSlots++] = value;
     }
 
     /**
@@ -192,10 +246,14 @@ public abstract class Frame<ValueType> {
         if (!isValid()) {
             throw new DataflowAnalysisException("accessing top or bottom frame");
         }
-        if (slotList.size() == numLocals) {
+        if (numSlots == numLocals) {
             throw new DataflowAnalysisException("operand stack empty");
         }
-        return slotList.remove(slotList.size() - 1);
+        ValueType value = slots[--numSlots];
+        if (!slotsShared) {
+            slots[numSlots] = null;
+        }
+        return value;
     }
 
     /**
@@ -208,11 +266,11 @@ public abstract class Frame<ValueType> {
         if (!isValid()) {
             throw new DataflowAnalysisException("accessing top or bottom frame");
         }
-        assert slotList.size() >= numLocals;
-        if (slotList.size() == numLocals) {
+        assert numSlots >= numLocals;
+        if (numSlots == numLocals) {
             throw new DataflowAnalysisException("operand stack is empty");
         }
-        return slotList.get(slotList.size() - 1);
+        return slots[numSlots - 1];
     }
 
     /**
@@ -225,10 +283,7 @@ public abstract class Frame<ValueType> {
         if (valueList.length > stackDepth) {
             throw new DataflowAnalysisException("not enough values on stack");
         }
-        int numSlots = slotList.size();
-        for (int i = numSlots - valueList.length, j = 0; i < numSlots; ++i, ++j) {
-            valueList[j] = slotList.get(i);
-        }
+        System.arraycopy(slots, numSlots - valueList.length, valueList, 0, valueList.length);
     }
 
     /**
@@ -249,8 +304,7 @@ public abstract class Frame<ValueType> {
         if (loc < 0) {
             throw new DataflowAnalysisException("can't get position " + loc + " of stack");
         }
-        int pos = slotList.size() - (loc + 1);
-        return slotList.get(pos);
+        return slots[numSlots - (loc + 1)];
     }
 
     /**
@@ -265,7 +319,7 @@ public abstract class Frame<ValueType> {
         if (loc >= stackDepth) {
             throw new DataflowAnalysisException("not enough values on stack: access=" + loc + ", avail=" + stackDepth);
         }
-        return slotList.size() - (loc + 1);
+        return numSlots - (loc + 1);
     }
 
     /**
@@ -427,7 +481,7 @@ public abstract class Frame<ValueType> {
             throw new IllegalArgumentException();
         }
 
-        return (slotList.size() - numArguments) + i;
+        return (numSlots - numArguments) + i;
     }
 
     /**
@@ -488,17 +542,18 @@ public abstract class Frame<ValueType> {
         if (!isValid()) {
             throw new IllegalStateException("accessing top or bottom frame");
         }
-        assert slotList.size() >= numLocals;
-        if (slotList.size() > numLocals) {
-            slotList.subList(numLocals, slotList.size()).clear();
+        assert numSlots >= numLocals;
+        if (!slotsShared) {
+            Arrays.fill(slots, numLocals, numSlots, null);
         }
+        numSlots = numLocals;
     }
 
     /**
      * Get the depth of the Java operand stack.
      */
     public int getStackDepth() {
-        return slotList.size() - numLocals;
+        return numSlots - numLocals;
     }
 
     /**
@@ -512,15 +567,15 @@ public abstract class Frame<ValueType> {
      * Get the number of slots (locals plus stack values).
      */
     public int getNumSlots() {
-        return slotList.size();
+        return numSlots;
     }
 
     public boolean contains(ValueType value) {
         if (!isValid()) {
             throw new IllegalStateException("accessing top or bottom frame");
         }
-        for (ValueType v : slotList) {
-            if (v.equals(value)) {
+        for (int i = 0; i < numSlots; ++i) {
+            if (slots[i].equals(value)) {
                 return true;
             }
         }
@@ -538,7 +593,8 @@ public abstract class Frame<ValueType> {
         if (!isValid()) {
             throw new IllegalStateException("accessing top or bottom frame");
         }
-        return slotList.get(n);
+        checkSlot(n);
+        return slots[n];
     }
 
     /**
@@ -556,7 +612,12 @@ public abstract class Frame<ValueType> {
         if (!isValid()) {
             throw new IllegalStateException("accessing top or bottom frame");
         }
-        slotList.set(n, value);
+        checkSlot(n);
+        if (slots[n] == value) {
+            return;
+        }
+        prepareSlotsForUpdate(numSlots);
+        slots[n] = value;
     }
 
     /**
@@ -584,12 +645,17 @@ public abstract class Frame<ValueType> {
             return true;
         }
 
-        if (getNumSlots() != other.getNumSlots()) {
+        if (numSlots != other.numSlots) {
             return false;
         }
 
-        for (int i = 0; i < getNumSlots(); ++i) {
-            if (!getValue(i).equals(other.getValue(i))) {
+        ValueType[] otherSlots = other.slots;
+        if (slots == otherSlots) {
+            return true;
+        }
+        for (int i = 0; i < numSlots; ++i) {
+            ValueType value = slots[i];
+            if (value != otherSlots[i] && !value.equals(otherSlots[i])) {
                 return false;
             }
         }
@@ -605,30 +671,22 @@ public abstract class Frame<ValueType> {
      */
     public void copyFrom(Frame<ValueType> other) {
         lastUpdateTimestamp = other.lastUpdateTimestamp;
-        if (true) {
-            int size = slotList.size();
-            if (size == other.slotList.size()) {
-                for (int i = 0; i < size; i++) {
-                    slotList.set(i, other.slotList.get(i));
-                }
-            } else {
-                slotList.clear();
-                for (ValueType v : other.slotList) {
-                    slotList.add(v);
-                }
+        if (other != this) {
+            /*
+             * Andrei, 27.02.2008: copying the slots one by one took ~5% of
+             * overall FB execution time, and copying them with addAll() ~18%.
+             * Sharing the slots until one of the frames is modified avoids
+             * copying them at all when, as usual, the copy is only read.
+             */
+            if (!other.slotsShared) {
+                // Only written if unset, so that the frames many threads
+                // copy from are not written to
+                other.slotsShared = true;
             }
-        } else {
-            slotList.clear();
-            slotList.addAll(other.slotList);
-
-        }
-        /*
-         * Andrei, 27.02.2008: "optimized" code below takes ~18% overall FB
-         * execution time, code above only 5% int size = slotList.size(); if
-         * (size == other.slotList.size()) { for (int i = 0; i < size; i++)
-         * slotList.set(i, other.slotList.get(i)); } else { slotList.clear();
-         * for (ValueType v : other.slotList) slotList.add(v); }
-         */
+            slots = other.slots;
+            numSlots = other.numSlots;
+            slotsShared = true;
+        }
         isTop = other.isTop;
         isBottom = other.isBottom;
     }
@@ -690,10 +748,20 @@ public abstract class Frame<ValueType> {
      *         stack slots
      */
     public Collection<ValueType> allSlots() {
-        if (slotList == null) {
-            return Collections.<ValueType> emptyList();
-        }
-        return Collections.<ValueType> unmodifiableCollection(slotList);
+        return new AbstractList<ValueType>() {
+            @Override
+            public ValueType get(int index) {
+                if (index < 0 || index >= numSlots) {
+                    throw new IndexOutOfBoundsException("Slot " + index + " of frame with " + numSlots + " slots");
+                }
+                return slots[index];
+            }
+
+            @Override
+            public int size() {
+                return numSlots;
+            }
+        };
     }
 
     /**
@@ -22,6 +22,7 @@ package edu.umd.cs.findbugs.ba;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.bcel.Constants;
 import org.apache.bcel.Repository;
@@ -61,9 +62,10 @@ public class InnerClassAccessMap {
 
     /**
      * Map of class names to maps of method names to InnerClassAccess objects
-     * representing access methods.
+     * representing access methods. The maps of method names are not modified
+     * once added, so the map may be shared by analysis threads.
      */
-    private final Map<String, Map<String, InnerClassAccess>> classToAccessMap;
+    private final ConcurrentHashMap<String, Map<String, InnerClassAccess>> classToAccessMap;
 
     /*
      * ----------------------------------------------------------------------
@@ -133,7 +135,7 @@ public class InnerClassAccessMap {
      * Constructor.
      */
     private InnerClassAccessMap() {
-        this.classToAccessMap = new HashMap<String, Map<String, InnerClassAccess>>(3);
+        this.classToAccessMap = new ConcurrentHashMap<String, Map<String, InnerClassAccess>>();
     }
 
     /**
@@ -388,7 +390,11 @@ public class InnerClassAccessMap {
                 map = new HashMap<String, InnerClassAccess>(map);
             }
 
-            classToAccessMap.put(className, map);
+            // Another analysis thread may have scanned the class too
+            Map<String, InnerClassAccess> existing = classToAccessMap.putIfAbsent(className, map);
+            if (existing != null) {
+                map = existing;
+            }
         }
 
         return map;
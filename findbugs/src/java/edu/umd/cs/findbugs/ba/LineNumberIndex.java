@@ -0,0 +1,268 @@
+/*
+ * Bytecode Analysis Framework
+ * Copyright (C) 2003,2004 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.ba;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+
+import org.apache.bcel.classfile.Code;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.LineNumber;
+import org.apache.bcel.classfile.LineNumberTable;
+import org.apache.bcel.classfile.Method;
+
+import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
+import edu.umd.cs.findbugs.classfile.DescriptorFactory;
+import edu.umd.cs.findbugs.classfile.Global;
+import edu.umd.cs.findbugs.classfile.IAnalysisCache;
+import edu.umd.cs.findbugs.internalAnnotations.DottedClassName;
+
+/**
+ * The line number tables of all the methods of a class, in a compact form
+ * which maps bytecode offsets to source lines quickly. It is computed once per
+ * class by the analysis cache, and shared by everything creating
+ * SourceLineAnnotations for the class.
+ * <p>
+ * The (start pc, line) pairs of all methods are kept in one char array,
+ * sorted by pc within each method. Both values are unsigned 16 bit numbers in
+ * the classfile, so they fit in a char.
+ *
+ * @see edu.umd.cs.findbugs.SourceLineAnnotation
+ */
+public class LineNumberIndex {
+
+    /**
+     * The line numbers of one method.
+     */
+    public static final class MethodLines {
+        private final char[] table;
+
+        private final int start;
+
+        private final int end;
+
+        private final String signature;
+
+        private final int codeLength;
+
+        private final int minLine;
+
+        private final int minLinePC;
+
+        /** Next method with the same name */
+        private MethodLines nextOverload;
+
+        MethodLines(char[] table, int start, int end, String signature, int codeLength) {
+            this.table = table;
+            this.start = start;
+            this.end = end;
+            this.signature = signature;
+            this.codeLength = codeLength;
+            int minLine = Integer.MAX_VALUE;
+            int minLinePC = 0;
+            for (int i = start; i < end; i += 2) {
+                if (table[i + 1] < minLine) {
+                    minLine = table[i + 1];
+                    minLinePC = table[i];
+                }
+            }
+            this.minLine = minLine;
+            this.minLinePC = minLinePC;
+        }
+
+        /**
+         * Get the source line of an instruction.
+         *
+         * @param pc
+         *            bytecode offset of the instruction
+         * @return the line number, or -1 if there is no line number for the
+         *         offset
+         */
+        public int getSourceLine(int pc) {
+            // Binary search for the last entry starting at or before pc
+            int low = 0;
+            int high = (end - start) / 2 - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (table[start + 2 * mid] <= pc) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found < 0 ? -1 : table[start + 2 * found + 1];
+        }
+
+        /**
+         * @return the line of the first instruction which has one
+         */
+        public int getFirstLine() {
+            return table[start + 1];
+        }
+
+        /**
+         * @return the line of the last instruction which starts a line
+         */
+        public int getLastLine() {
+            return table[end - 1];
+        }
+
+        /**
+         * @return the smallest line number of the method
+         */
+        public int getMinLine() {
+            return minLine;
+        }
+
+        /**
+         * @return the bytecode offset where the smallest line number of the
+         *         method starts
+         */
+        public int getMinLinePC() {
+            return minLinePC;
+        }
+
+        /**
+         * @return the size in bytes of the method's code
+         */
+        public int getCodeLength() {
+            return codeLength;
+        }
+    }
+
+    private final Map<String, MethodLines> methodsByName;
+
+    /**
+     * Constructor.
+     *
+     * @param jclass
+     *            the class whose line numbers are indexed
+     */
+    public LineNumberIndex(JavaClass jclass) {
+        Method[] methods = jclass.getMethods();
+        int size = 0;
+        for (Method method : methods) {
+            LineNumberTable lineNumberTable = getLineNumberTable(method);
+            if (lineNumberTable != null) {
+                size += 2 * lineNumberTable.getLineNumberTable().length;
+            }
+        }
+
+        char[] table = new char[size];
+        long[] sorted = new long[0];
+        methodsByName = new HashMap<String, MethodLines>();
+        int pos = 0;
+        for (Method method : methods) {
+            LineNumberTable lineNumberTable = getLineNumberTable(method);
+            if (lineNumberTable == null) {
+                continue;
+            }
+            LineNumber[] entries = lineNumberTable.getLineNumberTable();
+            if (entries.length == 0) {
+                continue;
+            }
+            if (sorted.length < entries.length) {
+                sorted = new long[entries.length];
+            }
+            // Sort by pc, keeping the table order of entries with the same pc
+            for (int i = 0; i < entries.length; i++) {
+                sorted[i] = ((long) (entries[i].getStartPC() & 0xffff) << 32) | ((long) i << 16)
+                        | (entries[i].getLineNumber() & 0xffff);
+            }
+            Arrays.sort(sorted, 0, entries.length);
+            int start = pos;
+            for (int i = 0; i < entries.length; i++) {
+                table[pos++] = (char) (sorted[i] >>> 32);
+                table[pos++] = (char) sorted[i];
+            }
+
+            MethodLines lines = new MethodLines(table, start, pos, method.getSignature(), method.getCode().getLength());
+            lines.nextOverload = methodsByName.put(method.getName(), lines);
+        }
+    }
+
+    private static @CheckForNull LineNumberTable getLineNumberTable(Method method) {
+        Code code = method.getCode();
+        if (code == null) {
+            return null;
+        }
+        return code.getLineNumberTable();
+    }
+
+    /**
+     * Get the line numbers of a method.
+     *
+     * @param methodName
+     *            name of the method
+     * @param methodSig
+     *            signature of the method
+     * @return the line numbers, or null if the method has no code or no line
+     *         number table
+     */
+    public @CheckForNull MethodLines getMethodLines(String methodName, String methodSig) {
+        for (MethodLines lines = methodsByName.get(methodName); lines != null; lines = lines.nextOverload) {
+            if (lines.signature.equals(methodSig)) {
+                return lines;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the line numbers of a method of a class from the index computed by
+     * the analysis cache of the current thread.
+     *
+     * @param className
+     *            name of the class
+     * @param methodName
+     *            name of the method
+     * @param methodSig
+     *            signature of the method
+     * @param codeLength
+     *            size of the method's code, checked against the indexed
+     *            method; -1 if unknown
+     * @return the line numbers, or null if there is no analysis cache, the
+     *         class can't be found, or the method has no line number table
+     */
+    public static @CheckForNull MethodLines lookup(@DottedClassName String className, String methodName, String methodSig,
+            int codeLength) {
+        IAnalysisCache analysisCache = Global.getAnalysisCache();
+        if (analysisCache == null) {
+            return null;
+        }
+        LineNumberIndex index;
+        try {
+            index = analysisCache.getClassAnalysis(LineNumberIndex.class,
+                    DescriptorFactory.createClassDescriptorFromDottedClassName(className));
+        } catch (CheckedAnalysisException e) {
+            return null;
+        }
+        MethodLines lines = index.getMethodLines(methodName, methodSig);
+        if (lines == null || (codeLength >= 0 && lines.codeLength != codeLength)) {
+            return null;
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Bytecode Analysis Framework
+ * Copyright (C) 2003-2006, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.ba;
+
+import org.apache.bcel.generic.InstructionHandle;
+
+import edu.umd.cs.findbugs.SystemProperties;
+import edu.umd.cs.findbugs.util.MapCache;
+
+/**
+ * Computes the facts at locations of an AbstractDataflowAnalysis on demand,
+ * once the facts at the start of the blocks are final.
+ *
+ * <p>
+ * Detectors usually scan the locations of a block in order. A cursor keeps
+ * the fact at the last location asked for, so the fact at a later location
+ * of the same block is computed by transferring only the instructions in
+ * between, rather than all instructions from the start of the block. Facts
+ * computed for locations asked for out of order are kept in a small cache.
+ * The memory used is bounded by the size of the cache, whatever the size of
+ * the method.
+ * </p>
+ *
+ * @see AbstractDataflowAnalysis#getFactAtLocation(Location)
+ */
+final class LocationFacts<Fact> {
+    private static final int CACHE_SIZE = SystemProperties.getInt("dataflow.locationfacts.cachesize", 64);
+
+    private final AbstractDataflowAnalysis<Fact> analysis;
+
+    private final boolean forwards;
+
+    private final boolean replayable;
+
+    private final MapCache<Location, Fact> cache;
+
+    /** The block the cursor is in, or null if the cursor isn't usable */
+    private BasicBlock cursorBlock;
+
+    /** The next instruction to transfer, or null at the end of the block */
+    private InstructionHandle cursorHandle;
+
+    /** The fact just before cursorHandle */
+    private Fact cursorFact;
+
+    /** Whether the instructions are transferred, as in transfer() */
+    private boolean cursorFactValid;
+
+    LocationFacts(AbstractDataflowAnalysis<Fact> analysis) {
+        this.analysis = analysis;
+        this.forwards = analysis.isForwards();
+        this.replayable = analysis.isLocationFactReplayable();
+        this.cache = new MapCache<Location, Fact>(CACHE_SIZE);
+    }
+
+    /**
+     * Get the fact at given location.
+     *
+     * @param location
+     *            the location
+     * @return a new fact, which the caller may modify
+     */
+    Fact getFactAtLocation(Location location) throws DataflowAnalysisException {
+        Fact result = analysis.createFact();
+        Fact cached = cache.get(location);
+        if (cached != null) {
+            analysis.copy(cached, result);
+            return result;
+        }
+
+        BasicBlock basicBlock = location.getBasicBlock();
+        boolean randomAccess;
+        if (replayable) {
+            randomAccess = moveCursor(basicBlock, location.getHandle());
+            analysis.copy(cursorFact, result);
+        } else {
+            analysis.makeFactTop(result);
+            analysis.transfer(basicBlock, location.getHandle(), analysis.getStartFact(basicBlock), result);
+            randomAccess = true;
+        }
+
+        if (randomAccess) {
+            Fact fact = analysis.createFact();
+            analysis.copy(result, fact);
+            cache.put(location, fact);
+        }
+        return result;
+    }
+
+    /**
+     * Move the cursor to given instruction, going back to the start of the
+     * block if the instruction isn't ahead of the cursor.
+     *
+     * @return true if instructions before the cursor had to be transferred
+     *         again
+     */
+    private boolean moveCursor(BasicBlock basicBlock, InstructionHandle end) throws DataflowAnalysisException {
+        InstructionHandle first = forwards ? basicBlock.getFirstInstruction() : basicBlock.getLastInstruction();
+        InstructionHandle last = forwards ? basicBlock.getLastInstruction() : basicBlock.getFirstInstruction();
+
+        boolean restart = basicBlock != cursorBlock || cursorHandle == null
+                || (forwards ? end.getPosition() < cursorHandle.getPosition() : end.getPosition() > cursorHandle.getPosition());
+        // Not usable until it is at the end instruction
+        cursorBlock = null;
+        if (restart) {
+            if (cursorFact == null) {
+                cursorFact = analysis.createFact();
+            }
+            analysis.makeFactTop(cursorFact);
+            analysis.copy(analysis.getStartFact(basicBlock), cursorFact);
+            cursorFactValid = analysis.isFactValid(cursorFact);
+            cursorHandle = first;
+        }
+
+        while (cursorHandle != null && cursorHandle != end) {
+            if (cursorFactValid) {
+                analysis.transferInstruction(cursorHandle, basicBlock, cursorFact);
+            }
+            if (cursorHandle == last) {
+                cursorHandle = null;
+            } else {
+                cursorHandle = forwards ? cursorHandle.getNext() : cursorHandle.getPrev();
+            }
+        }
+        cursorBlock = basicBlock;
+
+        return restart && end != first;
+    }
+}
@@ -30,11 +30,14 @@ import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -42,6 +45,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.WillClose;
 
 import edu.umd.cs.findbugs.Project;
@@ -358,6 +362,16 @@ public class SourceFinder {
 
     private Cache cache;
 
+    /**
+     * The repository each source file was found in, by canonical name.
+     */
+    private final Map<String, SourceRepository> locationCache = new ConcurrentHashMap<String, SourceRepository>();
+
+    /**
+     * Canonical names of the source files which are in no repository.
+     */
+    private final Set<String> notFoundCache = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
     private Project project;
 
     /*
@@ -381,6 +395,7 @@ public class SourceFinder {
      * Set the list of source directories.
      */
     void setSourceBaseList(Iterable<String> sourceBaseList) {
+        notFoundCache.clear();
         for (String repos : sourceBaseList) {
             if (repos.endsWith(".zip") || repos.endsWith(".jar") || repos.endsWith(".z0p.gz")) {
                 // Zip or jar archive
@@ -473,26 +488,59 @@ public class SourceFinder {
         if (DEBUG) {
             System.out.println("Trying " + fileName + " in package " + packageName + "...");
         }
+        SourceRepository repos = findRepository(platformName, canonicalName);
+        if (repos == null) {
+            throw new FileNotFoundException("Can't find source file " + canonicalName);
+        }
+        fileName = repos.isPlatformDependent() ? platformName : canonicalName;
+        sourceFile = new SourceFile(repos.getDataSource(fileName));
+        cache.put(canonicalName, sourceFile); // always cache with
+        // canonicalName
+        return sourceFile;
+    }
+
+    /**
+     * Find the first repository of the source path containing a source file.
+     * Where each file was found, or that it wasn't found, is remembered so
+     * that the repositories are only queried once per file. Repositories
+     * which are still being downloaded are skipped, and results which they
+     * might change are not remembered.
+     *
+     * @param platformName
+     *            the platform dependent name of the file
+     * @param canonicalName
+     *            the canonical name of the file
+     * @return the repository containing the file, or null if none does
+     */
+    private @CheckForNull SourceRepository findRepository(String platformName, String canonicalName) {
+        SourceRepository found = locationCache.get(canonicalName);
+        if (found != null || notFoundCache.contains(canonicalName)) {
+            return found;
+        }
+        boolean complete = true;
         // Query each element of the source path to find the requested source
         // file
         for (SourceRepository repos : repositoryList) {
             if (repos instanceof BlockingSourceRepository && !((BlockingSourceRepository) repos).isReady()) {
+                complete = false;
                 continue;
             }
-            fileName = repos.isPlatformDependent() ? platformName : canonicalName;
+            String fileName = repos.isPlatformDependent() ? platformName : canonicalName;
             if (DEBUG) {
                 System.out.println("Looking in " + repos + " for " + fileName);
             }
             if (repos.contains(fileName)) {
                 // Found it
-                sourceFile = new SourceFile(repos.getDataSource(fileName));
-                cache.put(canonicalName, sourceFile); // always cache with
-                // canonicalName
-                return sourceFile;
+                if (complete) {
+                    locationCache.put(canonicalName, repos);
+                }
+                return repos;
             }
         }
-
-        throw new FileNotFoundException("Can't find source file " + fileName);
+        if (complete) {
+            notFoundCache.add(canonicalName);
+        }
+        return null;
     }
 
     public static String getPlatformName(String packageName, String fileName) {
@@ -558,32 +606,18 @@ public class SourceFinder {
             return true;
         }
 
-        // Find this source file, add its data to the cache
         if (DEBUG) {
             System.out.println("Trying " + fileName + " in package " + packageName + "...");
         }
-        // Query each element of the source path to find the requested source
-        // file
-        for (SourceRepository repos : repositoryList) {
-            if (repos instanceof BlockingSourceRepository && !((BlockingSourceRepository) repos).isReady()) {
-                continue;
-            }
-            fileName = repos.isPlatformDependent() ? platformName : canonicalName;
-            if (DEBUG) {
-                System.out.println("Looking in " + repos + " for " + fileName);
-            }
-            if (repos.contains(fileName)) {
-                return true;
-            }
-        }
-
-        return false;
+        return findRepository(platformName, canonicalName) != null;
     }
 
     private void setProject(Project project) {
         this.project = project;
         repositoryList = new LinkedList<SourceRepository>();
         cache = new Cache();
+        locationCache.clear();
+        notFoundCache.clear();
         setSourceBaseList(project.getResolvedSourcePaths());
     }
 }
@@ -20,11 +20,11 @@
 package edu.umd.cs.findbugs.ba;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -40,6 +40,7 @@ import org.apache.bcel.generic.MethodGen;
 import org.objectweb.asm.Opcodes;
 
 import edu.umd.cs.findbugs.FieldAnnotation;
+import edu.umd.cs.findbugs.InterningStats;
 import edu.umd.cs.findbugs.MethodAnnotation;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.ba.obl.Obligation;
@@ -71,19 +72,43 @@ import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
 public class XFactory {
     public static final boolean DEBUG_UNRESOLVED = SystemProperties.getBoolean("findbugs.xfactory.debugunresolved");
 
-    private final Set<ClassDescriptor> reflectiveClasses = new HashSet<ClassDescriptor>();
+    // The XFactory is shared by all analysis threads, so the tables are
+    // concurrent: lookups of interned XMethods and XFields take no lock.
 
-    private final Map<MethodDescriptor, XMethod> methods = new HashMap<MethodDescriptor, XMethod>();
+    private final Set<ClassDescriptor> reflectiveClasses = ConcurrentHashMap.newKeySet();
 
-    private final Map<FieldDescriptor, XField> fields = new HashMap<FieldDescriptor, XField>();
+    private final ConcurrentMap<MethodDescriptor, XMethod> methods = new ConcurrentHashMap<MethodDescriptor, XMethod>();
 
-    private final Set<XMethod> calledMethods = new HashSet<XMethod>();
+    private final ConcurrentMap<FieldDescriptor, XField> fields = new ConcurrentHashMap<FieldDescriptor, XField>();
 
-    private final Set<XField> emptyArrays = new HashSet<XField>();
+    private final Set<XMethod> calledMethods = ConcurrentHashMap.newKeySet();
 
-    private final Set<String> calledMethodSignatures = new HashSet<String>();
+    private final Set<XField> emptyArrays = ConcurrentHashMap.newKeySet();
 
-    private final Set<MethodDescriptor> functionsThatMightBeMistakenForProcedures = new HashSet<MethodDescriptor>();
+    private final Set<String> calledMethodSignatures = ConcurrentHashMap.newKeySet();
+
+    private final Set<MethodDescriptor> functionsThatMightBeMistakenForProcedures = ConcurrentHashMap.newKeySet();
+
+    // Hit and miss counts, see reportInterningStats()
+
+    private final LongAdder methodHits = new LongAdder();
+
+    private final LongAdder methodMisses = new LongAdder();
+
+    private final LongAdder fieldHits = new LongAdder();
+
+    private final LongAdder fieldMisses = new LongAdder();
+
+    /**
+     * Record the hit and miss counts of the XMethod and XField tables.
+     *
+     * @param stats
+     *            the InterningStats to record the counts in
+     */
+    public void reportInterningStats(InterningStats stats) {
+        stats.setCounts("XMethod", methodHits.sum(), methodMisses.sum());
+        stats.setCounts("XField", fieldHits.sum(), fieldMisses.sum());
+    }
 
     public void canonicalizeAll() {
         DescriptorFactory descriptorFactory = DescriptorFactory.instance();
@@ -126,11 +151,13 @@ public class XFactory {
     }
 
     public void addEmptyArrayField(XField f) {
-        emptyArrays.add(f);
+        if (f != null) {
+            emptyArrays.add(f);
+        }
     }
 
     public boolean isEmptyArrayField(@CheckForNull XField f) {
-        return emptyArrays.contains(f);
+        return f != null && emptyArrays.contains(f);
     }
 
     public boolean isCalled(XMethod m) {
@@ -323,14 +350,22 @@ public class XFactory {
 
         XMethod m = xFactory.methods.get(desc);
         if (m != null) {
+            xFactory.methodHits.increment();
             return m;
         }
+        xFactory.methodMisses.increment();
         m = xFactory.resolveXMethod(desc);
         if (m instanceof MethodDescriptor) {
-            xFactory.methods.put((MethodDescriptor) m, m);
+            XMethod existing = xFactory.methods.putIfAbsent((MethodDescriptor) m, m);
+            if (existing != null) {
+                return existing;
+            }
             DescriptorFactory.instance().canonicalize((MethodDescriptor) m);
         } else {
-            xFactory.methods.put(desc, m);
+            XMethod existing = xFactory.methods.putIfAbsent(desc, m);
+            if (existing != null) {
+                return existing;
+            }
         }
         return m;
     }
@@ -553,11 +588,13 @@ public class XFactory {
 
         XField m = xFactory.fields.get(desc);
         if (m != null) {
+            xFactory.fieldHits.increment();
             return m;
         }
+        xFactory.fieldMisses.increment();
         m = xFactory.resolveXField(desc);
-        xFactory.fields.put(desc, m);
-        return m;
+        XField existing = xFactory.fields.putIfAbsent(desc, m);
+        return existing != null ? existing : m;
     }
 
     private XField resolveXField(FieldDescriptor originalDescriptor) {
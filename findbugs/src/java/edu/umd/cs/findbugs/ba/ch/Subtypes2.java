@@ -28,6 +28,8 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.CheckForNull;
 
@@ -48,12 +50,16 @@ import edu.umd.cs.findbugs.ba.XMethod;
 import edu.umd.cs.findbugs.classfile.ClassDescriptor;
 import edu.umd.cs.findbugs.classfile.DescriptorFactory;
 import edu.umd.cs.findbugs.internalAnnotations.DottedClassName;
-import edu.umd.cs.findbugs.util.DualKeyHashMap;
-import edu.umd.cs.findbugs.util.MapCache;
+import edu.umd.cs.findbugs.util.ConcurrentMapCache;
 
 /**
  * Class for performing class hierarchy queries. Does <em>not</em> require
  * JavaClass objects to be in memory. Instead, uses XClass objects.
+ * <p>
+ * Several analysis threads may query the hierarchy at once. Answers which
+ * have been computed before are looked up in concurrent caches without
+ * locking. The inheritance graph, which is built lazily while queries are
+ * answered, is only read and modified while holding the lock on this object.
  *
  * @author David Hovemeyer
  */
@@ -75,7 +81,7 @@ public class Subtypes2 {
 
     private final Set<XClass> xclassSet;
 
-    private final DualKeyHashMap<ReferenceType, ReferenceType, ReferenceType> firstCommonSuperclassQueryCache;
+    private final ConcurrentMap<ReferenceType, ConcurrentMap<ReferenceType, ReferenceType>> firstCommonSuperclassQueryCache;
 
     private final ObjectType SERIALIZABLE;
 
@@ -116,12 +122,12 @@ public class Subtypes2 {
     public Subtypes2() {
         this.graph = new InheritanceGraph();
         this.classDescriptorToVertexMap = new HashMap<ClassDescriptor, ClassVertex>();
-        this.supertypeSetMap = new MapCache<ClassDescriptor, SupertypeQueryResults>(500);
-        this.subtypeSetMap = new MapCache<ClassDescriptor, Set<ClassDescriptor>>(500);
+        this.supertypeSetMap = new ConcurrentMapCache<ClassDescriptor, SupertypeQueryResults>(500);
+        this.subtypeSetMap = new ConcurrentMapCache<ClassDescriptor, Set<ClassDescriptor>>(500);
         this.xclassSet = new HashSet<XClass>();
         this.SERIALIZABLE = ObjectTypeFactory.getInstance("java.io.Serializable");
         this.CLONEABLE = ObjectTypeFactory.getInstance("java.lang.Cloneable");
-        this.firstCommonSuperclassQueryCache = new DualKeyHashMap<ReferenceType, ReferenceType, ReferenceType>();
+        this.firstCommonSuperclassQueryCache = new ConcurrentHashMap<ReferenceType, ConcurrentMap<ReferenceType, ReferenceType>>();
     }
 
     /**
@@ -220,7 +226,7 @@ public class Subtypes2 {
      * @param appXClass
      *            application XClass to add to the inheritance graph
      */
-    public void addApplicationClass(XClass appXClass) {
+    public synchronized void addApplicationClass(XClass appXClass) {
         for (XMethod m : appXClass.getXMethods()) {
             if (m.isStub()) {
                 return;
@@ -231,7 +237,7 @@ public class Subtypes2 {
 
     }
 
-    public boolean isApplicationClass(ClassDescriptor descriptor) {
+    public synchronized boolean isApplicationClass(ClassDescriptor descriptor) {
         assert descriptor != null;
         try {
             return resolveClassVertex(descriptor).isApplicationClass();
@@ -248,7 +254,7 @@ public class Subtypes2 {
      * @param xclass
      *            XClass to add to the inheritance graph
      */
-    public void addClass(XClass xclass) {
+    public synchronized void addClass(XClass xclass) {
         addClassAndGetClassVertex(xclass);
     }
 
@@ -397,17 +403,31 @@ public class Subtypes2 {
         // OK, we've exhausted the possibilities now
         return false;
     }
-    ClassDescriptor prevSubDesc, prevSuperDesc;
-    boolean prevResult;
+    /**
+     * The most recent subtype query, and its answer.
+     */
+    private static class SubtypeQuery {
+        final ClassDescriptor subDesc, superDesc;
+
+        final boolean result;
+
+        SubtypeQuery(ClassDescriptor subDesc, ClassDescriptor superDesc, boolean result) {
+            this.subDesc = subDesc;
+            this.superDesc = superDesc;
+            this.result = result;
+        }
+    }
+
+    private volatile SubtypeQuery prevQuery;
 
     public boolean isSubtype(ClassDescriptor subDesc, ClassDescriptor superDesc) throws ClassNotFoundException {
-        if (subDesc == prevSubDesc && prevSuperDesc == superDesc) {
-            return prevResult;
+        SubtypeQuery prev = prevQuery;
+        if (prev != null && subDesc == prev.subDesc && superDesc == prev.superDesc) {
+            return prev.result;
         }
-        prevResult = isSubtype0(subDesc, superDesc);
-        prevSubDesc = subDesc;
-        prevSuperDesc = superDesc;
-        return prevResult;
+        boolean result = isSubtype0(subDesc, superDesc);
+        prevQuery = new SubtypeQuery(subDesc, superDesc, result);
+        return result;
     }
 
     public boolean isSubtype(ClassDescriptor subDesc, ClassDescriptor... superDesc) throws ClassNotFoundException {
@@ -549,7 +569,9 @@ public class Subtypes2 {
 
         ReferenceType answer = checkFirstCommonSuperclassQueryCache(a, b);
         if (answer == null) {
-            answer = computeFirstCommonSuperclassOfReferenceTypes(a, b);
+            synchronized (this) {
+                answer = computeFirstCommonSuperclassOfReferenceTypes(a, b);
+            }
             putFirstCommonSuperclassQueryCache(a, b, answer);
         }
         return answer;
@@ -706,8 +728,10 @@ public class Subtypes2 {
 
         ObjectType firstCommonSupertype = (ObjectType) checkFirstCommonSuperclassQueryCache(a, b);
         if (firstCommonSupertype == null) {
-            firstCommonSupertype = computeFirstCommonSuperclassOfObjectTypes(a, b);
-            firstCommonSuperclassQueryCache.put(a, b, firstCommonSupertype);
+            synchronized (this) {
+                firstCommonSupertype = computeFirstCommonSuperclassOfObjectTypes(a, b);
+            }
+            putFirstCommonSuperclassQueryCache(a, b, firstCommonSupertype);
         }
 
         return firstCommonSupertype;
@@ -778,7 +802,15 @@ public class Subtypes2 {
             a = b;
             b = tmp;
         }
-        firstCommonSuperclassQueryCache.put(a, b, answer);
+        ConcurrentMap<ReferenceType, ReferenceType> answers = firstCommonSuperclassQueryCache.get(a);
+        if (answers == null) {
+            answers = new ConcurrentHashMap<ReferenceType, ReferenceType>();
+            ConcurrentMap<ReferenceType, ReferenceType> old = firstCommonSuperclassQueryCache.putIfAbsent(a, answers);
+            if (old != null) {
+                answers = old;
+            }
+        }
+        answers.put(b, answer);
     }
 
     private ReferenceType checkFirstCommonSuperclassQueryCache(ReferenceType a, ReferenceType b) {
@@ -787,7 +819,8 @@ public class Subtypes2 {
             a = b;
             b = tmp;
         }
-        return firstCommonSuperclassQueryCache.get(a, b);
+        ConcurrentMap<ReferenceType, ReferenceType> answers = firstCommonSuperclassQueryCache.get(a);
+        return answers == null ? null : answers.get(b);
     }
 
     /**
@@ -824,7 +857,9 @@ public class Subtypes2 {
     public Set<ClassDescriptor> getSubtypes(ClassDescriptor classDescriptor) throws ClassNotFoundException {
         Set<ClassDescriptor> result = subtypeSetMap.get(classDescriptor);
         if (result == null) {
-            result = computeKnownSubtypes(classDescriptor);
+            synchronized (this) {
+                result = computeKnownSubtypes(classDescriptor);
+            }
             subtypeSetMap.put(classDescriptor, result);
         }
         return result;
@@ -838,7 +873,7 @@ public class Subtypes2 {
      * @return true if the class has subtypes, false if it has no subtypes
      * @throws ClassNotFoundException
      */
-    public boolean hasSubtypes(ClassDescriptor classDescriptor) throws ClassNotFoundException {
+    public synchronized boolean hasSubtypes(ClassDescriptor classDescriptor) throws ClassNotFoundException {
         Set<ClassDescriptor> subtypes = getDirectSubtypes(classDescriptor);
         if (DEBUG) {
             System.out.println("Direct subtypes of " + classDescriptor + " are " + subtypes);
@@ -854,7 +889,7 @@ public class Subtypes2 {
      * @return Set of ClassDescriptors which are the known subtypes of the class
      * @throws ClassNotFoundException
      */
-    public Set<ClassDescriptor> getDirectSubtypes(ClassDescriptor classDescriptor) throws ClassNotFoundException {
+    public synchronized Set<ClassDescriptor> getDirectSubtypes(ClassDescriptor classDescriptor) throws ClassNotFoundException {
 
         ClassVertex startVertex = resolveClassVertex(classDescriptor);
 
@@ -893,7 +928,7 @@ public class Subtypes2 {
      *
      * @return Collection of all XClass objects
      */
-    public Collection<XClass> getXClassCollection() {
+    public synchronized Collection<XClass> getXClassCollection() {
         return Collections.<XClass> unmodifiableCollection(xclassSet);
     }
 
@@ -955,7 +990,7 @@ public class Subtypes2 {
      * @throws ClassNotFoundException
      *             if the start vertex cannot be resolved
      */
-    public void traverseSupertypes(ClassDescriptor start, InheritanceGraphVisitor visitor) throws ClassNotFoundException {
+    public synchronized void traverseSupertypes(ClassDescriptor start, InheritanceGraphVisitor visitor) throws ClassNotFoundException {
         LinkedList<SupertypeTraversalPath> workList = new LinkedList<SupertypeTraversalPath>();
 
         ClassVertex startVertex = resolveClassVertex(start);
@@ -1006,7 +1041,7 @@ public class Subtypes2 {
      * @throws ClassNotFoundException
      *             if the start vertex cannot be resolved
      */
-    public void traverseSupertypesDepthFirst(ClassDescriptor start, SupertypeTraversalVisitor visitor) throws ClassNotFoundException {
+    public synchronized void traverseSupertypesDepthFirst(ClassDescriptor start, SupertypeTraversalVisitor visitor) throws ClassNotFoundException {
         this.traverseSupertypesDepthFirstHelper(start, visitor, new HashSet<ClassDescriptor>());
     }
 
@@ -1117,7 +1152,7 @@ public class Subtypes2 {
     }
 
 
-    public boolean hasKnownSubclasses(ClassDescriptor classDescriptor) throws ClassNotFoundException {
+    public synchronized boolean hasKnownSubclasses(ClassDescriptor classDescriptor) throws ClassNotFoundException {
 
         ClassVertex startVertex = resolveClassVertex(classDescriptor);
         if (!startVertex.isInterface()) {
@@ -1194,7 +1229,9 @@ public class Subtypes2 {
     public SupertypeQueryResults getSupertypeQueryResults(ClassDescriptor classDescriptor) {
         SupertypeQueryResults supertypeQueryResults = supertypeSetMap.get(classDescriptor);
         if (supertypeQueryResults == null) {
-            supertypeQueryResults = computeSupertypes(classDescriptor);
+            synchronized (this) {
+                supertypeQueryResults = computeSupertypes(classDescriptor);
+            }
             supertypeSetMap.put(classDescriptor, supertypeQueryResults);
         }
         return supertypeQueryResults;
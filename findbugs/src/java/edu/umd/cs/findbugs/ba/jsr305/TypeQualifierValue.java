@@ -248,7 +248,11 @@ public class TypeQualifierValue<A extends Annotation> {
         Set<TypeQualifierValue<?>> allKnownTypeQualifiers = new HashSet<TypeQualifierValue<?>>();
     }
 
-    private static ThreadLocal<Data> instance = new ThreadLocal<Data>() {
+    /**
+     * Inherited by parallel analysis threads, so that they all see the same
+     * set of known type qualifiers; accesses synchronize on the Data object.
+     */
+    private static ThreadLocal<Data> instance = new InheritableThreadLocal<Data>() {
         @Override
         protected Data initialValue() {
             return new Data();
@@ -296,15 +300,18 @@ public class TypeQualifierValue<A extends Annotation> {
     @SuppressWarnings("rawtypes")
     public static @Nonnull
     TypeQualifierValue<?> getValue(ClassDescriptor desc, @CheckForNull  Object value) {
-        DualKeyHashMap<ClassDescriptor, Object, TypeQualifierValue<?>> map = instance.get().typeQualifierMap;
-        TypeQualifierValue<?> result = map.get(desc, value);
-        if (result != null) {
+        Data data = instance.get();
+        synchronized (data) {
+            DualKeyHashMap<ClassDescriptor, Object, TypeQualifierValue<?>> map = data.typeQualifierMap;
+            TypeQualifierValue<?> result = map.get(desc, value);
+            if (result != null) {
+                return result;
+            }
+            result = new TypeQualifierValue(desc, value);
+            map.put(desc, value, result);
+            data.allKnownTypeQualifiers.add(result);
             return result;
         }
-        result = new TypeQualifierValue(desc, value);
-        map.put(desc, value, result);
-        instance.get().allKnownTypeQualifiers.add(result);
-        return result;
     }
     @SuppressWarnings("unchecked")
     public static @Nonnull <A extends Annotation>
@@ -318,7 +325,10 @@ public class TypeQualifierValue<A extends Annotation> {
      * @return Collection of all known TypeQualifierValues
      */
     public static Collection<TypeQualifierValue<?>> getAllKnownTypeQualifiers() {
-        return Collections.unmodifiableSet(instance.get().allKnownTypeQualifiers);
+        Data data = instance.get();
+        synchronized (data) {
+            return Collections.unmodifiableSet(new HashSet<TypeQualifierValue<?>>(data.allKnownTypeQualifiers));
+        }
     }
 
     /**
@@ -334,7 +344,7 @@ public class TypeQualifierValue<A extends Annotation> {
 
         LinkedList<TypeQualifierValue<?>> result = new LinkedList<TypeQualifierValue<?>>();
 
-        for (TypeQualifierValue<?> t : instance.get().allKnownTypeQualifiers) {
+        for (TypeQualifierValue<?> t : getAllKnownTypeQualifiers()) {
             //
             // Any TypeQualifierValue with the same
             // annotation class but a different value is a complementary
@@ -360,7 +370,7 @@ public class TypeQualifierValue<A extends Annotation> {
      */
     public static boolean hasMultipleVariants(TypeQualifierValue<?> tqv) {
         int count = 0;
-        for (TypeQualifierValue<?> t : instance.get().allKnownTypeQualifiers) {
+        for (TypeQualifierValue<?> t : getAllKnownTypeQualifiers()) {
             if (t.typeQualifier.equals(tqv.typeQualifier)) {
                 count++;
             }
@@ -75,6 +75,15 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
 
     private final ObligationFactory factory;
 
+    /** The empty ObligationSet, whose table has the sets of this analysis */
+    private final ObligationSet emptyObligationSet;
+
+    /**
+     * Maximum number of states in a fact. Methods needing more are not
+     * analyzed.
+     */
+    private final int stateBudget = SystemProperties.getInt("oa.maxstates", 1000);
+
     private final ObligationPolicyDatabase database;
 
     private final TypeDataflow typeDataflow;
@@ -87,6 +96,8 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
 
     private StateSet cachedEntryFact;
 
+    private int maxStates;
+
     static final ClassDescriptor willClose = DescriptorFactory.createClassDescriptor(WillClose.class);
 
     /**
@@ -112,6 +123,7 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
         super(dfs);
         this.xmethod = xmethod;
         this.factory = factory;
+        this.emptyObligationSet = factory.createObligationSet();
         this.database = database;
         this.typeDataflow = typeDataflow;
         this.invDataflow = invDataflow;
@@ -123,9 +135,16 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
         return actionCache;
     }
 
+    /**
+     * @return the largest number of states in a fact computed so far
+     */
+    public int getMaxStates() {
+        return maxStates;
+    }
+
     @Override
     public StateSet createFact() {
-        return new StateSet(factory);
+        return new StateSet(emptyObligationSet);
     }
 
     @Override
@@ -161,6 +180,13 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
         endTransfer(basicBlock, end, result);
     }
 
+    @Override
+    protected boolean isLocationFactReplayable() {
+        // transfer() appends the block to the paths, even at locations
+        // within the block
+        return false;
+    }
+
     private void endTransfer(BasicBlock basicBlock, @CheckForNull InstructionHandle end, StateSet result) {
         // Append this block id to the Paths of all States
         for (Iterator<State> i = result.stateIterator(); i.hasNext();) {
@@ -329,25 +355,24 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
     @Override
     public void initEntryFact(StateSet fact) throws DataflowAnalysisException {
         if (cachedEntryFact == null) {
-            cachedEntryFact = new StateSet(factory);
+            cachedEntryFact = new StateSet(emptyObligationSet);
 
             //
             // Initial state - create obligations for each parameter
             // marked with a @WillClose annotation.
             //
 
-            State state = new State(factory);
             Obligation[] paramObligations = factory.getParameterObligationTypes(xmethod);
 
-            ObligationSet obligationSet = state.getObligationSet();
+            ObligationSet obligationSet = emptyObligationSet;
             for (int i = 0; i < paramObligations.length; i++) {
                 if (paramObligations[i] != null && xmethod.getParameterAnnotation(i, willClose) != null) {
-                    obligationSet.add(paramObligations[i]);
+                    obligationSet = obligationSet.add(paramObligations[i]);
                 }
             }
-
             if (!obligationSet.isEmpty()) {
                 // Add the state
+                State state = new State(obligationSet);
                 HashMap<ObligationSet, State> map = new HashMap<ObligationSet, State>();
                 map.put(obligationSet, state);
                 cachedEntryFact.replaceMap(map);
@@ -447,8 +472,7 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
                         path = stateInInputFact.getPath();
                     }
 
-                    stateToAdd = new State(factory);
-                    stateToAdd.getObligationSet().copyFrom(obligationSet);
+                    stateToAdd = new State(obligationSet);
                     stateToAdd.getPath().copyFrom(path);
                 } else if (stateInInputFact != null) {
                     stateToAdd = stateInInputFact.duplicate();
@@ -461,6 +485,12 @@ public class ObligationAnalysis extends ForwardDataflowAnalysis<StateSet> {
 
             result.replaceMap(updatedStateMap);
         }
+
+        int numStates = result.getAllObligationSets().size();
+        if (numStates > stateBudget) {
+            throw new ObligationStateBudgetExceededException(numStates);
+        }
+        maxStates = Math.max(maxStates, numStates);
     }
 }
 
@@ -187,8 +187,13 @@ public class ObligationFactory {
         return classNameToObligationMap.get(className);
     }
 
+    /**
+     * Create an empty ObligationSet. The ObligationSets reached from it by
+     * adding and removing obligations are hash-consed in a table of their own,
+     * which isn't shared with the sets created by other calls, so an
+     * ObligationAnalysis creates it once for the method it analyzes.
+     */
     public ObligationSet createObligationSet() {
-        return new ObligationSet(/* getMaxObligationTypes(), */this);
+        return ObligationSet.createEmptySet(this);
     }
 }
-
@@ -20,34 +20,71 @@
 package edu.umd.cs.findbugs.ba.obl;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.CheckReturnValue;
 
 /**
  * A multiset of obligations that must be cleaned up by error-handling code.
  *
  * <p>
+ * ObligationSets are immutable, and are hash-consed in the table of the empty
+ * ObligationSet they were reached from: there is a single ObligationSet with
+ * given counts in a table, which has a small integer id. Adding or removing an
+ * obligation returns the ObligationSet with the updated counts, which is
+ * remembered so that the same transition doesn't look up the table again.
+ * Each ObligationAnalysis has its own table, which is dropped with it.
+ * </p>
+ *
+ * <p>
  * See Weimer and Necula, <a href="http://doi.acm.org/10.1145/1028976.1029011"
  * >Finding and preventing run-time error handling mistakes</a>, OOPSLA 2004.
  * </p>
  *
  * @author David Hovemeyer
+ * @see ObligationFactory#createObligationSet()
  */
 public class ObligationSet {
-    private static final int INVALID_HASH_CODE = -1;
-
     private final short[] countList;
 
-    // private final short[] whereCreated;
-    private final ObligationFactory factory;
+    private final Table table;
+
+    private final int id;
 
-    private int cachedHashCode;
+    private final int hashCode;
 
-    public ObligationSet(/* int maxObligationTypes, */ObligationFactory factory) {
-        this.countList = new short[factory.getMaxObligationTypes()];
-        // this.whereCreated = new short[factory.getMaxObligationTypes()];
-        this.factory = factory;
-        invalidate();
+    /** ObligationSets with one more obligation of each type, if known */
+    private ObligationSet[] added;
+
+    /** ObligationSets with one less obligation of each type, if known */
+    private ObligationSet[] removed;
+
+    private ObligationSet(short[] countList, Table table, int id) {
+        this.countList = countList;
+        this.table = table;
+        this.id = id;
+        this.hashCode = hashCode(countList);
     }
 
+    /**
+     * Create the empty ObligationSet of a new table.
+     *
+     * @param factory
+     *            the ObligationFactory defining the obligation types
+     * @return the empty ObligationSet
+     */
+    static ObligationSet createEmptySet(ObligationFactory factory) {
+        return new Table(factory).intern(new short[factory.getMaxObligationTypes()]);
+    }
+
+    /**
+     * @return the id of this ObligationSet, unique among the ObligationSets
+     *         of its table
+     */
+    public int getId() {
+        return id;
+    }
 
     public boolean isEmpty() {
         for(short s : countList) {
@@ -57,72 +94,76 @@ public class ObligationSet {
         }
         return true;
     }
-    public void add(Obligation obligation) {
-        invalidate();
-        countList[obligation.getId()]++;
+
+    /**
+     * Get the ObligationSet with one more of given obligation.
+     *
+     * @param obligation
+     *            the obligation to add
+     * @return the ObligationSet with the obligation added
+     */
+    @CheckReturnValue
+    public ObligationSet add(Obligation obligation) {
+        int obligationId = obligation.getId();
+        if (added == null) {
+            added = new ObligationSet[countList.length];
+        }
+        ObligationSet result = added[obligationId];
+        if (result == null) {
+            short[] counts = countList.clone();
+            counts[obligationId]++;
+            result = table.intern(counts);
+            added[obligationId] = result;
+        }
+        return result;
     }
 
-    public void remove(Obligation obligation) {
-        invalidate();
-        int count = countList[obligation.getId()];
-        if (count > 0)
-        {
-            countList[obligation.getId()]--; // = (short)(count - 1);
+    /**
+     * Get the ObligationSet with one less of given obligation.
+     *
+     * @param obligation
+     *            the obligation to remove
+     * @return the ObligationSet with the obligation removed, or this
+     *         ObligationSet if it doesn't contain the obligation
+     */
+    @CheckReturnValue
+    public ObligationSet remove(Obligation obligation) {
+        int obligationId = obligation.getId();
+        if (countList[obligationId] == 0) {
+            return this;
+        }
+        if (removed == null) {
+            removed = new ObligationSet[countList.length];
         }
+        ObligationSet result = removed[obligationId];
+        if (result == null) {
+            short[] counts = countList.clone();
+            counts[obligationId]--;
+            result = table.intern(counts);
+            removed[obligationId] = result;
+        }
+        return result;
     }
 
     public int getCount(int id) {
         return countList[id];
     }
 
-    // public int getCount(Obligation obligation) {
-    // return getCount(obligation.getId());
-    // }
-
-    // /**
-    // * Called upon the first creation of given kind of obligation on path.
-    // *
-    // * @param obligation an Obligation
-    // * @param basicBlockId BasicBlock id of first creation of the given
-    // obligation type
-    // */
-    // public void setWhereCreated(Obligation obligation, int basicBlockId) {
-    // assert getCount(obligation.getId()) == 1;
-    // invalidate();
-    //
-    // if (basicBlockId > Short.MAX_VALUE) {
-    // whereCreated[obligation.getId()] = -1;
-    // return;
-    // }
-    //
-    // whereCreated[obligation.getId()] = (short) basicBlockId;
-    // }
-
-    // /**
-    // * Find out where the first instance of given obligation type was created.
-    // *
-    // * @param obligation an obligation
-    // * @return id of basic block where created, or -1 if the basic block
-    // couldn't be stored
-    // */
-    // public int getWhereCreated(Obligation obligation) {
-    // return whereCreated[obligation.getId()];
-    // }
+    int getMaxObligationTypes() {
+        return countList.length;
+    }
 
     @Override
     public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
         if (o == null || o.getClass() != this.getClass()) {
             return false;
         }
 
         ObligationSet other = (ObligationSet) o;
-
-        if (!Arrays.equals(this.countList, other.countList)
-                /* || !Arrays.equals(this.whereCreated, other.whereCreated) */) {
-            return false;
-        }
-
-        return true;
+        return this.hashCode == other.hashCode && Arrays.equals(this.countList, other.countList);
     }
 
     /*
@@ -141,7 +182,7 @@ public class ObligationSet {
             if (count > 0) {
                 buf.append(",");
             }
-            buf.append(factory.getObligationById(i).toString());
+            buf.append(table.factory.getObligationById(i).toString());
             buf.append(" x ");
             buf.append(countList[i]);
             ++count;
@@ -151,33 +192,48 @@ public class ObligationSet {
         return buf.toString();
     }
 
-    public void copyFrom(ObligationSet other) {
-        System.arraycopy(other.countList, 0, this.countList, 0, other.countList.length);
-        // System.arraycopy(other.whereCreated, 0, this.whereCreated, 0,
-        // other.whereCreated.length);
-        invalidate();
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 
-    public ObligationSet duplicate() {
-        ObligationSet dup = new ObligationSet(/* countList.length, */factory);
-        dup.copyFrom(this);
-        return dup;
+    private static int hashCode(short[] countList) {
+        int value = 0;
+        for (int i = 0; i < countList.length; ++i) {
+            value += (13 * (i + 1) * countList[i]);
+        }
+        return value;
     }
 
-    @Override
-    public int hashCode() {
-        if (cachedHashCode == INVALID_HASH_CODE) {
-            int value = 0;
-            for (int i = 0; i < countList.length; ++i) {
-                value += (13 * i * (countList[i]/* + whereCreated[i] */));
-            }
-            cachedHashCode = value;
+    /**
+     * The hash-consed ObligationSets reached from an empty ObligationSet. It is
+     * used by the single thread analyzing a method, so it isn't synchronized.
+     */
+    private static class Table {
+        final ObligationFactory factory;
+
+        private final Map<ObligationSet, ObligationSet> obligationSetMap = new HashMap<ObligationSet, ObligationSet>();
+
+        Table(ObligationFactory factory) {
+            this.factory = factory;
         }
-        return cachedHashCode;
-    }
 
-    private void invalidate() {
-        this.cachedHashCode = INVALID_HASH_CODE;
+        /**
+         * Get the ObligationSet with given counts.
+         *
+         * @param countList
+         *            count of each obligation type, which must not be modified
+         *            afterwards
+         * @return the unique ObligationSet of this table with these counts
+         */
+        ObligationSet intern(short[] countList) {
+            ObligationSet obligationSet = new ObligationSet(countList, this, obligationSetMap.size());
+            ObligationSet existing = obligationSetMap.get(obligationSet);
+            if (existing != null) {
+                return existing;
+            }
+            obligationSetMap.put(obligationSet, obligationSet);
+            return obligationSet;
+        }
     }
 }
-
@@ -0,0 +1,41 @@
+/*
+ * Bytecode Analysis Framework
+ * Copyright (C) 2005,2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.ba.obl;
+
+import edu.umd.cs.findbugs.ba.DataflowAnalysisException;
+
+/**
+ * Exception to indicate that ObligationAnalysis needs more states than
+ * allowed (see the oa.maxstates property) to analyze a method.
+ */
+public class ObligationStateBudgetExceededException extends DataflowAnalysisException {
+    private static final long serialVersionUID = 1L;
+
+    private final int numStates;
+
+    public ObligationStateBudgetExceededException(int numStates) {
+        super("Obligation analysis needs " + numStates + " states");
+        this.numStates = numStates;
+    }
+
+    public int getNumStates() {
+        return numStates;
+    }
+}
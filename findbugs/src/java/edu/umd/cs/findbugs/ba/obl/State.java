@@ -40,8 +40,14 @@ public class State {
     private State() {
     }
 
-    public State(/* int maxObligationTypes, */ObligationFactory factory) {
-        this.obligationSet = new ObligationSet(/* maxObligationTypes, */factory);
+    /**
+     * Constructor.
+     *
+     * @param obligationSet
+     *            the ObligationSet of the state, whose path is empty
+     */
+    public State(ObligationSet obligationSet) {
+        this.obligationSet = obligationSet;
         this.path = new Path();
     }
 
@@ -52,6 +58,14 @@ public class State {
         return obligationSet;
     }
 
+    /**
+     * @param obligationSet
+     *            The obligationSet to set.
+     */
+    void setObligationSet(ObligationSet obligationSet) {
+        this.obligationSet = obligationSet;
+    }
+
     /**
      * @return Returns the path.
      */
@@ -61,7 +75,8 @@ public class State {
 
     public State duplicate() {
         State dup = new State();
-        dup.obligationSet = this.obligationSet.duplicate();
+        // ObligationSets are immutable, so they are shared
+        dup.obligationSet = this.obligationSet;
         dup.path = this.path.duplicate();
 
         return dup;
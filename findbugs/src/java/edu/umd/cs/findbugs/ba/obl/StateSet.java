@@ -58,12 +58,19 @@ public class StateSet {
         return stateMap.isEmpty();
     }
 
-    private final ObligationFactory factory;
+    private final ObligationSet emptyObligationSet;
 
-    public StateSet(ObligationFactory factory) {
+    /**
+     * Constructor.
+     *
+     * @param emptyObligationSet
+     *            the empty ObligationSet of the analysis, from which the
+     *            ObligationSets of the states are reached
+     */
+    public StateSet(ObligationSet emptyObligationSet) {
         this.isTop = this.isBottom = false;
         this.stateMap = new HashMap<ObligationSet, State>();
-        this.factory = factory;
+        this.emptyObligationSet = emptyObligationSet;
     }
 
     public void setTop() {
@@ -172,7 +179,7 @@ public class StateSet {
      * @return an exact deep copy of this StateSet
      */
     public StateSet duplicate() {
-        StateSet dup = new StateSet(factory);
+        StateSet dup = new StateSet(emptyObligationSet);
         dup.copyFrom(this);
         return dup;
     }
@@ -187,20 +194,17 @@ public class StateSet {
      *            obligation
      */
     public void addObligation(final Obligation obligation, int basicBlockId) throws ObligationAcquiredOrReleasedInLoopException {
-        Map<ObligationSet, State> updatedStateMap = new HashMap<ObligationSet, State>();
         if (stateMap.isEmpty()) {
-            State s = new State(factory);
-            s.getObligationSet().add(obligation);
-            updatedStateMap.put(s.getObligationSet(), s);
+            State s = new State(emptyObligationSet.add(obligation));
+            stateMap.put(s.getObligationSet(), s);
         } else {
-            for (State state : stateMap.values()) {
+            State[] states = removeAllStates();
+            for (State state : states) {
                 checkCircularity(state, obligation, basicBlockId);
-                state.getObligationSet().add(obligation);
-                updatedStateMap.put(state.getObligationSet(), state);
-
+                state.setObligationSet(state.getObligationSet().add(obligation));
+                stateMap.put(state.getObligationSet(), state);
             }
         }
-        replaceMap(updatedStateMap);
     }
 
     /**
@@ -215,17 +219,27 @@ public class StateSet {
      */
     public void deleteObligation(final Obligation obligation, int basicBlockId)
             throws ObligationAcquiredOrReleasedInLoopException {
-        Map<ObligationSet, State> updatedStateMap = new HashMap<ObligationSet, State>();
-        for (Iterator<State> i = stateIterator(); i.hasNext();) {
-            State state = i.next();
+        State[] states = removeAllStates();
+        for (State state : states) {
             checkCircularity(state, obligation, basicBlockId);
-            ObligationSet obligationSet = state.getObligationSet();
-            obligationSet.remove(obligation);
+            ObligationSet obligationSet = state.getObligationSet().remove(obligation);
+            state.setObligationSet(obligationSet);
             if (!obligationSet.isEmpty()) {
-                updatedStateMap.put(obligationSet, state);
+                stateMap.put(obligationSet, state);
             }
         }
-        replaceMap(updatedStateMap);
+    }
+
+    /**
+     * Remove all States, so that they can be added again with updated
+     * ObligationSets, reusing the map.
+     *
+     * @return the States that were in the StateSet
+     */
+    private State[] removeAllStates() {
+        State[] states = stateMap.values().toArray(new State[stateMap.size()]);
+        stateMap.clear();
+        return states;
     }
 
     /**
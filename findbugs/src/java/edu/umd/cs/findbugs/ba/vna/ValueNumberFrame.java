@@ -19,7 +19,6 @@
 
 package edu.umd.cs.findbugs.ba.vna;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -50,7 +49,7 @@ import edu.umd.cs.findbugs.util.Util;
  */
 public class ValueNumberFrame extends Frame<ValueNumber> implements ValueNumberAnalysisFeatures {
 
-    private ArrayList<ValueNumber> mergedValueList;
+    private ValueNumber[] mergedValues;
 
     private Map<AvailableLoad, ValueNumber[]> availableLoadMap;
 
@@ -404,11 +403,11 @@ public class ValueNumberFrame extends Frame<ValueNumber> implements ValueNumberA
     }
 
     ValueNumber getMergedValue(int slot) {
-        return mergedValueList.get(slot);
+        return mergedValues[slot];
     }
 
     void setMergedValue(int slot, ValueNumber value) {
-        mergedValueList.set(slot, value);
+        mergedValues[slot] = value;
     }
 
     @Override
@@ -417,14 +416,10 @@ public class ValueNumberFrame extends Frame<ValueNumber> implements ValueNumberA
             throw new IllegalArgumentException();
         }
         // If merged value list hasn't been created yet, create it.
-        if (mergedValueList == null && other.isValid()) {
+        if (mergedValues == null && other.isValid()) {
             // This is where this frame gets its size.
             // It will have the same size as long as it remains valid.
-            mergedValueList = new ArrayList<ValueNumber>(other.getNumSlots());
-            int numSlots = other.getNumSlots();
-            for (int i = 0; i < numSlots; ++i) {
-                mergedValueList.add(null);
-            }
+            mergedValues = new ValueNumber[other.getNumSlots()];
         }
 
         if (REDUNDANT_LOAD_ELIMINATION) {
@@ -20,8 +20,10 @@
 package edu.umd.cs.findbugs.classfile;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -32,57 +34,124 @@ import org.apache.bcel.classfile.Method;
 import org.apache.bcel.generic.ObjectType;
 
 import edu.umd.cs.findbugs.FieldAnnotation;
+import edu.umd.cs.findbugs.InterningStats;
 import edu.umd.cs.findbugs.MethodAnnotation;
 import edu.umd.cs.findbugs.classfile.analysis.MethodInfo;
 import edu.umd.cs.findbugs.internalAnnotations.DottedClassName;
 import edu.umd.cs.findbugs.internalAnnotations.SlashedClassName;
 import edu.umd.cs.findbugs.util.ClassName;
-import edu.umd.cs.findbugs.util.MapCache;
+import edu.umd.cs.findbugs.util.ConcurrentMapCache;
 
 /**
  * Factory for creating ClassDescriptors, MethodDescriptors, and
- * FieldDescriptors.
+ * FieldDescriptors. The instance is inherited by threads started from the
+ * analysis thread (e.g., parallel analysis workers), so the descriptor tables
+ * are concurrent maps: looking up an existing descriptor takes no lock, and a
+ * descriptor created concurrently by two threads is interned only once.
  *
  * @author David Hovemeyer
  */
 public class DescriptorFactory {
-    private static ThreadLocal<DescriptorFactory> instanceThreadLocal = new ThreadLocal<DescriptorFactory>() {
+    private static ThreadLocal<DescriptorFactory> instanceThreadLocal = new InheritableThreadLocal<DescriptorFactory>() {
         @Override
         protected DescriptorFactory initialValue() {
             return new DescriptorFactory();
         }
     };
 
-    private final Map<String, ClassDescriptor> classDescriptorMap;
+    /**
+     * Maximum number of strings kept in the canonical string pool.
+     */
+    private static final int MAX_CANONICAL_STRINGS = 10000;
+
+    private final ConcurrentMap<String, ClassDescriptor> classDescriptorMap;
+
+    private final ConcurrentMap<String, ClassDescriptor> dottedClassDescriptorMap;
+
+    private final ConcurrentMap<MethodDescriptor, MethodDescriptor> methodDescriptorMap;
+
+    private final ConcurrentMap<FieldDescriptor, FieldDescriptor> fieldDescriptorMap;
+
+    private final ConcurrentMap<String, String> stringCache;
+
+    // Hit and miss counts, see reportInterningStats()
 
-    private final Map<String, ClassDescriptor> dottedClassDescriptorMap;
+    private final LongAdder classHits = new LongAdder();
 
-    private final Map<MethodDescriptor, MethodDescriptor> methodDescriptorMap;
+    private final LongAdder classMisses = new LongAdder();
 
-    private final Map<FieldDescriptor, FieldDescriptor> fieldDescriptorMap;
+    private final LongAdder methodHits = new LongAdder();
+
+    private final LongAdder methodMisses = new LongAdder();
+
+    private final LongAdder fieldHits = new LongAdder();
+
+    private final LongAdder fieldMisses = new LongAdder();
+
+    private final LongAdder stringHits = new LongAdder();
+
+    private final LongAdder stringMisses = new LongAdder();
 
     private DescriptorFactory() {
-        this.classDescriptorMap = new HashMap<String, ClassDescriptor>();
-        this.dottedClassDescriptorMap = new HashMap<String, ClassDescriptor>();
-        this.methodDescriptorMap = new HashMap<MethodDescriptor, MethodDescriptor>();
-        this.fieldDescriptorMap = new HashMap<FieldDescriptor, FieldDescriptor>();
+        this.classDescriptorMap = new ConcurrentHashMap<String, ClassDescriptor>();
+        this.dottedClassDescriptorMap = new ConcurrentHashMap<String, ClassDescriptor>();
+        this.methodDescriptorMap = new ConcurrentHashMap<MethodDescriptor, MethodDescriptor>();
+        this.fieldDescriptorMap = new ConcurrentHashMap<FieldDescriptor, FieldDescriptor>();
+        this.stringCache = new ConcurrentMapCache<String, String>(MAX_CANONICAL_STRINGS);
     }
 
-    private final MapCache<String, String> stringCache = new MapCache<String, String>(10000);
-
+    /**
+     * Get the canonical instance of a string. The pool of canonical strings is
+     * bounded; strings which have not been used recently are dropped from it.
+     *
+     * @param s
+     *            a string
+     * @return an equal string, shared with earlier callers if possible
+     */
     public static String canonicalizeString(@CheckForNull String s) {
         if (s == null) {
             return s;
         }
-        DescriptorFactory df =  instanceThreadLocal.get();
-        String cached = df.stringCache.get(s);
+        DescriptorFactory df = instanceThreadLocal.get();
+        String cached = df.stringCache.putIfAbsent(s, s);
         if (cached != null) {
+            df.stringHits.increment();
             return cached;
         }
-        df.stringCache.put(s, s);
+        df.stringMisses.increment();
         return s;
     }
 
+    /**
+     * Record the hit and miss counts of the descriptor tables and the string
+     * pool.
+     *
+     * @param stats
+     *            the InterningStats to record the counts in
+     */
+    public void reportInterningStats(InterningStats stats) {
+        stats.setCounts("ClassDescriptor", classHits.sum(), classMisses.sum());
+        stats.setCounts("MethodDescriptor", methodHits.sum(), methodMisses.sum());
+        stats.setCounts("FieldDescriptor", fieldHits.sum(), fieldMisses.sum());
+        stats.setCounts("String", stringHits.sum(), stringMisses.sum());
+    }
+
+    /**
+     * Intern a value in a table.
+     *
+     * @return the value in the table equal to given value
+     */
+    private static <K, V> V intern(ConcurrentMap<K, V> map, K key, V value, LongAdder hits, LongAdder misses) {
+        V existing = map.putIfAbsent(key, value);
+        if (existing != null) {
+            // another thread was faster
+            hits.increment();
+            return existing;
+        }
+        misses.increment();
+        return value;
+    }
+
     /**
      * Get the singleton instance of the DescriptorFactory.
      *
@@ -122,13 +191,13 @@ public class DescriptorFactory {
     public @Nonnull
     ClassDescriptor getClassDescriptor(@SlashedClassName String className) {
         assert className.indexOf('.') == -1;
-        className = canonicalizeString(className);
         ClassDescriptor classDescriptor = classDescriptorMap.get(className);
-        if (classDescriptor == null) {
-            classDescriptor = new ClassDescriptor(className);
-            classDescriptorMap.put(className, classDescriptor);
+        if (classDescriptor != null) {
+            classHits.increment();
+            return classDescriptor;
         }
-        return classDescriptor;
+        className = canonicalizeString(className);
+        return intern(classDescriptorMap, className, new ClassDescriptor(className), classHits, classMisses);
     }
 
     /**
@@ -143,7 +212,9 @@ public class DescriptorFactory {
         ClassDescriptor classDescriptor = dottedClassDescriptorMap.get(dottedClassName);
         if (classDescriptor == null) {
             classDescriptor = getClassDescriptor(dottedClassName.replace('.', '/'));
-            dottedClassDescriptorMap.put(dottedClassName, classDescriptor);
+            dottedClassDescriptorMap.putIfAbsent(dottedClassName, classDescriptor);
+        } else {
+            classHits.increment();
         }
         return classDescriptor;
     }
@@ -174,11 +245,11 @@ public class DescriptorFactory {
         }
         MethodDescriptor methodDescriptor = new MethodDescriptor(className, name, signature, isStatic);
         MethodDescriptor existing = methodDescriptorMap.get(methodDescriptor);
-        if (existing == null) {
-            methodDescriptorMap.put(methodDescriptor, methodDescriptor);
-            existing = methodDescriptor;
+        if (existing != null) {
+            methodHits.increment();
+            return existing;
         }
-        return existing;
+        return intern(methodDescriptorMap, methodDescriptor, methodDescriptor, methodHits, methodMisses);
     }
 
     public void profile() {
@@ -237,11 +308,11 @@ public class DescriptorFactory {
     public FieldDescriptor getFieldDescriptor(@SlashedClassName String className, String name, String signature, boolean isStatic) {
         FieldDescriptor fieldDescriptor = new FieldDescriptor(className, name, signature, isStatic);
         FieldDescriptor existing = fieldDescriptorMap.get(fieldDescriptor);
-        if (existing == null) {
-            fieldDescriptorMap.put(fieldDescriptor, fieldDescriptor);
-            existing = fieldDescriptor;
+        if (existing != null) {
+            fieldHits.increment();
+            return existing;
         }
-        return existing;
+        return intern(fieldDescriptorMap, fieldDescriptor, fieldDescriptor, fieldHits, fieldMisses);
     }
 
     public FieldDescriptor getFieldDescriptor(@SlashedClassName String className, Field ma) {
@@ -53,6 +53,18 @@ public interface IClassPathBuilder {
      */
     public void scanNestedArchives(boolean scanNestedArchives);
 
+    /**
+     * Set the number of threads used to open and scan codebases. The
+     * resulting classpath, and the order of the progress callbacks, do not
+     * depend on the number of threads. This should be called before the
+     * build() method is called.
+     *
+     * @param numThreads
+     *            number of threads; 1 (the default) means the classpath is
+     *            built entirely on the calling thread
+     */
+    public void setNumThreads(int numThreads);
+
     /**
      * Build the classpath.
      *
@@ -22,6 +22,7 @@ package edu.umd.cs.findbugs.classfile.engine;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 
+import edu.umd.cs.findbugs.ba.XClass;
 import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
 import edu.umd.cs.findbugs.classfile.ClassDescriptor;
 import edu.umd.cs.findbugs.classfile.ClassNameMismatchException;
@@ -48,6 +49,12 @@ public class ClassNameAndSuperclassInfoAnalysisEngine implements IClassAnalysisE
     @Override
     public ClassNameAndSuperclassInfo analyze(IAnalysisCache analysisCache, ClassDescriptor descriptor)
             throws CheckedAnalysisException {
+        // A ClassInfo already parsed by ASM has everything we need
+        XClass xclass = analysisCache.probeClassAnalysis(XClass.class, descriptor);
+        if (xclass instanceof ClassNameAndSuperclassInfo) {
+            return (ClassNameAndSuperclassInfo) xclass;
+        }
+
         // Get InputStream reading from class data
         ClassData classData = analysisCache.getClassAnalysis(ClassData.class, descriptor);
         DataInputStream classDataIn = new DataInputStream(new ByteArrayInputStream(classData.getData()));
@@ -21,6 +21,7 @@ package edu.umd.cs.findbugs.classfile.engine;
 
 import java.util.BitSet;
 import java.util.HashSet;
+import java.util.Set;
 import java.util.TreeSet;
 
 import javax.annotation.CheckForNull;
@@ -635,63 +636,41 @@ public class ClassParserUsingASM implements ClassParserInterface {
             }
         }, ClassReader.SKIP_FRAMES);
         HashSet<ClassDescriptor> referencedClassSet = new HashSet<ClassDescriptor>();
+        addReferencedClasses(classReader, referencedClassSet);
+        cBuilder.setCalledClassDescriptors(calledClassSet);
+        cBuilder.setReferencedClassDescriptors(referencedClassSet);
+    }
 
-        // collect class references
-
-        int constantPoolCount = classReader.readUnsignedShort(8);
-        int offset = 10;
-        char[] buf = new char[1024];
-        // System.out.println("constant pool count: " + constantPoolCount);
-        for (int count = 1; count < constantPoolCount; count++) {
-            int tag = classReader.readByte(offset);
-
-            int size;
-            switch (tag) {
-            case Const.CONSTANT_Methodref:
-            case Const.CONSTANT_InterfaceMethodref:
-            case Const.CONSTANT_Fieldref:
-            case Const.CONSTANT_Integer:
-            case Const.CONSTANT_Float:
-            case Const.CONSTANT_NameAndType:
-            case Const.CONSTANT_InvokeDynamic:
-                size = 5;
-                break;
-            case Const.CONSTANT_Long:
-            case Const.CONSTANT_Double:
-                size = 9;
-                count++;
-                break;
-            case Const.CONSTANT_Utf8:
-                size = 3 + classReader.readUnsignedShort(offset + 1);
-                break;
-            case Const.CONSTANT_Class:
-                @SlashedClassName
-                String className = classReader.readUTF8(offset + 1, buf);
-                if (className.indexOf('[') >= 0) {
-                    ClassParser.extractReferencedClassesFromSignature(referencedClassSet, className);
-                } else if (ClassName.isValidClassName(className)) {
-                    ClassDescriptor classDescriptor = DescriptorFactory.instance().getClassDescriptor(className);
-                    referencedClassSet.add(classDescriptor);
-                }
-                size = 3;
-                break;
-            case Const.CONSTANT_String:
-            case Const.CONSTANT_MethodType:
-                size = 3;
-                break;
-            case Const.CONSTANT_MethodHandle:
-                size = 4;
-                break;
-            default:
-                throw new IllegalStateException("Unexpected tag of " + tag + " at offset " + offset + " while parsing "
-                        + slashedClassName + " from " + codeBaseEntry);
+    /**
+     * Add the classes referenced by the constant pool of a class to a set.
+     *
+     * @param classReader
+     *            ClassReader of the class
+     * @param referencedClassSet
+     *            set the referenced classes are added to
+     */
+    public static void addReferencedClasses(ClassReader classReader, Set<ClassDescriptor> referencedClassSet) {
+        // collect class references, using the constant pool index the
+        // ClassReader built when it was created rather than decoding
+        // the constant pool again
+        char[] buf = new char[classReader.getMaxStringLength()];
+        int constantPoolCount = classReader.getItemCount();
+        for (int item = 1; item < constantPoolCount; item++) {
+            // The index gives the offset following the tag, or 0 for the
+            // second entry of a long or double
+            int offset = classReader.getItem(item);
+            if (offset == 0 || classReader.readByte(offset - 1) != Const.CONSTANT_Class) {
+                continue;
+            }
+            @SlashedClassName
+            String className = classReader.readUTF8(offset, buf);
+            if (className.indexOf('[') >= 0) {
+                ClassParser.extractReferencedClassesFromSignature(referencedClassSet, className);
+            } else if (ClassName.isValidClassName(className)) {
+                ClassDescriptor classDescriptor = DescriptorFactory.instance().getClassDescriptor(className);
+                referencedClassSet.add(classDescriptor);
             }
-            // System.out.println(count + "@" + offset + " : [" + tag
-            // +"] size="+size);
-            offset += size;
         }
-        cBuilder.setCalledClassDescriptors(calledClassSet);
-        cBuilder.setReferencedClassDescriptors(referencedClassSet);
     }
 
     @Override
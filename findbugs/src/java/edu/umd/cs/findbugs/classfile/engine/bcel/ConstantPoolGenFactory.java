@@ -20,7 +20,6 @@
 package edu.umd.cs.findbugs.classfile.engine.bcel;
 
 import org.apache.bcel.classfile.JavaClass;
-import org.apache.bcel.generic.ClassGen;
 import org.apache.bcel.generic.ConstantPoolGen;
 
 import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
@@ -44,8 +43,10 @@ public class ConstantPoolGenFactory extends RecomputableClassAnalysisEngine<Cons
      */
     @Override
     public ConstantPoolGen analyze(IAnalysisCache analysisCache, ClassDescriptor descriptor) throws CheckedAnalysisException {
-        ClassGen classGen = new ClassGen(analysisCache.getClassAnalysis(JavaClass.class, descriptor));
-        return classGen.getConstantPool();
+        // Only the constant pool is needed: don't copy the fields, methods
+        // and attributes of the class into a ClassGen
+        JavaClass jclass = analysisCache.getClassAnalysis(JavaClass.class, descriptor);
+        return new ConstantPoolGen(jclass.getConstantPool());
     }
 
     /*
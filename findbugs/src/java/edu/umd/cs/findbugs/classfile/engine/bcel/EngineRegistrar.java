@@ -56,7 +56,7 @@ public class EngineRegistrar implements IAnalysisEngineRegistrar {
     private static final IClassAnalysisEngine<?>[] classAnalysisEngineList = { new ClassContextClassAnalysisEngine(),
         new JavaClassAnalysisEngine(), new ConstantPoolGenFactory(),
         // new AssignedFieldMapFactory(),
-        new AssertionMethodsFactory(), };
+        new AssertionMethodsFactory(), new LineNumberIndexFactory(), };
 
     private static final IMethodAnalysisEngine<?>[] methodAnalysisEngineList = { new MethodFactory(), new MethodGenFactory(),
         new CFGFactory(), new UsagesRequiringNonNullValuesFactory(), new ValueNumberDataflowFactory(),
@@ -86,6 +86,7 @@ public class EngineRegistrar implements IAnalysisEngineRegistrar {
         new ReflectionDatabaseFactory<DirectlyRelevantTypeQualifiersDatabase>(DirectlyRelevantTypeQualifiersDatabase.class),
         new ReflectionDatabaseFactory<TypeQualifierDatabase>(TypeQualifierDatabase.class),
         new ReflectionDatabaseFactory<MethodInfoDatabase>(MethodInfoDatabase.class),
+        new ReflectionDatabaseFactory<OpcodeStack.JumpInfoCache>(OpcodeStack.JumpInfoCache.class),
     };
 
     /*
@@ -19,6 +19,8 @@
 
 package edu.umd.cs.findbugs.classfile.engine.bcel;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 
 import org.apache.bcel.Repository;
@@ -55,7 +57,10 @@ public class JavaClassAnalysisEngine implements IClassAnalysisEngine<JavaClass>
     public JavaClass analyze(IAnalysisCache analysisCache, ClassDescriptor descriptor) throws CheckedAnalysisException {
         try {
             ClassData classData = analysisCache.getClassAnalysis(ClassData.class, descriptor);
-            JavaClass javaClass = new ClassParser(classData.getInputStream(), descriptor.toResourceName()).parse();
+            // Read the bytes shared with the ASM front end directly, without
+            // the buffered copy ClassParser makes of other streams
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(classData.getData()));
+            JavaClass javaClass = new ClassParser(in, descriptor.toResourceName()).parse();
 
             // Make sure that the JavaClass object knows the repository
             // it was loaded from.
@@ -75,6 +75,7 @@ public class ObligationDataflowFactory extends AnalysisFactory<ObligationDataflo
             dataflow.execute();
         } finally {
             profiler.end(analysis.getClass());
+            profiler.count(analysis.getClass(), analysis.getMaxStates());
         }
 
         if (DEBUG_PRINTCFG) {
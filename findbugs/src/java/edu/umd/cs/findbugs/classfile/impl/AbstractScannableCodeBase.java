@@ -147,6 +147,10 @@ public abstract class AbstractScannableCodeBase implements IScannableCodeBase {
         }
     }
 
+    public boolean hasResourceNameTranslations() {
+        return !resourceNameTranslationMap.isEmpty();
+    }
+
     public String translateResourceName(String resourceName) {
         String translatedName = resourceNameTranslationMap.get(resourceName);
         return translatedName != null ? translatedName : resourceName;
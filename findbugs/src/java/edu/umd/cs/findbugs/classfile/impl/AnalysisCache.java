@@ -25,6 +25,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -50,11 +52,18 @@ import edu.umd.cs.findbugs.classfile.IMethodAnalysisEngine;
 import edu.umd.cs.findbugs.classfile.MethodDescriptor;
 import edu.umd.cs.findbugs.classfile.UncheckedAnalysisException;
 import edu.umd.cs.findbugs.log.Profiler;
-import edu.umd.cs.findbugs.util.MapCache;
+import edu.umd.cs.findbugs.util.ConcurrentMapCache;
 
 /**
  * Implementation of IAnalysisCache. This object is responsible for registering
  * class and method analysis engines and caching analysis results.
+ * <p>
+ * The cache is thread-safe, so it can be shared by several analysis threads
+ * (see {@link WorkerAnalysisCache}). There is no global lock: each analysis
+ * type has its own concurrent descriptor-to-result map, and each result is
+ * computed exactly once. A thread asking for a result which another thread is
+ * computing waits for it, unless waiting would deadlock, in which case it
+ * computes the result itself without caching it.
  *
  * @author David Hovemeyer
  */
@@ -79,15 +88,18 @@ public class AnalysisCache implements IAnalysisCache {
 
     private final BugReporter bugReporter;
 
-    private final Map<Class<?>, IClassAnalysisEngine<?>> classAnalysisEngineMap;
+    private final ConcurrentMap<Class<?>, IClassAnalysisEngine<?>> classAnalysisEngineMap;
 
-    private final Map<Class<?>, IMethodAnalysisEngine<?>> methodAnalysisEngineMap;
+    private final ConcurrentMap<Class<?>, IMethodAnalysisEngine<?>> methodAnalysisEngineMap;
 
-    private final Map<Class<?>, IDatabaseFactory<?>> databaseFactoryMap;
+    private final ConcurrentMap<Class<?>, IDatabaseFactory<?>> databaseFactoryMap;
 
-    private final Map<Class<?>, Map<ClassDescriptor, Object>> classAnalysisMap;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<ClassDescriptor, Object>> classAnalysisMap;
 
-    private final Map<Class<?>, Object> databaseMap;
+    private final ConcurrentMap<Class<?>, Object> databaseMap;
+
+    /** Result a thread is waiting for, if any; used to detect deadlocks */
+    private final ConcurrentMap<Thread, PendingResult> waitingFor = new ConcurrentHashMap<Thread, PendingResult>();
 
     private final Map<?, ?> analysisLocals = Collections.synchronizedMap(new HashMap<Object, Object>());
 
@@ -138,6 +150,222 @@ public class AnalysisCache implements IAnalysisCache {
 
     static final AbnormalAnalysisResult NULL_ANALYSIS_RESULT = new AbnormalAnalysisResult();
 
+    /**
+     * Placeholder for a result which is being computed by some thread.
+     */
+    private static class PendingResult {
+        final Thread owner = Thread.currentThread();
+
+        private boolean done;
+
+        private Object result;
+
+        synchronized void set(@CheckForNull Object result) {
+            this.result = result;
+            this.done = true;
+            notifyAll();
+        }
+
+        /**
+         * Wait for the result. Returns null if the computation failed with an
+         * Error, and the result must be computed again.
+         */
+        synchronized Object await() {
+            boolean interrupted = false;
+            while (!done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Computation of an analysis result. Exceptions are returned as
+     * AbnormalAnalysisResults, null results as NULL_ANALYSIS_RESULT.
+     */
+    private interface Computation {
+        Object compute();
+    }
+
+    /**
+     * The operations of a result map used by findOrCompute, with the
+     * semantics of the ConcurrentMap methods of the same names.
+     */
+    private interface ResultMap<K> {
+        Object get(K key);
+
+        Object putIfAbsent(K key, Object value);
+
+        boolean replace(K key, Object oldValue, Object newValue);
+
+        boolean remove(K key, Object value);
+    }
+
+    /**
+     * Result map for a concurrent map of class analysis results or databases.
+     */
+    private static class ConcurrentResultMap<K> implements ResultMap<K> {
+        private final ConcurrentMap<K, Object> map;
+
+        ConcurrentResultMap(ConcurrentMap<K, Object> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Object get(K key) {
+            return map.get(key);
+        }
+
+        @Override
+        public Object putIfAbsent(K key, Object value) {
+            return map.putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, Object oldValue, Object newValue) {
+            return map.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public boolean remove(K key, Object value) {
+            return map.remove(key, value);
+        }
+    }
+
+    /**
+     * Result map for the results of one method analysis kept by a
+     * ClassContext. Each operation holds the lock of the ClassContext, but the
+     * results are computed without it.
+     */
+    private static class MethodResultMap implements ResultMap<MethodDescriptor> {
+        private final ClassContext classContext;
+
+        private final Class<?> analysisClass;
+
+        MethodResultMap(ClassContext classContext, Class<?> analysisClass) {
+            this.classContext = classContext;
+            this.analysisClass = analysisClass;
+        }
+
+        @Override
+        public Object get(MethodDescriptor key) {
+            synchronized (classContext) {
+                return classContext.getMethodAnalysis(analysisClass, key);
+            }
+        }
+
+        @Override
+        public Object putIfAbsent(MethodDescriptor key, Object value) {
+            synchronized (classContext) {
+                Object old = classContext.getMethodAnalysis(analysisClass, key);
+                if (old == null) {
+                    classContext.putMethodAnalysis(analysisClass, key, value);
+                }
+                return old;
+            }
+        }
+
+        @Override
+        public boolean replace(MethodDescriptor key, Object oldValue, Object newValue) {
+            synchronized (classContext) {
+                if (classContext.getMethodAnalysis(analysisClass, key) != oldValue) {
+                    return false;
+                }
+                classContext.putMethodAnalysis(analysisClass, key, newValue);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean remove(MethodDescriptor key, Object value) {
+            synchronized (classContext) {
+                if (classContext.getMethodAnalysis(analysisClass, key) != value) {
+                    return false;
+                }
+                classContext.getObjectMap(analysisClass).remove(key);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Get the result for given key from a result map, computing it if
+     * necessary.
+     *
+     * @param map
+     *            the result map
+     * @param key
+     *            the key (descriptor or database class)
+     * @param computation
+     *            computes the result
+     * @return the result, never null
+     */
+    private <K> Object findOrCompute(ConcurrentMap<K, Object> map, K key, Computation computation) {
+        return findOrCompute(new ConcurrentResultMap<K>(map), key, computation);
+    }
+
+    private <K> Object findOrCompute(ResultMap<K> map, K key, Computation computation) {
+        Object result = map.get(key);
+        while (true) {
+            if (result == null) {
+                PendingResult pending = new PendingResult();
+                result = map.putIfAbsent(key, pending);
+                if (result == null) {
+                    Object computed = null;
+                    try {
+                        computed = computation.compute();
+                        // may fail if the placeholder was evicted
+                        map.replace(key, pending, computed);
+                    } finally {
+                        if (computed == null) {
+                            map.remove(key, pending);
+                        }
+                        pending.set(computed);
+                    }
+                    return computed;
+                }
+            }
+            if (!(result instanceof PendingResult)) {
+                return result;
+            }
+            PendingResult pending = (PendingResult) result;
+            if (wouldDeadlock(pending)) {
+                // The thread computing the result is (indirectly) waiting
+                // for us, or we are computing it ourselves
+                return computation.compute();
+            }
+            Thread current = Thread.currentThread();
+            waitingFor.put(current, pending);
+            try {
+                result = pending.await();
+            } finally {
+                waitingFor.remove(current);
+            }
+            if (result == null) {
+                result = map.get(key);
+            }
+        }
+    }
+
+    private boolean wouldDeadlock(PendingResult pending) {
+        Thread current = Thread.currentThread();
+        int limit = waitingFor.size() + 1;
+        while (pending != null && limit-- >= 0) {
+            if (pending.owner == current) {
+                return true;
+            }
+            pending = waitingFor.get(pending.owner);
+        }
+        return false;
+    }
+
     @SuppressWarnings("unchecked")
     static <E> E checkedCast(Class<E> analysisClass, Object o) {
         if (SystemProperties.ASSERTIONS_ENABLED) {
@@ -157,11 +385,11 @@ public class AnalysisCache implements IAnalysisCache {
     AnalysisCache(IClassPath classPath, BugReporter errorLogger) {
         this.classPath = classPath;
         this.bugReporter = errorLogger;
-        this.classAnalysisEngineMap = new HashMap<Class<?>, IClassAnalysisEngine<?>>();
-        this.methodAnalysisEngineMap = new HashMap<Class<?>, IMethodAnalysisEngine<?>>();
-        this.databaseFactoryMap = new HashMap<Class<?>, IDatabaseFactory<?>>();
-        this.classAnalysisMap = new HashMap<Class<?>, Map<ClassDescriptor, Object>>();
-        this.databaseMap = new HashMap<Class<?>, Object>();
+        this.classAnalysisEngineMap = new ConcurrentHashMap<Class<?>, IClassAnalysisEngine<?>>();
+        this.methodAnalysisEngineMap = new ConcurrentHashMap<Class<?>, IMethodAnalysisEngine<?>>();
+        this.databaseFactoryMap = new ConcurrentHashMap<Class<?>, IDatabaseFactory<?>>();
+        this.classAnalysisMap = new ConcurrentHashMap<Class<?>, ConcurrentMap<ClassDescriptor, Object>>();
+        this.databaseMap = new ConcurrentHashMap<Class<?>, Object>();
     }
 
     @Override
@@ -178,7 +406,9 @@ public class AnalysisCache implements IAnalysisCache {
             Collection<?> allClassContexts = map.values();
             for (Object c : allClassContexts) {
                 if (c instanceof ClassContext) {
-                    ((ClassContext) c).purgeAllMethodAnalyses();
+                    synchronized (c) {
+                        ((ClassContext) c).purgeAllMethodAnalyses();
+                    }
                 }
             }
         } catch (ClassCastException e) {
@@ -213,10 +443,28 @@ public class AnalysisCache implements IAnalysisCache {
 
     /**
      * @param analysisClass non null analysis type
-     * @return map with analysis data for given type, can be null
+     * @return copy of the analysis data for given type, can be null. Results
+     *         still being computed by other threads are waited for.
      */
     public @CheckForNull Map<ClassDescriptor, Object> getClassAnalysis(Class<?> analysisClass) {
-        return classAnalysisMap.get(analysisClass);
+        Map<ClassDescriptor, Object> descriptorMap = classAnalysisMap.get(analysisClass);
+        if (descriptorMap == null) {
+            return null;
+        }
+        Map<ClassDescriptor, Object> result = new HashMap<ClassDescriptor, Object>();
+        for (Map.Entry<ClassDescriptor, Object> e : descriptorMap.entrySet()) {
+            Object value = e.getValue();
+            if (value instanceof PendingResult) {
+                PendingResult pending = (PendingResult) value;
+                // null if the computation failed with an Error
+                value = wouldDeadlock(pending) ? null : pending.await();
+                if (value == null) {
+                    continue;
+                }
+            }
+            result.put(e.getKey(), value);
+        }
+        return result;
     }
 
     /**
@@ -225,70 +473,27 @@ public class AnalysisCache implements IAnalysisCache {
      * @param map non null, pre-filled map with analysis data for given type
      */
     public <E> void reuseClassAnalysis(Class<E> analysisClass, Map<ClassDescriptor, Object> map) {
-        Map<ClassDescriptor, Object> myMap = classAnalysisMap.get(analysisClass);
-        if (myMap != null) {
-            myMap.putAll(map);
-        } else {
-            myMap = createMap(classAnalysisEngineMap, analysisClass);
-            myMap.putAll(map);
-            classAnalysisMap.put(analysisClass, myMap);
-        }
+        findOrCreateDescriptorMap(classAnalysisMap, classAnalysisEngineMap, analysisClass).putAll(map);
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public <E> E getClassAnalysis(Class<E> analysisClass, @Nonnull ClassDescriptor classDescriptor) throws CheckedAnalysisException {
+    public <E> E getClassAnalysis(final Class<E> analysisClass, @Nonnull final ClassDescriptor classDescriptor) throws CheckedAnalysisException {
         requireNonNull(classDescriptor, "classDescriptor is null");
         // Get the descriptor->result map for this analysis class,
         // creating if necessary
-        Map<ClassDescriptor, Object> descriptorMap = findOrCreateDescriptorMap(classAnalysisMap,
+        ConcurrentMap<ClassDescriptor, Object> descriptorMap = findOrCreateDescriptorMap(classAnalysisMap,
                 classAnalysisEngineMap,
                 analysisClass);
 
-        // See if there is a cached result in the descriptor map
-        Object analysisResult = descriptorMap.get(classDescriptor);
-        if (analysisResult == null) {
-            // No cached result - compute (or recompute)
-
-            IAnalysisEngine<ClassDescriptor, E> engine = (IAnalysisEngine<ClassDescriptor, E>) classAnalysisEngineMap
-                    .get(analysisClass);
-            if (engine == null) {
-                throw new IllegalArgumentException("No analysis engine registered to produce " + analysisClass.getName());
-            }
-            Profiler profiler = getProfiler();
-            // Perform the analysis
-            try {
-                profiler.start(engine.getClass());
-                analysisResult = engine.analyze(this, classDescriptor);
-
-                // If engine returned null, we need to construct
-                // an AbnormalAnalysisResult object to record that fact.
-                // Otherwise we will try to recompute the value in
-                // the future.
-                if (analysisResult == null) {
-                    analysisResult = NULL_ANALYSIS_RESULT;
-                }
-            } catch (CheckedAnalysisException e) {
-                // Exception - make note
-                // Andrei: e.getStackTrace() cannot be null, but getter clones
-                // the stack...
-                // if (e.getStackTrace() == null)
-                // e.fillInStackTrace();
-                analysisResult = new AbnormalAnalysisResult(e);
-            } catch (RuntimeException e) {
-                // Exception - make note
-                // Andrei: e.getStackTrace() cannot be null, but getter clones
-                // the stack...
-                // if (e.getStackTrace() == null)
-                // e.fillInStackTrace();
-                analysisResult = new AbnormalAnalysisResult(e);
-            } finally {
-                profiler.end(engine.getClass());
+        // See if there is a cached result in the descriptor map,
+        // otherwise compute (or recompute)
+        Object analysisResult = findOrCompute(descriptorMap, classDescriptor, new Computation() {
+            @Override
+            public Object compute() {
+                return analyzeClass(analysisClass, classDescriptor);
             }
-
-            // Save the result
-            descriptorMap.put(classDescriptor, analysisResult);
-        }
+        });
 
         // Abnormal analysis result?
         if (analysisResult instanceof AbnormalAnalysisResult) {
@@ -298,13 +503,59 @@ public class AnalysisCache implements IAnalysisCache {
         return checkedCast(analysisClass, analysisResult);
     }
 
+    /**
+     * Analyze a class.
+     *
+     * @return the analysis result, or an AbnormalAnalysisResult
+     */
+    private <E> Object analyzeClass(Class<E> analysisClass, ClassDescriptor classDescriptor) {
+        IClassAnalysisEngine<E> engine = getClassAnalysisEngine(analysisClass);
+        Profiler profiler = getProfiler();
+        Object analysisResult;
+        // Perform the analysis
+        try {
+            profiler.start(engine.getClass());
+            analysisResult = engine.analyze(this, classDescriptor);
+
+            // If engine returned null, we need to construct
+            // an AbnormalAnalysisResult object to record that fact.
+            // Otherwise we will try to recompute the value in
+            // the future.
+            if (analysisResult == null) {
+                analysisResult = NULL_ANALYSIS_RESULT;
+            }
+        } catch (CheckedAnalysisException e) {
+            // Exception - make note
+            // Andrei: e.getStackTrace() cannot be null, but getter clones
+            // the stack...
+            // if (e.getStackTrace() == null)
+            // e.fillInStackTrace();
+            analysisResult = new AbnormalAnalysisResult(e);
+        } catch (RuntimeException e) {
+            // Exception - make note
+            // Andrei: e.getStackTrace() cannot be null, but getter clones
+            // the stack...
+            // if (e.getStackTrace() == null)
+            // e.fillInStackTrace();
+            analysisResult = new AbnormalAnalysisResult(e);
+        } finally {
+            profiler.end(engine.getClass());
+        }
+        return analysisResult;
+    }
+
     @Override
     public <E> E probeClassAnalysis(Class<E> analysisClass, @Nonnull ClassDescriptor classDescriptor) {
         Map<ClassDescriptor, Object> descriptorMap = classAnalysisMap.get(analysisClass);
         if (descriptorMap == null) {
             return null;
         }
-        return checkedCast(analysisClass, descriptorMap.get(classDescriptor));
+        Object analysisResult = descriptorMap.get(classDescriptor);
+        if (analysisResult instanceof PendingResult || analysisResult instanceof AbnormalAnalysisResult) {
+            // Not computed yet, failed, or null
+            return null;
+        }
+        return checkedCast(analysisClass, analysisResult);
     }
 
     String hex(Object o) {
@@ -312,26 +563,20 @@ public class AnalysisCache implements IAnalysisCache {
     }
 
     @Override
-    public <E> E getMethodAnalysis(Class<E> analysisClass, @Nonnull MethodDescriptor methodDescriptor) throws CheckedAnalysisException {
+    public <E> E getMethodAnalysis(final Class<E> analysisClass, @Nonnull final MethodDescriptor methodDescriptor)
+            throws CheckedAnalysisException {
         requireNonNull(methodDescriptor, "methodDescriptor is null");
         ClassContext classContext = getClassAnalysis(ClassContext.class, methodDescriptor.getClassDescriptor());
-        Object object = classContext.getMethodAnalysis(analysisClass, methodDescriptor);
-
-        if (object == null) {
-            try {
-                object = analyzeMethod(classContext, analysisClass, methodDescriptor);
-                if (object == null) {
-                    object = NULL_ANALYSIS_RESULT;
-                }
-            } catch (RuntimeException e) {
-                object = new AbnormalAnalysisResult(e);
-            } catch (CheckedAnalysisException e) {
-                object = new AbnormalAnalysisResult(e);
+        // The ClassContext is locked only to access its results: a thread
+        // computing a method analysis may wait for results other threads
+        // are computing, and findOrCompute can only detect the deadlocks
+        // between threads waiting for pending results
+        Object object = findOrCompute(new MethodResultMap(classContext, analysisClass), methodDescriptor, new Computation() {
+            @Override
+            public Object compute() {
+                return analyzeMethod(analysisClass, methodDescriptor);
             }
-
-            classContext.putMethodAnalysis(analysisClass, methodDescriptor, object);
-
-        }
+        });
         if (Debug.VERIFY_INTEGRITY && object == null) {
             throw new IllegalStateException("AnalysisFactory failed to produce a result object");
         }
@@ -346,27 +591,24 @@ public class AnalysisCache implements IAnalysisCache {
     /**
      * Analyze a method.
      *
-     * @param classContext
-     *            ClassContext storing method analysis objects for method's
-     *            class
      * @param analysisClass
      *            class the method analysis object should belong to
      * @param methodDescriptor
      *            method descriptor identifying the method to analyze
-     * @return the computed analysis object for the method
-     * @throws CheckedAnalysisException
+     * @return the computed analysis object for the method, or an
+     *         AbnormalAnalysisResult
      */
-    @SuppressWarnings("unchecked")
-    private <E> E analyzeMethod(ClassContext classContext, Class<E> analysisClass, MethodDescriptor methodDescriptor)
-            throws CheckedAnalysisException {
-        IMethodAnalysisEngine<E> engine = (IMethodAnalysisEngine<E>) methodAnalysisEngineMap.get(analysisClass);
-        if (engine == null) {
-            throw new IllegalArgumentException("No analysis engine registered to produce " + analysisClass.getName());
-        }
+    private <E> Object analyzeMethod(Class<E> analysisClass, MethodDescriptor methodDescriptor) {
+        IMethodAnalysisEngine<E> engine = getMethodAnalysisEngine(analysisClass);
         Profiler profiler = getProfiler();
         profiler.start(engine.getClass());
         try {
-            return engine.analyze(this, methodDescriptor);
+            Object object = engine.analyze(this, methodDescriptor);
+            return object != null ? object : NULL_ANALYSIS_RESULT;
+        } catch (RuntimeException e) {
+            return new AbnormalAnalysisResult(e);
+        } catch (CheckedAnalysisException e) {
+            return new AbnormalAnalysisResult(e);
         } finally {
             profiler.end(engine.getClass());
         }
@@ -377,7 +619,9 @@ public class AnalysisCache implements IAnalysisCache {
         try {
             ClassContext classContext = getClassAnalysis(ClassContext.class, methodDescriptor.getClassDescriptor());
             assert analysisClass.isInstance(analysisObject);
-            classContext.putMethodAnalysis(analysisClass, methodDescriptor, analysisObject);
+            synchronized (classContext) {
+                classContext.putMethodAnalysis(analysisClass, methodDescriptor, analysisObject);
+            }
         } catch (CheckedAnalysisException e) {
             IllegalStateException ise = new IllegalStateException("Unexpected exception adding method analysis to cache");
             ise.initCause(e);
@@ -391,7 +635,9 @@ public class AnalysisCache implements IAnalysisCache {
         try {
 
             ClassContext classContext = getClassAnalysis(ClassContext.class, methodDescriptor.getClassDescriptor());
-            classContext.purgeMethodAnalyses(methodDescriptor);
+            synchronized (classContext) {
+                classContext.purgeMethodAnalyses(methodDescriptor);
+            }
         } catch (CheckedAnalysisException e) {
             IllegalStateException ise = new IllegalStateException("Unexpected exception purging method analyses from cache");
             ise.initCause(e);
@@ -413,37 +659,41 @@ public class AnalysisCache implements IAnalysisCache {
      *            the analysis map
      * @return the descriptor to analysis object map
      */
-    private static <DescriptorType> Map<DescriptorType, Object> findOrCreateDescriptorMap(
-            final Map<Class<?>, Map<DescriptorType, Object>> analysisClassToDescriptorMapMap,
+    private static <DescriptorType> ConcurrentMap<DescriptorType, Object> findOrCreateDescriptorMap(
+            final ConcurrentMap<Class<?>, ConcurrentMap<DescriptorType, Object>> analysisClassToDescriptorMapMap,
             final Map<Class<?>, ? extends IAnalysisEngine<DescriptorType, ?>> engineMap,
                     final Class<?> analysisClass) {
-        Map<DescriptorType, Object> descriptorMap = analysisClassToDescriptorMapMap.get(analysisClass);
+        ConcurrentMap<DescriptorType, Object> descriptorMap = analysisClassToDescriptorMapMap.get(analysisClass);
         if (descriptorMap == null) {
             descriptorMap = createMap(engineMap, analysisClass);
-            analysisClassToDescriptorMapMap.put(analysisClass, descriptorMap);
+            ConcurrentMap<DescriptorType, Object> existing = analysisClassToDescriptorMapMap.putIfAbsent(analysisClass,
+                    descriptorMap);
+            if (existing != null) {
+                descriptorMap = existing;
+            }
         }
         return descriptorMap;
     }
 
-    private static <DescriptorType> Map<DescriptorType, Object> createMap(
+    private static <DescriptorType> ConcurrentMap<DescriptorType, Object> createMap(
             final Map<Class<?>, ? extends IAnalysisEngine<DescriptorType, ?>> engineMap,
                     final Class<?> analysisClass) {
-        Map<DescriptorType, Object> descriptorMap;
-        // Create a MapCache that allows the analysis engine to
+        ConcurrentMap<DescriptorType, Object> descriptorMap;
+        // Create a ConcurrentMapCache that allows the analysis engine to
         // decide that analysis results should be retained indefinitely.
         IAnalysisEngine<DescriptorType, ?> engine = engineMap.get(analysisClass);
         if (analysisClass.equals(JavaClass.class)) {
-            descriptorMap = new MapCache<DescriptorType, Object>(MAX_JAVACLASS_RESULTS_TO_CACHE);
+            descriptorMap = new ConcurrentMapCache<DescriptorType, Object>(MAX_JAVACLASS_RESULTS_TO_CACHE);
         } else if (analysisClass.equals(FBClassReader.class)) {
-            descriptorMap = new MapCache<DescriptorType, Object>(MAX_FBCLASSREADER_RESULTS_TO_CACHE);
+            descriptorMap = new ConcurrentMapCache<DescriptorType, Object>(MAX_FBCLASSREADER_RESULTS_TO_CACHE);
         } else if (analysisClass.equals(ConstantPoolGen.class)) {
-            descriptorMap = new MapCache<DescriptorType, Object>(MAX_CONSTANT_POOL_GEN_RESULTS_TO_CACHE);
+            descriptorMap = new ConcurrentMapCache<DescriptorType, Object>(MAX_CONSTANT_POOL_GEN_RESULTS_TO_CACHE);
         } else if (analysisClass.equals(ClassContext.class)) {
-            descriptorMap = new MapCache<DescriptorType, Object>(10);
+            descriptorMap = new ConcurrentMapCache<DescriptorType, Object>(10);
         } else if (engine instanceof IClassAnalysisEngine && ((IClassAnalysisEngine<?>) engine).canRecompute()) {
-            descriptorMap = new MapCache<DescriptorType, Object>(MAX_CLASS_RESULTS_TO_CACHE);
+            descriptorMap = new ConcurrentMapCache<DescriptorType, Object>(MAX_CLASS_RESULTS_TO_CACHE);
         } else {
-            descriptorMap = new HashMap<DescriptorType, Object>();
+            descriptorMap = new ConcurrentHashMap<DescriptorType, Object>();
         }
         return descriptorMap;
     }
@@ -458,6 +708,30 @@ public class AnalysisCache implements IAnalysisCache {
         methodAnalysisEngineMap.put(analysisResultType, methodAnalysisEngine);
     }
 
+    /**
+     * Get the engine registered to produce given class analysis.
+     */
+    @SuppressWarnings("unchecked")
+    <E> IClassAnalysisEngine<E> getClassAnalysisEngine(Class<E> analysisClass) {
+        IClassAnalysisEngine<E> engine = (IClassAnalysisEngine<E>) classAnalysisEngineMap.get(analysisClass);
+        if (engine == null) {
+            throw new IllegalArgumentException("No analysis engine registered to produce " + analysisClass.getName());
+        }
+        return engine;
+    }
+
+    /**
+     * Get the engine registered to produce given method analysis.
+     */
+    @SuppressWarnings("unchecked")
+    <E> IMethodAnalysisEngine<E> getMethodAnalysisEngine(Class<E> analysisClass) {
+        IMethodAnalysisEngine<E> engine = (IMethodAnalysisEngine<E>) methodAnalysisEngineMap.get(analysisClass);
+        if (engine == null) {
+            throw new IllegalArgumentException("No analysis engine registered to produce " + analysisClass.getName());
+        }
+        return engine;
+    }
+
     @Override
     public <E> void registerDatabaseFactory(Class<E> databaseClass, IDatabaseFactory<E> databaseFactory) {
         databaseFactoryMap.put(databaseClass, databaseFactory);
@@ -472,27 +746,30 @@ public class AnalysisCache implements IAnalysisCache {
         return getDatabase(databaseClass, true);
     }
     public <E> E getDatabase(Class<E> databaseClass, boolean optional) {
+        // Find the database factory
+        final IDatabaseFactory<?> databaseFactory = databaseFactoryMap.get(databaseClass);
         Object database = databaseMap.get(databaseClass);
 
-        if (database == null) {
-            try {
-                // Find the database factory
-                IDatabaseFactory<?> databaseFactory = databaseFactoryMap.get(databaseClass);
-                if (databaseFactory == null) {
-                    if (optional) {
-                        return null;
-                    }
-                    throw new IllegalArgumentException("No database factory registered for " + databaseClass.getName());
+        if (database == null || database instanceof PendingResult) {
+            if (databaseFactory == null) {
+                if (optional) {
+                    return null;
                 }
-
-                // Create the database
-                database = databaseFactory.createDatabase();
-            } catch (CheckedAnalysisException e) {
-                // Error - record the analysis error
-                database = new AbnormalAnalysisResult(e);
+                throw new IllegalArgumentException("No database factory registered for " + databaseClass.getName());
             }
-            // FIXME: should catch and re-throw RuntimeExceptions?
-            databaseMap.put(databaseClass, database);
+            database = findOrCompute(databaseMap, databaseClass, new Computation() {
+                @Override
+                public Object compute() {
+                    try {
+                        // Create the database
+                        return databaseFactory.createDatabase();
+                    } catch (CheckedAnalysisException e) {
+                        // Error - record the analysis error
+                        return new AbnormalAnalysisResult(e);
+                    }
+                    // FIXME: should catch and re-throw RuntimeExceptions?
+                }
+            });
         }
 
         if (database instanceof AbnormalAnalysisResult) {
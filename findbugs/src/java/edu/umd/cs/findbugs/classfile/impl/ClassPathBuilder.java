@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -37,6 +38,12 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -159,6 +166,21 @@ public class ClassPathBuilder implements IClassPathBuilder {
         }
     }
 
+    /**
+     * A codebase opened, and possibly scanned, by a worklist item.
+     */
+    static class OpenedCodeBase {
+        final ICodeBase codeBase;
+
+        /** All entries of the codebase, or null if it was not scanned */
+        final List<ICodeBaseEntry> entryList;
+
+        OpenedCodeBase(ICodeBase codeBase, List<ICodeBaseEntry> entryList) {
+            this.codeBase = codeBase;
+            this.entryList = entryList;
+        }
+    }
+
     // Fields
     private final IClassFactory classFactory;
 
@@ -174,6 +196,19 @@ public class ClassPathBuilder implements IClassPathBuilder {
 
     private boolean scanNestedArchives;
 
+    private int numThreads = 1;
+
+    /**
+     * Threads opening and scanning codebases ahead of processWorkList();
+     * only used in build() with more than one thread
+     */
+    private ExecutorService executor;
+
+    /**
+     * Codebases being opened ahead of processWorkList(), by locator
+     */
+    private final Map<String, Future<OpenedCodeBase>> openedCodeBaseMap = new HashMap<String, Future<OpenedCodeBase>>();
+
     /**
      * Constructor.
      *
@@ -215,6 +250,17 @@ public class ClassPathBuilder implements IClassPathBuilder {
         this.scanNestedArchives = scanNestedArchives;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * edu.umd.cs.findbugs.classfile.IClassPathBuilder#setNumThreads(int)
+     */
+    @Override
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -226,6 +272,46 @@ public class ClassPathBuilder implements IClassPathBuilder {
     @Override
     public void build(IClassPath classPath, IClassPathBuilderProgress progress) throws CheckedAnalysisException, IOException,
     InterruptedException {
+        if (numThreads > 1) {
+            // The threads inherit the analysis cache, which is used by the
+            // codebase factories
+            executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+                int count;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "FindBugs classpath builder thread " + (++count));
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            for (WorkListItem item : projectWorkList) {
+                openAhead(item);
+            }
+        }
+        try {
+            buildClassPath(classPath, progress);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            // Close codebases which were opened ahead, but not used
+            for (Future<OpenedCodeBase> f : openedCodeBaseMap.values()) {
+                if (f.isDone() && !f.isCancelled()) {
+                    try {
+                        f.get().codeBase.close();
+                    } catch (ExecutionException e) {
+                        // not opened
+                    }
+                }
+            }
+            openedCodeBaseMap.clear();
+        }
+    }
+
+    private void buildClassPath(IClassPath classPath, IClassPathBuilderProgress progress) throws CheckedAnalysisException,
+    IOException, InterruptedException {
         // Discover all directly and indirectly referenced codebases
         processWorkList(classPath, projectWorkList, progress);
 
@@ -608,14 +694,11 @@ public class ClassPathBuilder implements IClassPathBuilder {
             }
 
             // Detect .java files, which are probably human error
-            if (item.getCodeBaseLocator() instanceof FilesystemCodeBaseLocator) {
-                FilesystemCodeBaseLocator l = (FilesystemCodeBaseLocator) item.getCodeBaseLocator();
-                if (l.getPathName().endsWith(".java")) {
-                    if (DEBUG){
-                        System.err.println("Ignoring .java file \"" + l.getPathName() + "\" specified in classpath or auxclasspath");
-                    }
-                    continue;
+            if (isJavaFile(item)) {
+                if (DEBUG){
+                    System.err.println("Ignoring .java file \"" + item.getCodeBaseLocator() + "\" specified in classpath or auxclasspath");
                 }
+                continue;
             }
 
             // If we are working on an application codebase,
@@ -625,7 +708,8 @@ public class ClassPathBuilder implements IClassPathBuilder {
 
             try {
                 // Open the codebase and add it to the classpath
-                discoveredCodeBase = new DiscoveredCodeBase(item.getCodeBaseLocator().openCodeBase());
+                OpenedCodeBase openedCodeBase = openCodeBase(item);
+                discoveredCodeBase = new DiscoveredCodeBase(openedCodeBase.codeBase);
                 discoveredCodeBase.getCodeBase().setApplicationCodeBase(item.isAppCodeBase());
                 discoveredCodeBase.getCodeBase().setHowDiscovered(item.getHowDiscovered());
 
@@ -640,7 +724,7 @@ public class ClassPathBuilder implements IClassPathBuilder {
                         && ( discoveredCodeBase.codeBase.isApplicationCodeBase()
                                 || item.getHowDiscovered() == ICodeBase.Discovered.SPECIFIED)
                         ) {
-                    scanCodebase(classPath, workList, discoveredCodeBase);
+                    scanCodebase(classPath, workList, discoveredCodeBase, openedCodeBase.entryList);
                 }
 
                 // Check for a Jar manifest for additional aux classpath
@@ -670,6 +754,72 @@ public class ClassPathBuilder implements IClassPathBuilder {
         }
     }
 
+    private static boolean isJavaFile(WorkListItem item) {
+        return item.getCodeBaseLocator() instanceof FilesystemCodeBaseLocator
+                && ((FilesystemCodeBaseLocator) item.getCodeBaseLocator()).getPathName().endsWith(".java");
+    }
+
+    /**
+     * Start opening the codebase of a worklist item on another thread, if
+     * building the classpath with multiple threads. The codebase is scanned
+     * too, if processWorkList() would scan it for the item.
+     *
+     * @param item
+     *            the worklist item
+     */
+    private void openAhead(final WorkListItem item) {
+        if (executor == null || isJavaFile(item)) {
+            return;
+        }
+        String key = item.getCodeBaseLocator().toString();
+        if (openedCodeBaseMap.containsKey(key) || discoveredCodeBaseMap.containsKey(key)) {
+            return;
+        }
+        final boolean scan = item.isAppCodeBase() || item.getHowDiscovered() == ICodeBase.Discovered.SPECIFIED;
+        openedCodeBaseMap.put(key, executor.submit(new Callable<OpenedCodeBase>() {
+            @Override
+            public OpenedCodeBase call() throws Exception {
+                ICodeBase codeBase = item.getCodeBaseLocator().openCodeBase();
+                List<ICodeBaseEntry> entryList = null;
+                if (scan && codeBase instanceof IScannableCodeBase) {
+                    entryList = new ArrayList<ICodeBaseEntry>();
+                    for (ICodeBaseIterator i = ((IScannableCodeBase) codeBase).iterator(); i.hasNext();) {
+                        entryList.add(i.next());
+                    }
+                }
+                return new OpenedCodeBase(codeBase, entryList);
+            }
+        }));
+    }
+
+    /**
+     * Open the codebase of a worklist item, or get it if it was opened ahead.
+     */
+    private OpenedCodeBase openCodeBase(WorkListItem item) throws IOException, ResourceNotFoundException,
+    InterruptedException {
+        Future<OpenedCodeBase> future = openedCodeBaseMap.remove(item.getCodeBaseLocator().toString());
+        if (future == null) {
+            return new OpenedCodeBase(item.getCodeBaseLocator().openCodeBase(), null);
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ResourceNotFoundException) {
+                throw (ResourceNotFoundException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unexpected exception opening " + item.getCodeBaseLocator(), cause);
+        }
+    }
+
     /**
      * Scan given codebase in order to
      * <ul>
@@ -682,26 +832,38 @@ public class ClassPathBuilder implements IClassPathBuilder {
      *            the worklist
      * @param discoveredCodeBase
      *            the codebase to scan
+     * @param entryList
+     *            the entries of the codebase, if already known, or null
      * @throws InterruptedException
      */
-    private void scanCodebase(IClassPath classPath, LinkedList<WorkListItem> workList, DiscoveredCodeBase discoveredCodeBase)
-            throws InterruptedException {
+    private void scanCodebase(IClassPath classPath, LinkedList<WorkListItem> workList, DiscoveredCodeBase discoveredCodeBase,
+            List<ICodeBaseEntry> entryList) throws InterruptedException {
         if (DEBUG) {
             System.out.println("Scanning " + discoveredCodeBase.getCodeBase().getCodeBaseLocator());
         }
 
         IScannableCodeBase codeBase = (IScannableCodeBase) discoveredCodeBase.getCodeBase();
 
-        ICodeBaseIterator i = codeBase.iterator();
-        while (i.hasNext()) {
-            ICodeBaseEntry entry = i.next();
-            if (VERBOSE) {
-                System.out.println("Entry: " + entry.getResourceName());
+        if (entryList == null) {
+            entryList = new ArrayList<ICodeBaseEntry>();
+            for (ICodeBaseIterator i = codeBase.iterator(); i.hasNext();) {
+                entryList.add(i.next());
             }
+        }
 
-            if (!NO_PARSE_CLASS_NAMES && codeBase.isApplicationCodeBase()
-                    && DescriptorFactory.isClassResource(entry.getResourceName()) && !(entry instanceof SingleFileCodeBaseEntry)) {
-                parseClassName(entry);
+        if (!NO_PARSE_CLASS_NAMES && codeBase.isApplicationCodeBase()) {
+            List<ICodeBaseEntry> classEntryList = new ArrayList<ICodeBaseEntry>();
+            for (ICodeBaseEntry entry : entryList) {
+                if (DescriptorFactory.isClassResource(entry.getResourceName()) && !(entry instanceof SingleFileCodeBaseEntry)) {
+                    classEntryList.add(entry);
+                }
+            }
+            parseClassNames(classEntryList);
+        }
+
+        for (ICodeBaseEntry entry : entryList) {
+            if (VERBOSE) {
+                System.out.println("Entry: " + entry.getResourceName());
             }
 
             // Note the resource exists in this codebase
@@ -721,6 +883,51 @@ public class ClassPathBuilder implements IClassPathBuilder {
         }
     }
 
+    /**
+     * Attempt to parse data of given resources in order to divine the real
+     * names of the classes contained in the resources. With multiple
+     * threads, the resources are parsed in parallel, but the resource names
+     * are updated, and errors reported, in order.
+     *
+     * @param entryList
+     *            the resources
+     */
+    private void parseClassNames(List<ICodeBaseEntry> entryList) throws InterruptedException {
+        if (executor == null || entryList.size() < 2) {
+            for (ICodeBaseEntry entry : entryList) {
+                parseClassName(entry);
+            }
+            return;
+        }
+
+        List<Future<String>> resultList = new ArrayList<Future<String>>(entryList.size());
+        for (final ICodeBaseEntry entry : entryList) {
+            resultList.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws IOException, InvalidClassFileFormatException {
+                    return readClassResourceName(entry);
+                }
+            }));
+        }
+        for (int i = 0; i < entryList.size(); i++) {
+            ICodeBaseEntry entry = entryList.get(i);
+            try {
+                overrideResourceName(entry, resultList.get(i).get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException || cause instanceof InvalidClassFileFormatException) {
+                    errorLogger.logError("Invalid class resource " + entry.getResourceName() + " in " + entry, cause);
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new IllegalStateException("Unexpected exception parsing " + entry, cause);
+                }
+            }
+        }
+    }
+
     /**
      * Attempt to parse data of given resource in order to divine the real name
      * of the class contained in the resource.
@@ -729,6 +936,26 @@ public class ClassPathBuilder implements IClassPathBuilder {
      *            the resource
      */
     private void parseClassName(ICodeBaseEntry entry) {
+        try {
+            overrideResourceName(entry, readClassResourceName(entry));
+        } catch (IOException e) {
+            errorLogger.logError("Invalid class resource " + entry.getResourceName() + " in " + entry, e);
+        } catch (InvalidClassFileFormatException e) {
+            errorLogger.logError("Invalid class resource " + entry.getResourceName() + " in " + entry, e);
+        }
+    }
+
+    private static void overrideResourceName(ICodeBaseEntry entry, String trueResourceName) {
+        if (!trueResourceName.equals(entry.getResourceName())) {
+            entry.overrideResourceName(trueResourceName);
+        }
+    }
+
+    /**
+     * Parse a class resource to find the resource name of the class it
+     * contains.
+     */
+    private static String readClassResourceName(ICodeBaseEntry entry) throws IOException, InvalidClassFileFormatException {
         DataInputStream in = null;
         try {
             InputStream resourceIn = entry.openResource();
@@ -740,14 +967,7 @@ public class ClassPathBuilder implements IClassPathBuilder {
             ClassNameAndSuperclassInfo.Builder builder = new ClassNameAndSuperclassInfo.Builder();
             parser.parse(builder);
 
-            String trueResourceName = builder.build().getClassDescriptor().toResourceName();
-            if (!trueResourceName.equals(entry.getResourceName())) {
-                entry.overrideResourceName(trueResourceName);
-            }
-        } catch (IOException e) {
-            errorLogger.logError("Invalid class resource " + entry.getResourceName() + " in " + entry, e);
-        } catch (InvalidClassFileFormatException e) {
-            errorLogger.logError("Invalid class resource " + entry.getResourceName() + " in " + entry, e);
+            return builder.build().getClassDescriptor().toResourceName();
         } finally {
             IO.close(in);
         }
@@ -814,6 +1034,7 @@ public class ClassPathBuilder implements IClassPathBuilder {
         if (DEBUG) {
             new RuntimeException("Adding work list item " + itemToAdd).printStackTrace(System.out);
         }
+        openAhead(itemToAdd);
         if (!itemToAdd.isAppCodeBase()) {
             // Auxiliary codebases are always added at the end
             workList.addLast(itemToAdd);
@@ -19,12 +19,14 @@
 
 package edu.umd.cs.findbugs.classfile.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.umd.cs.findbugs.classfile.IClassPath;
 import edu.umd.cs.findbugs.classfile.ICodeBase;
@@ -34,6 +36,11 @@ import edu.umd.cs.findbugs.classfile.ResourceNotFoundException;
 
 /**
  * Implementation of IClassPath.
+ * <p>
+ * Resources are looked up using an index of the names of the resources in
+ * all codebases which can provide them up front (see {@link IndexedCodeBase}
+ * ), so that normally only the codebase containing a resource, and the
+ * codebases which aren't indexed, are searched for it.
  *
  * @author David Hovemeyer
  */
@@ -44,10 +51,115 @@ public class ClassPathImpl implements IClassPath {
 
     private final Map<String, ICodeBaseEntry> codeBaseEntryMap;
 
+    /** Built when needed; discarded when a codebase is added */
+    private volatile ResourceIndex resourceIndex;
+
     public ClassPathImpl() {
         this.appCodeBaseList = new LinkedList<IScannableCodeBase>();
         this.auxCodeBaseList = new LinkedList<ICodeBase>();
-        this.codeBaseEntryMap = new HashMap<String, ICodeBaseEntry>();
+        this.codeBaseEntryMap = new ConcurrentHashMap<String, ICodeBaseEntry>();
+    }
+
+    /**
+     * Index of the resource names of the codebases of the classpath. For each
+     * resource name hash code, the index records the first indexed codebase
+     * (in search order) containing a resource whose name has that hash code.
+     * A resource can't be in an indexed codebase before that one.
+     */
+    private static class ResourceIndex {
+        /** Codebases in search order: application codebases first */
+        final ICodeBase[] codeBases;
+
+        /** Resource name hash codes */
+        final int[] keys;
+
+        /** Position of the first codebase with the hash code, plus one */
+        final int[] positions;
+
+        ResourceIndex(List<ICodeBase> searchList) {
+            codeBases = searchList.toArray(new ICodeBase[searchList.size()]);
+            int numNames = 0;
+            for (ICodeBase codeBase : codeBases) {
+                if (codeBase instanceof IndexedCodeBase) {
+                    numNames += ((IndexedCodeBase) codeBase).getResourceNameHashCodes().length;
+                }
+            }
+            int tableSize = Integer.highestOneBit(Math.max(4, numNames) * 2) * 2;
+            keys = new int[tableSize];
+            positions = new int[tableSize];
+            for (int i = 0; i < codeBases.length; i++) {
+                if (codeBases[i] instanceof IndexedCodeBase) {
+                    for (int h : ((IndexedCodeBase) codeBases[i]).getResourceNameHashCodes()) {
+                        int slot = findSlot(h);
+                        if (positions[slot] == 0) {
+                            keys[slot] = h;
+                            positions[slot] = i + 1;
+                        }
+                    }
+                }
+            }
+        }
+
+        private int findSlot(int h) {
+            int mask = keys.length - 1;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (positions[slot] != 0 && keys[slot] != h) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * @return position of the first indexed codebase which might contain
+         *         the resource, or the number of codebases if there is none
+         */
+        int getFirstCandidate(String resourceName) {
+            int position = positions[findSlot(resourceName.hashCode())];
+            return position == 0 ? codeBases.length : position - 1;
+        }
+
+        /**
+         * Codebases which aren't indexed, or in which resource names are
+         * translated, must always be searched.
+         */
+        static boolean mustSearch(ICodeBase codeBase) {
+            return !(codeBase instanceof IndexedCodeBase)
+                    || (codeBase instanceof AbstractScannableCodeBase && ((AbstractScannableCodeBase) codeBase)
+                            .hasResourceNameTranslations());
+        }
+
+        ICodeBaseEntry lookupResource(String resourceName) {
+            int firstCandidate = getFirstCandidate(resourceName);
+            for (int i = 0; i < codeBases.length; i++) {
+                if (i < firstCandidate && !mustSearch(codeBases[i])) {
+                    continue;
+                }
+                ICodeBaseEntry resource = codeBases[i].lookupResource(resourceName);
+                if (resource != null) {
+                    return resource;
+                }
+                // Ignore, continue trying other codebases; after the first
+                // candidate, this only happens for hash code collisions
+            }
+            return null;
+        }
+    }
+
+    private ResourceIndex getResourceIndex() {
+        ResourceIndex index = resourceIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = resourceIndex;
+                if (index == null) {
+                    List<ICodeBase> searchList = new ArrayList<ICodeBase>(appCodeBaseList.size() + auxCodeBaseList.size());
+                    searchList.addAll(appCodeBaseList);
+                    searchList.addAll(auxCodeBaseList);
+                    index = new ResourceIndex(searchList);
+                    resourceIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
     @Override
@@ -73,7 +185,8 @@ public class ClassPathImpl implements IClassPath {
      * .classfile.ICodeBase)
      */
     @Override
-    public void addCodeBase(ICodeBase codeBase) {
+    public synchronized void addCodeBase(ICodeBase codeBase) {
+        resourceIndex = null;
         if (codeBase.isApplicationCodeBase()) {
             if (!(codeBase instanceof IScannableCodeBase)) {
                 throw new IllegalStateException();
@@ -110,7 +223,8 @@ public class ClassPathImpl implements IClassPath {
      * @see edu.umd.cs.findbugs.classfile.IClassPath#close()
      */
     @Override
-    public void close() {
+    public synchronized void close() {
+        resourceIndex = null;
         for (ICodeBase codeBase : appCodeBaseList) {
             codeBase.close();
         }
@@ -149,14 +263,8 @@ public class ClassPathImpl implements IClassPath {
 
         if (result == null) {
             // No previously resolved entry - look up the resources in the
-            // codebases
-
-            // First try application codebases
-            result = search(appCodeBaseList, resourceName);
-            if (result == null) {
-                // Next try aux codebases
-                result = search(auxCodeBaseList, resourceName);
-            }
+            // codebases, application codebases first
+            result = getResourceIndex().lookupResource(resourceName);
 
             // If not found in any codebase, then throw
             // ResourceNotFoundException
@@ -171,27 +279,6 @@ public class ClassPathImpl implements IClassPath {
         return result;
     }
 
-    /**
-     * Search list of codebases for named resource.
-     *
-     * @param codeBaseList
-     *            list of codebases to search
-     * @param resourceName
-     *            name of resourse
-     * @return codebase entry for the named resource, or null if the named
-     *         resource cannot be found
-     */
-    private ICodeBaseEntry search(List<? extends ICodeBase> codeBaseList, String resourceName) {
-        for (ICodeBase codeBase : codeBaseList) {
-            ICodeBaseEntry resource = codeBase.lookupResource(resourceName);
-            if (resource != null) {
-                return resource;
-            }
-            // Ignore, continue trying other codebases
-        }
-        return null;
-    }
-
     /*
      * (non-Javadoc)
      *
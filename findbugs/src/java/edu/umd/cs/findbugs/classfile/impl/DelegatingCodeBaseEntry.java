@@ -45,6 +45,10 @@ public class DelegatingCodeBaseEntry implements ICodeBaseEntry {
         this.delegateCodeBaseEntry = delegateCodeBaseEntry;
     }
 
+    ICodeBaseEntry getDelegateCodeBaseEntry() {
+        return delegateCodeBaseEntry;
+    }
+
     /*
      * (non-Javadoc)
      *
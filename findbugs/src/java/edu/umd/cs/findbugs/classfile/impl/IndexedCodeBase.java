@@ -0,0 +1,42 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2006, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.classfile.impl;
+
+import edu.umd.cs.findbugs.classfile.ICodeBase;
+
+/**
+ * A codebase which knows the names of all of its resources up front, so that
+ * ClassPathImpl can find the codebase containing a resource without probing
+ * every codebase in turn.
+ *
+ * @see ClassPathImpl
+ */
+interface IndexedCodeBase extends ICodeBase {
+    /**
+     * Get the hash codes (as computed by {@link String#hashCode()}) of the
+     * names of the resources in the codebase. Resources whose names are
+     * translated (see
+     * {@link AbstractScannableCodeBase#addResourceNameTranslation(String, String)}
+     * ) are found by the hash code of their real name only.
+     *
+     * @return the hash codes; may contain duplicates
+     */
+    int[] getResourceNameHashCodes();
+}
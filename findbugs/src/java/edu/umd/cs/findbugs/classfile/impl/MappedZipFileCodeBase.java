@@ -0,0 +1,528 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2006, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.classfile.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.NoSuchElementException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import edu.umd.cs.findbugs.classfile.ICodeBaseEntry;
+import edu.umd.cs.findbugs.classfile.ICodeBaseIterator;
+import edu.umd.cs.findbugs.classfile.ICodeBaseLocator;
+
+/**
+ * Implementation of ICodeBase for a zip file which maps the file into memory
+ * instead of opening it with java.util.zip.ZipFile. The central directory is
+ * read once into a small index (the offset and name hash code of each entry);
+ * names and other entry data are read from the mapped file when needed, and
+ * entries are read directly from the mapping. No file handle is kept open.
+ * The same code reads zip files which are already in memory, such as nested
+ * archives (see {@link NestedZipFileCodeBase}).
+ * <p>
+ * Only plain zip files of less than 2GB are supported: the constructor throws
+ * a ZipException for zip64 archives and other files it can't handle, in
+ * which case ZipFileCodeBase should be used instead.
+ *
+ * @see ZipCodeBaseFactory
+ */
+public class MappedZipFileCodeBase extends AbstractScannableCodeBase implements IndexedCodeBase {
+    private static final int LOCSIG = 0x04034b50;
+
+    private static final int CENSIG = 0x02014b50;
+
+    private static final int ENDSIG = 0x06054b50;
+
+    private static final int LOCHDR = 30;
+
+    private static final int CENHDR = 46;
+
+    private static final int ENDHDR = 22;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    private final String fileName;
+
+    private volatile ByteBuffer buffer;
+
+    /** Offset of the central directory header of each entry */
+    private final int[] entryOffset;
+
+    /** Hash code of the name of each entry */
+    private final int[] entryHashCode;
+
+    /**
+     * Open addressing hash table of entry numbers plus one, indexed by name
+     * hash code
+     */
+    private final int[] hashTable;
+
+    /** Added to the local header offsets of the central directory */
+    private final int archiveStart;
+
+    /**
+     * Constructor.
+     *
+     * @param codeBaseLocator
+     *            the codebase locator for this codebase
+     * @param file
+     *            the File containing the zip file
+     * @throws ZipException
+     *             if the file is not a zip file this class can read
+     * @throws IOException
+     *             if the file can't be read
+     */
+    public MappedZipFileCodeBase(ICodeBaseLocator codeBaseLocator, File file) throws IOException {
+        this(codeBaseLocator, file.getPath(), map(file));
+        setLastModifiedTime(file.lastModified());
+    }
+
+    /**
+     * Constructor for a zip file which is already in memory, e.g., one
+     * nested in another zip file.
+     *
+     * @param codeBaseLocator
+     *            the codebase locator for this codebase
+     * @param fileName
+     *            name of the zip file, for messages
+     * @param data
+     *            the remaining bytes of the buffer are the zip file; the
+     *            buffer itself is not modified
+     * @throws ZipException
+     *             if the data is not a zip file this class can read
+     */
+    MappedZipFileCodeBase(ICodeBaseLocator codeBaseLocator, String fileName, ByteBuffer data) throws ZipException {
+        super(codeBaseLocator);
+        this.fileName = fileName;
+        this.buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer buf = buffer;
+
+        int end = findEndOfCentralDirectory(buf);
+        if (end < 0) {
+            throw new ZipException("Zip file has no central directory: " + fileName);
+        }
+        int total = getShort(buf, end + 10);
+        long centralDirectorySize = getInt(buf, end + 12);
+        long centralDirectoryOffset = getInt(buf, end + 16);
+        if (total == 0xffff || centralDirectoryOffset == 0xffffffffL || centralDirectorySize > end) {
+            throw new ZipException("Zip64 or invalid zip file: " + fileName);
+        }
+        int centralDirectoryStart = (int) (end - centralDirectorySize);
+        // Bytes before the archive, e.g., in a self-extracting archive
+        archiveStart = (int) (centralDirectoryStart - centralDirectoryOffset);
+        if (archiveStart < 0) {
+            throw new ZipException("Invalid central directory offset in zip file: " + fileName);
+        }
+
+        int[] offsets = new int[total];
+        int[] hashCodes = new int[total];
+        int count = 0;
+        int pos = centralDirectoryStart;
+        while (pos + CENHDR <= end) {
+            if (buf.getInt(pos) != CENSIG) {
+                throw new ZipException("Invalid central directory header in zip file: " + fileName);
+            }
+            int nameLength = getShort(buf, pos + 28);
+            int extraLength = getShort(buf, pos + 30);
+            int commentLength = getShort(buf, pos + 32);
+            if (pos + CENHDR + nameLength > end) {
+                throw new ZipException("Invalid central directory header in zip file: " + fileName);
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * count + 16);
+                hashCodes = Arrays.copyOf(hashCodes, 2 * count + 16);
+            }
+            offsets[count] = pos;
+            hashCodes[count] = nameHashCode(buf, pos + CENHDR, nameLength);
+            count++;
+            pos += CENHDR + nameLength + extraLength + commentLength;
+        }
+        entryOffset = count == offsets.length ? offsets : Arrays.copyOf(offsets, count);
+        entryHashCode = count == hashCodes.length ? hashCodes : Arrays.copyOf(hashCodes, count);
+
+        int tableSize = Integer.highestOneBit(Math.max(4, count) * 2) * 2;
+        hashTable = new int[tableSize];
+        for (int i = 0; i < count; i++) {
+            int slot = spread(entryHashCode[i]) & (tableSize - 1);
+            while (hashTable[slot] != 0) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            hashTable[slot] = i + 1;
+        }
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("Zip file too large to map: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer buf) {
+        int limit = buf.limit();
+        int minPos = Math.max(0, limit - ENDHDR - 0xffff);
+        for (int pos = limit - ENDHDR; pos >= minPos; pos--) {
+            if (buf.getInt(pos) == ENDSIG && pos + ENDHDR + getShort(buf, pos + 20) <= limit) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static int getShort(ByteBuffer buf, int pos) {
+        return buf.getShort(pos) & 0xffff;
+    }
+
+    private static long getInt(ByteBuffer buf, int pos) {
+        return buf.getInt(pos) & 0xffffffffL;
+    }
+
+    /**
+     * Compute the hash code of the String a name encoded in UTF-8 would
+     * decode to.
+     */
+    private static int nameHashCode(ByteBuffer buf, int pos, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buf.get(pos + i);
+            if (b < 0) {
+                return decodeName(buf, pos, length).hashCode();
+            }
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    private static String decodeName(ByteBuffer buf, int pos, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(pos + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean nameEquals(ByteBuffer buf, int pos, int length, String name) {
+        if (name.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = buf.get(pos + i);
+            if (b < 0) {
+                return decodeName(buf, pos, length).equals(name);
+            }
+            if (i >= name.length() || name.charAt(i) != b) {
+                return false;
+            }
+        }
+        return length == name.length();
+    }
+
+    ByteBuffer getBuffer() throws IOException {
+        ByteBuffer buf = buffer;
+        if (buf == null) {
+            throw new IOException("Zip file " + fileName + " is closed");
+        }
+        return buf;
+    }
+
+    int getNumEntries() {
+        return entryOffset.length;
+    }
+
+    String getEntryName(int entry) throws IOException {
+        ByteBuffer buf = getBuffer();
+        int pos = entryOffset[entry];
+        return decodeName(buf, pos + CENHDR, getShort(buf, pos + 28));
+    }
+
+    boolean isDirectory(int entry) throws IOException {
+        ByteBuffer buf = getBuffer();
+        int pos = entryOffset[entry];
+        int nameLength = getShort(buf, pos + 28);
+        return nameLength > 0 && buf.get(pos + CENHDR + nameLength - 1) == '/';
+    }
+
+    long getSize(int entry) throws IOException {
+        return getInt(getBuffer(), entryOffset[entry] + 24);
+    }
+
+    long getTime(int entry) throws IOException {
+        return dosToJavaTime(getInt(getBuffer(), entryOffset[entry] + 12));
+    }
+
+    private static long dosToJavaTime(long dtime) {
+        Calendar c = new GregorianCalendar((int) ((dtime >> 25) & 0x7f) + 1980, (int) ((dtime >> 21) & 0x0f) - 1,
+                (int) ((dtime >> 16) & 0x1f), (int) ((dtime >> 11) & 0x1f), (int) ((dtime >> 5) & 0x3f),
+                (int) ((dtime << 1) & 0x3e));
+        return c.getTimeInMillis();
+    }
+
+    int getMethod(int entry) throws IOException {
+        return getShort(getBuffer(), entryOffset[entry] + 10);
+    }
+
+    /**
+     * Get the contents of an entry, as stored in the zip file.
+     *
+     * @return a buffer whose remaining bytes are the (possibly compressed)
+     *         contents of the entry
+     */
+    private ByteBuffer getEntryData(int entry) throws IOException {
+        ByteBuffer buf = getBuffer();
+        int cen = entryOffset[entry];
+        int flags = getShort(buf, cen + 8);
+        long compressedSize = getInt(buf, cen + 20);
+        long local = archiveStart + getInt(buf, cen + 42);
+        if ((flags & 1) != 0) {
+            throw new ZipException("Encrypted entry " + getEntryName(entry) + " in " + fileName);
+        }
+        if (local + LOCHDR > buf.limit() || buf.getInt((int) local) != LOCSIG) {
+            throw new ZipException("Invalid local header for " + getEntryName(entry) + " in " + fileName);
+        }
+        long dataStart = local + LOCHDR + getShort(buf, (int) local + 26) + getShort(buf, (int) local + 28);
+        if (dataStart + compressedSize > buf.limit()) {
+            throw new ZipException("Truncated entry " + getEntryName(entry) + " in " + fileName);
+        }
+        ByteBuffer data = buf.duplicate();
+        data.limit((int) (dataStart + compressedSize));
+        data.position((int) dataStart);
+        return data;
+    }
+
+    /**
+     * Get the contents of an entry which is stored without compression,
+     * without copying them.
+     *
+     * @return a read-only buffer whose remaining bytes are the contents of the
+     *         entry, or null if the entry is compressed
+     */
+    ByteBuffer getStoredEntryData(int entry) throws IOException {
+        if (getMethod(entry) != STORED) {
+            return null;
+        }
+        return getEntryData(entry).asReadOnlyBuffer();
+    }
+
+    /**
+     * Open an entry for reading. Stored entries are read directly from the
+     * mapped file; deflated entries are inflated from it.
+     */
+    InputStream openEntry(int entry) throws IOException {
+        int method = getMethod(entry);
+        ByteBuffer data = getEntryData(entry);
+        switch (method) {
+        case STORED:
+            return new ByteBufferInputStream(data, false);
+        case DEFLATED:
+            // The inflater may need a dummy byte after the compressed data
+            final Inflater inflater = new Inflater(true);
+            return new InflaterInputStream(new ByteBufferInputStream(data, true), inflater, 8192) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        inflater.end();
+                        super.close();
+                    }
+                }
+            };
+        default:
+            throw new ZipException("Unsupported compression method " + method + " for " + getEntryName(entry) + " in "
+                    + fileName);
+        }
+    }
+
+    /**
+     * An InputStream reading the remaining bytes of a ByteBuffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer data;
+
+        private boolean padding;
+
+        ByteBufferInputStream(ByteBuffer data, boolean padding) {
+            this.data = data;
+            this.padding = padding;
+        }
+
+        @Override
+        public int read() {
+            if (data.hasRemaining()) {
+                return data.get() & 0xff;
+            }
+            if (padding) {
+                padding = false;
+                return 0;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int n = Math.min(len, data.remaining());
+            if (n == 0) {
+                if (padding) {
+                    padding = false;
+                    b[off] = 0;
+                    return 1;
+                }
+                return -1;
+            }
+            data.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, data.remaining()));
+            data.position(data.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return data.remaining();
+        }
+    }
+
+    /**
+     * Find the entry with the given name.
+     *
+     * @return the entry number, or -1 if there is no such entry
+     */
+    private int findEntry(ByteBuffer buf, String name) {
+        int h = name.hashCode();
+        int mask = hashTable.length - 1;
+        for (int slot = spread(h) & mask;; slot = (slot + 1) & mask) {
+            int entry = hashTable[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (entryHashCode[entry] == h) {
+                int pos = entryOffset[entry];
+                if (nameEquals(buf, pos + CENHDR, getShort(buf, pos + 28), name)) {
+                    return entry;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int[] getResourceNameHashCodes() {
+        return entryHashCode;
+    }
+
+    @Override
+    public ICodeBaseEntry lookupResource(String resourceName) {
+        // Translate resource name, in case a resource name
+        // has been overridden and the resource is being accessed
+        // using the overridden name.
+        resourceName = translateResourceName(resourceName);
+        ByteBuffer buf = buffer;
+        if (buf == null) {
+            // closed
+            return null;
+        }
+        int entry = findEntry(buf, resourceName);
+        if (entry < 0) {
+            return null;
+        }
+        return new MappedZipFileCodeBaseEntry(this, entry, resourceName);
+    }
+
+    @Override
+    public ICodeBaseIterator iterator() {
+        return new ICodeBaseIterator() {
+            int nextEntry;
+
+            @Override
+            public boolean hasNext() {
+                return scanForNextEntry();
+            }
+
+            @Override
+            public ICodeBaseEntry next() throws InterruptedException {
+                if (!scanForNextEntry()) {
+                    throw new NoSuchElementException();
+                }
+                int entry = nextEntry++;
+                try {
+                    addLastModifiedTime(getTime(entry));
+                    return new MappedZipFileCodeBaseEntry(MappedZipFileCodeBase.this, entry, getEntryName(entry));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            private boolean scanForNextEntry() {
+                try {
+                    while (nextEntry < getNumEntries() && isDirectory(nextEntry)) {
+                        nextEntry++;
+                    }
+                } catch (IOException e) {
+                    // closed
+                    return false;
+                }
+                return nextEntry < getNumEntries();
+            }
+        };
+    }
+
+    @Override
+    public String getPathName() {
+        return fileName;
+    }
+
+    @Override
+    public void close() {
+        // The mapping is released when the buffer is garbage collected
+        buffer = null;
+    }
+
+    @Override
+    public String toString() {
+        return fileName;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2006, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.classfile.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.DescriptorFactory;
+
+/**
+ * Implementation of ICodeBaseEntry for resources in memory-mapped zip files.
+ *
+ * @see MappedZipFileCodeBase
+ */
+public class MappedZipFileCodeBaseEntry extends AbstractScannableCodeBaseEntry {
+    private final MappedZipFileCodeBase codeBase;
+
+    private final int entry;
+
+    private final String realResourceName;
+
+    MappedZipFileCodeBaseEntry(MappedZipFileCodeBase codeBase, int entry, String realResourceName) {
+        this.codeBase = codeBase;
+        this.entry = entry;
+        this.realResourceName = realResourceName;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see edu.umd.cs.findbugs.classfile.ICodeBaseEntry#getNumBytes()
+     */
+    @Override
+    public int getNumBytes() {
+        try {
+            return (int) codeBase.getSize(entry);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see edu.umd.cs.findbugs.classfile.ICodeBaseEntry#openResource()
+     */
+    @Override
+    public InputStream openResource() throws IOException {
+        return codeBase.openEntry(entry);
+    }
+
+    /**
+     * Get the contents of the resource without copying them, if it is stored
+     * without compression.
+     *
+     * @return a read-only buffer with the contents of the resource, or null
+     *         if the resource is compressed
+     */
+    ByteBuffer getStoredData() throws IOException {
+        return codeBase.getStoredEntryData(entry);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * edu.umd.cs.findbugs.classfile.impl.AbstractScannableCodeBaseEntry#getCodeBase
+     * ()
+     */
+    @Override
+    public AbstractScannableCodeBase getCodeBase() {
+        return codeBase;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see edu.umd.cs.findbugs.classfile.impl.AbstractScannableCodeBaseEntry#
+     * getRealResourceName()
+     */
+    @Override
+    public String getRealResourceName() {
+        return realResourceName;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see edu.umd.cs.findbugs.classfile.ICodeBaseEntry#getClassDescriptor()
+     */
+    @Override
+    public ClassDescriptor getClassDescriptor() {
+        return DescriptorFactory.createClassDescriptorFromResourceName(getResourceName());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || obj.getClass() != this.getClass()) {
+            return false;
+        }
+        MappedZipFileCodeBaseEntry other = (MappedZipFileCodeBaseEntry) obj;
+        return this.codeBase.equals(other.codeBase) && this.entry == other.entry;
+    }
+
+    @Override
+    public int hashCode() {
+        return 7919 * codeBase.hashCode() + entry;
+    }
+
+    @Override
+    public String toString() {
+        return getCodeBase() + ":" + getResourceName();
+    }
+}
@@ -24,8 +24,16 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipException;
 
+import javax.annotation.CheckForNull;
+
+import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
 import edu.umd.cs.findbugs.classfile.ICodeBase;
 import edu.umd.cs.findbugs.classfile.ICodeBaseEntry;
@@ -35,13 +43,33 @@ import edu.umd.cs.findbugs.io.IO;
 
 /**
  * A scannable code base class for a zip (or Jar) file nested inside some other
- * codebase. These are handled by extracting the nested zip/jar file to a
- * temporary file, and delegating to an internal ZipFileCodeBase that reads from
- * the temporary file.
+ * codebase. The nested zip/jar file is read by an internal
+ * MappedZipFileCodeBase, directly from the parent zip file if the nested file
+ * is stored there without compression, or else from a copy in memory. Only
+ * nested files larger than {@link #MAX_IN_MEMORY_SIZE}, or which
+ * MappedZipFileCodeBase can't read, are extracted to a temporary file.
  *
  * @author David Hovemeyer
  */
 public class NestedZipFileCodeBase extends AbstractScannableCodeBase {
+    /**
+     * Maximum size of a compressed nested zip file to read into memory.
+     */
+    private static final int MAX_IN_MEMORY_SIZE = SystemProperties.getInt("findbugs.nested.maxInMemorySize",
+            64 * 1024 * 1024);
+
+    /**
+     * Maximum total size of the nested zip files copied into memory by all
+     * open NestedZipFileCodeBases.
+     */
+    private static final long MAX_TOTAL_IN_MEMORY_SIZE = SystemProperties.getInt("findbugs.nested.maxTotalInMemorySize",
+            256 * 1024 * 1024);
+
+    private static final AtomicLong totalInMemorySize = new AtomicLong();
+
+    /** Number of bytes this codebase counts against MAX_TOTAL_IN_MEMORY_SIZE */
+    private int inMemorySize;
+
     private final ICodeBase parentCodeBase;
 
     private final String resourceName;
@@ -61,28 +89,110 @@ public class NestedZipFileCodeBase extends AbstractScannableCodeBase {
         this.parentCodeBase = codeBaseLocator.getParentCodeBase();
         this.resourceName = codeBaseLocator.getResourceName();
 
+        ICodeBaseEntry resource = parentCodeBase.lookupResource(resourceName);
+        if (resource == null) {
+            throw new ResourceNotFoundException(resourceName);
+        }
+
+        ByteBuffer data = getStoredData(resource);
+        if (data == null) {
+            data = readIntoMemory(resource);
+            if (data != null) {
+                inMemorySize = data.capacity();
+            }
+        }
+        if (data != null) {
+            try {
+                delegateCodeBase = new MappedZipFileCodeBase(codeBaseLocator, codeBaseLocator.toString(), data);
+            } catch (ZipException e) {
+                // Let ZipCodeBaseFactory deal with it
+                releaseInMemorySize();
+            }
+        }
+        if (delegateCodeBase == null) {
+            delegateCodeBase = extractToTempFile(codeBaseLocator, resource);
+        }
+    }
+
+    /**
+     * Get the contents of a resource without copying them, if the resource is
+     * stored without compression in a mapped zip file.
+     */
+    private static @CheckForNull ByteBuffer getStoredData(ICodeBaseEntry resource) throws IOException {
+        while (resource instanceof DelegatingCodeBaseEntry) {
+            resource = ((DelegatingCodeBaseEntry) resource).getDelegateCodeBaseEntry();
+        }
+        if (resource instanceof MappedZipFileCodeBaseEntry) {
+            return ((MappedZipFileCodeBaseEntry) resource).getStoredData();
+        }
+        return null;
+    }
+
+    /**
+     * Read the contents of a resource into memory.
+     *
+     * @return the contents, or null if the resource is larger than
+     *         MAX_IN_MEMORY_SIZE, or too large to fit in the remaining
+     *         in-memory budget
+     */
+    private static @CheckForNull ByteBuffer readIntoMemory(ICodeBaseEntry resource) throws IOException {
+        int size = resource.getNumBytes();
+        if (size > MAX_IN_MEMORY_SIZE || totalInMemorySize.get() + Math.max(size, 0) > MAX_TOTAL_IN_MEMORY_SIZE) {
+            return null;
+        }
+        byte[] buf = new byte[size >= 0 ? size + 1 : 8192];
+        int length = 0;
+        InputStream in = resource.openResource();
+        try {
+            while (true) {
+                checkInterrupted();
+                if (length == buf.length) {
+                    if (length >= MAX_IN_MEMORY_SIZE) {
+                        return null;
+                    }
+                    buf = Arrays.copyOf(buf, Math.min(2 * length, MAX_IN_MEMORY_SIZE));
+                }
+                int n = in.read(buf, length, buf.length - length);
+                if (n < 0) {
+                    break;
+                }
+                length += n;
+            }
+        } finally {
+            IO.close(in);
+        }
+        if (totalInMemorySize.addAndGet(buf.length) > MAX_TOTAL_IN_MEMORY_SIZE) {
+            totalInMemorySize.addAndGet(-buf.length);
+            return null;
+        }
+        return ByteBuffer.wrap(buf, 0, length);
+    }
+
+    private void releaseInMemorySize() {
+        totalInMemorySize.addAndGet(-inMemorySize);
+        inMemorySize = 0;
+    }
+
+    private AbstractScannableCodeBase extractToTempFile(NestedZipFileCodeBaseLocator codeBaseLocator, ICodeBaseEntry resource)
+            throws IOException {
+        // Create a temp file
+        this.tempFile = File.createTempFile("findbugs", ".zip");
+        tempFile.deleteOnExit(); // just in case we crash before the
+        // codebase is closed
+
+        // Copy nested zipfile to the temporary file
         InputStream inputStream = null;
         OutputStream outputStream = null;
         try {
-            // Create a temp file
-            this.tempFile = File.createTempFile("findbugs", ".zip");
-            tempFile.deleteOnExit(); // just in case we crash before the
-            // codebase is closed
-
-            // Copy nested zipfile to the temporary file
-            // FIXME: potentially long blocking operation - should be
-            // interruptible
-            ICodeBaseEntry resource = parentCodeBase.lookupResource(resourceName);
-            if (resource == null) {
-                throw new ResourceNotFoundException(resourceName);
-            }
             inputStream = resource.openResource();
             outputStream = new BufferedOutputStream(new FileOutputStream(tempFile));
-            IO.copy(inputStream, outputStream);
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = inputStream.read(buf)) > 0) {
+                checkInterrupted();
+                outputStream.write(buf, 0, n);
+            }
             outputStream.flush();
-
-            // Create the delegate to read from the temporary file
-            delegateCodeBase = ZipCodeBaseFactory.makeZipCodeBase(codeBaseLocator, tempFile);
         } finally {
             if (inputStream != null) {
                 IO.close(inputStream);
@@ -92,6 +202,19 @@ public class NestedZipFileCodeBase extends AbstractScannableCodeBase {
                 IO.close(outputStream);
             }
         }
+
+        // Create the delegate to read from the temporary file
+        return ZipCodeBaseFactory.makeZipCodeBase(codeBaseLocator, tempFile);
+    }
+
+    /**
+     * Throw if the thread has been interrupted, leaving the interrupt status
+     * set so that the callers further up still see it.
+     */
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted while reading nested archive");
+        }
     }
 
     /*
@@ -137,7 +260,8 @@ public class NestedZipFileCodeBase extends AbstractScannableCodeBase {
     @Override
     public void close() {
         delegateCodeBase.close();
-        if (!tempFile.delete()) {
+        releaseInMemorySize();
+        if (tempFile != null && !tempFile.delete()) {
             AnalysisContext.logError("Could not delete " + tempFile);
         }
     }
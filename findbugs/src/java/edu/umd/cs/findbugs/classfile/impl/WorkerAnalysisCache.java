@@ -0,0 +1,274 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2006-2007 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.classfile.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.bcel.generic.ConstantPoolGen;
+
+import edu.umd.cs.findbugs.ba.ClassContext;
+import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.IAnalysisCache;
+import edu.umd.cs.findbugs.classfile.IClassAnalysisEngine;
+import edu.umd.cs.findbugs.classfile.IClassPath;
+import edu.umd.cs.findbugs.classfile.IDatabaseFactory;
+import edu.umd.cs.findbugs.classfile.IErrorLogger;
+import edu.umd.cs.findbugs.classfile.IMethodAnalysisEngine;
+import edu.umd.cs.findbugs.classfile.MethodDescriptor;
+import edu.umd.cs.findbugs.classfile.impl.AnalysisCache.AbnormalAnalysisResult;
+import edu.umd.cs.findbugs.log.Profiler;
+import edu.umd.cs.findbugs.util.MapCache;
+
+/**
+ * IAnalysisCache used by one thread of a parallel analysis. Class-level
+ * results which can be shared between threads (class data, XClass and
+ * JavaClass objects, databases, etc.) come from a shared AnalysisCache. The
+ * ClassContext objects, and with them all method analysis results, as well as
+ * the ConstantPoolGen objects used to build them, are private to the worker.
+ * Errors are reported to the worker's own error logger.
+ */
+public class WorkerAnalysisCache implements IAnalysisCache {
+    /**
+     * Maximum number of worker-local class analysis results to cache, per
+     * analysis type.
+     */
+    private static final int MAX_LOCAL_CLASS_RESULTS_TO_CACHE = 10;
+
+    private final AnalysisCache sharedCache;
+
+    private final IErrorLogger errorLogger;
+
+    private final Map<Class<?>, Map<ClassDescriptor, Object>> localClassAnalysisMap;
+
+    /**
+     * Constructor.
+     *
+     * @param sharedCache
+     *            the analysis cache shared by all workers
+     * @param errorLogger
+     *            the IErrorLogger errors found by this worker are reported to
+     */
+    public WorkerAnalysisCache(AnalysisCache sharedCache, IErrorLogger errorLogger) {
+        this.sharedCache = sharedCache;
+        this.errorLogger = errorLogger;
+        this.localClassAnalysisMap = new HashMap<Class<?>, Map<ClassDescriptor, Object>>();
+    }
+
+    /**
+     * Determine whether results of given class analysis are kept by the
+     * worker rather than by the shared cache.
+     */
+    static boolean isWorkerLocal(Class<?> analysisClass) {
+        return analysisClass == ClassContext.class || analysisClass == ConstantPoolGen.class;
+    }
+
+    private Map<ClassDescriptor, Object> findOrCreateLocalMap(Class<?> analysisClass) {
+        Map<ClassDescriptor, Object> descriptorMap = localClassAnalysisMap.get(analysisClass);
+        if (descriptorMap == null) {
+            descriptorMap = new MapCache<ClassDescriptor, Object>(MAX_LOCAL_CLASS_RESULTS_TO_CACHE);
+            localClassAnalysisMap.put(analysisClass, descriptorMap);
+        }
+        return descriptorMap;
+    }
+
+    @Override
+    public <E> void registerClassAnalysisEngine(Class<E> analysisResultType, IClassAnalysisEngine<E> classAnalysisEngine) {
+        sharedCache.registerClassAnalysisEngine(analysisResultType, classAnalysisEngine);
+    }
+
+    @Override
+    public <E> void registerMethodAnalysisEngine(Class<E> analysisResultType, IMethodAnalysisEngine<E> methodAnalysisEngine) {
+        sharedCache.registerMethodAnalysisEngine(analysisResultType, methodAnalysisEngine);
+    }
+
+    @Override
+    public <E> E getClassAnalysis(Class<E> analysisClass, @Nonnull ClassDescriptor classDescriptor)
+            throws CheckedAnalysisException {
+        requireNonNull(classDescriptor, "classDescriptor is null");
+        if (!isWorkerLocal(analysisClass)) {
+            return sharedCache.getClassAnalysis(analysisClass, classDescriptor);
+        }
+
+        Map<ClassDescriptor, Object> descriptorMap = findOrCreateLocalMap(analysisClass);
+        Object analysisResult = descriptorMap.get(classDescriptor);
+        if (analysisResult == null) {
+            IClassAnalysisEngine<E> engine = sharedCache.getClassAnalysisEngine(analysisClass);
+            Profiler profiler = getProfiler();
+            try {
+                profiler.start(engine.getClass());
+                analysisResult = engine.analyze(this, classDescriptor);
+                if (analysisResult == null) {
+                    analysisResult = AnalysisCache.NULL_ANALYSIS_RESULT;
+                }
+            } catch (CheckedAnalysisException e) {
+                analysisResult = new AbnormalAnalysisResult(e);
+            } catch (RuntimeException e) {
+                analysisResult = new AbnormalAnalysisResult(e);
+            } finally {
+                profiler.end(engine.getClass());
+            }
+            descriptorMap.put(classDescriptor, analysisResult);
+        }
+
+        if (analysisResult instanceof AbnormalAnalysisResult) {
+            return AnalysisCache.checkedCast(analysisClass, ((AbnormalAnalysisResult) analysisResult).returnOrThrow());
+        }
+        return AnalysisCache.checkedCast(analysisClass, analysisResult);
+    }
+
+    @Override
+    public <E> E probeClassAnalysis(Class<E> analysisClass, @Nonnull ClassDescriptor classDescriptor) {
+        if (!isWorkerLocal(analysisClass)) {
+            return sharedCache.probeClassAnalysis(analysisClass, classDescriptor);
+        }
+        Map<ClassDescriptor, Object> descriptorMap = localClassAnalysisMap.get(analysisClass);
+        if (descriptorMap == null) {
+            return null;
+        }
+        return AnalysisCache.checkedCast(analysisClass, descriptorMap.get(classDescriptor));
+    }
+
+    @Override
+    public <E> E getMethodAnalysis(Class<E> analysisClass, @Nonnull MethodDescriptor methodDescriptor)
+            throws CheckedAnalysisException {
+        requireNonNull(methodDescriptor, "methodDescriptor is null");
+        ClassContext classContext = getClassAnalysis(ClassContext.class, methodDescriptor.getClassDescriptor());
+        Object object = classContext.getMethodAnalysis(analysisClass, methodDescriptor);
+
+        if (object == null) {
+            IMethodAnalysisEngine<E> engine = sharedCache.getMethodAnalysisEngine(analysisClass);
+            Profiler profiler = getProfiler();
+            profiler.start(engine.getClass());
+            try {
+                object = engine.analyze(this, methodDescriptor);
+                if (object == null) {
+                    object = AnalysisCache.NULL_ANALYSIS_RESULT;
+                }
+            } catch (RuntimeException e) {
+                object = new AbnormalAnalysisResult(e);
+            } catch (CheckedAnalysisException e) {
+                object = new AbnormalAnalysisResult(e);
+            } finally {
+                profiler.end(engine.getClass());
+            }
+            classContext.putMethodAnalysis(analysisClass, methodDescriptor, object);
+        }
+
+        if (object instanceof AbnormalAnalysisResult) {
+            return AnalysisCache.checkedCast(analysisClass, ((AbnormalAnalysisResult) object).returnOrThrow());
+        }
+        return AnalysisCache.checkedCast(analysisClass, object);
+    }
+
+    @Override
+    public <E> void eagerlyPutMethodAnalysis(Class<E> analysisClass, @Nonnull MethodDescriptor methodDescriptor,
+            E analysisObject) {
+        try {
+            ClassContext classContext = getClassAnalysis(ClassContext.class, methodDescriptor.getClassDescriptor());
+            assert analysisClass.isInstance(analysisObject);
+            classContext.putMethodAnalysis(analysisClass, methodDescriptor, analysisObject);
+        } catch (CheckedAnalysisException e) {
+            IllegalStateException ise = new IllegalStateException("Unexpected exception adding method analysis to cache");
+            ise.initCause(e);
+            throw ise;
+        }
+    }
+
+    @Override
+    public void purgeMethodAnalyses(@Nonnull MethodDescriptor methodDescriptor) {
+        try {
+            ClassContext classContext = getClassAnalysis(ClassContext.class, methodDescriptor.getClassDescriptor());
+            classContext.purgeMethodAnalyses(methodDescriptor);
+        } catch (CheckedAnalysisException e) {
+            IllegalStateException ise = new IllegalStateException("Unexpected exception purging method analyses from cache");
+            ise.initCause(e);
+            throw ise;
+        }
+    }
+
+    @Override
+    public void purgeAllMethodAnalysis() {
+        Map<ClassDescriptor, Object> classContextMap = localClassAnalysisMap.get(ClassContext.class);
+        if (classContextMap == null) {
+            return;
+        }
+        for (Object c : classContextMap.values()) {
+            if (c instanceof ClassContext) {
+                ((ClassContext) c).purgeAllMethodAnalyses();
+            }
+        }
+    }
+
+    @Override
+    public void purgeClassAnalysis(Class<?> analysisClass) {
+        if (isWorkerLocal(analysisClass)) {
+            localClassAnalysisMap.remove(analysisClass);
+        } else {
+            sharedCache.purgeClassAnalysis(analysisClass);
+        }
+    }
+
+    @Override
+    public <E> void registerDatabaseFactory(Class<E> databaseClass, IDatabaseFactory<E> databaseFactory) {
+        sharedCache.registerDatabaseFactory(databaseClass, databaseFactory);
+    }
+
+    @Override
+    public <E> E getDatabase(Class<E> databaseClass) {
+        return sharedCache.getDatabase(databaseClass);
+    }
+
+    @Override
+    public @CheckForNull <E> E getOptionalDatabase(Class<E> databaseClass) {
+        return sharedCache.getOptionalDatabase(databaseClass);
+    }
+
+    @Override
+    public <E> void eagerlyPutDatabase(Class<E> databaseClass, E database) {
+        sharedCache.eagerlyPutDatabase(databaseClass, database);
+    }
+
+    @Override
+    public IClassPath getClassPath() {
+        return sharedCache.getClassPath();
+    }
+
+    @Override
+    public IErrorLogger getErrorLogger() {
+        return errorLogger;
+    }
+
+    @Override
+    public Map<?, ?> getAnalysisLocals() {
+        return sharedCache.getAnalysisLocals();
+    }
+
+    @Override
+    public Profiler getProfiler() {
+        return sharedCache.getProfiler();
+    }
+}
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.zip.ZipException;
 
+import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.classfile.Global;
 import edu.umd.cs.findbugs.classfile.ICodeBaseLocator;
 import edu.umd.cs.findbugs.log.Profiler;
@@ -31,11 +32,26 @@ import edu.umd.cs.findbugs.log.Profiler;
  * @author pugh
  */
 public class ZipCodeBaseFactory {
+    /**
+     * Whether zip files are memory-mapped. Mapped files can't be deleted or
+     * replaced on Windows until the mapping is garbage collected, so they are
+     * only mapped there if the findbugs.zip.map property is set.
+     */
+    private static final boolean MAP_ZIP_FILES = SystemProperties.getBoolean("findbugs.zip.map",
+            !SystemProperties.getProperty("os.name", "unknown").startsWith("Windows"));
 
     public static AbstractScannableCodeBase makeZipCodeBase(ICodeBaseLocator codeBaseLocator, File file) throws IOException {
         Profiler profiler = Global.getAnalysisCache().getProfiler();
         profiler.start(ZipCodeBaseFactory.class);
         try {
+            if (MAP_ZIP_FILES) {
+                try {
+                    return new MappedZipFileCodeBase(codeBaseLocator, file);
+                } catch (IOException e) {
+                    // Let ZipFileCodeBase deal with it, and report any
+                    // problems with the file
+                }
+            }
             return new ZipFileCodeBase(codeBaseLocator, file);
         } catch (ZipException e) {
             // May be too many zip entries
@@ -25,12 +25,13 @@ import org.apache.bcel.classfile.Method;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.Priorities;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class AppendingToAnObjectOutputStream extends OpcodeStackDetector {
+public class AppendingToAnObjectOutputStream extends OpcodeStackDetector implements ClassLocalDetector {
 
     BugReporter bugReporter;
 
@@ -25,6 +25,7 @@ import org.apache.bcel.classfile.Code;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.ba.XClass;
@@ -38,7 +39,7 @@ import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
  *
  * @author Michael Midgley-Biggs
  */
-public class AtomicityProblem extends OpcodeStackDetector {
+public class AtomicityProblem extends OpcodeStackDetector implements ClassLocalDetector {
 
     int priority = IGNORE_PRIORITY;
 
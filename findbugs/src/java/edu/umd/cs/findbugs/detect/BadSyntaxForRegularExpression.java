@@ -24,11 +24,12 @@ import java.util.regex.Pattern;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.StringAnnotation;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class BadSyntaxForRegularExpression extends OpcodeStackDetector {
+public class BadSyntaxForRegularExpression extends OpcodeStackDetector implements ClassLocalDetector {
 
     BugReporter bugReporter;
 
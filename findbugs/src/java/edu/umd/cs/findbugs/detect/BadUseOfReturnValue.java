@@ -25,8 +25,9 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 
-public class BadUseOfReturnValue extends BytecodeScanningDetector {
+public class BadUseOfReturnValue extends BytecodeScanningDetector implements ClassLocalDetector {
 
     BugAccumulator bugAccumulator;
 
@@ -29,8 +29,9 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 
-public class BadlyOverriddenAdapter extends BytecodeScanningDetector {
+public class BadlyOverriddenAdapter extends BytecodeScanningDetector implements ClassLocalDetector {
     private final BugReporter bugReporter;
 
     private boolean isAdapter;
@@ -21,11 +21,12 @@ package edu.umd.cs.findbugs.detect;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 
 /**
  * @author alison
  */
-public class BooleanReturnNull extends TypeReturnNull {
+public class BooleanReturnNull extends TypeReturnNull implements ClassLocalDetector {
 
     public BooleanReturnNull(BugReporter bugReporter) {
         super(bugReporter);
@@ -35,6 +35,7 @@ import org.apache.bcel.generic.InvokeInstruction;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.Priorities;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
@@ -51,7 +52,7 @@ import edu.umd.cs.findbugs.ba.type.TypeDataflow;
 import edu.umd.cs.findbugs.ba.type.TypeFrame;
 import edu.umd.cs.findbugs.bcel.BCELUtil;
 
-public class CallToUnsupportedMethod implements Detector {
+public class CallToUnsupportedMethod implements Detector, ClassLocalDetector {
 
     BugReporter bugReporter;
 
@@ -24,13 +24,14 @@ import org.apache.bcel.classfile.JavaClass;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.ba.JCIPAnnotationDatabase;
 import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
 
-public class CheckImmutableAnnotation extends PreorderVisitor implements Detector {
+public class CheckImmutableAnnotation extends PreorderVisitor implements Detector, ClassLocalDetector {
 
     BugReporter bugReporter;
 
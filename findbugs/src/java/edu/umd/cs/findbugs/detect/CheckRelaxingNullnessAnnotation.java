@@ -43,6 +43,7 @@ import org.objectweb.asm.tree.MethodNode;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.asm.ClassNodeDetector;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
@@ -72,7 +73,7 @@ import edu.umd.cs.findbugs.util.ClassName;
  * @author alienisty (Alessandro Nistico)
  * @author Andrey Loskutov
  */
-public class CheckRelaxingNullnessAnnotation extends ClassNodeDetector {
+public class CheckRelaxingNullnessAnnotation extends ClassNodeDetector implements ClassLocalDetector {
 
     XClass xclass;
 
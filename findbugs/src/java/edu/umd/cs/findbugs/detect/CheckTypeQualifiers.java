@@ -37,6 +37,7 @@ import org.apache.bcel.generic.InvokeInstruction;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.ClassAnnotation;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.IntAnnotation;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.Priorities;
@@ -87,7 +88,7 @@ import edu.umd.cs.findbugs.util.Util;
  *
  * @author David Hovemeyer
  */
-public class CheckTypeQualifiers extends CFGDetector {
+public class CheckTypeQualifiers extends CFGDetector implements ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("ctq.debug");
 
     private static final boolean DEBUG_DATAFLOW = SystemProperties.getBoolean("ctq.dataflow.debug");
@@ -24,12 +24,13 @@ import org.apache.bcel.classfile.JavaClass;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
 
-public class ConfusedInheritance extends PreorderVisitor implements Detector {
+public class ConfusedInheritance extends PreorderVisitor implements Detector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
@@ -26,6 +26,7 @@ import org.apache.bcel.classfile.LocalVariableTable;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack.Item;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
 import edu.umd.cs.findbugs.ba.SignatureParser;
@@ -41,7 +42,7 @@ import edu.umd.cs.findbugs.internalAnnotations.SlashedClassName;
 /**
  * @author Tagir Valeev
  */
-public class CovariantArrayAssignment extends OpcodeStackDetector {
+public class CovariantArrayAssignment extends OpcodeStackDetector implements ClassLocalDetector {
     private final BugAccumulator accumulator;
 
     public CovariantArrayAssignment(BugReporter bugReporter) {
@@ -9,6 +9,7 @@ import org.apache.bcel.classfile.JavaClass;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.MethodAnnotation;
 import edu.umd.cs.findbugs.ba.AnnotationDatabase;
 import edu.umd.cs.findbugs.ba.AnnotationEnumeration;
@@ -38,7 +39,7 @@ import edu.umd.cs.findbugs.internalAnnotations.DottedClassName;
  *
  * @author Robin Fernandes
  */
-public class DefaultEncodingDetector extends OpcodeStackDetector {
+public class DefaultEncodingDetector extends OpcodeStackDetector implements ClassLocalDetector {
 
     private final BugAccumulator bugAccumulator;
 
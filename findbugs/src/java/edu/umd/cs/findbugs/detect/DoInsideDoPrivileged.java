@@ -26,13 +26,14 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.ba.ch.Subtypes2;
 import edu.umd.cs.findbugs.internalAnnotations.DottedClassName;
 
 /**
  * @author pugh
  */
-public class DoInsideDoPrivileged extends BytecodeScanningDetector {
+public class DoInsideDoPrivileged extends BytecodeScanningDetector implements ClassLocalDetector {
     BugAccumulator bugAccumulator;
 
     public DoInsideDoPrivileged(BugReporter bugReporter) {
@@ -27,12 +27,13 @@ import org.apache.bcel.classfile.ExceptionTable;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
 
-public class DontCatchIllegalMonitorStateException extends PreorderVisitor implements Detector {
+public class DontCatchIllegalMonitorStateException extends PreorderVisitor implements Detector, ClassLocalDetector {
 
     private static final boolean DEBUG = SystemProperties.getBoolean("dcimse.debug");
 
@@ -26,11 +26,12 @@ import org.apache.bcel.classfile.Method;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.bcel.PreorderDetector;
 
-public class DontUseEnum extends PreorderDetector {
+public class DontUseEnum extends PreorderDetector implements ClassLocalDetector {
 
     BugReporter bugReporter;
 
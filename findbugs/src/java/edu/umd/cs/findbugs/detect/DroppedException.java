@@ -34,6 +34,7 @@ import org.apache.bcel.classfile.Utility;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
@@ -49,7 +50,7 @@ import edu.umd.cs.findbugs.charsets.UTF8;
 import edu.umd.cs.findbugs.internalAnnotations.DottedClassName;
 import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
 
-public class DroppedException extends PreorderVisitor implements Detector {
+public class DroppedException extends PreorderVisitor implements Detector, ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("de.debug");
 
     private static final boolean LOOK_IN_SOURCE_TO_FIND_COMMENTED_CATCH_BLOCKS = SystemProperties
@@ -14,6 +14,7 @@ import org.apache.bcel.generic.MethodGen;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.ba.CFG;
@@ -31,7 +32,7 @@ import edu.umd.cs.findbugs.classfile.MethodDescriptor;
 import edu.umd.cs.findbugs.detect.BuildStringPassthruGraph.MethodParameter;
 import edu.umd.cs.findbugs.detect.BuildStringPassthruGraph.StringPassthruDatabase;
 
-public class DumbMethodInvocations implements Detector {
+public class DumbMethodInvocations implements Detector, ClassLocalDetector {
     private static final MethodDescriptor STRING_SUBSTRING =
             new MethodDescriptor("java/lang/String", "substring", "(I)Ljava/lang/String;");
 
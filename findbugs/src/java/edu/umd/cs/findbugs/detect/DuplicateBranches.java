@@ -39,6 +39,7 @@ import org.apache.bcel.util.ByteSequence;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.ba.BasicBlock;
@@ -53,7 +54,7 @@ import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
  * @author Dave Brousius 4/2005 original author
  * @author Brian Cole 7/2006 serious reworking
  */
-public class DuplicateBranches extends PreorderVisitor implements Detector {
+public class DuplicateBranches extends PreorderVisitor implements Detector, ClassLocalDetector {
     private ClassContext classContext;
 
     private final BugReporter bugReporter;
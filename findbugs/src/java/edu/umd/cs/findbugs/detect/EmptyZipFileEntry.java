@@ -25,6 +25,7 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 
 /**
@@ -32,7 +33,7 @@ import edu.umd.cs.findbugs.StatelessDetector;
  * It generates false positives when creating directory entries.
  *
  */
-public class EmptyZipFileEntry extends BytecodeScanningDetector implements StatelessDetector {
+public class EmptyZipFileEntry extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
@@ -30,8 +30,9 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 
-public class FinalizerNullsFields extends BytecodeScanningDetector {
+public class FinalizerNullsFields extends BytecodeScanningDetector implements ClassLocalDetector {
 
     final BugReporter bugReporter;
 
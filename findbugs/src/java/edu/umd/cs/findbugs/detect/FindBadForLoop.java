@@ -24,11 +24,12 @@ import org.apache.bcel.classfile.LineNumberTable;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class FindBadForLoop extends OpcodeStackDetector implements StatelessDetector {
+public class FindBadForLoop extends OpcodeStackDetector implements StatelessDetector, ClassLocalDetector {
 
     BugReporter bugReporter;
 
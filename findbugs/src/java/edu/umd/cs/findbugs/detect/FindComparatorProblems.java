@@ -28,6 +28,7 @@ import org.apache.bcel.classfile.Code;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.MethodAnnotation;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.OpcodeStack.Item;
@@ -39,7 +40,7 @@ import edu.umd.cs.findbugs.classfile.MethodDescriptor;
 /**
  * @author Tagir Valeev
  */
-public class FindComparatorProblems extends OpcodeStackDetector {
+public class FindComparatorProblems extends OpcodeStackDetector implements ClassLocalDetector {
     private static final MethodDescriptor FLOAT_DESCRIPTOR = new MethodDescriptor("java/lang/Float", "compare", "(FF)I", true);
     private static final MethodDescriptor DOUBLE_DESCRIPTOR = new MethodDescriptor("java/lang/Double", "compare", "(DD)I", true);
 
@@ -61,6 +61,7 @@ import org.apache.bcel.generic.Type;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 import edu.umd.cs.findbugs.FindBugsAnalysisFeatures;
@@ -93,7 +94,7 @@ import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
  * @author David Hovemeyer
  * @author Bill Pugh
  */
-public class FindDeadLocalStores implements Detector {
+public class FindDeadLocalStores implements Detector, ClassLocalDetector {
 
     private static final boolean DEBUG = SystemProperties.getBoolean("fdls.debug");
 
@@ -26,11 +26,12 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Lookup;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.SystemProperties;
 
-public class FindFinalizeInvocations extends BytecodeScanningDetector implements StatelessDetector {
+public class FindFinalizeInvocations extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("ffi.debug");
 
     private final BugReporter bugReporter;
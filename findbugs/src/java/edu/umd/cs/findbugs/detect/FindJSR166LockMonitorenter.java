@@ -35,6 +35,7 @@ import org.apache.bcel.generic.Type;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.Lookup;
 import edu.umd.cs.findbugs.MethodAnnotation;
@@ -61,7 +62,7 @@ import edu.umd.cs.findbugs.classfile.DescriptorFactory;
  *
  * @author David Hovemeyer
  */
-public final class FindJSR166LockMonitorenter implements Detector, StatelessDetector {
+public final class FindJSR166LockMonitorenter implements Detector, StatelessDetector, ClassLocalDetector {
     /**
      *
      */
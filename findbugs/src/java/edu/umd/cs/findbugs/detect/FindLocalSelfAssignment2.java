@@ -26,13 +26,14 @@ import org.apache.bcel.classfile.Code;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.ba.XClass;
 import edu.umd.cs.findbugs.ba.XField;
 
-public class FindLocalSelfAssignment2 extends BytecodeScanningDetector implements StatelessDetector {
+public class FindLocalSelfAssignment2 extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
@@ -35,6 +35,7 @@ import org.apache.bcel.generic.MethodGen;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.StatelessDetector;
@@ -50,7 +51,7 @@ import edu.umd.cs.findbugs.ba.vna.ValueNumber;
 import edu.umd.cs.findbugs.ba.vna.ValueNumberDataflow;
 import edu.umd.cs.findbugs.ba.vna.ValueNumberFrame;
 
-public final class FindMismatchedWaitOrNotify implements Detector, StatelessDetector {
+public final class FindMismatchedWaitOrNotify implements Detector, StatelessDetector, ClassLocalDetector {
     private final BugReporter bugReporter;
 
     private final BugAccumulator bugAccumulator;
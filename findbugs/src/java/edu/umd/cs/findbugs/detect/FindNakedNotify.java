@@ -25,6 +25,7 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 
 //   2:   astore_1
@@ -34,7 +35,7 @@ import edu.umd.cs.findbugs.StatelessDetector;
 //   8:   aload_1
 //   9:   monitorexit
 
-public class FindNakedNotify extends BytecodeScanningDetector implements StatelessDetector {
+public class FindNakedNotify extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     int stage = 0;
 
     private final BugReporter bugReporter;
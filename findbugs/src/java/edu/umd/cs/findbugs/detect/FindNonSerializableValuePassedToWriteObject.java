@@ -15,6 +15,7 @@ import org.apache.bcel.generic.Type;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.DeepSubtypeAnalysis;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
@@ -29,7 +30,7 @@ import edu.umd.cs.findbugs.ba.type.TopType;
 import edu.umd.cs.findbugs.ba.type.TypeDataflow;
 import edu.umd.cs.findbugs.ba.type.TypeFrame;
 
-public class FindNonSerializableValuePassedToWriteObject implements Detector {
+public class FindNonSerializableValuePassedToWriteObject implements Detector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
@@ -31,6 +31,7 @@ import org.apache.bcel.generic.InstructionHandle;
 import edu.umd.cs.findbugs.BugAnnotation;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.ba.CFG;
@@ -47,7 +48,7 @@ import edu.umd.cs.findbugs.ba.vna.ValueNumberFrame;
 import edu.umd.cs.findbugs.ba.vna.ValueNumberSourceInfo;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class FindNullDerefsInvolvingNonShortCircuitEvaluation extends OpcodeStackDetector {
+public class FindNullDerefsInvolvingNonShortCircuitEvaluation extends OpcodeStackDetector implements ClassLocalDetector {
 
     private static boolean DEBUG = false;
 
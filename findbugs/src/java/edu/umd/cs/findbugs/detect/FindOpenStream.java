@@ -37,6 +37,7 @@ import org.apache.bcel.generic.Type;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.ResourceCollection;
 import edu.umd.cs.findbugs.ResourceTrackingDetector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
@@ -63,7 +64,8 @@ import edu.umd.cs.findbugs.ba.ResourceValueFrame;
  * @author David Hovemeyer
  * @author Agustin Toribio atomo@arrakis.es
  */
-public final class FindOpenStream extends ResourceTrackingDetector<Stream, StreamResourceTracker> implements StatelessDetector {
+public final class FindOpenStream extends ResourceTrackingDetector<Stream, StreamResourceTracker> implements StatelessDetector,
+ClassLocalDetector {
     static final boolean DEBUG = SystemProperties.getBoolean("fos.debug");
 
     static final boolean IGNORE_WRAPPED_UNINTERESTING_STREAMS = !SystemProperties.getBoolean("fos.allowWUS");
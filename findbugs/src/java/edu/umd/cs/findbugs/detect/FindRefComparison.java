@@ -59,6 +59,7 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugAnnotation;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 import edu.umd.cs.findbugs.FindBugsAnalysisFeatures;
@@ -120,7 +121,7 @@ import edu.umd.cs.findbugs.util.ClassName;
  * @author David Hovemeyer
  * @author Bill Pugh
  */
-public class FindRefComparison implements Detector, ExtendedTypes {
+public class FindRefComparison implements Detector, ExtendedTypes, ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("frc.debug");
 
     private static final boolean REPORT_ALL_REF_COMPARISONS = true /*|| SystemProperties.getBoolean("findbugs.refcomp.reportAll")*/;
@@ -34,10 +34,11 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import edu.umd.cs.findbugs.ba.ClassContext;
 
-public class FindRoughConstants extends BytecodeScanningDetector {
+public class FindRoughConstants extends BytecodeScanningDetector implements ClassLocalDetector {
 
     static class BadConstant {
         double base;
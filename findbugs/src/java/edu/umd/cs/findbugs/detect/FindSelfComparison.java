@@ -27,6 +27,7 @@ import org.apache.bcel.classfile.LineNumberTable;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.OpcodeStack;
@@ -39,7 +40,7 @@ import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 import edu.umd.cs.findbugs.util.EditDistance;
 import edu.umd.cs.findbugs.util.Util;
 
-public class FindSelfComparison extends OpcodeStackDetector {
+public class FindSelfComparison extends OpcodeStackDetector implements ClassLocalDetector {
 
     final BugAccumulator bugAccumulator;
 
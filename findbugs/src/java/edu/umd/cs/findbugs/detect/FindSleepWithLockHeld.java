@@ -31,6 +31,7 @@ import org.apache.bcel.generic.Instruction;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.ba.CFG;
 import edu.umd.cs.findbugs.ba.CFGBuilderException;
@@ -45,7 +46,7 @@ import edu.umd.cs.findbugs.ba.LockSet;
  *
  * @author David Hovemeyer
  */
-public class FindSleepWithLockHeld implements Detector {
+public class FindSleepWithLockHeld implements Detector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
@@ -24,11 +24,12 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.SystemProperties;
 
-public class FindSpinLoop extends BytecodeScanningDetector implements StatelessDetector {
+public class FindSpinLoop extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("findspinloop.debug");
 
     int stage = 0;
@@ -45,6 +45,7 @@ import org.apache.bcel.generic.Type;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
@@ -81,7 +82,7 @@ import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
  * @author Bill Pugh
  * @author Matt Hargett
  */
-public class FindSqlInjection implements Detector {
+public class FindSqlInjection implements Detector, ClassLocalDetector {
     private static final String[] PREPARE_STATEMENT_SIGNATURES = new String[] {
         "(Ljava/lang/String;)Ljava/sql/PreparedStatement;",
         "(Ljava/lang/String;I)Ljava/sql/PreparedStatement;",
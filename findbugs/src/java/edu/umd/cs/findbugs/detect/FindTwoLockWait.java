@@ -34,6 +34,7 @@ import org.apache.bcel.generic.MethodGen;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.StatelessDetector;
@@ -45,7 +46,7 @@ import edu.umd.cs.findbugs.ba.Hierarchy;
 import edu.umd.cs.findbugs.ba.Location;
 import edu.umd.cs.findbugs.ba.LockDataflow;
 
-public final class FindTwoLockWait implements Detector, StatelessDetector {
+public final class FindTwoLockWait implements Detector, StatelessDetector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
@@ -35,6 +35,7 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.StatelessDetector;
@@ -43,7 +44,7 @@ import edu.umd.cs.findbugs.ba.FieldSummary;
 import edu.umd.cs.findbugs.ba.XFactory;
 import edu.umd.cs.findbugs.ba.XField;
 
-public class FindUninitializedGet extends BytecodeScanningDetector implements StatelessDetector {
+public class FindUninitializedGet extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     Set<FieldAnnotation> initializedFields = new HashSet<FieldAnnotation>();
 
     Set<FieldAnnotation> declaredFields = new HashSet<FieldAnnotation>();
@@ -54,6 +54,7 @@ import org.apache.bcel.generic.Type;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.Priorities;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
@@ -103,7 +104,7 @@ import edu.umd.cs.findbugs.util.MultiMap;
  * @author Nat Ayewah
  * @author William Pugh
  */
-public class FindUnrelatedTypesInGenericContainer implements Detector {
+public class FindUnrelatedTypesInGenericContainer implements Detector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
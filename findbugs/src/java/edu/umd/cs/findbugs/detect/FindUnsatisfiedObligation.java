@@ -41,6 +41,7 @@ import org.apache.bcel.generic.Type;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.IntAnnotation;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.StringAnnotation;
@@ -61,6 +62,7 @@ import edu.umd.cs.findbugs.ba.obl.ObligationAcquiredOrReleasedInLoopException;
 import edu.umd.cs.findbugs.ba.obl.ObligationDataflow;
 import edu.umd.cs.findbugs.ba.obl.ObligationFactory;
 import edu.umd.cs.findbugs.ba.obl.ObligationPolicyDatabase;
+import edu.umd.cs.findbugs.ba.obl.ObligationStateBudgetExceededException;
 import edu.umd.cs.findbugs.ba.obl.State;
 import edu.umd.cs.findbugs.ba.obl.StateSet;
 import edu.umd.cs.findbugs.ba.type.TypeDataflow;
@@ -84,7 +86,7 @@ import edu.umd.cs.findbugs.classfile.MethodDescriptor;
  *
  * @author David Hovemeyer
  */
-public class FindUnsatisfiedObligation extends CFGDetector {
+public class FindUnsatisfiedObligation extends CFGDetector implements ClassLocalDetector {
 
     private static final boolean DEBUG = SystemProperties.getBoolean("oa.debug");
 
@@ -244,6 +246,12 @@ public class FindUnsatisfiedObligation extends CFGDetector {
                     System.out.println("FindUnsatisifedObligation: " + methodDescriptor + ": " + e.getMessage());
                 }
                 return;
+            } catch (ObligationStateBudgetExceededException e) {
+                // Too many combinations of obligations to analyze this method.
+                if (DEBUG) {
+                    System.out.println("FindUnsatisifedObligation: " + methodDescriptor + ": " + e.getMessage());
+                }
+                return;
             }
 
             //
@@ -30,6 +30,7 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 
 /**
@@ -51,7 +52,7 @@ import edu.umd.cs.findbugs.StatelessDetector;
  *
  * @author David Hovemeyer
  */
-public class FindUselessControlFlow extends BytecodeScanningDetector implements StatelessDetector {
+public class FindUselessControlFlow extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     private static final BitSet ifInstructionSet = new BitSet();
 
     static {
@@ -49,6 +49,7 @@ import org.apache.bcel.generic.Type;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.StringAnnotation;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
@@ -75,7 +76,7 @@ import edu.umd.cs.findbugs.detect.FindNoSideEffectMethods.NoSideEffectMethodsDat
 /**
  * @author Tagir Valeev
  */
-public class FindUselessObjects implements Detector {
+public class FindUselessObjects implements Detector, ClassLocalDetector {
     private static final int MAX_ITERATIONS = 50;
     private final BugReporter reporter;
     private final NoSideEffectMethodsDatabase noSideEffectMethods;
@@ -24,6 +24,7 @@ import org.apache.bcel.classfile.Code;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.IntAnnotation;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.StringAnnotation;
@@ -40,7 +41,7 @@ import edu.umd.cs.findbugs.formatStringChecker.FormatterNumberFormatException;
 import edu.umd.cs.findbugs.formatStringChecker.IllegalFormatConversionException;
 import edu.umd.cs.findbugs.formatStringChecker.MissingFormatArgumentException;
 
-public class FormatStringChecker extends OpcodeStackDetector {
+public class FormatStringChecker extends OpcodeStackDetector implements ClassLocalDetector {
 
     final BugReporter bugReporter;
 
@@ -7,11 +7,12 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.util.ClassName;
 
-public class IDivResultCastToDouble extends BytecodeScanningDetector {
+public class IDivResultCastToDouble extends BytecodeScanningDetector implements ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("idcd.debug");
 
     //    private final BugReporter bugReporter;
@@ -23,6 +23,7 @@ import org.apache.bcel.classfile.Code;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack.Item;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
@@ -33,7 +34,7 @@ import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
  * @author Tom Truscott <trt@unx.sas.com>
  * @author Tagir Valeev
  */
-public class IncompatMask extends OpcodeStackDetector {
+public class IncompatMask extends OpcodeStackDetector implements ClassLocalDetector {
     private final BugReporter bugReporter;
 
     private int bitop = -1;
@@ -25,6 +25,7 @@ import org.apache.bcel.classfile.Method;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.LocalVariableAnnotation;
 import edu.umd.cs.findbugs.UseAnnotationDatabase;
@@ -39,7 +40,7 @@ import edu.umd.cs.findbugs.ba.jsr305.TypeQualifierValue;
 import edu.umd.cs.findbugs.classfile.ClassDescriptor;
 import edu.umd.cs.findbugs.classfile.DescriptorFactory;
 
-public class InconsistentAnnotations implements Detector, UseAnnotationDatabase {
+public class InconsistentAnnotations implements Detector, UseAnnotationDatabase, ClassLocalDetector {
 
     public final TypeQualifierValue<?> nonnullTypeQualifierValue;
 
@@ -24,6 +24,7 @@ import java.util.List;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.StringAnnotation;
 import edu.umd.cs.findbugs.ba.ClassContext;
@@ -36,7 +37,7 @@ import edu.umd.cs.findbugs.classfile.MethodDescriptor;
  *
  * @author Reto Merz
  */
-public class InefficientIndexOf extends OpcodeStackDetector {
+public class InefficientIndexOf extends OpcodeStackDetector implements ClassLocalDetector {
     private final BugReporter bugReporter;
 
     private static final List<MethodDescriptor> methods = Arrays.asList(
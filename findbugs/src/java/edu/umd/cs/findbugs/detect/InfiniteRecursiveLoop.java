@@ -24,6 +24,7 @@ import org.apache.bcel.generic.Type;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.SystemProperties;
@@ -31,7 +32,7 @@ import edu.umd.cs.findbugs.ba.XFactory;
 import edu.umd.cs.findbugs.ba.XMethod;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class InfiniteRecursiveLoop extends OpcodeStackDetector implements StatelessDetector {
+public class InfiniteRecursiveLoop extends OpcodeStackDetector implements StatelessDetector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
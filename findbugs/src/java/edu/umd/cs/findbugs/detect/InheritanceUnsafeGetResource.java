@@ -30,12 +30,13 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
 import edu.umd.cs.findbugs.ba.ch.Subtypes2;
 import edu.umd.cs.findbugs.classfile.ClassDescriptor;
 
-public class InheritanceUnsafeGetResource extends BytecodeScanningDetector implements StatelessDetector {
+public class InheritanceUnsafeGetResource extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
 
     private final BugReporter bugReporter;
 
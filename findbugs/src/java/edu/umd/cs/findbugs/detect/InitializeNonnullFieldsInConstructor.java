@@ -28,6 +28,7 @@ import org.apache.bcel.classfile.JavaClass;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.Priorities;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
@@ -36,7 +37,7 @@ import edu.umd.cs.findbugs.ba.XFactory;
 import edu.umd.cs.findbugs.ba.XField;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class InitializeNonnullFieldsInConstructor extends OpcodeStackDetector {
+public class InitializeNonnullFieldsInConstructor extends OpcodeStackDetector implements ClassLocalDetector {
 
     final BugReporter bugReporter;
 
@@ -25,12 +25,13 @@ import java.util.List;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.ba.XClass;
 import edu.umd.cs.findbugs.ba.XField;
 import edu.umd.cs.findbugs.ba.XMethod;
 import edu.umd.cs.findbugs.classfile.ClassDescriptor;
 
-public class InstantiateStaticClass extends BytecodeScanningDetector {
+public class InstantiateStaticClass extends BytecodeScanningDetector implements ClassLocalDetector {
     private final BugReporter bugReporter;
 
     public InstantiateStaticClass(BugReporter bugReporter) {
@@ -40,6 +40,7 @@ import org.apache.bcel.generic.ReturnInstruction;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.ByteCodePatternDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.ba.BasicBlock;
@@ -79,7 +80,7 @@ import edu.umd.cs.findbugs.classfile.Global;
  * @author David Hovemeyer
  */
 
-public final class LazyInit extends ByteCodePatternDetector implements StatelessDetector {
+public final class LazyInit extends ByteCodePatternDetector implements StatelessDetector, ClassLocalDetector {
     private final BugReporter bugReporter;
 
     private static final boolean DEBUG = SystemProperties.getBoolean("lazyinit.debug");
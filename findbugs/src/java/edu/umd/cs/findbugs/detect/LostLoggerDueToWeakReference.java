@@ -28,6 +28,7 @@ import org.apache.bcel.classfile.Code;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
@@ -43,7 +44,7 @@ import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
  * logger reference. That means that the garbage collector is free to reclaim
  * that memory, which means that the logger configuration is lost.
  */
-public class LostLoggerDueToWeakReference extends OpcodeStackDetector {
+public class LostLoggerDueToWeakReference extends OpcodeStackDetector implements ClassLocalDetector {
     private static final List<MethodDescriptor> methods = Arrays.asList(
             new MethodDescriptor("java/util/logging/Logger", "getLogger", "(Ljava/lang/String;)Ljava/util/logging/Logger;", true),
             new MethodDescriptor("java/util/logging/Logger", "getLogger", "(Ljava/lang/String;Ljava/lang/String;)Ljava/util/logging/Logger;", true));
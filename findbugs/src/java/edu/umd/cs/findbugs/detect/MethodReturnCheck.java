@@ -27,6 +27,7 @@ import org.apache.bcel.generic.Type;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.MethodAnnotation;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.OpcodeStack.Item;
@@ -53,7 +54,7 @@ import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
  *
  * @author David Hovemeyer
  */
-public class MethodReturnCheck extends OpcodeStackDetector implements UseAnnotationDatabase {
+public class MethodReturnCheck extends OpcodeStackDetector implements UseAnnotationDatabase, ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("mrc.debug");
 
     private static final int SCAN = 0;
@@ -27,11 +27,12 @@ import org.apache.bcel.classfile.Code;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Priorities;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 import edu.umd.cs.findbugs.charsets.UTF8;
 
-public class Noise extends OpcodeStackDetector {
+public class Noise extends OpcodeStackDetector implements ClassLocalDetector {
 
     class HashQueue {
         HashQueue(int size) throws NoSuchAlgorithmException {
@@ -20,13 +20,14 @@ package edu.umd.cs.findbugs.detect;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 
 /**
  * Methods with "Optional" return type should never return null.
  *
  * @author Andrey Loskutov
  */
-public class OptionalReturnNull extends TypeReturnNull {
+public class OptionalReturnNull extends TypeReturnNull implements ClassLocalDetector {
 
     public OptionalReturnNull(BugReporter bugReporter) {
         super(bugReporter);
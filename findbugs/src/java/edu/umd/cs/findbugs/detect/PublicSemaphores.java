@@ -26,6 +26,7 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.ba.ClassContext;
 
@@ -36,7 +37,7 @@ import edu.umd.cs.findbugs.ba.ClassContext;
  * defining synchronized methods is bad, but since that is so prevalent, don't
  * warn on that.
  */
-public class PublicSemaphores extends BytecodeScanningDetector implements StatelessDetector {
+public class PublicSemaphores extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     private static final int SEEN_NOTHING = 0;
 
     private static final int SEEN_ALOAD_0 = 1;
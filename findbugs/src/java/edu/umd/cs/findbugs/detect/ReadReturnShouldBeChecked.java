@@ -26,11 +26,12 @@ import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.ba.ch.Subtypes2;
 
-public class ReadReturnShouldBeChecked extends BytecodeScanningDetector implements StatelessDetector {
+public class ReadReturnShouldBeChecked extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
 
     boolean sawRead = false;
 
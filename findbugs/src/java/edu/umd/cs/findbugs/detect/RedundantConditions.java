@@ -35,6 +35,7 @@ import org.apache.bcel.generic.MethodGen;
 import edu.umd.cs.findbugs.BugAccumulator;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.StringAnnotation;
@@ -49,7 +50,7 @@ import edu.umd.cs.findbugs.classfile.engine.bcel.ValueRangeAnalysisFactory.Value
 /**
  * @author Tagir Valeev
  */
-public class RedundantConditions implements Detector {
+public class RedundantConditions implements Detector, ClassLocalDetector {
     private final BugAccumulator bugAccumulator;
     private final BugReporter bugReporter;
 
@@ -27,12 +27,13 @@ import org.apache.bcel.classfile.JavaClass;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.Detector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.visitclass.PreorderVisitor;
 
-public class RedundantInterfaces extends PreorderVisitor implements Detector, StatelessDetector {
+public class RedundantInterfaces extends PreorderVisitor implements Detector, StatelessDetector, ClassLocalDetector {
     private final BugReporter bugReporter;
 
     public RedundantInterfaces(BugReporter bugReporter) {
@@ -32,6 +32,7 @@ import org.objectweb.asm.Opcodes;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 import edu.umd.cs.findbugs.classfile.CheckedAnalysisException;
@@ -39,7 +40,7 @@ import edu.umd.cs.findbugs.classfile.Global;
 import edu.umd.cs.findbugs.detect.FindNoSideEffectMethods.MethodSideEffectStatus;
 import edu.umd.cs.findbugs.detect.FindNoSideEffectMethods.NoSideEffectMethodsDatabase;
 
-public class RepeatedConditionals extends OpcodeStackDetector {
+public class RepeatedConditionals extends OpcodeStackDetector implements ClassLocalDetector {
     BugReporter bugReporter;
 
     private final NoSideEffectMethodsDatabase noSideEffectMethods;
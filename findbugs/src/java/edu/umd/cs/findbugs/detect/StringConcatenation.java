@@ -29,6 +29,7 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.visitclass.DismantleBytecode;
@@ -41,7 +42,7 @@ import edu.umd.cs.findbugs.visitclass.DismantleBytecode;
  * @author Dave Brosius
  * @author William Pugh
  */
-public class StringConcatenation extends BytecodeScanningDetector implements StatelessDetector {
+public class StringConcatenation extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     private static final boolean DEBUG = SystemProperties.getBoolean("sbsc.debug");
 
     static final int SEEN_NOTHING = 0;
@@ -28,6 +28,7 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.visitclass.LVTHelper;
 
@@ -38,7 +39,7 @@ import edu.umd.cs.findbugs.visitclass.LVTHelper;
  *
  * @author Dave Brosius
  */
-public class SuperfluousInstanceOf extends BytecodeScanningDetector implements StatelessDetector {
+public class SuperfluousInstanceOf extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
 
     private static final int SEEN_NOTHING = 0;
 
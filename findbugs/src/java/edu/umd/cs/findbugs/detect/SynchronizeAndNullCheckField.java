@@ -24,6 +24,7 @@ import org.apache.bcel.classfile.Method;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.FieldAnnotation;
 
 /*
@@ -34,7 +35,7 @@ import edu.umd.cs.findbugs.FieldAnnotation;
  * Author: Kristin Stephens
  */
 
-public class SynchronizeAndNullCheckField extends BytecodeScanningDetector {
+public class SynchronizeAndNullCheckField extends BytecodeScanningDetector implements ClassLocalDetector {
 
     BugReporter bugReporter;
 
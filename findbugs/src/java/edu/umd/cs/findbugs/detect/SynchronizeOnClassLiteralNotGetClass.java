@@ -26,12 +26,13 @@ import org.apache.bcel.classfile.Code;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.ClassAnnotation;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.ba.AnalysisContext;
 import edu.umd.cs.findbugs.ba.ch.Subtypes2;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 import edu.umd.cs.findbugs.classfile.ClassDescriptor;
 
-public class SynchronizeOnClassLiteralNotGetClass extends OpcodeStackDetector {
+public class SynchronizeOnClassLiteralNotGetClass extends OpcodeStackDetector implements ClassLocalDetector {
 
     BugReporter bugReporter;
 
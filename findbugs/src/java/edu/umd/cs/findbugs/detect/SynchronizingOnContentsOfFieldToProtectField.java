@@ -24,12 +24,13 @@ import org.apache.bcel.classfile.CodeException;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.OpcodeStack;
 import edu.umd.cs.findbugs.Priorities;
 import edu.umd.cs.findbugs.ba.XField;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class SynchronizingOnContentsOfFieldToProtectField extends OpcodeStackDetector {
+public class SynchronizingOnContentsOfFieldToProtectField extends OpcodeStackDetector implements ClassLocalDetector {
 
     final BugReporter bugReporter;
 
@@ -27,6 +27,7 @@ import org.objectweb.asm.Opcodes;
 
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.MethodAnnotation;
 import edu.umd.cs.findbugs.Priorities;
 import edu.umd.cs.findbugs.asm.AbstractFBMethodVisitor;
@@ -37,7 +38,7 @@ import edu.umd.cs.findbugs.asm.ClassNodeDetector;
  *
  * @author David Hovemeyer
  */
-public class TestASM extends ClassNodeDetector {
+public class TestASM extends ClassNodeDetector implements ClassLocalDetector {
 
     public TestASM(BugReporter bugReporter) {
         super(bugReporter);
@@ -22,9 +22,10 @@ package edu.umd.cs.findbugs.detect;
 import org.apache.bcel.classfile.Code;
 
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class TestingGround extends OpcodeStackDetector {
+public class TestingGround extends OpcodeStackDetector implements ClassLocalDetector {
 
     //    final BugReporter bugReporter;
 
@@ -22,10 +22,11 @@ package edu.umd.cs.findbugs.detect;
 import org.apache.bcel.classfile.Code;
 
 import edu.umd.cs.findbugs.BugReporter;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import edu.umd.cs.findbugs.bcel.OpcodeStackDetector;
 
-public class TestingGround2 extends OpcodeStackDetector {
+public class TestingGround2 extends OpcodeStackDetector implements ClassLocalDetector {
 
     BugReporter bugReporter;
 
@@ -33,6 +33,7 @@ import org.apache.bcel.classfile.ConstantLong;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.ba.ClassContext;
 
@@ -43,7 +44,7 @@ import edu.umd.cs.findbugs.ba.ClassContext;
  *
  * @author Dave Brosius
  */
-public class UnnecessaryMath extends BytecodeScanningDetector implements StatelessDetector {
+public class UnnecessaryMath extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
     static final int SEEN_NOTHING = 0;
 
     static final int SEEN_DCONST = 1;
@@ -35,11 +35,12 @@ import org.apache.bcel.generic.Type;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 import edu.umd.cs.findbugs.ba.ClassContext;
 import edu.umd.cs.findbugs.internalAnnotations.DottedClassName;
 
-public class UselessSubclassMethod extends BytecodeScanningDetector implements StatelessDetector {
+public class UselessSubclassMethod extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
 
     enum State {
         SEEN_NOTHING, SEEN_PARM, SEEN_LAST_PARM, SEEN_INVOKE, SEEN_RETURN, SEEN_INVALID
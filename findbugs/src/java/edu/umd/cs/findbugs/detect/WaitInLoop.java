@@ -24,9 +24,10 @@ import org.apache.bcel.classfile.Code;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.BugReporter;
 import edu.umd.cs.findbugs.BytecodeScanningDetector;
+import edu.umd.cs.findbugs.ClassLocalDetector;
 import edu.umd.cs.findbugs.StatelessDetector;
 
-public class WaitInLoop extends BytecodeScanningDetector implements StatelessDetector {
+public class WaitInLoop extends BytecodeScanningDetector implements StatelessDetector, ClassLocalDetector {
 
     boolean sawWait = false;
 
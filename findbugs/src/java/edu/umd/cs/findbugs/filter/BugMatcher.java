@@ -55,6 +55,18 @@ public class BugMatcher implements Matcher {
         this.categories = new StringSetMatch(categories);
     }
 
+    StringSetMatch getCodes() {
+        return codes;
+    }
+
+    StringSetMatch getPatterns() {
+        return patterns;
+    }
+
+    StringSetMatch getCategories() {
+        return categories;
+    }
+
     @Override
     public boolean match(BugInstance bugInstance) {
         boolean result1 = codes.match(bugInstance.getAbbrev());
@@ -21,6 +21,8 @@ package edu.umd.cs.findbugs.filter;
 
 import java.io.IOException;
 
+import javax.annotation.CheckForNull;
+
 import edu.umd.cs.findbugs.BugAnnotation;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.ClassAnnotation;
@@ -49,6 +51,15 @@ public class ClassMatcher implements Matcher {
         this.role = role;
     }
 
+    NameMatch getClassName() {
+        return className;
+    }
+
+    @CheckForNull
+    String getRole() {
+        return role;
+    }
+
     @Override
     public boolean match(BugInstance bugInstance) {
         ClassAnnotation classAnnotation = bugInstance.getPrimaryClass();
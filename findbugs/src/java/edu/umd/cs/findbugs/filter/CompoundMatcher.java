@@ -22,14 +22,53 @@ package edu.umd.cs.findbugs.filter;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Set;
 
 import edu.umd.cs.findbugs.xml.XMLOutput;
 
 public abstract class CompoundMatcher implements Matcher {
     protected LinkedHashSet<Matcher> children = new LinkedHashSet<Matcher>();
 
+    /** The compound matchers this matcher is a child of */
+    private final Set<CompoundMatcher> parents = Collections.newSetFromMap(new IdentityHashMap<CompoundMatcher, Boolean>());
+
+    /**
+     * Number of changes made to the children of this matcher and of the
+     * compound matchers below it
+     */
+    private volatile int modificationCount;
+
+    /**
+     * Get the number of changes made to the tree of matchers rooted here, so
+     * that anything computed from the tree (see {@link FilterIndex}) can tell
+     * whether it is still up to date.
+     */
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    private void modified() {
+        modificationCount++;
+        for (CompoundMatcher parent : parents) {
+            parent.modified();
+        }
+    }
+
+    private void linked(Matcher child) {
+        if (child instanceof CompoundMatcher) {
+            ((CompoundMatcher) child).parents.add(this);
+        }
+    }
+
+    private void unlinked(Matcher child) {
+        if (child instanceof CompoundMatcher) {
+            ((CompoundMatcher) child).parents.remove(this);
+        }
+    }
+
     @Override
     public int hashCode() {
         int result = this.getClass().hashCode();
@@ -56,15 +95,25 @@ public abstract class CompoundMatcher implements Matcher {
     }
 
     public void addChild(Matcher child) {
-        children.add(child);
+        if (children.add(child)) {
+            linked(child);
+        }
+        modified();
     }
 
     protected void removeChild(Matcher child) {
-        children.remove(child);
+        if (children.remove(child)) {
+            unlinked(child);
+        }
+        modified();
     }
 
     protected void clear() {
+        for (Matcher child : children) {
+            unlinked(child);
+        }
         children.clear();
+        modified();
     }
 
     public Collection<Matcher> getChildren() {
@@ -72,7 +121,28 @@ public abstract class CompoundMatcher implements Matcher {
     }
 
     public Iterator<Matcher> childIterator() {
-        return children.iterator();
+        final Iterator<Matcher> i = children.iterator();
+        return new Iterator<Matcher>() {
+            private Matcher last;
+
+            @Override
+            public boolean hasNext() {
+                return i.hasNext();
+            }
+
+            @Override
+            public Matcher next() {
+                last = i.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                i.remove();
+                unlinked(last);
+                modified();
+            }
+        };
     }
 
     public void writeChildrenXML(XMLOutput xmlOutput) throws IOException {
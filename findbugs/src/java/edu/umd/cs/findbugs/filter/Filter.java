@@ -52,8 +52,15 @@ import edu.umd.cs.findbugs.xml.XMLOutput;
 public class Filter extends OrMatcher {
     private static final boolean DEBUG = SystemProperties.getBoolean("filter.debug");
 
+    /**
+     * Filters with fewer children than this are matched by trying each child.
+     */
+    private static final int MIN_CHILDREN_TO_INDEX = SystemProperties.getInt("filter.minChildrenToIndex", 8);
+
     private final IdentityHashMap<Matcher, Boolean> disabled = new IdentityHashMap<Matcher, Boolean>();
 
+    private volatile FilterIndex index;
+
     /**
      * Constructor for empty filter
      *
@@ -183,6 +190,13 @@ public class Filter extends OrMatcher {
 
     @Override
     public boolean match(BugInstance bugInstance) {
+        if (numberChildren() >= MIN_CHILDREN_TO_INDEX) {
+            FilterIndex index = getIndex();
+            Boolean result = index.match(this, bugInstance);
+            if (result != null) {
+                return result.booleanValue();
+            }
+        }
         Iterator<Matcher> i = childIterator();
         while (i.hasNext()) {
             Matcher child = i.next();
@@ -193,6 +207,22 @@ public class Filter extends OrMatcher {
         return false;
     }
 
+    /**
+     * Get the index of the children, building it again if any matcher in
+     * this filter has changed since it was built.
+     */
+    private FilterIndex getIndex() {
+        // Read the count before looking at the matchers, so that changes made
+        // while the index is being built cause it to be built again next time
+        int modificationCount = getModificationCount();
+        FilterIndex result = index;
+        if (result == null || result.getModificationCount() != modificationCount) {
+            result = new FilterIndex(getChildren(), modificationCount);
+            index = result;
+        }
+        return result;
+    }
+
     /**
      * Parse and load the given filter file.
      *
@@ -0,0 +1,293 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2005, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.filter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.BugInstance;
+import edu.umd.cs.findbugs.ClassAnnotation;
+
+/**
+ * An index of the children of a {@link Filter}, used to find the few
+ * children which can possibly match a bug without trying all of them.
+ * <p>
+ * For each child we look for a condition every bug it matches must satisfy:
+ * the primary class has a given name, or starts with a given prefix (the
+ * literal start of a class name regex), or the bug has one of a set of
+ * patterns, codes or categories. The children are then indexed by that
+ * condition, in hash maps and a prefix trie. To match a bug, the candidate
+ * children are looked up, and then tried in their original order exactly as
+ * Filter would try them, so the result (and the side effects of AndMatcher)
+ * is the same as trying every child.
+ */
+final class FilterIndex {
+
+    private static final int NO_CONDITION = 0;
+
+    private static final int CLASS_PREFIX = 1;
+
+    private static final int BUG = 2;
+
+    private static final int CLASS_NAME = 3;
+
+    /**
+     * The condition found for a matcher; conditions with a higher kind are
+     * more selective.
+     */
+    private static class Condition {
+        static final Condition NONE = new Condition(NO_CONDITION, null, null);
+
+        final int kind;
+
+        final String className;
+
+        final BugMatcher bugMatcher;
+
+        Condition(int kind, String className, BugMatcher bugMatcher) {
+            this.kind = kind;
+            this.className = className;
+            this.bugMatcher = bugMatcher;
+        }
+    }
+
+    /**
+     * A node of the trie of class name prefixes.
+     */
+    private static class PrefixNode {
+        final Map<Character, PrefixNode> children = new HashMap<Character, PrefixNode>();
+
+        final List<Integer> matchers = new ArrayList<Integer>();
+    }
+
+    private final int modificationCount;
+
+    private final Matcher[] matchers;
+
+    private final BitSet unconditional = new BitSet();
+
+    private final Map<String, List<Integer>> byClassName = new HashMap<String, List<Integer>>();
+
+    private final PrefixNode byClassPrefix = new PrefixNode();
+
+    private final Map<String, List<Integer>> byPattern = new HashMap<String, List<Integer>>();
+
+    private final Map<String, List<Integer>> byCode = new HashMap<String, List<Integer>>();
+
+    private final Map<String, List<Integer>> byCategory = new HashMap<String, List<Integer>>();
+
+    private final boolean usesClassName;
+
+    FilterIndex(Collection<Matcher> children, int modificationCount) {
+        this.modificationCount = modificationCount;
+        this.matchers = children.toArray(new Matcher[children.size()]);
+        boolean usesClassName = false;
+        for (int i = 0; i < matchers.length; i++) {
+            Condition condition = getCondition(matchers[i]);
+            switch (condition.kind) {
+            case CLASS_NAME:
+                add(byClassName, condition.className, i);
+                usesClassName = true;
+                break;
+            case CLASS_PREFIX:
+                PrefixNode node = byClassPrefix;
+                for (int j = 0; j < condition.className.length(); j++) {
+                    char c = condition.className.charAt(j);
+                    PrefixNode next = node.children.get(c);
+                    if (next == null) {
+                        next = new PrefixNode();
+                        node.children.put(c, next);
+                    }
+                    node = next;
+                }
+                node.matchers.add(i);
+                usesClassName = true;
+                break;
+            case BUG:
+                BugMatcher bugMatcher = condition.bugMatcher;
+                addAll(byCode, bugMatcher.getCodes().getStrings(), i);
+                addAll(byPattern, bugMatcher.getPatterns().getStrings(), i);
+                addAll(byCategory, bugMatcher.getCategories().getStrings(), i);
+                break;
+            default:
+                unconditional.set(i);
+                break;
+            }
+        }
+        this.usesClassName = usesClassName;
+    }
+
+    /**
+     * @return the modification count of the matchers when the index was built
+     * @see CompoundMatcher#getModificationCount()
+     */
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Match a bug against the indexed children, ignoring the disabled ones.
+     *
+     * @return true if some enabled child matches, false if none does, or null
+     *         if the bug can't be looked up in the index (it has no primary
+     *         class)
+     */
+    Boolean match(Filter filter, BugInstance bugInstance) {
+        BitSet candidates = (BitSet) unconditional.clone();
+        if (usesClassName) {
+            ClassAnnotation primaryClass = bugInstance.getPrimaryClass();
+            if (primaryClass == null) {
+                return null;
+            }
+            String className = primaryClass.getClassName();
+            addCandidates(candidates, byClassName.get(className));
+            PrefixNode node = byClassPrefix;
+            for (int j = 0; node != null; j++) {
+                addCandidates(candidates, node.matchers);
+                node = j < className.length() ? node.children.get(className.charAt(j)) : null;
+            }
+        }
+        if (!byCode.isEmpty()) {
+            addCandidates(candidates, byCode.get(bugInstance.getAbbrev().trim()));
+        }
+        if (!byPattern.isEmpty()) {
+            addCandidates(candidates, byPattern.get(bugInstance.getType().trim()));
+        }
+        if (!byCategory.isEmpty()) {
+            addCandidates(candidates, byCategory.get(bugInstance.getBugPattern().getCategory().trim()));
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Matcher child = matchers[i];
+            if (filter.isEnabled(child) && child.match(bugInstance)) {
+                return Boolean.TRUE;
+            }
+        }
+        return Boolean.FALSE;
+    }
+
+    private static void addCandidates(BitSet candidates, List<Integer> list) {
+        if (list != null) {
+            for (Integer i : list) {
+                candidates.set(i);
+            }
+        }
+    }
+
+    private static void add(Map<String, List<Integer>> map, String key, int i) {
+        List<Integer> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<Integer>(1);
+            map.put(key, list);
+        }
+        list.add(i);
+    }
+
+    private static void addAll(Map<String, List<Integer>> map, Set<String> keys, int i) {
+        for (String key : keys) {
+            add(map, key, i);
+        }
+    }
+
+    /**
+     * Get the most selective condition which every bug matched by the given
+     * matcher satisfies.
+     */
+    private static Condition getCondition(Matcher matcher) {
+        if (matcher instanceof ClassMatcher) {
+            ClassMatcher classMatcher = (ClassMatcher) matcher;
+            String role = classMatcher.getRole();
+            String spec = classMatcher.getClassName().getSpec();
+            if ((role != null && !"".equals(role)) || spec == null) {
+                return Condition.NONE;
+            }
+            if (!spec.startsWith("~")) {
+                return new Condition(CLASS_NAME, spec, null);
+            }
+            String prefix = getLiteralPrefix(spec.substring(1));
+            if (prefix.length() == 0) {
+                return Condition.NONE;
+            }
+            return new Condition(CLASS_PREFIX, prefix, null);
+        } else if (matcher instanceof BugMatcher) {
+            return new Condition(BUG, null, (BugMatcher) matcher);
+        } else if (matcher instanceof AndMatcher) {
+            // Every condition of a child is a condition of the conjunction
+            Condition best = Condition.NONE;
+            for (Matcher child : ((AndMatcher) matcher).getChildren()) {
+                Condition condition = getCondition(child);
+                if (condition.kind > best.kind) {
+                    best = condition;
+                }
+            }
+            return best;
+        } else if (matcher instanceof OrMatcher && !(matcher instanceof Filter)) {
+            Collection<Matcher> children = ((OrMatcher) matcher).getChildren();
+            if (children.size() == 1) {
+                return getCondition(children.iterator().next());
+            }
+        }
+        return Condition.NONE;
+    }
+
+    /**
+     * Get a string which every string matched by the given regular expression
+     * starts with, by taking the literal characters at its start.
+     */
+    static String getLiteralPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            char literal;
+            int next;
+            if (c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                literal = regex.charAt(i + 1);
+                next = i + 2;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '/' || c == '<' || c == '>') {
+                literal = c;
+                next = i + 1;
+            } else {
+                break;
+            }
+            if (next < regex.length()) {
+                char quantifier = regex.charAt(next);
+                if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+                    // The literal is optional
+                    break;
+                }
+                if (quantifier == '+') {
+                    prefix.append(literal);
+                    break;
+                }
+            }
+            prefix.append(literal);
+            i = next;
+        }
+        return prefix.toString();
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.umd.cs.findbugs.charsets.UTF8;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+
+/**
+ * Cost of each detector in each analysis pass: wall time, CPU time and
+ * allocated bytes of the calling thread (as reported by the
+ * {@link ThreadMXBean}, if the JVM supports it), the number of classes
+ * visited and the number of methods they declare. The most expensive
+ * (detector, class) pairs are kept too.
+ * <p>
+ * Unlike {@link Profiler}, the cost of a detector includes the analyses
+ * (CFGs, dataflow, ...) computed on its behalf while it visits a class.
+ * <p>
+ * Thread safe: several analysis threads may record into the same instance.
+ */
+public class DetectorMetrics {
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static final boolean CPU_TIME_SUPPORTED;
+
+    private static final AllocatedBytesWrapper ALLOCATED_BYTES;
+
+    static {
+        boolean cpuTimeSupported = false;
+        try {
+            if (THREAD_BEAN.isCurrentThreadCpuTimeSupported()) {
+                if (!THREAD_BEAN.isThreadCpuTimeEnabled()) {
+                    THREAD_BEAN.setThreadCpuTimeEnabled(true);
+                }
+                cpuTimeSupported = true;
+            }
+        } catch (RuntimeException e) {
+            assert true;
+        }
+        CPU_TIME_SUPPORTED = cpuTimeSupported;
+
+        AllocatedBytesWrapper allocatedBytes = null;
+        try {
+            allocatedBytes = new AllocatedBytesWrapper();
+            if (!allocatedBytes.isSupported()) {
+                allocatedBytes = null;
+            }
+        } catch (RuntimeException e) {
+            assert true;
+        } catch (Error e) {
+            assert true;
+        }
+        ALLOCATED_BYTES = allocatedBytes;
+    }
+
+    /**
+     * Wrapper so that possible NoClassDefFoundError can be caught.
+     * Instantiating this class will throw a NoClassDefFoundError or a
+     * ClassCastException on a JRE which is not derived from the Sun JRE.
+     */
+    static class AllocatedBytesWrapper {
+        final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+
+        boolean isSupported() {
+            if (!sunBean.isThreadAllocatedMemorySupported()) {
+                return false;
+            }
+            if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return true;
+        }
+
+        long getCurrentThreadAllocatedBytes() {
+            return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+
+    /**
+     * Costs measured on the current thread since the start of a
+     * measurement.
+     */
+    public static class Sample {
+        final long startWallTime;
+
+        final long startCpuTime;
+
+        final long startAllocatedBytes;
+
+        Sample() {
+            startWallTime = System.nanoTime();
+            startCpuTime = CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() : 0;
+            startAllocatedBytes = ALLOCATED_BYTES != null ? ALLOCATED_BYTES.getCurrentThreadAllocatedBytes() : 0;
+        }
+    }
+
+    /**
+     * Total cost of one detector in one pass.
+     */
+    public static class DetectorCost {
+        private final int pass;
+
+        private final String detectorName;
+
+        final LongAdder classes = new LongAdder();
+
+        final LongAdder declaredMethods = new LongAdder();
+
+        final LongAdder wallTime = new LongAdder();
+
+        final LongAdder cpuTime = new LongAdder();
+
+        final LongAdder allocatedBytes = new LongAdder();
+
+        DetectorCost(int pass, String detectorName) {
+            this.pass = pass;
+            this.detectorName = detectorName;
+        }
+
+        public int getPass() {
+            return pass;
+        }
+
+        public String getDetectorName() {
+            return detectorName;
+        }
+
+        public long getClasses() {
+            return classes.sum();
+        }
+
+        public long getDeclaredMethods() {
+            return declaredMethods.sum();
+        }
+
+        /** @return wall time in nanoseconds */
+        public long getWallTime() {
+            return wallTime.sum();
+        }
+
+        /** @return CPU time in nanoseconds, or 0 if not measured */
+        public long getCpuTime() {
+            return cpuTime.sum();
+        }
+
+        /** @return allocated bytes, or 0 if not measured */
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+    }
+
+    /**
+     * Cost of one detector visiting one class.
+     */
+    public static class ClassCost {
+        private final int pass;
+
+        private final String detectorName;
+
+        private final String className;
+
+        private final int declaredMethods;
+
+        private final long wallTime;
+
+        private final long cpuTime;
+
+        private final long allocatedBytes;
+
+        ClassCost(int pass, String detectorName, String className, int declaredMethods, long wallTime, long cpuTime,
+                long allocatedBytes) {
+            this.pass = pass;
+            this.detectorName = detectorName;
+            this.className = className;
+            this.declaredMethods = declaredMethods;
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public int getPass() {
+            return pass;
+        }
+
+        public String getDetectorName() {
+            return detectorName;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public int getDeclaredMethods() {
+            return declaredMethods;
+        }
+
+        /** @return wall time in nanoseconds */
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        /** @return CPU time in nanoseconds, or 0 if not measured */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        /** @return allocated bytes, or 0 if not measured */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        long cost() {
+            return DetectorMetrics.cost(wallTime, cpuTime);
+        }
+    }
+
+    private static final Comparator<ClassCost> CLASS_COST_COMPARATOR = new Comparator<ClassCost>() {
+        @Override
+        public int compare(ClassCost c1, ClassCost c2) {
+            return Long.compare(c1.cost(), c2.cost());
+        }
+    };
+
+    private static final Comparator<DetectorCost> DETECTOR_COST_COMPARATOR = new Comparator<DetectorCost>() {
+        @Override
+        public int compare(DetectorCost c1, DetectorCost c2) {
+            int cmp = Long.compare(cost(c2.getWallTime(), c2.getCpuTime()), cost(c1.getWallTime(), c1.getCpuTime()));
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = Integer.compare(c1.pass, c2.pass);
+            if (cmp != 0) {
+                return cmp;
+            }
+            return c1.detectorName.compareTo(c2.detectorName);
+        }
+    };
+
+    private final ConcurrentMap<String, DetectorCost> detectorCostMap = new ConcurrentHashMap<String, DetectorCost>();
+
+    private final int maxSlowest;
+
+    /** The slowest (detector, class) pairs, cheapest first */
+    private final PriorityQueue<ClassCost> slowest;
+
+    /**
+     * @param maxSlowest
+     *            number of slowest (detector, class) pairs to keep
+     */
+    public DetectorMetrics(int maxSlowest) {
+        this.maxSlowest = maxSlowest;
+        this.slowest = new PriorityQueue<ClassCost>(Math.max(1, maxSlowest), CLASS_COST_COMPARATOR);
+    }
+
+    /**
+     * @return true if CPU time is measured
+     */
+    public static boolean isCpuTimeMeasured() {
+        return CPU_TIME_SUPPORTED;
+    }
+
+    /**
+     * @return true if allocated bytes are measured
+     */
+    public static boolean isAllocationMeasured() {
+        return ALLOCATED_BYTES != null;
+    }
+
+    /**
+     * Start measuring on the current thread.
+     *
+     * @return the sample to pass to
+     *         {@link #end(Sample, int, String, ClassDescriptor, int)}
+     */
+    public Sample start() {
+        return new Sample();
+    }
+
+    /**
+     * Record the cost of a detector visiting a class, measured on the
+     * current thread since the sample was started.
+     *
+     * @param sample
+     *            the sample returned by {@link #start()} on this thread
+     * @param pass
+     *            the analysis pass
+     * @param detectorName
+     *            name of the detector class
+     * @param classDescriptor
+     *            the class visited
+     * @param declaredMethods
+     *            the number of methods declared by the class
+     */
+    public void end(Sample sample, int pass, String detectorName, ClassDescriptor classDescriptor, int declaredMethods) {
+        long wallTime = System.nanoTime() - sample.startWallTime;
+        long cpuTime = CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() - sample.startCpuTime : 0;
+        long allocatedBytes = ALLOCATED_BYTES != null ? ALLOCATED_BYTES.getCurrentThreadAllocatedBytes()
+                - sample.startAllocatedBytes : 0;
+        record(pass, detectorName, classDescriptor, declaredMethods, wallTime, cpuTime, allocatedBytes);
+    }
+
+    /**
+     * Record the cost of a detector visiting a class, once measured.
+     *
+     * @param wallTime
+     *            wall time in nanoseconds
+     * @param cpuTime
+     *            CPU time in nanoseconds, or 0 if not measured
+     * @param allocatedBytes
+     *            allocated bytes, or 0 if not measured
+     */
+    void record(int pass, String detectorName, ClassDescriptor classDescriptor, int declaredMethods, long wallTime,
+            long cpuTime, long allocatedBytes) {
+        String key = pass + ":" + detectorName;
+        DetectorCost detectorCost = detectorCostMap.get(key);
+        if (detectorCost == null) {
+            detectorCost = new DetectorCost(pass, detectorName);
+            DetectorCost existing = detectorCostMap.putIfAbsent(key, detectorCost);
+            if (existing != null) {
+                detectorCost = existing;
+            }
+        }
+        detectorCost.classes.increment();
+        detectorCost.declaredMethods.add(declaredMethods);
+        detectorCost.wallTime.add(wallTime);
+        detectorCost.cpuTime.add(cpuTime);
+        detectorCost.allocatedBytes.add(allocatedBytes);
+
+        if (maxSlowest <= 0) {
+            return;
+        }
+        ClassCost classCost = new ClassCost(pass, detectorName, classDescriptor.toDottedClassName(), declaredMethods,
+                wallTime, cpuTime, allocatedBytes);
+        synchronized (slowest) {
+            if (slowest.size() < maxSlowest) {
+                slowest.add(classCost);
+            } else if (CLASS_COST_COMPARATOR.compare(classCost, slowest.peek()) > 0) {
+                slowest.poll();
+                slowest.add(classCost);
+            }
+        }
+    }
+
+    /**
+     * @return the cost of each detector in each pass, most expensive first
+     */
+    public List<DetectorCost> getDetectorCosts() {
+        List<DetectorCost> result = new ArrayList<DetectorCost>(detectorCostMap.values());
+        Collections.sort(result, DETECTOR_COST_COMPARATOR);
+        return result;
+    }
+
+    /**
+     * @return the slowest (detector, class) pairs, slowest first
+     */
+    public List<ClassCost> getSlowestClasses() {
+        List<ClassCost> result;
+        synchronized (slowest) {
+            result = new ArrayList<ClassCost>(slowest);
+        }
+        Collections.sort(result, Collections.reverseOrder(CLASS_COST_COMPARATOR));
+        return result;
+    }
+
+    /**
+     * Write the metrics to a file, as CSV if the file name ends with ".csv",
+     * and as JSON otherwise.
+     *
+     * @param file
+     *            the file
+     * @throws IOException
+     */
+    public void write(File file) throws IOException {
+        PrintWriter out = UTF8.printWriter(file);
+        try {
+            if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".csv")) {
+                writeCSV(out);
+            } else {
+                writeJSON(out);
+            }
+        } finally {
+            out.close();
+        }
+        if (out.checkError()) {
+            throw new IOException("Error writing " + file);
+        }
+    }
+
+    /**
+     * Write the metrics as CSV: one row per detector and pass (kind
+     * "detector"), followed by one row per slow (detector, class) pair (kind
+     * "class"). Times are in nanoseconds.
+     */
+    public void writeCSV(PrintWriter out) {
+        out.println("kind,pass,detector,class,classes,declaredMethods,wallTimeNanos,cpuTimeNanos,allocatedBytes");
+        for (DetectorCost c : getDetectorCosts()) {
+            out.println("detector," + c.getPass() + "," + csvQuote(c.getDetectorName()) + ",," + c.getClasses() + ","
+                    + c.getDeclaredMethods() + "," + c.getWallTime() + "," + c.getCpuTime() + "," + c.getAllocatedBytes());
+        }
+        for (ClassCost c : getSlowestClasses()) {
+            out.println("class," + c.getPass() + "," + csvQuote(c.getDetectorName()) + "," + csvQuote(c.getClassName()) + ",1,"
+                    + c.getDeclaredMethods() + "," + c.getWallTime() + "," + c.getCpuTime() + "," + c.getAllocatedBytes());
+        }
+    }
+
+    /**
+     * Write the metrics as a JSON object. Times are in nanoseconds.
+     */
+    public void writeJSON(PrintWriter out) {
+        out.println("{");
+        out.println("  \"cpuTimeMeasured\": " + isCpuTimeMeasured() + ",");
+        out.println("  \"allocationMeasured\": " + isAllocationMeasured() + ",");
+        out.println("  \"detectors\": [");
+        List<DetectorCost> detectorCosts = getDetectorCosts();
+        for (int i = 0; i < detectorCosts.size(); i++) {
+            DetectorCost c = detectorCosts.get(i);
+            out.print("    {\"pass\": " + c.getPass() + ", \"detector\": " + jsonQuote(c.getDetectorName()) + ", \"classes\": "
+                    + c.getClasses() + ", \"declaredMethods\": " + c.getDeclaredMethods() + ", \"wallTimeNanos\": " + c.getWallTime()
+                    + ", \"cpuTimeNanos\": " + c.getCpuTime() + ", \"allocatedBytes\": " + c.getAllocatedBytes() + "}");
+            out.println(i + 1 < detectorCosts.size() ? "," : "");
+        }
+        out.println("  ],");
+        out.println("  \"slowestClasses\": [");
+        List<ClassCost> classCosts = getSlowestClasses();
+        for (int i = 0; i < classCosts.size(); i++) {
+            ClassCost c = classCosts.get(i);
+            out.print("    {\"pass\": " + c.getPass() + ", \"detector\": " + jsonQuote(c.getDetectorName()) + ", \"class\": "
+                    + jsonQuote(c.getClassName()) + ", \"declaredMethods\": " + c.getDeclaredMethods() + ", \"wallTimeNanos\": "
+                    + c.getWallTime() + ", \"cpuTimeNanos\": " + c.getCpuTime() + ", \"allocatedBytes\": "
+                    + c.getAllocatedBytes() + "}");
+            out.println(i + 1 < classCosts.size() ? "," : "");
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    /**
+     * The cost used to rank: CPU time if measured, wall time otherwise.
+     */
+    static long cost(long wallTime, long cpuTime) {
+        return CPU_TIME_SUPPORTED ? cpuTime : wallTime;
+    }
+
+    static String csvQuote(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    static String jsonQuote(String s) {
+        StringBuilder buf = new StringBuilder(s.length() + 2);
+        buf.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.append('\\').append(c);
+            } else if (c < 0x20) {
+                buf.append(String.format("\\u%04x", Integer.valueOf(c)));
+            } else {
+                buf.append(c);
+            }
+        }
+        buf.append('"');
+        return buf.toString();
+    }
+}
@@ -47,7 +47,12 @@ public class Profiler implements XMLWriteable {
     final static boolean MAX_CONTEXT = SystemProperties.getBoolean("findbugs.profiler.maxcontext");
 
     public Profiler() {
-        startTimes = new Stack<Clock>();
+        startTimes = new ThreadLocal<Stack<Clock>>() {
+            @Override
+            protected Stack<Clock> initialValue() {
+                return new Stack<Clock>();
+            }
+        };
         profile = new ConcurrentHashMap<Class<?>, Profile>();
         if (REPORT) {
             System.err.println("Profiling activated");
@@ -121,6 +126,11 @@ public class Profiler implements XMLWriteable {
 
         final AtomicLong totalSquareMicroseconds = new AtomicLong();
 
+        /** sum of the counts recorded, such as states of a dataflow analysis */
+        final AtomicLong totalCount = new AtomicLong();
+
+        final AtomicLong maxCount = new AtomicLong();
+
         private final String className;
 
         Object maxContext;
@@ -147,10 +157,26 @@ public class Profiler implements XMLWriteable {
             totalSquareMicroseconds.addAndGet(microseconds * microseconds);
         }
 
+        public void handleCount(long count) {
+            totalCount.addAndGet(count);
+            long oldMax = maxCount.get();
+            while (count > oldMax && !maxCount.compareAndSet(oldMax, count)) {
+                oldMax = maxCount.get();
+            }
+        }
+
         public long getTotalTime() {
             return totalTime.get();
         }
 
+        public long getTotalCount() {
+            return totalCount.get();
+        }
+
+        public long getMaxCount() {
+            return maxCount.get();
+        }
+
         /**
          * @param xmlOutput
          * @throws IOException
@@ -181,6 +207,10 @@ public class Profiler implements XMLWriteable {
                     xmlOutput.addAttribute("maxContext", String.valueOf(maxContext));
                 }
                 xmlOutput.addAttribute("standardDeviationMircosecondsPerInvocation", String.valueOf(timeStandardDeviation));
+                if (totalCount.get() > 0) {
+                    xmlOutput.addAttribute("totalCount", String.valueOf(totalCount.get()));
+                    xmlOutput.addAttribute("maxCount", String.valueOf(maxCount.get()));
+                }
                 xmlOutput.stopTag(true);
             }
         }
@@ -208,22 +238,32 @@ public class Profiler implements XMLWriteable {
 
     }
 
-    final Stack<Clock> startTimes;
+    /**
+     * Timer and context stacks are kept per thread, so that several analysis
+     * threads can share one profiler and accumulate into the same profiles.
+     */
+    final ThreadLocal<Stack<Clock>> startTimes;
 
     final ConcurrentMap<Class<?>, Profile> profile;
 
-    final Stack<Object> context = new Stack<Object>();
+    final ThreadLocal<Stack<Object>> context = new ThreadLocal<Stack<Object>>() {
+        @Override
+        protected Stack<Object> initialValue() {
+            return new Stack<Object>();
+        }
+    };
 
     public void startContext(Object context) {
-        this.context.push(context);
+        this.context.get().push(context);
     }
 
     public void endContext(Object context) {
-        Object o = this.context.pop();
+        Object o = this.context.get().pop();
         assert o == context;
     }
 
     private Object getContext() {
+        Stack<Object> context = this.context.get();
         if (context.size() == 0) {
             return "";
         }
@@ -236,7 +276,7 @@ public class Profiler implements XMLWriteable {
     public void start(Class<?> c) {
         long currentNanoTime = System.nanoTime();
 
-        Stack<Clock> stack = startTimes;
+        Stack<Clock> stack = startTimes.get();
         if (!stack.isEmpty()) {
             stack.peek().accumulateTime(currentNanoTime);
         }
@@ -249,7 +289,7 @@ public class Profiler implements XMLWriteable {
         // System.err.println("pop " + c.getSimpleName());
         long currentNanoTime = System.nanoTime();
 
-        Stack<Clock> stack = startTimes;
+        Stack<Clock> stack = startTimes.get();
         Clock ending = stack.pop();
         if (ending.clazz != c) {
             throw new AssertionError("Asked to end timing for " + c + " but top of stack is " + ending.clazz
@@ -276,6 +316,24 @@ public class Profiler implements XMLWriteable {
 
     }
 
+    /**
+     * Record the amount of work done by one invocation of given class, such
+     * as the number of states a dataflow analysis needed for a method. The
+     * total and the maximum of the counts are reported with the times.
+     *
+     * @param c
+     *            the class, which must have been timed with start() and end()
+     * @param count
+     *            the count for this invocation
+     */
+    public void count(Class<?> c, long count) {
+        // Profiles without calls can't be reported
+        Profile counter = profile.get(c);
+        if (counter != null) {
+            counter.handleCount(count);
+        }
+    }
+
     public static class ClassNameComparator implements Comparator<Class<?>>, Serializable {
         final protected Profiler profiler;
 
@@ -417,7 +475,7 @@ public class Profiler implements XMLWriteable {
      */
     public void clear() {
         profile.clear();
-        startTimes.clear();
+        startTimes.get().clear();
     }
 
     public Profile getProfile(Class<?> c) {
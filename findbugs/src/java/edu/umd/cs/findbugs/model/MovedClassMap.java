@@ -42,21 +42,32 @@ public class MovedClassMap implements ClassNameRewriter {
 
     private static final boolean DEBUG = SystemProperties.getBoolean("movedClasses.debug");
 
-    private final BugCollection before;
+    private final Set<String> beforeClasses;
 
-    private final BugCollection after;
+    private final Set<String> afterClasses;
 
     private final Map<String, String> rewriteMap;
 
     public MovedClassMap(BugCollection before, BugCollection after) {
-        this.before = before;
-        this.after = after;
+        this(buildClassSet(before), buildClassSet(after));
+    }
+
+    /**
+     * Constructor for collections which are not in memory.
+     *
+     * @param beforeClasses
+     *            the classes referenced in the earlier BugCollection
+     * @param afterClasses
+     *            the classes referenced in the later BugCollection
+     * @see #addClassNames(BugInstance, Set)
+     */
+    public MovedClassMap(Set<String> beforeClasses, Set<String> afterClasses) {
+        this.beforeClasses = beforeClasses;
+        this.afterClasses = afterClasses;
         this.rewriteMap = new HashMap<String, String>();
     }
 
     public MovedClassMap execute() {
-        Set<String> beforeClasses = buildClassSet(before);
-        Set<String> afterClasses = buildClassSet(after);
 
         Set<String> removedClasses = new HashSet<String>(beforeClasses);
         removedClasses.removeAll(afterClasses);
@@ -106,23 +117,35 @@ public class MovedClassMap implements ClassNameRewriter {
      * @param bugCollection
      * @return set of classes referenced in the BugCollection
      */
-    private Set<String> buildClassSet(BugCollection bugCollection) {
+    private static Set<String> buildClassSet(BugCollection bugCollection) {
         Set<String> classSet = new HashSet<String>();
 
         for (Iterator<BugInstance> i = bugCollection.iterator(); i.hasNext();) {
             BugInstance warning = i.next();
-            for (Iterator<BugAnnotation> j = warning.annotationIterator(); j.hasNext();) {
-                BugAnnotation annotation = j.next();
-                if (!(annotation instanceof ClassAnnotation)) {
-                    continue;
-                }
-                classSet.add(((ClassAnnotation) annotation).getClassName());
-            }
+            addClassNames(warning, classSet);
         }
 
         return classSet;
     }
 
+    /**
+     * Add the classes referenced in a BugInstance to a set.
+     *
+     * @param warning
+     *            a BugInstance
+     * @param classSet
+     *            set of classes referenced in a BugCollection
+     */
+    public static void addClassNames(BugInstance warning, Set<String> classSet) {
+        for (Iterator<BugAnnotation> j = warning.annotationIterator(); j.hasNext();) {
+            BugAnnotation annotation = j.next();
+            if (!(annotation instanceof ClassAnnotation)) {
+                continue;
+            }
+            classSet.add(((ClassAnnotation) annotation).getClassName());
+        }
+    }
+
     /**
      * Build a map of short class names (without package) to full class names.
      *
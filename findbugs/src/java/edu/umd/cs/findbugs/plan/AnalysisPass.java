@@ -20,6 +20,8 @@
 package edu.umd.cs.findbugs.plan;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -42,6 +44,9 @@ public class AnalysisPass {
 
     private final HashSet<DetectorFactory> memberSet;
 
+    /** Detectors which intra-pass ordering constraints put before each detector */
+    private final HashMap<DetectorFactory, Set<DetectorFactory>> predecessorMap;
+
     // private Detector2[] detectorList;
 
     /**
@@ -52,6 +57,7 @@ public class AnalysisPass {
     public AnalysisPass() {
         this.orderedFactoryList = new LinkedList<DetectorFactory>();
         this.memberSet = new HashSet<DetectorFactory>();
+        this.predecessorMap = new HashMap<DetectorFactory, Set<DetectorFactory>>();
     }
 
     /**
@@ -79,6 +85,37 @@ public class AnalysisPass {
         this.orderedFactoryList.addLast(factory);
     }
 
+    /**
+     * Record that an intra-pass ordering constraint requires a detector to be
+     * applied to each class after another one.
+     *
+     * @param later
+     *            the detector applied later
+     * @param earlier
+     *            the detector applied earlier
+     */
+    public void addPredecessor(DetectorFactory later, DetectorFactory earlier) {
+        Set<DetectorFactory> predecessors = predecessorMap.get(later);
+        if (predecessors == null) {
+            predecessors = new HashSet<DetectorFactory>();
+            predecessorMap.put(later, predecessors);
+        }
+        predecessors.add(earlier);
+    }
+
+    /**
+     * Get the detectors of this pass which intra-pass ordering constraints
+     * require to be applied to each class before the given one.
+     *
+     * @param factory
+     *            a DetectorFactory
+     * @return the detectors applied before it
+     */
+    public Set<DetectorFactory> getPredecessors(DetectorFactory factory) {
+        Set<DetectorFactory> predecessors = predecessorMap.get(factory);
+        return predecessors != null ? Collections.unmodifiableSet(predecessors) : Collections.<DetectorFactory>emptySet();
+    }
+
     /**
      * Get the members of this pass.
      *
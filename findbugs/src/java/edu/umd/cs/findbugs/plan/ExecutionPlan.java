@@ -442,6 +442,13 @@ public class ExecutionPlan {
             }
         }
 
+        // Remember which detectors each detector must follow, so analyzing
+        // detectors in parallel can respect the constraints
+        for (Iterator<ConstraintEdge> i = constraintGraph.edgeIterator(); i.hasNext();) {
+            ConstraintEdge edge = i.next();
+            pass.addPredecessor(edge.getTarget().getFactory(), edge.getSource().getFactory());
+        }
+
         // Perform DFS, check for cycles
         DepthFirstSearch<ConstraintGraph, ConstraintEdge, DetectorNode> dfs = new DepthFirstSearch<ConstraintGraph, ConstraintEdge, DetectorNode>(
                 constraintGraph);
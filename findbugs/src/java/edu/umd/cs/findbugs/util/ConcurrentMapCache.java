@@ -0,0 +1,191 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2005, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.util;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe counterpart of {@link MapCache}: a ConcurrentMap that can only
+ * grow to a specified maximum capacity. Instead of strict LRU order, which
+ * would make every lookup a write to a shared list, entries are discarded
+ * using the CLOCK (second chance) policy: entries are evicted in insertion
+ * order, except that an entry which was read since it was last considered is
+ * given another round. Neither keys nor values may be null.
+ */
+public class ConcurrentMapCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    private final int maxCapacity;
+
+    private final ConcurrentHashMap<K, V> map;
+
+    /** Keys in insertion order, each at most once */
+    private final ConcurrentLinkedQueue<K> insertionOrder = new ConcurrentLinkedQueue<K>();
+
+    /** Keys in insertionOrder */
+    private final Set<K> queued;
+
+    /** Keys read since they were last considered for eviction */
+    private final Set<K> referenced;
+
+    /**
+     * Create a new ConcurrentMapCache
+     *
+     * @param maxCapacity
+     *            - maximum number of entries in the map
+     */
+    public ConcurrentMapCache(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        this.map = new ConcurrentHashMap<K, V>(4 * maxCapacity / 3 + 5);
+        this.referenced = ConcurrentHashMap.<K> newKeySet();
+        this.queued = ConcurrentHashMap.<K> newKeySet();
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = map.get(key);
+        if (value != null) {
+            markReferenced(key);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void markReferenced(Object key) {
+        if (!referenced.contains(key)) {
+            referenced.add((K) key);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V old = map.put(key, value);
+        if (old == null) {
+            added(key);
+        }
+        return old;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        V old = map.putIfAbsent(key, value);
+        if (old == null) {
+            added(key);
+        } else {
+            markReferenced(key);
+        }
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        V old = map.remove(key);
+        if (old != null) {
+            removed(key);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (map.remove(key, value)) {
+            removed(key);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return map.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return map.replace(key, value);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        insertionOrder.clear();
+        queued.clear();
+        referenced.clear();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return map.entrySet();
+    }
+
+    /**
+     * Number of keys in the eviction queue.
+     */
+    int queuedKeys() {
+        return queued.size();
+    }
+
+    private void removed(Object key) {
+        referenced.remove(key);
+        if (queued.remove(key)) {
+            insertionOrder.remove(key);
+        }
+    }
+
+    private void added(K key) {
+        if (queued.add(key)) {
+            insertionOrder.add(key);
+        }
+        int budget = 2 * map.size() + 1;
+        while (map.size() > maxCapacity && budget-- > 0) {
+            K eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            queued.remove(eldest);
+            if (!map.containsKey(eldest)) {
+                // removed by another thread since it was added
+                continue;
+            }
+            if (referenced.remove(eldest)) {
+                // second chance
+                if (queued.add(eldest)) {
+                    insertionOrder.add(eldest);
+                }
+            } else {
+                map.remove(eldest);
+            }
+        }
+    }
+}
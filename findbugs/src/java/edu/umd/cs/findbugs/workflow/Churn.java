@@ -21,8 +21,10 @@ package edu.umd.cs.findbugs.workflow;
 
 import java.io.FileOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Formatter;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -37,10 +39,15 @@ import edu.umd.cs.findbugs.config.CommandLine;
  * @author William Pugh
  */
 public class Churn {
+    /** Number of bugs whose output is buffered before it is printed */
+    private static final int CHUNK_SIZE = 1000;
+
     BugCollection bugCollection;
 
     int fixRate = -1;
 
+    int numThreads = ParallelWorkflow.DEFAULT_NUM_THREADS;
+
     public Churn() {
     }
 
@@ -52,6 +59,13 @@ public class Churn {
         this.bugCollection = bugCollection;
     }
 
+    /**
+     * Set the number of threads used to process the bugs.
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
     String getKey(BugInstance b) {
         if (false) {
             return b.getType();
@@ -96,6 +110,76 @@ public class Churn {
                 }
             }
         }
+
+        /**
+         * Add the counts of another Data, as if the bugs it was updated with
+         * had been given to this one.
+         */
+        void add(Data other) {
+            persist += other.persist;
+            fixed += other.fixed;
+            for (Map.Entry<Long, Integer> e : other.lastCount.entrySet()) {
+                Integer v = lastCount.get(e.getKey());
+                // lastCount holds one less than the number of bugs
+                lastCount.put(e.getKey(), v == null ? e.getValue() : v + e.getValue() + 1);
+            }
+        }
+    }
+
+    /**
+     * The counts for, and the output about, part of the bugs.
+     */
+    class Part {
+        final Map<String, Data> data = new HashMap<String, Data>();
+
+        final Data all = new Data();
+
+        final int[] aliveAt;
+
+        final int[] diedAfter;
+
+        final StringBuilder output = new StringBuilder();
+
+        Part(int length) {
+            aliveAt = new int[length];
+            diedAfter = new int[length];
+        }
+
+        void process(List<BugInstance> bugs) {
+            Formatter out = new Formatter(output);
+            for (BugInstance bugInstance : bugs) {
+                String key = getKey(bugInstance);
+                Data d = data.get(key);
+                if (d == null) {
+                    data.put(key, d = new Data());
+                }
+                d.update(bugInstance);
+                all.update(bugInstance);
+
+                long first = bugInstance.getFirstVersion();
+                long last = bugInstance.getLastVersion();
+
+                if (last != -1) {
+                    out.format("%3d #fixed %s%n", last, key);
+                }
+                if (first != 0 && last != -1) {
+                    int lifespan = (int) (last - first + 1);
+
+                    out.format("%3d #age %s%n", lifespan, key);
+                    out.format("%3d %3d #spread %s%n", first, last, key);
+                    diedAfter[lifespan]++;
+                    for (int t = 1; t < lifespan; t++) {
+                        aliveAt[t]++;
+                    }
+                } else if (first != 0) {
+                    int lifespan = (int) (bugCollection.getSequenceNumber() - first + 1);
+                    for (int t = 1; t < lifespan; t++) {
+                        aliveAt[t]++;
+                    }
+                }
+            }
+            out.flush();
+        }
     }
 
     Map<String, Data> data = new TreeMap<String, Data>();
@@ -112,39 +196,36 @@ public class Churn {
         aliveAt = new int[(int) bugCollection.getSequenceNumber() + 1];
         diedAfter = new int[(int) bugCollection.getSequenceNumber() + 1];
 
-        for (Iterator<BugInstance> j = bugCollection.iterator(); j.hasNext();) {
-            BugInstance bugInstance = j.next();
-
-            String key = getKey(bugInstance);
-            Data d = data.get(key);
-            if (d == null) {
-                data.put(key, d = new Data());
+        // The parts of the collection are processed concurrently, and their
+        // output printed and counts added up in the order of the collection
+        // as soon as each part is done
+        final int length = aliveAt.length;
+        ParallelWorkflow.processChunks(new ArrayList<BugInstance>(bugCollection.getCollection()), numThreads, CHUNK_SIZE,
+                new ParallelWorkflow.ChunkTask<BugInstance, Part>() {
+            @Override
+            public Part process(List<BugInstance> chunk) {
+                Part part = new Part(length);
+                part.process(chunk);
+                return part;
             }
-            d.update(bugInstance);
-            all.update(bugInstance);
-
-            long first = bugInstance.getFirstVersion();
-            long last = bugInstance.getLastVersion();
-
-            if (last != -1) {
-                System.out.printf("%3d #fixed %s%n", last, key);
-            }
-            if (first != 0 && last != -1) {
-                int lifespan = (int) (last - first + 1);
-
-                System.out.printf("%3d #age %s%n", lifespan, key);
-                System.out.printf("%3d %3d #spread %s%n", first, last, key);
-                diedAfter[lifespan]++;
-                for (int t = 1; t < lifespan; t++) {
-                    aliveAt[t]++;
+        }, new ParallelWorkflow.ResultHandler<Part>() {
+            @Override
+            public void handle(Part part) {
+                System.out.print(part.output);
+                for (Map.Entry<String, Data> e : part.data.entrySet()) {
+                    Data d = data.get(e.getKey());
+                    if (d == null) {
+                        data.put(e.getKey(), d = new Data());
+                    }
+                    d.add(e.getValue());
                 }
-            } else if (first != 0) {
-                int lifespan = (int) (bugCollection.getSequenceNumber() - first + 1);
-                for (int t = 1; t < lifespan; t++) {
-                    aliveAt[t]++;
+                all.add(part.all);
+                for (int t = 0; t < length; t++) {
+                    aliveAt[t] += part.aliveAt[t];
+                    diedAfter[t] += part.diedAfter[t];
                 }
             }
-        }
+        });
         return this;
     }
 
@@ -202,6 +283,7 @@ public class Churn {
 
         ChurnCommandLine() {
             this.addOption("-fixRate", "percentage", "expected fix rate for chi test");
+            this.addOption("-threads", "number", "number of threads used to process the bugs (default=number of processors)");
         }
 
         @Override
@@ -213,6 +295,8 @@ public class Churn {
         public void handleOptionWithArgument(String option, String argument) {
             if ("-fixRate".equals(option)) {
                 fixRate = Integer.parseInt(argument);
+            } else if ("-threads".equals(option)) {
+                numThreads = Integer.parseInt(argument);
             } else {
                 throw new IllegalArgumentException("unknown option: " + option);
             }
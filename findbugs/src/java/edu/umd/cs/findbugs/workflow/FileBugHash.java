@@ -30,6 +30,7 @@ import edu.umd.cs.findbugs.BugCollection;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.PackageStats;
 import edu.umd.cs.findbugs.PackageStats.ClassStats;
+import edu.umd.cs.findbugs.ProjectStats;
 import edu.umd.cs.findbugs.SortedBugCollection;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.charsets.UTF8;
@@ -53,8 +54,21 @@ public class FileBugHash {
     MessageDigest digest = Util.getMD5Digest();
 
     FileBugHash(BugCollection bugs) {
+        this(bugs.getProjectStats());
+        for (BugInstance bug : bugs.getCollection()) {
+            add(bug);
+        }
+    }
 
-        for (PackageStats pStat : bugs.getProjectStats().getPackageStats()) {
+    /**
+     * Create a FileBugHash without any bugs; the bugs are passed to
+     * {@link #add(BugInstance)} one at a time.
+     *
+     * @param stats
+     *            the statistics giving the classes and source files analyzed
+     */
+    public FileBugHash(ProjectStats stats) {
+        for (PackageStats pStat : stats.getPackageStats()) {
             for (ClassStats cStat : pStat.getSortedClassStats()) {
                 String path = cStat.getName();
                 if (path.indexOf('.') == -1) {
@@ -70,29 +84,32 @@ public class FileBugHash {
                 sizes.put(path, size + cStat.size());
             }
         }
-        for (BugInstance bug : bugs.getCollection()) {
-            SourceLineAnnotation source = bug.getPrimarySourceLineAnnotation();
-
-            String packagePath = source.getPackageName().replace('.', '/');
-            String key;
-            if (packagePath.length() == 0) {
-                key = source.getSourceFile();
-            } else {
-                key = packagePath + "/" + source.getSourceFile();
-            }
-            StringBuilder buf = hashes.get(key);
-            if (buf == null) {
-                buf = new StringBuilder();
-                hashes.put(key, buf);
-            }
-            buf.append(bug.getInstanceKey()).append("-").append(source.getStartLine()).append(".")
-            .append(source.getStartBytecode()).append(" ");
-            Integer count = counts.get(key);
-            if (count == null) {
-                counts.put(key, 1);
-            } else {
-                counts.put(key, 1 + count);
-            }
+    }
+
+    /**
+     * Add a bug to the hash of its source file.
+     */
+    public void add(BugInstance bug) {
+        SourceLineAnnotation source = bug.getPrimarySourceLineAnnotation();
+        String packagePath = source.getPackageName().replace('.', '/');
+        String key;
+        if (packagePath.length() == 0) {
+            key = source.getSourceFile();
+        } else {
+            key = packagePath + "/" + source.getSourceFile();
+        }
+        StringBuilder buf = hashes.get(key);
+        if (buf == null) {
+            buf = new StringBuilder();
+            hashes.put(key, buf);
+        }
+        buf.append(bug.getInstanceKey()).append("-").append(source.getStartLine()).append(".")
+        .append(source.getStartBytecode()).append(" ");
+        Integer count = counts.get(key);
+        if (count == null) {
+            counts.put(key, 1);
+        } else {
+            counts.put(key, 1 + count);
         }
     }
 
@@ -22,9 +22,11 @@ package edu.umd.cs.findbugs.workflow;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -94,6 +96,12 @@ public class MineBugHistory {
         int get(int key) {
             return tuple[key];
         }
+
+        void add(Version other) {
+            for (int j = 0; j < TUPLE_SIZE; ++j) {
+                tuple[j] += other.tuple[j];
+            }
+        }
     }
 
     SortedBugCollection bugCollection;
@@ -110,6 +118,8 @@ public class MineBugHistory {
 
     boolean xml = false;
 
+    int numThreads = ParallelWorkflow.DEFAULT_NUM_THREADS;
+
     public MineBugHistory() {
     }
 
@@ -137,6 +147,13 @@ public class MineBugHistory {
         this.summary = false;
     }
 
+    /**
+     * Set the number of threads used to classify the bugs.
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
     public void setSummary() {
         this.xml = false;
         this.summary = true;
@@ -145,7 +162,7 @@ public class MineBugHistory {
 
     public MineBugHistory execute() {
         long sequenceNumber = bugCollection.getSequenceNumber();
-        int maxSequence = (int) sequenceNumber;
+        final int maxSequence = (int) sequenceNumber;
         versionList = new Version[maxSequence + 1];
         for (int i = 0; i <= maxSequence; ++i) {
             versionList[i] = new Version(i);
@@ -160,9 +177,30 @@ public class MineBugHistory {
         AppVersion currentAppVersion = bugCollection.getCurrentAppVersion();
         sequenceToAppVersionMap.put(sequenceNumber, currentAppVersion);
 
-        for (Iterator<BugInstance> j = bugCollection.iterator(); j.hasNext();) {
-            BugInstance bugInstance = j.next();
+        // Each thread counts the bugs of its part of the collection in
+        // versions of its own; the counts are then added up
+        List<Version[]> counts = ParallelWorkflow.processChunks(new ArrayList<BugInstance>(bugCollection.getCollection()),
+                numThreads, new ParallelWorkflow.ChunkTask<BugInstance, Version[]>() {
+            @Override
+            public Version[] process(List<BugInstance> chunk) {
+                return count(chunk, maxSequence);
+            }
+        });
+        for (Version[] chunkVersionList : counts) {
+            for (int i = 0; i <= maxSequence; ++i) {
+                versionList[i].add(chunkVersionList[i]);
+            }
+        }
+
+        return this;
+    }
 
+    private Version[] count(List<BugInstance> bugs, int maxSequence) {
+        Version[] result = new Version[maxSequence + 1];
+        for (int i = 0; i <= maxSequence; ++i) {
+            result[i] = new Version(i);
+        }
+        for (BugInstance bugInstance : bugs) {
             for (int i = 0; i <= maxSequence; ++i) {
                 if (bugInstance.getFirstVersion() > i) {
                     continue;
@@ -177,11 +215,10 @@ public class MineBugHistory {
                 } else if (key == ADDED && !bugInstance.isIntroducedByChangeOfExistingClass()) {
                     key = NEWCODE;
                 }
-                versionList[i].increment(key);
+                result[i].increment(key);
             }
         }
-
-        return this;
+        return result;
     }
 
     public void dump(PrintStream out) {
@@ -430,6 +467,7 @@ public class MineBugHistory {
             addSwitch("-noTabs", "delimit columns with groups of spaces for better alignment");
             addSwitch("-xml", "output in XML format");
             addSwitch("-summary", "just summarize changes over the last ten entries");
+            addOption("-threads", "number", "number of threads used to classify the bugs (default=number of processors)");
         }
 
         @Override
@@ -449,8 +487,11 @@ public class MineBugHistory {
 
         @Override
         public void handleOptionWithArgument(String option, String argument) {
-
-            throw new IllegalArgumentException("unknown option: " + option);
+            if ("-threads".equals(option)) {
+                setNumThreads(ParallelWorkflow.parseNumThreads(argument));
+            } else {
+                throw new IllegalArgumentException("unknown option: " + option);
+            }
         }
     }
 
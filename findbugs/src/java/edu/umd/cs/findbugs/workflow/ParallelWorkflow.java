@@ -0,0 +1,255 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2026, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package edu.umd.cs.findbugs.workflow;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.dom4j.DocumentException;
+
+import edu.umd.cs.findbugs.SortedBugCollection;
+import edu.umd.cs.findbugs.SystemProperties;
+
+/**
+ * Helpers to run the work of the workflow tools on several threads while
+ * keeping their results in the same order, so that the output of a tool is
+ * the same whatever the number of threads.
+ */
+final class ParallelWorkflow {
+
+    /** Default number of threads: the findbugs.workflow.threads property, or one per processor. */
+    static final int DEFAULT_NUM_THREADS = Math.max(1, SystemProperties.getInt("findbugs.workflow.threads", Runtime.getRuntime()
+            .availableProcessors()));
+
+    private ParallelWorkflow() {
+    }
+
+    /**
+     * Parse the argument of a -threads option.
+     *
+     * @throws IllegalArgumentException
+     *             if the argument is not a number of at least one thread
+     */
+    static int parseNumThreads(String argument) {
+        int numThreads = Integer.parseInt(argument);
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("number of threads must be at least 1: " + argument);
+        }
+        return numThreads;
+    }
+
+    /**
+     * Work done on one part of a list.
+     */
+    interface ChunkTask<E, R> {
+        R process(List<E> chunk);
+    }
+
+    /**
+     * Callback receiving the results of
+     * {@link ParallelWorkflow#processChunks(List, int, int, ChunkTask, ResultHandler)}.
+     */
+    interface ResultHandler<R> {
+        void handle(R result);
+    }
+
+    /**
+     * Callback receiving the collections read by
+     * {@link ParallelWorkflow#readCollections(List, int, CollectionHandler)}.
+     */
+    interface CollectionHandler {
+        /**
+         * @param fileName
+         *            the file read
+         * @param collection
+         *            the collection read from it
+         */
+        void handle(String fileName, SortedBugCollection collection) throws IOException;
+
+        /**
+         * @param fileName
+         *            the file which couldn't be read
+         * @param e
+         *            an IOException or DocumentException
+         */
+        void handleError(String fileName, Exception e);
+    }
+
+    static ExecutorService createExecutor(int numThreads, final String name) {
+        return Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            int count;
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name + " " + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Split a list into chunks, process the chunks on up to numThreads
+     * threads and return the results in the order of the chunks.
+     */
+    static <E, R> List<R> processChunks(List<E> list, int numThreads, ChunkTask<E, R> task) {
+        final List<R> results = new ArrayList<R>();
+        int chunkSize = Math.max(1, (list.size() + numThreads * 4 - 1) / (numThreads * 4));
+        processChunks(list, numThreads, chunkSize, task, new ResultHandler<R>() {
+            @Override
+            public void handle(R result) {
+                results.add(result);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Split a list into chunks of at most chunkSize elements, process the
+     * chunks on up to numThreads threads and pass each result to the handler
+     * as soon as the results of the chunks before it have been passed. Only a
+     * few more chunks than there are threads are processed ahead of the
+     * handler, so the results don't all have to be kept in memory.
+     */
+    static <E, R> void processChunks(List<E> list, int numThreads, int chunkSize, final ChunkTask<E, R> task,
+            ResultHandler<R> handler) {
+        int numChunks = Math.max(1, (list.size() + chunkSize - 1) / chunkSize);
+        if (numThreads <= 1 || numChunks < 2) {
+            for (int i = 0; i < numChunks; i++) {
+                handler.handle(task.process(list.subList(i * chunkSize, Math.min(list.size(), (i + 1) * chunkSize))));
+            }
+            return;
+        }
+        ExecutorService executor = createExecutor(numThreads, "FindBugs workflow thread");
+        try {
+            ArrayDeque<Future<R>> pending = new ArrayDeque<Future<R>>();
+            int next = 0;
+            for (int done = 0; done < numChunks; done++) {
+                while (next < numChunks && pending.size() <= numThreads) {
+                    final List<E> chunk = list.subList(next * chunkSize, Math.min(list.size(), (next + 1) * chunkSize));
+                    next++;
+                    pending.add(executor.submit(new Callable<R>() {
+                        @Override
+                        public R call() {
+                            return task.process(chunk);
+                        }
+                    }));
+                }
+                handler.handle(getResult(pending.remove()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read the given files on up to numThreads threads, and pass the
+     * collections (or the errors) to the handler in the order of the files.
+     * Only a few more collections than there are threads are read ahead of
+     * the handler.
+     */
+    static void readCollections(List<String> fileNames, int numThreads, CollectionHandler handler) throws IOException {
+        if (numThreads <= 1) {
+            for (String fileName : fileNames) {
+                SortedBugCollection collection = new SortedBugCollection();
+                try {
+                    collection.readXML(fileName);
+                } catch (IOException e) {
+                    handler.handleError(fileName, e);
+                    continue;
+                } catch (DocumentException e) {
+                    handler.handleError(fileName, e);
+                    continue;
+                }
+                handler.handle(fileName, collection);
+            }
+            return;
+        }
+        ExecutorService executor = createExecutor(numThreads, "FindBugs collection reading thread");
+        try {
+            ArrayDeque<Future<SortedBugCollection>> pending = new ArrayDeque<Future<SortedBugCollection>>();
+            int next = 0;
+            for (int done = 0; done < fileNames.size(); done++) {
+                while (next < fileNames.size() && pending.size() <= numThreads) {
+                    final String fileName = fileNames.get(next++);
+                    pending.add(executor.submit(new Callable<SortedBugCollection>() {
+                        @Override
+                        public SortedBugCollection call() throws IOException, DocumentException {
+                            SortedBugCollection collection = new SortedBugCollection();
+                            collection.readXML(fileName);
+                            return collection;
+                        }
+                    }));
+                }
+                String fileName = fileNames.get(done);
+                SortedBugCollection collection;
+                try {
+                    collection = getResult(pending.remove());
+                } catch (ReadException e) {
+                    handler.handleError(fileName, e.exception);
+                    continue;
+                }
+                handler.handle(fileName, collection);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Wraps a checked exception of reading a collection.
+     */
+    private static class ReadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final Exception exception;
+
+        ReadException(Exception exception) {
+            super(exception);
+            this.exception = exception;
+        }
+    }
+
+    private static <R> R getResult(Future<R> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException || cause instanceof DocumentException) {
+                throw new ReadException((Exception) cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
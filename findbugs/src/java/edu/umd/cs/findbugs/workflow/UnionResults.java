@@ -20,10 +20,9 @@
 package edu.umd.cs.findbugs.workflow;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
 
-import org.dom4j.DocumentException;
-
 import edu.umd.cs.findbugs.AnalysisError;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.DetectorFactoryCollection;
@@ -43,9 +42,12 @@ public class UnionResults {
 
         boolean withMessages;
 
+        int numThreads = ParallelWorkflow.DEFAULT_NUM_THREADS;
+
         UnionResultsCommandLine() {
             addSwitch("-withMessages", "Generated XML should contain msgs for external processing");
             addOption("-output", "outputFile", "File in which to store combined results");
+            addOption("-threads", "number", "number of threads used to read the input files (default=number of processors)");
         }
 
         /*
@@ -75,6 +77,8 @@ public class UnionResults {
         protected void handleOptionWithArgument(String option, String argument) throws IOException {
             if ("-output".equals(option)) {
                 outputFile = argument;
+            } else if ("-threads".equals(option)) {
+                numThreads = ParallelWorkflow.parseNumThreads(argument);
             } else {
                 throw new IllegalArgumentException("Unknown option : " + option);
             }
@@ -122,37 +126,38 @@ public class UnionResults {
         int argCount = commandLine.parse(argv, 2, Integer.MAX_VALUE, "Usage: " + UnionResults.class.getName()
                 + " [options] [<results1> <results2> ... <resultsn>] ");
 
-        SortedBugCollection results = null;
-        HashSet<String> hashes = new HashSet<String>();
-
-        for (int i = argCount; i < argv.length; i++) {
-            try {
-                SortedBugCollection more = new SortedBugCollection();
-
-                more.readXML(argv[i]);
-                if (results == null) {
-                    results = more.createEmptyCollectionWithMetadata();
+        final SortedBugCollection[] results = new SortedBugCollection[1];
+        final HashSet<String> hashes = new HashSet<String>();
+
+        // The files are read concurrently, but merged in the order they
+        // were given, so the result is the same as reading them one by one
+        ParallelWorkflow.readCollections(Arrays.asList(argv).subList(argCount, argv.length), commandLine.numThreads,
+                new ParallelWorkflow.CollectionHandler() {
+            @Override
+            public void handle(String fileName, SortedBugCollection more) {
+                if (results[0] == null) {
+                    results[0] = more.createEmptyCollectionWithMetadata();
                 }
+                merge(hashes, results[0], more);
+            }
 
-                merge(hashes, results, more);
-
-            } catch (IOException e) {
-                System.err.println("Trouble reading/parsing " + argv[i]);
-            } catch (DocumentException e) {
-                System.err.println("Trouble reading/parsing " + argv[i]);
+            @Override
+            public void handleError(String fileName, Exception e) {
+                System.err.println("Trouble reading/parsing " + fileName);
             }
-        }
+        });
 
-        if (results == null) {
+        SortedBugCollection result = results[0];
+        if (result == null) {
             System.err.println("No files successfully read");
             System.exit(1);
             return;
         }
-        results.setWithMessages(commandLine.withMessages);
+        result.setWithMessages(commandLine.withMessages);
         if (commandLine.outputFile == null) {
-            results.writeXML(System.out);
+            result.writeXML(System.out);
         } else {
-            results.writeXML(commandLine.outputFile);
+            result.writeXML(commandLine.outputFile);
         }
     }
 
@@ -19,32 +19,43 @@ package edu.umd.cs.findbugs.workflow;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
+import javax.annotation.CheckForNull;
+
 import org.dom4j.DocumentException;
 
 import edu.umd.cs.findbugs.AppVersion;
 import edu.umd.cs.findbugs.BugCollection;
 import edu.umd.cs.findbugs.BugDesignation;
 import edu.umd.cs.findbugs.BugInstance;
+import edu.umd.cs.findbugs.BugPattern;
 import edu.umd.cs.findbugs.BugRanker;
 import edu.umd.cs.findbugs.ClassAnnotation;
 import edu.umd.cs.findbugs.DetectorFactoryCollection;
 import edu.umd.cs.findbugs.FindBugs;
 import edu.umd.cs.findbugs.PackageStats;
 import edu.umd.cs.findbugs.PackageStats.ClassStats;
+import edu.umd.cs.findbugs.ProjectStats;
 import edu.umd.cs.findbugs.SloppyBugComparator;
 import edu.umd.cs.findbugs.SortedBugCollection;
+import edu.umd.cs.findbugs.SortedBugRuns;
 import edu.umd.cs.findbugs.SystemProperties;
 import edu.umd.cs.findbugs.VersionInsensitiveBugComparator;
+import edu.umd.cs.findbugs.charsets.UTF8;
 import edu.umd.cs.findbugs.config.CommandLine;
 import edu.umd.cs.findbugs.model.MovedClassMap;
 
@@ -64,10 +75,15 @@ public class Update {
 
     private final Map<BugInstance, BugInstance> mapFromNewToOldBug = new IdentityHashMap<BugInstance, BugInstance>();
 
-    private final Set<String> resurrected = new HashSet<String>();
-
     private final Map<BugInstance, Void> matchedOldBugs = new IdentityHashMap<BugInstance, Void>();
 
+    /**
+     * In a streaming merge, the classes moved between the whole collections,
+     * as only part of them is matched at a time; otherwise null, and the
+     * moved classes are found from the collections matched.
+     */
+    private @CheckForNull MovedClassMap movedClassMap;
+
     boolean noPackageMoves = false;
 
     boolean useAnalysisTimes = false;
@@ -79,6 +95,21 @@ public class Update {
     boolean sloppyMatch = false;
     boolean precisePriorityMatch = false;
 
+    /**
+     * If false, every old bug is looked up in a single map, as before the
+     * bugs were partitioned by match key; only used to compare the two.
+     */
+    boolean indexMatches = true;
+
+    /**
+     * If true, the history is kept in temporary files rather than in memory
+     * while the inputs are merged.
+     */
+    boolean streaming = false;
+
+    /** In streaming mode, the number of bugs read before they are written to a temporary file */
+    int streamingRunSize = SystemProperties.getInt("findbugs.update.streaming.runSize", 20000);
+
     int mostRecent = -1;
 
     int maxRank = BugRanker.VISIBLE_RANK_MAX;
@@ -99,6 +130,7 @@ public class Update {
             addSwitch("-preciseMatch", "require bug patterns to match precisely");
             addSwitch("-precisePriorityMatch", "only consider two warnings to be the same if their priorities match exactly");
             addSwitch("-sloppyMatch", "very relaxed matching of bugs");
+            addSwitch("-streaming", "keep the history in temporary files rather than in memory while merging");
             addOption("-output", "output file", "explicit filename for merged results (standard out used if not specified)");
             addOption("-maxRank", "max rank", "maximum rank for issues to store");
 
@@ -132,6 +164,8 @@ public class Update {
                 preciseMatch = true;
             } else if ("-sloppyMatch".equals(option)) {
                 sloppyMatch = true;
+            } else if ("-streaming".equals(option)) {
+                streaming = true;
             } else if ("-precisePriorityMatch".equals(option)) {
                 versionInsensitiveBugComparator.setComparePriorities(true);
                 fuzzyBugPatternMatcher.setComparePriorities(true);
@@ -197,16 +231,42 @@ public class Update {
 
     public BugCollection mergeCollections(BugCollection origCollection, BugCollection newCollection, boolean copyDeadBugs,
             boolean incrementalAnalysis) {
+        return mergeCollections(origCollection, newCollection, copyDeadBugs, incrementalAnalysis, false);
+    }
+
+    /**
+     * Merge a new collection into a history.
+     *
+     * @param reuseBugs
+     *            if true, the BugInstances of both collections are modified
+     *            and moved into the result rather than copied, so the merge
+     *            needs no memory for a third copy of the bugs; neither
+     *            collection may be used afterwards
+     */
+    BugCollection mergeCollections(BugCollection origCollection, BugCollection newCollection, boolean copyDeadBugs,
+            boolean incrementalAnalysis, boolean reuseBugs) {
+
+        checkNoDeadBugs(newCollection);
 
+        BugCollection resultCollection = createMergedCollection(origCollection, newCollection);
+        mergeBugs(origCollection, origCollection.getProjectStats(), newCollection, newCollection.getProjectStats(),
+                sourceFilesInCollection(newCollection), copyDeadBugs, incrementalAnalysis, reuseBugs, resultCollection);
+        return resultCollection;
+    }
+
+    private static void checkNoDeadBugs(BugCollection newCollection) {
         for (BugInstance b : newCollection) {
             if (b.isDead()) {
                 throw new IllegalArgumentException("Can't merge bug collections if the newer collection contains dead bugs: " + b);
             }
         }
+    }
 
-        mapFromNewToOldBug.clear();
-
-        matchedOldBugs.clear();
+    /**
+     * Create the collection resulting from a merge, with the metadata of the
+     * new collection and the versions of the history, but without bugs.
+     */
+    private static BugCollection createMergedCollection(BugCollection origCollection, BugCollection newCollection) {
         BugCollection resultCollection = newCollection.createEmptyCollectionWithMetadata();
         // Previous sequence number
         long lastSequence = origCollection.getSequenceNumber();
@@ -231,6 +291,29 @@ public class Update {
         // the original collection.
         long currentSequence = origCollection.getSequenceNumber() + 1;
         resultCollection.setSequenceNumber(currentSequence);
+        return resultCollection;
+    }
+
+    /**
+     * Match the bugs of a new collection with those of a history, and add
+     * the merged bugs to a collection.
+     *
+     * @param origStats
+     *            the statistics of the classes of the history
+     * @param newStats
+     *            the statistics of the classes analyzed for the new collection
+     * @param analyzedSourceFiles
+     *            the source files analyzed for the new collection
+     */
+    private void mergeBugs(BugCollection origCollection, ProjectStats origStats, BugCollection newCollection,
+            ProjectStats newStats, Set<String> analyzedSourceFiles, boolean copyDeadBugs, boolean incrementalAnalysis,
+            boolean reuseBugs, BugCollection resultCollection) {
+
+        mapFromNewToOldBug.clear();
+
+        matchedOldBugs.clear();
+        // Previous sequence number
+        long lastSequence = origCollection.getSequenceNumber();
 
         //        int oldBugs = 0;
         matchBugs(origCollection, newCollection);
@@ -245,25 +328,24 @@ public class Update {
         //        int addedInNewCode = 0;
         //        int deadBugInDeadCode = 0;
 
-        HashSet<String> analyzedSourceFiles = sourceFilesInCollection(newCollection);
         // Copy unmatched bugs
         if (copyDeadBugs || incrementalAnalysis) {
             for (BugInstance bug : origCollection.getCollection()) {
                 if (!matchedOldBugs.containsKey(bug)) {
                     if (bug.isDead()) {
                         //                        oldBugs++;
-                        BugInstance newBug = (BugInstance) bug.clone();
+                        BugInstance newBug = reuseBugs ? bug : (BugInstance) bug.clone();
                         resultCollection.add(newBug, false);
                     } else {
                         //                        newlyDeadBugs++;
 
-                        BugInstance newBug = (BugInstance) bug.clone();
+                        BugInstance newBug = reuseBugs ? bug : (BugInstance) bug.clone();
 
                         ClassAnnotation classBugFoundIn = bug.getPrimaryClass();
                         String className = classBugFoundIn.getClassName();
                         String sourceFile = classBugFoundIn.getSourceFileName();
                         boolean fixed = sourceFile != null && analyzedSourceFiles.contains(sourceFile)
-                                || newCollection.getProjectStats().getClassStats(className) != null;
+                                || newStats.getClassStats(className) != null;
                         if (fixed) {
                             if (!copyDeadBugs) {
                                 continue;
@@ -288,7 +370,7 @@ public class Update {
         }
         // Copy matched bugs
         for (BugInstance bug : newCollection.getCollection()) {
-            BugInstance newBug = (BugInstance) bug.clone();
+            BugInstance newBug = reuseBugs ? bug : (BugInstance) bug.clone();
             if (mapFromNewToOldBug.containsKey(bug)) {
                 BugInstance origWarning = mapFromNewToOldBug.get(bug);
 
@@ -311,7 +393,7 @@ public class Update {
                 ClassAnnotation classBugFoundIn = bug.getPrimaryClass();
 
                 String className = classBugFoundIn.getClassName();
-                if (origCollection.getProjectStats().getClassStats(className) != null) {
+                if (origStats.getClassStats(className) != null) {
                     newBug.setIntroducedByChangeOfExistingClass(true);
                     // System.out.println("added bug to existing code " +
                     // newBug.getUniqueId() + " : " + newBug.getAbbrev() + " in
@@ -341,8 +423,6 @@ public class Update {
             System.out.println(resultCollection.getCollection().size() + " resulting bugs");
         }
          */
-        return resultCollection;
-
     }
 
     /**
@@ -360,6 +440,206 @@ public class Update {
         }
     }
 
+    /**
+     * A collection which writes its bugs to sorted runs in temporary files
+     * whenever it holds too many of them, so that reading a long history
+     * does not keep all of its bugs in memory. The bugs are counted in the
+     * statistics as they are added.
+     */
+    private static class SpillingBugCollection extends SortedBugCollection {
+        private final int runSize;
+
+        final SortedBugRuns runs = new SortedBugRuns(this);
+
+        SpillingBugCollection(int runSize) {
+            this.runSize = runSize;
+        }
+
+        @Override
+        public boolean add(BugInstance bugInstance, boolean updateActiveTime) {
+            boolean added = super.add(bugInstance, updateActiveTime);
+            if (getCollection().size() >= runSize) {
+                try {
+                    runs.write(getCollection());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                clearBugInstances();
+            }
+            return added;
+        }
+    }
+
+    /**
+     * A history kept in temporary files by a streaming merge.
+     */
+    private static class SpilledHistory {
+        /** The metadata of the history, without its bugs */
+        final SortedBugCollection metadata;
+
+        /** The bugs, in the order of the metadata collection */
+        final SortedBugRuns runs;
+
+        /** The classes referenced by the bugs, to find moved classes */
+        final Set<String> classNames = new HashSet<String>();
+
+        SpilledHistory(SortedBugCollection metadata) {
+            this.metadata = metadata;
+            this.runs = new SortedBugRuns(metadata);
+        }
+
+        Iterable<BugInstance> bugs() {
+            return runs.merge(Collections.<BugInstance>emptyList());
+        }
+    }
+
+    /**
+     * Start a streaming merge with the bugs read into a collection, checked
+     * and trimmed as they would be in memory.
+     */
+    private SpilledHistory spillHistory(SpillingBugCollection origCollection) throws IOException {
+        SpilledHistory history = new SpilledHistory(origCollection);
+        // Bugs the sloppy comparator considers equal have the same primary
+        // class, so the sorted bugs are made unique one class at a time
+        TreeSet<BugInstance> sloppyUnique = new TreeSet<BugInstance>(new SloppyBugComparator());
+        String sloppyClassName = null;
+        SortedBugRuns.RunWriter run = history.runs.openRun();
+        try {
+            for (BugInstance bug : origCollection.runs.merge(origCollection.getCollection())) {
+                if (bug.getLastVersion() >= 0 && bug.getFirstVersion() > bug.getLastVersion()) {
+                    throw new IllegalStateException("Illegal Version range: " + bug.getFirstVersion() + ".."
+                            + bug.getLastVersion());
+                }
+                if (BugRanker.findRank(bug) > maxRank) {
+                    continue;
+                }
+                if (sloppyMatch) {
+                    String className = bug.getPrimaryClass().getClassName();
+                    if (!className.equals(sloppyClassName)) {
+                        sloppyUnique.clear();
+                        sloppyClassName = className;
+                    }
+                    if (!sloppyUnique.add(bug)) {
+                        continue;
+                    }
+                }
+                MovedClassMap.addClassNames(bug, history.classNames);
+                run.write(bug);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            run.close();
+        }
+        origCollection.runs.delete();
+        origCollection.clearBugInstances();
+        return history;
+    }
+
+    /**
+     * Merge a new collection into a history kept in temporary files, as
+     * mergeCollections(origCollection, newCollection, true, false, true)
+     * would merge them in memory.
+     * <p>
+     * The bugs are merged one primary class at a time. Every comparator
+     * matching bugs requires their primary classes to be the same, once the
+     * classes which seem to have been moved are renamed back, and the
+     * history is sorted by primary class. So only the new collection and the
+     * old bugs of a single class are in memory at once, however long the
+     * history is.
+     *
+     * @return the merged history; the bugs of both inputs are reused
+     */
+    private SpilledHistory mergeStreaming(SpilledHistory history, SortedBugCollection newCollection) throws IOException {
+        checkNoDeadBugs(newCollection);
+
+        SortedBugCollection resultCollection = (SortedBugCollection) createMergedCollection(history.metadata, newCollection);
+        SpilledHistory result = new SpilledHistory(resultCollection);
+
+        Set<String> newClassNames = new HashSet<String>();
+        for (BugInstance bug : newCollection) {
+            MovedClassMap.addClassNames(bug, newClassNames);
+        }
+        movedClassMap = noPackageMoves ? null : new MovedClassMap(history.classNames, newClassNames).execute();
+        // New bugs by the class of the old bugs they may match
+        TreeMap<String, List<BugInstance>> newBugsByClass = new TreeMap<String, List<BugInstance>>();
+        for (BugInstance bug : newCollection) {
+            String className = bug.getPrimaryClass().getClassName();
+            if (movedClassMap != null) {
+                className = movedClassMap.rewriteClassName(className);
+            }
+            List<BugInstance> bugs = newBugsByClass.get(className);
+            if (bugs == null) {
+                bugs = new ArrayList<BugInstance>();
+                newBugsByClass.put(className, bugs);
+            }
+            bugs.add(bug);
+        }
+        HashSet<String> analyzedSourceFiles = sourceFilesInCollection(newCollection);
+
+        // The bugs of one class at a time, with statistics of their own, so
+        // that only the merged bugs are counted in those of the result
+        SortedBugCollection origBugs = new SortedBugCollection(new ProjectStats());
+        origBugs.setSequenceNumber(history.metadata.getSequenceNumber());
+        SortedBugCollection newBugs = new SortedBugCollection(new ProjectStats());
+        // Shares the statistics of the result, so that they count the merged
+        // bugs as they are added
+        SortedBugCollection mergedBugs = new SortedBugCollection(resultCollection.getProjectStats(), resultCollection.getProject());
+        // Bugs of classes moved from another one, which are out of order
+        TreeSet<BugInstance> movedBugs = new TreeSet<BugInstance>(SortedBugCollection.MultiversionBugInstanceComparator.instance);
+
+        Iterator<BugInstance> oldIterator = history.bugs().iterator();
+        Iterator<Map.Entry<String, List<BugInstance>>> newIterator = newBugsByClass.entrySet().iterator();
+        SortedBugRuns.RunWriter run = result.runs.openRun();
+        try {
+            BugInstance oldBug = oldIterator.hasNext() ? oldIterator.next() : null;
+            Map.Entry<String, List<BugInstance>> newEntry = newIterator.hasNext() ? newIterator.next() : null;
+            while (oldBug != null || newEntry != null) {
+                String className;
+                if (newEntry == null || oldBug != null
+                        && oldBug.getPrimaryClass().getClassName().compareTo(newEntry.getKey()) <= 0) {
+                    className = oldBug.getPrimaryClass().getClassName();
+                } else {
+                    className = newEntry.getKey();
+                }
+                while (oldBug != null && oldBug.getPrimaryClass().getClassName().equals(className)) {
+                    origBugs.add(oldBug, false);
+                    oldBug = oldIterator.hasNext() ? oldIterator.next() : null;
+                }
+                if (newEntry != null && newEntry.getKey().equals(className)) {
+                    for (BugInstance bug : newEntry.getValue()) {
+                        newBugs.add(bug, false);
+                    }
+                    newEntry = newIterator.hasNext() ? newIterator.next() : null;
+                }
+
+                mergeBugs(origBugs, history.metadata.getProjectStats(), newBugs, newCollection.getProjectStats(),
+                        analyzedSourceFiles, true, false, true, mergedBugs);
+                for (BugInstance bug : mergedBugs) {
+                    MovedClassMap.addClassNames(bug, result.classNames);
+                    if (bug.getPrimaryClass().getClassName().equals(className)) {
+                        run.write(bug);
+                    } else {
+                        movedBugs.add(bug);
+                    }
+                }
+                origBugs.clearBugInstances();
+                newBugs.clearBugInstances();
+                mergedBugs.clearBugInstances();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            run.close();
+            movedClassMap = null;
+        }
+        if (!movedBugs.isEmpty()) {
+            result.runs.write(movedBugs);
+        }
+        history.runs.delete();
+        return result;
+    }
+
     /*
     private static int size(BugCollection b) {
         int count = 0;
@@ -389,7 +669,10 @@ public class Update {
 
         if (!noPackageMoves) {
             VersionInsensitiveBugComparator movedBugComparator = new VersionInsensitiveBugComparator();
-            MovedClassMap movedClassMap = new MovedClassMap(origCollection, newCollection).execute();
+            MovedClassMap movedClassMap = this.movedClassMap;
+            if (movedClassMap == null) {
+                movedClassMap = new MovedClassMap(origCollection, newCollection).execute();
+            }
             if (!movedClassMap.isEmpty()) {
                 movedBugComparator.setClassNameRewriter(movedClassMap);
                 movedBugComparator.setComparePriorities(precisePriorityMatch);
@@ -442,7 +725,7 @@ public class Update {
 
         String origFilename = args[argCount++];
         BugCollection origCollection;
-        origCollection = new SortedBugCollection();
+        origCollection = streaming ? new SpillingBugCollection(streamingRunSize) : new SortedBugCollection();
         if (verbose) {
             System.out.println("Starting with " + origFilename);
         }
@@ -490,13 +773,18 @@ public class Update {
             }
         }
 
-        for (BugInstance bug : origCollection.getCollection()) {
-            if (bug.getLastVersion() >= 0 && bug.getFirstVersion() > bug.getLastVersion()) {
-                throw new IllegalStateException("Illegal Version range: " + bug.getFirstVersion() + ".." + bug.getLastVersion());
+        SpilledHistory history = null;
+        if (streaming) {
+            history = spillHistory((SpillingBugCollection) origCollection);
+        } else {
+            for (BugInstance bug : origCollection.getCollection()) {
+                if (bug.getLastVersion() >= 0 && bug.getFirstVersion() > bug.getLastVersion()) {
+                    throw new IllegalStateException("Illegal Version range: " + bug.getFirstVersion() + ".." + bug.getLastVersion());
+                }
             }
-        }
 
-        discardUnwantedBugs(origCollection);
+            discardUnwantedBugs(origCollection);
+        }
 
         while (argCount <= (args.length - 1)) {
 
@@ -525,7 +813,13 @@ public class Update {
                 }
                 discardUnwantedBugs(newCollection);
 
-                origCollection = mergeCollections(origCollection, newCollection, true, false);
+                if (history != null) {
+                    history = mergeStreaming(history, (SortedBugCollection) newCollection);
+                } else {
+                    // Neither input is needed after the merge, so let it take
+                    // over their bugs rather than copying them
+                    origCollection = mergeCollections(origCollection, newCollection, true, false, true);
+                }
             } catch (IOException e) {
                 IOException e2 = new IOException("Error parsing " + newFilename);
                 e2.initCause(e);
@@ -542,15 +836,10 @@ public class Update {
                 throw e2;
             }
         }
-        /*
-        if (false) {
-            for (Iterator<BugInstance> i = origCollection.iterator(); i.hasNext();) {
-                if (!resurrected.contains(i.next().getInstanceKey())) {
-                    i.remove();
-                }
-            }
+        if (history != null) {
+            writeHistory(history, commandLine);
+            return;
         }
-         */
         origCollection.setWithMessages(commandLine.withMessages);
         if (commandLine.outputFilename != null) {
             if (verbose) {
@@ -563,6 +852,25 @@ public class Update {
 
     }
 
+    private void writeHistory(SpilledHistory history, UpdateCommandLine commandLine) throws IOException {
+        SortedBugCollection collection = history.metadata;
+        collection.setWithMessages(commandLine.withMessages);
+        try {
+            if (commandLine.outputFilename != null) {
+                if (verbose) {
+                    System.out.println("Writing " + commandLine.outputFilename);
+                }
+                collection.writeXML(commandLine.outputFilename, history.bugs());
+            } else {
+                collection.writeXML(UTF8.writer(System.out), history.bugs());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            history.runs.delete();
+        }
+    }
+
     private static int lengthCommonPrefix(String[] string, String[] string2) {
         int maxLength = Math.min(string.length, string2.length);
         for (int result = 0; result < maxLength; result++) {
@@ -595,6 +903,33 @@ public class Update {
         }
     }
 
+    /**
+     * Get a key which is equal for any two bugs the comparator considers
+     * equal, i.e., made of the fields the comparator requires to match
+     * exactly. Comparators we know nothing about get the same key for all
+     * bugs.
+     */
+    static String getMatchKey(Comparator<BugInstance> bugInstanceComparator, BugInstance bug) {
+        if (bugInstanceComparator instanceof VersionInsensitiveBugComparator) {
+            VersionInsensitiveBugComparator comparator = (VersionInsensitiveBugComparator) bugInstanceComparator;
+            BugPattern pattern = bug.getBugPattern();
+            StringBuilder key = new StringBuilder(pattern.getAbbrev());
+            if (comparator.isExactBugPatternMatch()) {
+                key.append(' ').append(pattern.getType());
+            }
+            if (comparator.isComparePriorities()) {
+                key.append(' ').append(bug.getPriority());
+            }
+            return key.toString();
+        } else if (bugInstanceComparator instanceof SloppyBugComparator) {
+            return bug.getBugPattern().getAbbrev();
+        } else if (bugInstanceComparator == SortedBugCollection.BugInstanceComparator.instance) {
+            ClassAnnotation primaryClass = bug.getPrimaryClass();
+            return (primaryClass == null ? "" : primaryClass.getClassName()) + ' ' + bug.getType() + ' ' + bug.getPriority();
+        }
+        return "";
+    }
+
     private void matchBugs(Comparator<BugInstance> bugInstanceComparator, BugCollection origCollection,
             BugCollection newCollection) {
         matchBugs(bugInstanceComparator, origCollection, newCollection, MatchOldBugs.IF_LIVE);
@@ -604,8 +939,9 @@ public class Update {
     private void matchBugs(Comparator<BugInstance> bugInstanceComparator, BugCollection origCollection,
             BugCollection newCollection, MatchOldBugs matchOld) {
 
-        TreeMap<BugInstance, LinkedList<BugInstance>> set = new TreeMap<BugInstance, LinkedList<BugInstance>>(
-                bugInstanceComparator);
+        // The old bugs are partitioned by their match key, so each new bug
+        // is only looked up among the few old bugs it could possibly match
+        HashMap<String, TreeMap<BugInstance, LinkedList<BugInstance>>> index = new HashMap<String, TreeMap<BugInstance, LinkedList<BugInstance>>>();
         //        int oldBugs = 0;
         //        int newBugs = 0;
         //        int matchedBugs = 0;
@@ -613,6 +949,12 @@ public class Update {
             if (!matchedOldBugs.containsKey(bug)) {
                 if (matchOld.match(bug)) {
                     //                    oldBugs++;
+                    String key = indexMatches ? getMatchKey(bugInstanceComparator, bug) : "";
+                    TreeMap<BugInstance, LinkedList<BugInstance>> set = index.get(key);
+                    if (set == null) {
+                        set = new TreeMap<BugInstance, LinkedList<BugInstance>>(bugInstanceComparator);
+                        index.put(key, set);
+                    }
                     LinkedList<BugInstance> q = set.get(bug);
                     if (q == null) {
                         q = new LinkedList<BugInstance>();
@@ -627,6 +969,11 @@ public class Update {
         for (BugInstance bug : newCollection.getCollection()) {
             if (!mapFromNewToOldBug.containsKey(bug)) {
                 //                newBugs++;
+                String key = indexMatches ? getMatchKey(bugInstanceComparator, bug) : "";
+                TreeMap<BugInstance, LinkedList<BugInstance>> set = index.get(key);
+                if (set == null) {
+                    continue;
+                }
                 LinkedList<BugInstance> q = set.get(bug);
                 if (q == null) {
                     continue;
@@ -639,7 +986,6 @@ public class Update {
                                 && newVersion - matchedBug.getLastVersion() > maxResurrection) {
                             continue;
                         }
-                        resurrected.add(bug.getInstanceKey());
                         // System.out.println("in version " +
                         // newCollection.getReleaseName());
                         // System.out.println("  resurrected " +
@@ -0,0 +1,204 @@
+/*
+ * XML input/output support for FindBugs
+ * Copyright (C) 2004, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.xml;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import javax.annotation.WillNotClose;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Read a document written by {@link BinaryXMLOutput}, passing the same
+ * events to a SAX ContentHandler that parsing the equivalent XML would.
+ * <p>
+ * All occurrences of a string in the document are passed to the handler as
+ * the same String object, so there is no need for the handler to intern the
+ * strings it keeps.
+ *
+ * @see BinaryXMLOutput
+ */
+public class BinaryXMLInput {
+    private static final String CDATA = "CDATA";
+
+    private final DataInputStream in;
+
+    private final ArrayList<String> stringTable = new ArrayList<String>();
+
+    /**
+     * Constructor.
+     *
+     * @param in
+     *            InputStream positioned at the start of the document; it is
+     *            not closed
+     */
+    public BinaryXMLInput(@WillNotClose InputStream in) {
+        this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 64 * 1024));
+    }
+
+    /**
+     * Check whether the given stream contains a document written by
+     * BinaryXMLOutput. The stream must support mark/reset; it is left at the
+     * position it was at.
+     *
+     * @param in
+     *            the InputStream
+     * @return true if the stream starts with a binary document
+     */
+    public static boolean isBinaryXML(@WillNotClose InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            return false;
+        }
+        byte[] magic = BinaryXMLOutput.MAGIC;
+        in.mark(magic.length);
+        try {
+            for (byte b : magic) {
+                if (in.read() != (b & 0xff)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Read the document, passing its contents to the given handler.
+     *
+     * @param handler
+     *            the ContentHandler
+     * @throws IOException
+     *             if the document can't be read or is not a valid binary
+     *             document
+     * @throws SAXException
+     *             if the handler throws it
+     */
+    public void parse(ContentHandler handler) throws IOException, SAXException {
+        for (byte b : BinaryXMLOutput.MAGIC) {
+            if (in.readByte() != b) {
+                throw new IOException("Not a binary FindBugs XML document");
+            }
+        }
+        int version = in.readUnsignedByte();
+        if (version != BinaryXMLOutput.VERSION) {
+            throw new IOException("Unsupported binary FindBugs XML version " + version);
+        }
+
+        ArrayList<String> elementStack = new ArrayList<String>();
+        AttributesImpl attributes = new AttributesImpl();
+        String tagName = null;
+        handler.startDocument();
+        while (true) {
+            int token = in.readUnsignedByte();
+            switch (token) {
+            case BinaryXMLOutput.END_DOCUMENT:
+                if (tagName != null || !elementStack.isEmpty()) {
+                    throw new IOException("Binary FindBugs XML document ends inside element");
+                }
+                handler.endDocument();
+                return;
+            case BinaryXMLOutput.START_TAG:
+                checkNotInTag(tagName, token);
+                tagName = readString();
+                attributes.clear();
+                break;
+            case BinaryXMLOutput.ATTRIBUTE:
+                checkInTag(tagName, token);
+                String name = readString();
+                attributes.addAttribute("", name, name, CDATA, readString());
+                break;
+            case BinaryXMLOutput.STOP_TAG:
+            case BinaryXMLOutput.STOP_TAG_CLOSE:
+                checkInTag(tagName, token);
+                handler.startElement("", tagName, tagName, attributes);
+                if (token == BinaryXMLOutput.STOP_TAG_CLOSE) {
+                    handler.endElement("", tagName, tagName);
+                } else {
+                    elementStack.add(tagName);
+                }
+                tagName = null;
+                break;
+            case BinaryXMLOutput.CLOSE_TAG:
+                checkNotInTag(tagName, token);
+                if (elementStack.isEmpty()) {
+                    throw new IOException("Unbalanced close tag in binary FindBugs XML document");
+                }
+                String closed = elementStack.remove(elementStack.size() - 1);
+                handler.endElement("", closed, closed);
+                break;
+            case BinaryXMLOutput.TEXT:
+                checkNotInTag(tagName, token);
+                String text = readString();
+                handler.characters(text.toCharArray(), 0, text.length());
+                break;
+            default:
+                throw new IOException("Invalid token " + token + " in binary FindBugs XML document");
+            }
+        }
+    }
+
+    private static void checkInTag(String tagName, int token) throws IOException {
+        if (tagName == null) {
+            throw new IOException("Unexpected token " + token + " outside of start tag in binary FindBugs XML document");
+        }
+    }
+
+    private static void checkNotInTag(String tagName, int token) throws IOException {
+        if (tagName != null) {
+            throw new IOException("Unexpected token " + token + " inside start tag in binary FindBugs XML document");
+        }
+    }
+
+    private String readString() throws IOException {
+        int index = readVarInt();
+        if (index > 0) {
+            if (index > stringTable.size()) {
+                throw new IOException("Invalid string reference " + index + " in binary FindBugs XML document");
+            }
+            return stringTable.get(index - 1);
+        }
+        int length = readVarInt();
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        String result = new String(bytes, StandardCharsets.UTF_8);
+        stringTable.add(result);
+        return result;
+    }
+
+    private int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed integer in binary FindBugs XML document");
+    }
+}
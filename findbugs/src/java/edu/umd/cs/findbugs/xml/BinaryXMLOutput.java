@@ -0,0 +1,196 @@
+/*
+ * XML input/output support for FindBugs
+ * Copyright (C) 2004, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.xml;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import javax.annotation.WillCloseWhenClosed;
+
+import edu.umd.cs.findbugs.annotations.DischargesObligation;
+
+/**
+ * XMLOutput class to write a compact binary encoding of an XML document.
+ * <p>
+ * The document is written as a stream of tokens (start tag, attribute, end
+ * of start tag, close tag, text) in the order the XMLOutput methods are
+ * called. Every tag name, attribute name, attribute value and text is written
+ * only the first time it is seen; afterwards it is referred to by its index
+ * in the string table which both the writer and the reader build as they
+ * go. Bug collections consist mostly of the same class, method, field and
+ * attribute names repeated many times, so the result is several times smaller
+ * than the XML and much cheaper to read back (see {@link BinaryXMLInput}).
+ * <p>
+ * Since the encoding describes the XML document itself, rather than the
+ * objects it was written from, anything which can be written as XML can be
+ * written in this format, and reading it back produces exactly the SAX events
+ * parsing the XML would produce.
+ *
+ * @see BinaryXMLInput
+ */
+public class BinaryXMLOutput implements XMLOutput {
+    /** Bytes every binary document starts with. */
+    static final byte[] MAGIC = { 'F', 'B', 'B', 'X' };
+
+    static final int VERSION = 1;
+
+    static final int END_DOCUMENT = 0;
+
+    static final int START_TAG = 1;
+
+    static final int ATTRIBUTE = 2;
+
+    static final int STOP_TAG = 3;
+
+    static final int STOP_TAG_CLOSE = 4;
+
+    static final int CLOSE_TAG = 5;
+
+    static final int TEXT = 6;
+
+    private final DataOutputStream out;
+
+    private final HashMap<String, Integer> stringTable = new HashMap<String, Integer>();
+
+    /**
+     * Constructor.
+     *
+     * @param os
+     *            OutputStream to write the document to
+     */
+    public BinaryXMLOutput(@WillCloseWhenClosed OutputStream os) {
+        this.out = new DataOutputStream(new BufferedOutputStream(os, 64 * 1024));
+    }
+
+    @Override
+    public void beginDocument() throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    @Override
+    public void openTag(String tagName) throws IOException {
+        startTag(tagName);
+        stopTag(false);
+    }
+
+    @Override
+    public void openTag(String tagName, XMLAttributeList attributeList) throws IOException {
+        startTag(tagName);
+        addAttributes(attributeList);
+        stopTag(false);
+    }
+
+    @Override
+    public void openCloseTag(String tagName) throws IOException {
+        startTag(tagName);
+        stopTag(true);
+    }
+
+    @Override
+    public void openCloseTag(String tagName, XMLAttributeList attributeList) throws IOException {
+        startTag(tagName);
+        addAttributes(attributeList);
+        stopTag(true);
+    }
+
+    private void addAttributes(XMLAttributeList attributeList) throws IOException {
+        for (Iterator<XMLAttributeList.NameValuePair> i = attributeList.iterator(); i.hasNext();) {
+            XMLAttributeList.NameValuePair pair = i.next();
+            addAttribute(pair.getName(), pair.getValue());
+        }
+    }
+
+    @Override
+    public void startTag(String tagName) throws IOException {
+        out.writeByte(START_TAG);
+        writeString(tagName);
+    }
+
+    @Override
+    public void addAttribute(String name, String value) throws IOException {
+        out.writeByte(ATTRIBUTE);
+        writeString(name);
+        writeString(value);
+    }
+
+    @Override
+    public void stopTag(boolean close) throws IOException {
+        out.writeByte(close ? STOP_TAG_CLOSE : STOP_TAG);
+    }
+
+    @Override
+    public void closeTag(String tagName) throws IOException {
+        out.writeByte(CLOSE_TAG);
+    }
+
+    @Override
+    public void writeText(String text) throws IOException {
+        out.writeByte(TEXT);
+        writeString(text);
+    }
+
+    @Override
+    public void writeCDATA(String cdata) throws IOException {
+        writeText(cdata);
+    }
+
+    @Override
+    @DischargesObligation
+    public void finish() throws IOException {
+        try {
+            out.writeByte(END_DOCUMENT);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Write a string: either the (one-based) index of a string written
+     * before, or 0 followed by the UTF-8 encoding of a new string, which is
+     * then added to the string table.
+     */
+    private void writeString(String s) throws IOException {
+        Integer index = stringTable.get(s);
+        if (index != null) {
+            writeVarInt(out, index.intValue() + 1);
+            return;
+        }
+        stringTable.put(s, stringTable.size());
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, 0);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * XML input/output support for FindBugs
+ * Copyright (C) 2004, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import javax.annotation.WillNotClose;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Read an XML document with a StAX pull parser, passing the same events to a
+ * SAX ContentHandler that a SAX parser would.
+ * <p>
+ * FindBugs documents have no DTD and no namespaces, so the parser neither
+ * processes namespaces nor reads DTDs or external entities, and the handler
+ * gets qualified names only.
+ *
+ * @see BinaryXMLInput
+ */
+public class PullXMLInput {
+    private static final String CDATA = "CDATA";
+
+    private final Reader reader;
+
+    /**
+     * Constructor.
+     *
+     * @param reader
+     *            Reader positioned at the start of the document; it is not
+     *            closed
+     */
+    public PullXMLInput(@WillNotClose Reader reader) {
+        this.reader = reader;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        if (factory.isPropertySupported(XMLInputFactory.IS_NAMESPACE_AWARE)) {
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        }
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Read the document, passing its contents to the given handler.
+     *
+     * @param handler
+     *            the ContentHandler
+     * @throws IOException
+     *             if the document can't be read
+     * @throws SAXParseException
+     *             if the document is not well-formed
+     * @throws SAXException
+     *             if the handler throws it
+     */
+    public void parse(ContentHandler handler) throws IOException, SAXException {
+        XMLStreamReader xr;
+        try {
+            xr = createFactory().createXMLStreamReader(reader);
+        } catch (XMLStreamException e) {
+            throw newParseException(e);
+        }
+        try {
+            AttributesImpl attributes = new AttributesImpl();
+            handler.startDocument();
+            while (xr.hasNext()) {
+                switch (xr.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String name = qualifiedName(xr.getPrefix(), xr.getLocalName());
+                    attributes.clear();
+                    for (int i = 0; i < xr.getAttributeCount(); i++) {
+                        String attributeName = qualifiedName(xr.getAttributePrefix(i), xr.getAttributeLocalName(i));
+                        attributes.addAttribute("", attributeName, attributeName, CDATA, xr.getAttributeValue(i));
+                    }
+                    handler.startElement("", name, name, attributes);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    name = qualifiedName(xr.getPrefix(), xr.getLocalName());
+                    handler.endElement("", name, name);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    handler.characters(xr.getTextCharacters(), xr.getTextStart(), xr.getTextLength());
+                    break;
+                default:
+                    // comments, processing instructions and the DTD are
+                    // ignored
+                    break;
+                }
+            }
+            handler.endDocument();
+        } catch (XMLStreamException e) {
+            throw newParseException(e);
+        } finally {
+            try {
+                xr.close();
+            } catch (XMLStreamException e) {
+                // ignore
+                assert true;
+            }
+        }
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        if (prefix == null || prefix.length() == 0) {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    private static SAXParseException newParseException(XMLStreamException e) throws IOException {
+        if (e.getNestedException() instanceof IOException) {
+            throw (IOException) e.getNestedException();
+        }
+        Location location = e.getLocation();
+        if (location == null) {
+            return new SAXParseException(e.getMessage(), null, null, -1, -1, e);
+        }
+        return new SAXParseException(e.getMessage(), location.getPublicId(), location.getSystemId(),
+                location.getLineNumber(), location.getColumnNumber(), e);
+    }
+}
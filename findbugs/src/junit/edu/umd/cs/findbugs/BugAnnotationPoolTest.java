@@ -0,0 +1,81 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import junit.framework.TestCase;
+
+public class BugAnnotationPoolTest extends TestCase {
+
+    private SortedBugCollection bugs;
+
+    @Override
+    protected void setUp() throws Exception {
+        bugs = new SortedBugCollection(new Project());
+    }
+
+    private static BugInstance bug(String type, String className, int line) {
+        return new BugInstance(type, 2).addClass(className).addSourceLine(
+                new SourceLineAnnotation(className, "Foo.java", line, line, -1, -1));
+    }
+
+    public void testEqualAnnotationsAreShared() {
+        BugInstance first = bug("DM_EXIT", "com.example.Foo", 10);
+        BugInstance second = bug("NP_NULL_ON_SOME_PATH", "com.example.Foo", 10);
+        String key = second.getInstanceKey();
+        assertTrue(bugs.add(first));
+        assertTrue(bugs.add(second));
+        assertSame(first.getPrimaryClass(), second.getPrimaryClass());
+        assertSame(first.getPrimarySourceLineAnnotation(), second.getPrimarySourceLineAnnotation());
+        assertEquals(key, second.getInstanceKey());
+
+        InterningStats.Table table = null;
+        for (InterningStats.Table t : bugs.getProjectStats().getInterningStats().getTables()) {
+            if (BugAnnotationPool.STATS_NAME.equals(t.getName())) {
+                table = t;
+            }
+        }
+        assertNotNull(table);
+        assertEquals(2, table.getHits());
+        assertTrue(table.getSavedBytes() > 0);
+    }
+
+    public void testDifferentDescriptionsAreNotShared() {
+        BugInstance first = bug("DM_EXIT", "com.example.Foo", 10);
+        BugInstance second = new BugInstance("DM_EXIT", 2).addClass("com.example.Foo").describe(ClassAnnotation.SUPERCLASS_ROLE);
+        bugs.add(first);
+        bugs.add(second);
+        assertNotSame(first.getPrimaryClass(), second.getPrimaryClass());
+        assertEquals(ClassAnnotation.SUPERCLASS_ROLE, second.getPrimaryClass().getDescription());
+    }
+
+    public void testAnnotationsOfOneBugStayDistinct() {
+        BugInstance bug = new BugInstance("DM_EXIT", 2).addClass("com.example.Foo").addClass("com.example.Foo");
+        bugs.add(bug);
+        assertEquals(2, bug.getAnnotations().size());
+        assertNotSame(bug.getAnnotations().get(0), bug.getAnnotations().get(1));
+    }
+
+    public void testInstanceKeyFollowsChanges() {
+        BugInstance bug = new BugInstance("DM_EXIT", 2).addClass("com.example.Foo");
+        String key = bug.getInstanceKey();
+        bug.addInt(42);
+        assertFalse(key.equals(bug.getInstanceKey()));
+    }
+}
@@ -19,11 +19,16 @@
 
 package edu.umd.cs.findbugs;
 
+import java.util.Arrays;
+import java.util.Set;
+
 import junit.framework.Assert;
 import junit.framework.TestCase;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.DescriptorFactory;
 
 public class ClassScreenerTest extends TestCase {
-    private IClassScreener emptyScreener;
+    private ClassScreener emptyScreener;
 
     private ClassScreener particularClassScreener;
 
@@ -110,5 +115,42 @@ public class ClassScreenerTest extends TestCase {
         Assert.assertTrue(screener.matches(SOME_OTHER_CLASS_JARFILENAME));
         Assert.assertFalse(screener.matches(UNRELATED_THING_CLASS_JARFILENAME));
     }
-}
 
+    public void testPrefixScreener() {
+        ClassScreener screener = new ClassScreener();
+        screener.addAllowedPrefix("com.");
+        Assert.assertTrue(screener.matches(SOME_CLASS_FILENAME));
+        Assert.assertTrue(screener.matches(SOME_CLASS_JARFILENAME));
+        Assert.assertTrue(screener.matches("lib\\com\\Foo.class"));
+        Assert.assertFalse(screener.matches("com.class"));
+        Assert.assertFalse(screener.matches("community/Foo.class"));
+        Assert.assertFalse(screener.matches(UNRELATED_THING_CLASS_FILENAME));
+    }
+
+    public void testNestedNames() {
+        ClassScreener screener = new ClassScreener();
+        screener.addAllowedClass("Outer$Inner");
+        screener.addAllowedPackage("foobar.");
+        Assert.assertTrue(screener.matches("org/Outer$Inner.class"));
+        Assert.assertFalse(screener.matches("org/Outer.class"));
+        Assert.assertTrue(screener.matches(SOME_CLASS_FILENAME));
+        Assert.assertFalse(screener.matches("com/foobar/sub/SomeClass.class"));
+        Assert.assertFalse(screener.matches("com/foobar/Some.Class.class"));
+    }
+
+    public void testGetMatchingClasses() {
+        ClassScreener screener = new ClassScreener();
+        screener.addAllowedClass(UNRELATED_THING_CLASS);
+        screener.addAllowedPrefix(FOOBAR_PACKAGE);
+        ClassDescriptor someClass = DescriptorFactory.createClassDescriptorFromDottedClassName(SOME_CLASS);
+        ClassDescriptor nested = DescriptorFactory.createClassDescriptorFromDottedClassName(FOOBAR_PACKAGE + ".sub.Nested");
+        ClassDescriptor unrelated = DescriptorFactory.createClassDescriptorFromDottedClassName(UNRELATED_THING_CLASS);
+        ClassDescriptor other = DescriptorFactory.createClassDescriptorFromDottedClassName(FURRYLEMUR_PACKAGE + ".Other");
+        Set<ClassDescriptor> matching = screener.getMatchingClasses(Arrays.asList(someClass, nested, unrelated, other));
+        Assert.assertTrue(matching.contains(someClass));
+        Assert.assertTrue(matching.contains(nested));
+        Assert.assertTrue(matching.contains(unrelated));
+        Assert.assertFalse(matching.contains(other));
+        Assert.assertEquals(4, emptyScreener.getMatchingClasses(Arrays.asList(someClass, nested, unrelated, other)).size());
+    }
+}
@@ -0,0 +1,179 @@
+package edu.umd.cs.findbugs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.config.UserPreferences;
+import edu.umd.cs.findbugs.util.Util;
+
+public class IncrementalAnalysisCacheTest extends TestCase {
+
+    private static final String HOLDER = "package incremental; public class Holder { public Object value; }";
+
+    /** Casts the field; whether the cast can succeed depends on the stores in Writer */
+    private static final String READER = "package incremental; public class Reader {"
+            + " public Integer get(Holder h) { return (Integer) h.value; } }";
+
+    private static String writer(String value) {
+        return "package incremental; public class Writer { public void set(Holder h) { h.value = " + value + "; } }";
+    }
+
+    private static final String BASE = "package incremental; public class Base { public int size() { return 0; } }";
+
+    private static final String USER = "package incremental; public class User {"
+            + " public int size(Base b) { return b.size(); } }";
+
+    private static final String OTHER = "package incremental; public class Other extends Base {"
+            + " public int size() { return 1; } }";
+
+    private static String leaf(int size) {
+        return "package incremental; public class Leaf extends Base { public int size() { return " + size + "; } }";
+    }
+
+    private File directory;
+
+    /** The engine of the last analysis */
+    private FindBugs2 engine;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        DetectorFactoryCollection.resetInstance(new DetectorFactoryCollection());
+        directory = File.createTempFile("incremental", "");
+        assertTrue(directory.delete());
+        assertTrue(directory.mkdir());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(directory);
+        super.tearDown();
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Compile a version of the analyzed classes.
+     *
+     * @return the directory containing the class files
+     */
+    private File compile(String version, String... sources) throws IOException {
+        File sourceDirectory = new File(directory, version + "/src/incremental");
+        File classDirectory = new File(directory, version + "/classes");
+        assertTrue(sourceDirectory.mkdirs());
+        assertTrue(classDirectory.mkdirs());
+        List<String> arguments = new ArrayList<String>(Arrays.asList("-source", "1.8", "-target", "1.8", "-nowarn", "-d",
+                classDirectory.getPath()));
+        for (String source : sources) {
+            String className = source.substring(source.indexOf("class ") + 6, source.indexOf(' ', source.indexOf("class ") + 6));
+            File file = new File(sourceDirectory, className + ".java");
+            PrintWriter out = new PrintWriter(file, "UTF-8");
+            try {
+                out.println(source);
+            } finally {
+                Util.closeSilently(out);
+            }
+            arguments.add(file.getPath());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("no Java compiler available", compiler);
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[arguments.size()])));
+        return classDirectory;
+    }
+
+    /**
+     * Analyze the classes.
+     *
+     * @return the reported bugs, in the order they were reported
+     */
+    private List<String> analyze(File classes, File incrementalCache) throws Exception {
+        final List<String> reported = new ArrayList<String>();
+        Project project = new Project();
+        project.addFile(classes.getPath());
+        engine = new FindBugs2();
+        engine.setProject(project);
+        engine.setDetectorFactoryCollection(DetectorFactoryCollection.instance());
+        BugCollectionBugReporter bugReporter = new BugCollectionBugReporter(project) {
+            @Override
+            public void doReportBug(BugInstance bugInstance) {
+                reported.add(bugInstance.getInstanceKey() + " " + bugInstance.getPrimarySourceLineAnnotation());
+                super.doReportBug(bugInstance);
+            }
+        };
+        bugReporter.setPriorityThreshold(Priorities.LOW_PRIORITY);
+        bugReporter.setRankThreshold(BugRanker.VISIBLE_RANK_MAX);
+        engine.setBugReporter(bugReporter);
+        UserPreferences preferences = UserPreferences.createDefaultUserPreferences();
+        preferences.getFilterSettings().clearAllCategories();
+        engine.setUserPreferences(preferences);
+        if (incrementalCache != null) {
+            engine.setIncrementalCacheDirectory(incrementalCache.getPath());
+        }
+        engine.execute();
+        return reported;
+    }
+
+    /**
+     * Only Writer changes, but that changes the summary of the field Reader
+     * reads, and with it the warnings for Reader.
+     */
+    public void testEditedClassChangesFieldSummary() throws Exception {
+        File version1 = compile("v1", HOLDER, READER, writer("Integer.valueOf(1)"));
+        File version2 = compile("v2", HOLDER, READER, writer("\"string\""));
+        File cache = new File(directory, "cache");
+
+        List<String> full1 = analyze(version1, null);
+        assertEquals(full1, analyze(version1, cache));
+        assertEquals(full1, analyze(version1, cache));
+
+        List<String> full2 = analyze(version2, null);
+        assertFalse(full1.equals(full2));
+        assertEquals(full2, analyze(version2, cache));
+        assertEquals(full2, analyze(version2, cache));
+
+        assertEquals(full1, analyze(version1, cache));
+    }
+
+    /**
+     * Only the body of a leaf class changes, so every other class, including
+     * its superclass and the classes using the superclass, is reused.
+     */
+    public void testEditedLeafClassKeepsOtherKeys() throws Exception {
+        File version1 = compile("v1", BASE, USER, OTHER, leaf(2));
+        File version2 = compile("v2", BASE, USER, OTHER, leaf(3));
+        File cache = new File(directory, "cache");
+
+        analyze(version1, cache);
+        IncrementalAnalysisCache incrementalCache = engine.getIncrementalAnalysisCache();
+        assertNotNull(incrementalCache);
+        assertEquals(0, incrementalCache.getHits());
+        // Each reporting pass looks up each of the four classes
+        int passes = incrementalCache.getMisses() / 4;
+        assertTrue(passes > 0);
+        assertEquals(4 * passes, incrementalCache.getMisses());
+
+        List<String> full2 = analyze(version2, null);
+        assertEquals(full2, analyze(version2, cache));
+        incrementalCache = engine.getIncrementalAnalysisCache();
+        assertEquals(3 * passes, incrementalCache.getHits());
+        assertEquals(passes, incrementalCache.getMisses());
+    }
+}
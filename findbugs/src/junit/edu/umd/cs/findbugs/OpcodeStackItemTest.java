@@ -19,6 +19,12 @@
 
 package edu.umd.cs.findbugs;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 public class OpcodeStackItemTest extends TestCase {
@@ -41,4 +47,38 @@ public class OpcodeStackItemTest extends TestCase {
         assertEquals(0,m2.getConstant());
     }
 
+    public void testJumpInfoIsCopied() {
+        Map<Integer, List<OpcodeStack.Item>> locals = new HashMap<Integer, List<OpcodeStack.Item>>();
+        Map<Integer, List<OpcodeStack.Item>> stack = new HashMap<Integer, List<OpcodeStack.Item>>();
+        BitSet locations = new BitSet();
+        List<OpcodeStack.Item> atTarget = new ArrayList<OpcodeStack.Item>();
+        atTarget.add(new OpcodeStack.Item("I", 0));
+        locals.put(12, atTarget);
+        stack.put(12, new ArrayList<OpcodeStack.Item>(atTarget));
+        locals.put(30, new ArrayList<OpcodeStack.Item>());
+        locations.set(12);
+        locations.set(30);
+        OpcodeStack.JumpInfo info = new OpcodeStack.JumpInfo(locals, stack, locations);
+        atTarget.clear();
+        assertEquals(12, info.getNextJump(0));
+        assertEquals(30, info.getNextJump(13));
+        assertEquals(-1, info.getNextJump(31));
+
+        Map<Integer, List<OpcodeStack.Item>> copiedLocals = new HashMap<Integer, List<OpcodeStack.Item>>();
+        Map<Integer, List<OpcodeStack.Item>> copiedStack = new HashMap<Integer, List<OpcodeStack.Item>>();
+        BitSet copiedLocations = new BitSet();
+        info.copyTo(copiedLocals, copiedStack, copiedLocations);
+        assertEquals(locations, copiedLocations);
+        assertEquals(1, copiedLocals.get(12).size());
+        assertEquals(0, copiedLocals.get(30).size());
+        assertEquals(1, copiedStack.get(12).size());
+        assertNull(copiedStack.get(30));
+
+        // Changing a copy doesn't change the jump info
+        copiedLocals.get(12).clear();
+        Map<Integer, List<OpcodeStack.Item>> again = new HashMap<Integer, List<OpcodeStack.Item>>();
+        info.copyTo(again, new HashMap<Integer, List<OpcodeStack.Item>>(), new BitSet());
+        assertEquals(0, again.get(12).get(0).getConstant());
+    }
+
 }
@@ -0,0 +1,163 @@
+package edu.umd.cs.findbugs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.config.UserPreferences;
+import edu.umd.cs.findbugs.util.Util;
+
+public class ParallelAnalysisTest extends TestCase {
+
+    /** The analyzed classes: those of a package of FindBugs itself */
+    private static final String PACKAGE_PATH = "edu/umd/cs/findbugs/ba/";
+
+    private File jar;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        DetectorFactoryCollection.resetInstance(new DetectorFactoryCollection());
+        jar = File.createTempFile("parallel", ".jar");
+        writeClasses(jar);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (!jar.delete()) {
+            jar.deleteOnExit();
+        }
+        super.tearDown();
+    }
+
+    private static File getCodeBase() throws URISyntaxException {
+        return new File(FindBugs2.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static void writeClasses(File target) throws IOException, URISyntaxException {
+        File codeBase = getCodeBase();
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(target));
+        try {
+            if (codeBase.isDirectory()) {
+                File[] files = new File(codeBase, PACKAGE_PATH).listFiles();
+                assertNotNull(files);
+                for (File f : files) {
+                    if (f.getName().endsWith(".class")) {
+                        InputStream in = new FileInputStream(f);
+                        try {
+                            copy(in, out, PACKAGE_PATH + f.getName());
+                        } finally {
+                            Util.closeSilently(in);
+                        }
+                    }
+                }
+            } else {
+                JarFile codeBaseJar = new JarFile(codeBase);
+                try {
+                    for (Enumeration<JarEntry> e = codeBaseJar.entries(); e.hasMoreElements();) {
+                        JarEntry entry = e.nextElement();
+                        String name = entry.getName();
+                        if (name.startsWith(PACKAGE_PATH) && name.indexOf('/', PACKAGE_PATH.length()) < 0
+                                && name.endsWith(".class")) {
+                            InputStream in = codeBaseJar.getInputStream(entry);
+                            try {
+                                copy(in, out, name);
+                            } finally {
+                                Util.closeSilently(in);
+                            }
+                        }
+                    }
+                } finally {
+                    codeBaseJar.close();
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void copy(InputStream in, JarOutputStream out, String name) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        out.closeEntry();
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Analyze the classes.
+     *
+     * @return the reported bugs, in the order they were reported
+     */
+    private List<String> analyze(int numThreads, File incrementalCache) throws Exception {
+        final List<String> reported = new ArrayList<String>();
+        Project project = new Project();
+        project.addFile(jar.getPath());
+        project.addAuxClasspathEntry(getCodeBase().getPath());
+        FindBugs2 engine = new FindBugs2();
+        engine.setProject(project);
+        engine.setDetectorFactoryCollection(DetectorFactoryCollection.instance());
+        BugCollectionBugReporter bugReporter = new BugCollectionBugReporter(project) {
+            @Override
+            public void doReportBug(BugInstance bugInstance) {
+                reported.add(bugInstance.getInstanceKey() + " " + bugInstance.getPrimarySourceLineAnnotation());
+                super.doReportBug(bugInstance);
+            }
+        };
+        bugReporter.setPriorityThreshold(Priorities.LOW_PRIORITY);
+        bugReporter.setRankThreshold(BugRanker.VISIBLE_RANK_MAX);
+        engine.setBugReporter(bugReporter);
+        UserPreferences preferences = UserPreferences.createDefaultUserPreferences();
+        preferences.enableAllDetectors(true);
+        preferences.getFilterSettings().clearAllCategories();
+        engine.setUserPreferences(preferences);
+        engine.setNumAnalysisThreads(numThreads);
+        if (incrementalCache != null) {
+            engine.setIncrementalCacheDirectory(incrementalCache.getPath());
+        }
+        engine.execute();
+        return reported;
+    }
+
+    public void testSameOrderAsSerialAnalysis() throws Exception {
+        List<String> serial = analyze(1, null);
+        assertFalse(serial.isEmpty());
+        assertEquals(serial, analyze(4, null));
+    }
+
+    public void testSameOrderFromIncrementalCache() throws Exception {
+        List<String> serial = analyze(1, null);
+        File cache = File.createTempFile("cache", "");
+        assertTrue(cache.delete());
+        try {
+            assertEquals(serial, analyze(2, cache));
+            assertEquals(serial, analyze(2, cache));
+        } finally {
+            delete(cache);
+        }
+    }
+}
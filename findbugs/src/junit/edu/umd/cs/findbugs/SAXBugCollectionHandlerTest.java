@@ -1,5 +1,6 @@
 package edu.umd.cs.findbugs;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.StringReader;
 
@@ -162,4 +163,102 @@ public class SAXBugCollectionHandlerTest extends TestCase {
         assertEquals(Cloud.UserDesignation.SHOULD_FIX, cloud.getConsensusDesignation(bug));
 
     }
+
+    public void testBinaryRoundTrip() throws Exception {
+        SortedBugCollection origBC = new SortedBugCollection();
+        origBC.readXML(new StringReader(
+                "<BugCollection version='1.3.10-dev-20100728' sequence='3' timestamp='1280333223462' analysisTimestamp='1280333224881' release='r3'>"
+                        + "  <BugInstance type='MS_MUTABLE_ARRAY' priority='1' abbrev='MS' category='MALICIOUS_CODE' instanceHash='1acc5c5b9b7ab9efacede805afe1e53a' instanceOccurrenceNum='0' instanceOccurrenceMax='0' rank='16' first='1' last='2'>"
+                        + "    <Class classname='org.apache.bcel.Constants' primary='true'>"
+                        + "      <SourceLine classname='org.apache.bcel.Constants' start='210' end='1443' sourcefile='Constants.java' sourcepath='org/apache/bcel/Constants.java'/>"
+                        + "    </Class>"
+                        + "    <Field classname='org.apache.bcel.Constants' name='ACCESS_NAMES' signature='[Ljava/lang/String;' isStatic='true' primary='true'>"
+                        + "      <SourceLine classname='org.apache.bcel.Constants' sourcefile='Constants.java' sourcepath='org/apache/bcel/Constants.java'/>"
+                        + "    </Field>"
+                        + "    <SourceLine classname='org.apache.bcel.Constants' primary='true' start='210' end='210' startBytecode='89' endBytecode='89' sourcefile='Constants.java' sourcepath='org/apache/bcel/Constants.java'/>"
+                        + "  </BugInstance>"
+                        + "  <FindBugsSummary timestamp='Wed, 28 Jul 2010 12:07:03 -0400' total_classes='1' referenced_classes='2' total_bugs='1' total_size='1233' num_packages='1'>"
+                        + "    <PackageStats package='org.apache.bcel' total_bugs='1' total_types='1' total_size='1233' priority_1='1'>"
+                        + "      <ClassStats class='org.apache.bcel.Constants' sourceFile='Constants.java' interface='true' size='1233' bugs='1' priority_1='1'/>"
+                        + "    </PackageStats>"
+                        + "  </FindBugsSummary>"
+                        + "  <History>"
+                        + "    <AppVersion sequence='1' timestamp='1280333000000' release='r1' codeSize='1000' numClasses='1'/>"
+                        + "    <AppVersion sequence='2' timestamp='1280333100000' release='r2' codeSize='1100' numClasses='1'/>"
+                        + "  </History>"
+                        + "</BugCollection>"));
+        ByteArrayOutputStream xmlBytes = new ByteArrayOutputStream();
+        origBC.writeXML(xmlBytes);
+
+        ByteArrayOutputStream binaryBytes = new ByteArrayOutputStream();
+        origBC.writeBinary(binaryBytes);
+        SortedBugCollection bc = new SortedBugCollection();
+        bc.readXML(new ByteArrayInputStream(binaryBytes.toByteArray()));
+
+        assertEquals(1, bc.getCollection().size());
+        BugInstance bug = bc.getCollection().iterator().next();
+        assertEquals("MS_MUTABLE_ARRAY", bug.getBugPattern().getType());
+        assertEquals(1, bug.getFirstVersion());
+        assertEquals(2, bug.getLastVersion());
+        assertEquals(3, bc.getSequenceNumber());
+        assertEquals("r2", bc.getAppVersionFromSequenceNumber(2).getReleaseName());
+
+        // Reading the binary gives the same collection as reading the XML
+        SortedBugCollection xmlBC = new SortedBugCollection();
+        xmlBC.readXML(new StringReader(new String(xmlBytes.toByteArray(), "UTF-8")));
+        ByteArrayOutputStream fromXML = new ByteArrayOutputStream();
+        xmlBC.writeXML(fromXML);
+        ByteArrayOutputStream fromBinary = new ByteArrayOutputStream();
+        bc.writeXML(fromBinary);
+        assertEquals(withoutFootprint(new String(fromXML.toByteArray(), "UTF-8")),
+                withoutFootprint(new String(fromBinary.toByteArray(), "UTF-8")));
+    }
+
+    public void testParallelReadIsSameAsSerialRead() throws Exception {
+        SortedBugCollection origBC = new SortedBugCollection();
+        for (int i = 0; i < 1000; i++) {
+            String className = "com.example.pkg" + (i % 7) + ".Class" + (i % 100);
+            String sourceFile = "Class" + (i % 100) + ".java";
+            BugInstance bug = new BugInstance(i % 2 == 0 ? "NP_NULL_ON_SOME_PATH" : "DM_EXIT", 1 + i % 3);
+            bug.addClass(className, sourceFile);
+            bug.addMethod(className, "method" + i, "(Ljava/lang/String;)V", false);
+            bug.addSourceLine(new SourceLineAnnotation(className, sourceFile, i, i, 0, 0));
+            origBC.add(bug);
+        }
+        origBC.addError("Couldn't analyze com.example.Broken");
+        origBC.addMissingClass("com.example.Missing");
+        ByteArrayOutputStream xmlBytes = new ByteArrayOutputStream();
+        origBC.writeXML(xmlBytes);
+        ByteArrayOutputStream binaryBytes = new ByteArrayOutputStream();
+        origBC.writeBinary(binaryBytes);
+
+        String fromXML = readAndWrite(xmlBytes.toByteArray());
+        String fromBinary = readAndWrite(binaryBytes.toByteArray());
+        assertTrue(fromXML.contains("com.example.Missing"));
+        SystemProperties.setProperty("findbugs.load.threads", "4");
+        try {
+            assertEquals(fromXML, readAndWrite(xmlBytes.toByteArray()));
+            assertEquals(fromBinary, readAndWrite(binaryBytes.toByteArray()));
+        } finally {
+            SystemProperties.getLocalProperties().remove("findbugs.load.threads");
+        }
+    }
+
+    private static String readAndWrite(byte[] bytes) throws Exception {
+        SortedBugCollection bc = new SortedBugCollection();
+        bc.readXML(new ByteArrayInputStream(bytes));
+        assertEquals(1000, bc.getCollection().size());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bc.writeXML(out);
+        return withoutFootprint(new String(out.toByteArray(), "UTF-8"));
+    }
+
+    /**
+     * Remove the time and memory used and the profile of the detectors, which
+     * are measured when the summary is written.
+     */
+    private static String withoutFootprint(String xml) {
+        return xml.replaceAll(" (cpu_seconds|clock_seconds|peak_mbytes|gc_seconds)=\"[^\"]*\"", "")
+                .replaceAll("(?s)<FindBugsProfile>.*</FindBugsProfile>", "");
+    }
 }
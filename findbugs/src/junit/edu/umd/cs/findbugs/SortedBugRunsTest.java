@@ -0,0 +1,155 @@
+/*
+ * FindBugs - Find bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+public class SortedBugRunsTest extends TestCase {
+
+    private SortedBugCollection bugs;
+
+    private SortedBugRuns runs;
+
+    private final List<Collection<BugInstance>> parts = new ArrayList<Collection<BugInstance>>();
+
+    @Override
+    protected void setUp() throws Exception {
+        bugs = new SortedBugCollection(new Project());
+        String[] types = { "NP_NULL_ON_SOME_PATH", "DM_EXIT", "UUF_UNUSED_FIELD" };
+        for (int part = 0; part < 3; part++) {
+            parts.add(new TreeSet<BugInstance>(bugs.getComparator()));
+        }
+        for (int i = 0; i < 30; i++) {
+            BugInstance bug = new BugInstance(types[i % types.length], 1 + i % 3).addClass("com.example.Class" + (i % 7))
+                    .addInt(i % 11);
+            bugs.add(bug);
+            parts.get(i % 3).add(bug);
+            if (i % 5 == 0) {
+                // Reported again in a later run
+                parts.get((i + 1) % 3).add((BugInstance) bug.clone());
+            }
+        }
+        runs = new SortedBugRuns(bugs);
+        runs.write(parts.get(0));
+        runs.write(parts.get(1));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        runs.delete();
+    }
+
+    public void testMergeIsSortedWithoutDuplicates() {
+        assertEquals(2, runs.getNumRuns());
+        for (int pass = 0; pass < 2; pass++) {
+            List<BugInstance> merged = new ArrayList<BugInstance>();
+            for (BugInstance bug : runs.merge(parts.get(2))) {
+                merged.add(bug);
+            }
+            List<BugInstance> expected = new ArrayList<BugInstance>(bugs.getCollection());
+            assertEquals(expected.size(), merged.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(0, bugs.getComparator().compare(expected.get(i), merged.get(i)));
+                assertEquals(expected.get(i).getInstanceHash(), merged.get(i).getInstanceHash());
+            }
+        }
+    }
+
+    public void testWriteXMLFromRuns() throws Exception {
+        bugs.setTimestamp(1234567890L);
+        StringWriter expected = new StringWriter();
+        bugs.writeXML(expected);
+
+        bugs.clearBugInstances();
+        StringWriter streamed = new StringWriter();
+        bugs.writeXML(streamed, runs.merge(parts.get(2)));
+
+        assertEquals(withoutFootprint(expected.toString()), withoutFootprint(streamed.toString()));
+    }
+
+    public void testStreamingReporterNotifiesObserversOnce() {
+        XMLBugReporter reporter = new XMLBugReporter(new Project());
+        reporter.setStreaming(true);
+        reporter.setStreamingRunSize(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reporter.setOutputStream(new PrintStream(out));
+        final List<BugInstance> notified = new ArrayList<BugInstance>();
+        reporter.addObserver(new BugReporterObserver() {
+            @Override
+            public void reportBug(BugInstance bugInstance) {
+                notified.add(bugInstance);
+            }
+        });
+
+        for (Collection<BugInstance> part : parts) {
+            for (BugInstance bug : part) {
+                reporter.doReportBug((BugInstance) bug.clone());
+            }
+        }
+        reporter.finish();
+
+        assertEquals(bugs.getCollection().size(), notified.size());
+        assertEquals(new TreeSet<BugInstance>(bugs.getComparator()) {
+            {
+                addAll(notified);
+            }
+        }.size(), notified.size());
+    }
+
+    public void testStreamingReporterCountsDuplicatesAsNormalMode() {
+        BugInstance bug = new BugInstance("DM_EXIT", 1).addClass("com.example.Exit").addInt(1);
+        String[] totals = new String[2];
+        for (int streaming = 0; streaming < 2; streaming++) {
+            XMLBugReporter reporter = new XMLBugReporter(new Project());
+            reporter.setStreaming(streaming == 1);
+            // The duplicate is reported after the first bug has been written
+            // to a run
+            reporter.setStreamingRunSize(1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            reporter.setOutputStream(new PrintStream(out));
+            reporter.doReportBug((BugInstance) bug.clone());
+            reporter.doReportBug((BugInstance) bug.clone());
+            reporter.finish();
+
+            Matcher m = Pattern.compile(" total_bugs=\"([0-9]+)\"").matcher(out.toString());
+            assertTrue(m.find());
+            totals[streaming] = m.group(1);
+        }
+        assertEquals("2", totals[0]);
+        assertEquals(totals[0], totals[1]);
+    }
+
+    /**
+     * The time and memory used are measured each time a summary is written.
+     */
+    private static String withoutFootprint(String xml) {
+        return xml.replaceAll(" (cpu_seconds|clock_seconds|peak_mbytes|gc_seconds)=\"[^\"]*\"", "");
+    }
+}
@@ -0,0 +1,65 @@
+package edu.umd.cs.findbugs.ba;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.ba.ExecutedInstructionsAnalysis.Executed;
+
+public class DataflowTest extends TestCase {
+
+    private static final int[] SIZES = { 1, 2, 5, 20, 100, 500 };
+
+    private static ExecutedInstructionsAnalysis execute(CFG cfg, boolean forwards, boolean useWorklist)
+            throws DataflowAnalysisException {
+        ExecutedInstructionsAnalysis analysis = new ExecutedInstructionsAnalysis(cfg, forwards);
+        new Dataflow<Executed, ExecutedInstructionsAnalysis>(cfg, analysis).execute(useWorklist);
+        return analysis;
+    }
+
+    /*
+     * The CFGs have no self loops: the block order solver only iterates again
+     * if a block has a logical predecessor later in the block order, which a
+     * block jumping to itself is not, so it may stop before the fixpoint.
+     */
+    private static void checkSolversAgree(boolean forwards) throws DataflowAnalysisException {
+        Random random = new Random(42);
+        for (int size : SIZES) {
+            for (int n = 0; n < 20; n++) {
+                CFG cfg = ExecutedInstructionsAnalysis.generateCFG(random, size, false);
+                ExecutedInstructionsAnalysis inBlockOrder = execute(cfg, forwards, false);
+                ExecutedInstructionsAnalysis worklist = execute(cfg, forwards, true);
+
+                assertNull(inBlockOrder.findUnstableBlock(cfg));
+                for (BasicBlock block : cfg.blocks()) {
+                    String where = cfg.getMethodName() + " #" + n + " block " + block.getLabel();
+                    assertFalse(where, inBlockOrder.isTop(inBlockOrder.getResultFact(block)));
+                    assertEquals(where, inBlockOrder.getStartFact(block).toString(), worklist.getStartFact(block).toString());
+                    assertEquals(where, inBlockOrder.getResultFact(block).toString(), worklist.getResultFact(block).toString());
+                }
+            }
+        }
+    }
+
+    private static void checkWorklistReachesFixpoint(boolean forwards) throws DataflowAnalysisException {
+        Random random = new Random(17);
+        for (int size : SIZES) {
+            for (int n = 0; n < 20; n++) {
+                CFG cfg = ExecutedInstructionsAnalysis.generateCFG(random, size, true);
+                assertNull(cfg.getMethodName() + " #" + n, execute(cfg, forwards, true).findUnstableBlock(cfg));
+            }
+        }
+    }
+
+    public void testWorklistForwards() throws Exception {
+        checkSolversAgree(true);
+    }
+
+    public void testWorklistBackwards() throws Exception {
+        checkSolversAgree(false);
+    }
+
+    public void testWorklistWithSelfLoops() throws Exception {
+        checkWorklistReachesFixpoint(true);
+        checkWorklistReachesFixpoint(false);
+    }
+}
@@ -0,0 +1,194 @@
+package edu.umd.cs.findbugs.ba;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.apache.bcel.generic.ACONST_NULL;
+import org.apache.bcel.generic.InstructionHandle;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.NOP;
+
+import edu.umd.cs.findbugs.ba.ExecutedInstructionsAnalysis.Executed;
+
+/**
+ * A dataflow analysis of generated CFGs, for testing the dataflow solvers.
+ * The fact at a location is the set of positions of the instructions which
+ * may have been executed since the last ACONST_NULL, logically before the
+ * location. ACONST_NULL instructions clear the set, all other instructions
+ * add themselves.
+ */
+class ExecutedInstructionsAnalysis extends AbstractDataflowAnalysis<Executed> {
+
+    static class Executed {
+        boolean top;
+
+        int lastUpdateTimestamp;
+
+        final BitSet positions = new BitSet();
+
+        @Override
+        public String toString() {
+            return top ? "TOP" : positions.toString();
+        }
+    }
+
+    private final DepthFirstSearch dfs;
+
+    private final ReverseDepthFirstSearch rdfs;
+
+    private final boolean forwards;
+
+    ExecutedInstructionsAnalysis(CFG cfg, boolean forwards) {
+        this.dfs = new DepthFirstSearch(cfg);
+        dfs.search();
+        this.rdfs = new ReverseDepthFirstSearch(cfg);
+        rdfs.search();
+        this.forwards = forwards;
+    }
+
+    /**
+     * Generate a CFG of about numBlocks blocks: a chain of blocks from the
+     * entry to the exit, with additional jumps forward and back. Some of the
+     * blocks have no instructions.
+     *
+     * @param selfLoops
+     *            whether blocks may jump to themselves
+     */
+    static CFG generateCFG(Random random, int numBlocks, boolean selfLoops) {
+        CFG cfg = new CFG();
+        cfg.setMethodName("generated" + numBlocks);
+        InstructionList il = new InstructionList();
+        BasicBlock[] blocks = new BasicBlock[numBlocks];
+        blocks[0] = cfg.getEntry();
+        for (int i = 1; i < numBlocks; i++) {
+            blocks[i] = cfg.allocate();
+        }
+        for (int i = 0; i < numBlocks; i++) {
+            int numInstructions = i == 0 ? 1 : random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(6);
+            for (int j = 0; j < numInstructions; j++) {
+                blocks[i].addInstruction(il.append(random.nextInt(8) == 0 ? new ACONST_NULL() : new NOP()));
+            }
+        }
+        il.setPositions();
+
+        for (int i = 0; i + 1 < numBlocks; i++) {
+            cfg.createEdge(blocks[i], blocks[i + 1], EdgeTypes.FALL_THROUGH_EDGE);
+            int target = random.nextInt(numBlocks);
+            if ((selfLoops || target != i) && target != i + 1 && random.nextInt(3) == 0) {
+                cfg.createEdge(blocks[i], blocks[target], EdgeTypes.GOTO_EDGE);
+            }
+        }
+        cfg.createEdge(blocks[numBlocks - 1], cfg.getExit(), EdgeTypes.RETURN_EDGE);
+        return cfg;
+    }
+
+    /**
+     * Check that the facts of the blocks are a fixpoint: that they don't
+     * change when recomputed from the facts of their logical predecessors.
+     *
+     * @return a block whose facts change, or null if there is none
+     */
+    BasicBlock findUnstableBlock(CFG cfg) throws DataflowAnalysisException {
+        for (BasicBlock block : cfg.blocks()) {
+            Executed start = createFact();
+            makeFactTop(start);
+            if (block == (forwards ? cfg.getEntry() : cfg.getExit())) {
+                initEntryFact(start);
+            } else {
+                Iterator<Edge> i = forwards ? cfg.incomingEdgeIterator(block) : cfg.outgoingEdgeIterator(block);
+                while (i.hasNext()) {
+                    Edge edge = i.next();
+                    meetInto(getResultFact(forwards ? edge.getSource() : edge.getTarget()), edge, start);
+                }
+            }
+            Executed result = createFact();
+            transfer(block, null, start, result);
+            if (!same(start, getStartFact(block)) || !same(result, getResultFact(block))) {
+                return block;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isForwards() {
+        return forwards;
+    }
+
+    @Override
+    public BlockOrder getBlockOrder(CFG cfg) {
+        return forwards ? new ReversePostOrder(cfg, dfs) : new ReverseDFSOrder(cfg, rdfs, dfs);
+    }
+
+    @Override
+    public Executed createFact() {
+        return new Executed();
+    }
+
+    @Override
+    public void copy(Executed source, Executed dest) {
+        dest.top = source.top;
+        dest.lastUpdateTimestamp = source.lastUpdateTimestamp;
+        dest.positions.clear();
+        dest.positions.or(source.positions);
+    }
+
+    @Override
+    public void initEntryFact(Executed result) {
+        result.top = false;
+        result.positions.clear();
+    }
+
+    @Override
+    public void makeFactTop(Executed fact) {
+        fact.top = true;
+        fact.positions.clear();
+    }
+
+    @Override
+    public boolean isTop(Executed fact) {
+        return fact.top;
+    }
+
+    @Override
+    public boolean isFactValid(Executed fact) {
+        return !fact.top;
+    }
+
+    @Override
+    public boolean same(Executed fact1, Executed fact2) {
+        return fact1.top == fact2.top && fact1.positions.equals(fact2.positions);
+    }
+
+    @Override
+    public int getLastUpdateTimestamp(Executed fact) {
+        return fact.lastUpdateTimestamp;
+    }
+
+    @Override
+    public void setLastUpdateTimestamp(Executed fact, int timestamp) {
+        fact.lastUpdateTimestamp = timestamp;
+    }
+
+    @Override
+    public void meetInto(Executed fact, Edge edge, Executed result) {
+        if (fact.top) {
+            return;
+        }
+        if (result.top) {
+            copy(fact, result);
+        } else {
+            result.positions.or(fact.positions);
+        }
+    }
+
+    @Override
+    public void transferInstruction(InstructionHandle handle, BasicBlock basicBlock, Executed fact) {
+        if (handle.getInstruction() instanceof ACONST_NULL) {
+            fact.positions.clear();
+        } else {
+            fact.positions.set(handle.getPosition());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.ba;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import junit.framework.TestCase;
+
+public class FrameTest extends TestCase {
+
+    static class StringFrame extends Frame<String> {
+        StringFrame(int numLocals) {
+            super(numLocals);
+        }
+    }
+
+    private static StringFrame frame(String... locals) {
+        StringFrame frame = new StringFrame(locals.length);
+        frame.setValid();
+        for (int i = 0; i < locals.length; i++) {
+            frame.setValue(i, locals[i]);
+        }
+        return frame;
+    }
+
+    public void testNewFrameHasNullSlots() {
+        StringFrame frame = new StringFrame(100);
+        frame.setValid();
+        assertEquals(100, frame.getNumSlots());
+        assertNull(frame.getValue(99));
+        frame.setValue(99, "x");
+        assertEquals("x", frame.getValue(99));
+
+        // New frames share an array of nulls, which setValue() must not change
+        StringFrame other = new StringFrame(100);
+        other.setValid();
+        assertNull(other.getValue(99));
+    }
+
+    public void testCopiesAreIndependent() throws DataflowAnalysisException {
+        StringFrame a = frame("a", "b");
+        a.pushValue("s");
+        StringFrame b = new StringFrame(2);
+        b.copyFrom(a);
+        assertTrue(a.sameAs(b));
+
+        b.setValue(0, "c");
+        b.pushValue("t");
+        assertEquals("a", a.getValue(0));
+        assertEquals(3, a.getNumSlots());
+        assertEquals("c", b.getValue(0));
+        assertEquals("t", b.getTopValue());
+        assertFalse(a.sameAs(b));
+
+        // Popping a shared frame and pushing again must not affect the copy
+        StringFrame c = new StringFrame(2);
+        c.copyFrom(a);
+        assertEquals("s", c.popValue());
+        c.pushValue("u");
+        assertEquals("s", a.getTopValue());
+        assertEquals("u", c.getTopValue());
+
+        a.clearStack();
+        assertEquals(0, a.getStackDepth());
+        assertEquals(1, c.getStackDepth());
+    }
+
+    public void testStackGrows() throws DataflowAnalysisException {
+        StringFrame frame = frame("l");
+        for (int i = 0; i < 50; i++) {
+            frame.pushValue(Integer.toString(i));
+        }
+        assertEquals(50, frame.getStackDepth());
+        assertEquals("49", frame.getStackValue(0));
+        assertEquals("0", frame.getStackValue(49));
+        String[] top = new String[3];
+        frame.getTopStackWords(top);
+        assertEquals(Arrays.asList("47", "48", "49"), Arrays.asList(top));
+        for (int i = 49; i >= 0; i--) {
+            assertEquals(Integer.toString(i), frame.popValue());
+        }
+        try {
+            frame.popValue();
+            fail();
+        } catch (DataflowAnalysisException e) {
+            assert true;
+        }
+    }
+
+    public void testAllSlotsIsLiveView() throws DataflowAnalysisException {
+        StringFrame frame = frame("a", "b");
+        StringFrame copy = frame("x");
+        copy.copyFrom(frame);
+        Collection<String> slots = copy.allSlots();
+        copy.setValue(1, "c");
+        copy.pushValue("d");
+        assertEquals(Arrays.asList("a", "c", "d"), new ArrayList<String>(slots));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<String>(frame.allSlots()));
+        try {
+            slots.clear();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assert true;
+        }
+    }
+
+    public void testGetValueOutOfRange() {
+        StringFrame frame = frame("a");
+        try {
+            frame.getValue(1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            assert true;
+        }
+    }
+}
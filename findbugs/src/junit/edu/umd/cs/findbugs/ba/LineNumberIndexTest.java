@@ -0,0 +1,104 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.ba;
+
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.Code;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.LineNumber;
+import org.apache.bcel.classfile.LineNumberTable;
+import org.apache.bcel.classfile.Method;
+
+public class LineNumberIndexTest extends TestCase {
+
+    private JavaClass jclass;
+
+    private LineNumberIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        InputStream in = LineNumberIndexTest.class.getResourceAsStream("LineNumberIndexTest.class");
+        try {
+            jclass = new ClassParser(in, "LineNumberIndexTest.class").parse();
+        } finally {
+            in.close();
+        }
+        index = new LineNumberIndex(jclass);
+    }
+
+    public void testSameLinesAsLineNumberTable() {
+        int checked = 0;
+        for (Method method : jclass.getMethods()) {
+            Code code = method.getCode();
+            LineNumberTable table = code == null ? null : code.getLineNumberTable();
+            LineNumberIndex.MethodLines lines = index.getMethodLines(method.getName(), method.getSignature());
+            if (table == null) {
+                assertNull(lines);
+                continue;
+            }
+            assertNotNull(method.getName(), lines);
+            assertEquals(code.getLength(), lines.getCodeLength());
+            for (int pc = 0; pc < code.getLength(); pc++) {
+                assertEquals(method.getName() + " at " + pc, table.getSourceLine(pc), lines.getSourceLine(pc));
+            }
+            LineNumber[] entries = table.getLineNumberTable();
+            assertEquals(entries[0].getLineNumber(), lines.getFirstLine());
+            assertEquals(entries[entries.length - 1].getLineNumber(), lines.getLastLine());
+            int minLine = Integer.MAX_VALUE;
+            for (LineNumber entry : entries) {
+                minLine = Math.min(minLine, entry.getLineNumber());
+            }
+            assertEquals(minLine, lines.getMinLine());
+            assertEquals(minLine, lines.getSourceLine(lines.getMinLinePC()));
+            checked++;
+        }
+        assertTrue(checked > 2);
+    }
+
+    public void testOverloads() {
+        LineNumberIndex.MethodLines noArgs = index.getMethodLines("overloaded", "()I");
+        LineNumberIndex.MethodLines oneArg = index.getMethodLines("overloaded", "(I)I");
+        assertNotNull(noArgs);
+        assertNotNull(oneArg);
+        assertTrue(noArgs.getFirstLine() != oneArg.getFirstLine());
+        assertNull(index.getMethodLines("overloaded", "(J)I"));
+        assertNull(index.getMethodLines("noSuchMethod", "()V"));
+    }
+
+    public void testLookupWithoutAnalysisCache() {
+        assertNull(LineNumberIndex.lookup(jclass.getClassName(), "overloaded", "()I", -1));
+    }
+
+    int overloaded() {
+        return 0;
+    }
+
+    int overloaded(int x) {
+        int y = x * 2;
+        if (y > 10) {
+            y -= 10;
+        }
+        return y;
+    }
+}
@@ -0,0 +1,144 @@
+package edu.umd.cs.findbugs.ba;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.bcel.generic.ACONST_NULL;
+import org.apache.bcel.generic.InstructionHandle;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.ba.ExecutedInstructionsAnalysis.Executed;
+
+public class LocationFactsTest extends TestCase {
+
+    private Random random;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        random = new Random(7);
+    }
+
+    private static ExecutedInstructionsAnalysis execute(CFG cfg, ExecutedInstructionsAnalysis analysis)
+            throws DataflowAnalysisException {
+        new Dataflow<Executed, ExecutedInstructionsAnalysis>(cfg, analysis).execute(false);
+        return analysis;
+    }
+
+    /**
+     * The fact at a location, recomputed from the start fact of its block.
+     */
+    private static Executed recompute(ExecutedInstructionsAnalysis analysis, Location location)
+            throws DataflowAnalysisException {
+        Executed result = analysis.createFact();
+        analysis.makeFactTop(result);
+        analysis.transfer(location.getBasicBlock(), location.getHandle(), analysis.getStartFact(location.getBasicBlock()),
+                result);
+        return result;
+    }
+
+    private static void checkFacts(ExecutedInstructionsAnalysis analysis, List<Location> locations)
+            throws DataflowAnalysisException {
+        for (Location location : locations) {
+            Executed fact = analysis.getFactAtLocation(location);
+            assertEquals(location.toString(), recompute(analysis, location).toString(), fact.toString());
+            // The caller owns the fact
+            analysis.makeFactTop(fact);
+        }
+    }
+
+    /**
+     * The locations of each block in logical order, that is, in the order a
+     * detector would usually ask for them.
+     */
+    private static List<Location> locationsInOrder(CFG cfg, boolean forwards) {
+        List<Location> locations = new ArrayList<Location>();
+        for (BasicBlock block : cfg.blocks()) {
+            List<Location> blockLocations = new ArrayList<Location>();
+            for (BasicBlock.InstructionIterator i = block.instructionIterator(); i.hasNext();) {
+                blockLocations.add(new Location(i.next(), block));
+            }
+            if (!forwards) {
+                Collections.reverse(blockLocations);
+            }
+            locations.addAll(blockLocations);
+        }
+        return locations;
+    }
+
+    private void checkQueries(boolean forwards, boolean replayable) throws DataflowAnalysisException {
+        for (int size : new int[] { 1, 5, 50, 300 }) {
+            CFG cfg = ExecutedInstructionsAnalysis.generateCFG(random, size, true);
+            ExecutedInstructionsAnalysis analysis = execute(cfg, analysis(cfg, forwards, replayable));
+            List<Location> locations = locationsInOrder(cfg, forwards);
+
+            checkFacts(analysis, locations);
+
+            List<Location> backwards = new ArrayList<Location>(locations);
+            Collections.reverse(backwards);
+            checkFacts(analysis, backwards);
+
+            List<Location> shuffled = new ArrayList<Location>(locations);
+            Collections.shuffle(shuffled, random);
+            checkFacts(analysis, shuffled);
+
+            // Alternate between the locations of different blocks
+            List<Location> interleaved = new ArrayList<Location>();
+            for (int i = 0, j = locations.size() / 2; j < locations.size(); i++, j++) {
+                interleaved.add(locations.get(i));
+                interleaved.add(locations.get(j));
+            }
+            checkFacts(analysis, interleaved);
+            checkFacts(analysis, locations);
+        }
+    }
+
+    private static ExecutedInstructionsAnalysis analysis(CFG cfg, boolean forwards, boolean replayable) {
+        if (replayable) {
+            return new ExecutedInstructionsAnalysis(cfg, forwards);
+        }
+        return new ExecutedInstructionsAnalysis(cfg, forwards) {
+            @Override
+            protected boolean isLocationFactReplayable() {
+                return false;
+            }
+        };
+    }
+
+    public void testForwards() throws Exception {
+        checkQueries(true, true);
+    }
+
+    public void testBackwards() throws Exception {
+        checkQueries(false, true);
+    }
+
+    public void testNotReplayable() throws Exception {
+        checkQueries(true, false);
+        checkQueries(false, false);
+    }
+
+    public void testExecuteClearsCache() throws Exception {
+        for (boolean forwards : new boolean[] { true, false }) {
+            CFG cfg = ExecutedInstructionsAnalysis.generateCFG(random, 50, true);
+            ExecutedInstructionsAnalysis analysis = execute(cfg, analysis(cfg, forwards, true));
+            List<Location> locations = locationsInOrder(cfg, forwards);
+            List<Location> shuffled = new ArrayList<Location>(locations);
+            Collections.shuffle(shuffled, random);
+            checkFacts(analysis, shuffled);
+
+            // Change what the instructions do, so that most facts change
+            for (Location location : locations) {
+                InstructionHandle handle = location.getHandle();
+                if (!(handle.getInstruction() instanceof ACONST_NULL) && random.nextInt(4) == 0) {
+                    handle.setInstruction(new ACONST_NULL());
+                }
+            }
+            execute(cfg, analysis);
+            checkFacts(analysis, shuffled);
+            checkFacts(analysis, locations);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Bytecode Analysis Framework
+ * Copyright (C) 2004,2005 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.ba.obl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.BugCollectionBugReporter;
+import edu.umd.cs.findbugs.BugInstance;
+import edu.umd.cs.findbugs.BugRanker;
+import edu.umd.cs.findbugs.DetectorFactoryCollection;
+import edu.umd.cs.findbugs.FindBugs2;
+import edu.umd.cs.findbugs.Priorities;
+import edu.umd.cs.findbugs.Project;
+import edu.umd.cs.findbugs.SystemProperties;
+import edu.umd.cs.findbugs.config.UserPreferences;
+import edu.umd.cs.findbugs.util.Util;
+
+public class ObligationAnalysisTest extends TestCase {
+
+    /**
+     * The analyzed class. When one of the streams can't be closed, the other
+     * one leaks, so there are several states at the exception handler.
+     */
+    static class Copier {
+        public static void copy(File source, File target) throws IOException {
+            InputStream in = null;
+            OutputStream out = null;
+            byte[] buf = new byte[1024];
+            int len;
+            try {
+                in = new FileInputStream(source);
+                out = new FileOutputStream(target);
+                while ((len = in.read(buf)) > 0) {
+                    out.write(buf, 0, len);
+                }
+            } finally {
+                in.close();
+                out.close();
+            }
+        }
+    }
+
+    private File jar;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        jar = File.createTempFile("obligation", ".jar");
+        String name = Copier.class.getName().replace('.', '/') + ".class";
+        InputStream in = Copier.class.getClassLoader().getResourceAsStream(name);
+        assertNotNull(in);
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            out.putNextEntry(new JarEntry(name));
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            out.closeEntry();
+        } finally {
+            Util.closeSilently(in);
+            out.close();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SystemProperties.getLocalProperties().remove("oa.maxstates");
+        if (!jar.delete()) {
+            jar.deleteOnExit();
+        }
+        super.tearDown();
+    }
+
+    /**
+     * Analyze the class.
+     *
+     * @return the types of the reported obligation bugs
+     */
+    private List<String> analyze() throws Exception {
+        final List<String> reported = new ArrayList<String>();
+        Project project = new Project();
+        project.addFile(jar.getPath());
+        FindBugs2 engine = new FindBugs2();
+        engine.setProject(project);
+        engine.setDetectorFactoryCollection(DetectorFactoryCollection.instance());
+        BugCollectionBugReporter bugReporter = new BugCollectionBugReporter(project) {
+            @Override
+            public void doReportBug(BugInstance bugInstance) {
+                if (bugInstance.getType().startsWith("OBL_")) {
+                    reported.add(bugInstance.getType());
+                }
+                super.doReportBug(bugInstance);
+            }
+        };
+        bugReporter.setPriorityThreshold(Priorities.LOW_PRIORITY);
+        bugReporter.setRankThreshold(BugRanker.VISIBLE_RANK_MAX);
+        engine.setBugReporter(bugReporter);
+        UserPreferences preferences = UserPreferences.createDefaultUserPreferences();
+        preferences.enableAllDetectors(true);
+        preferences.getFilterSettings().clearAllCategories();
+        engine.setUserPreferences(preferences);
+        engine.execute();
+        return reported;
+    }
+
+    public void testMethodIsSkippedWhenStateBudgetIsExceeded() throws Exception {
+        assertFalse(analyze().isEmpty());
+
+        SystemProperties.setProperty("oa.maxstates", "1");
+        assertEquals(new ArrayList<String>(), analyze());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Bytecode Analysis Framework
+ * Copyright (C) 2004,2005 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.ba.obl;
+
+import junit.framework.TestCase;
+
+public class ObligationSetTest extends TestCase {
+
+    private ObligationFactory factory;
+
+    private Obligation inputStream;
+
+    private Obligation outputStream;
+
+    @Override
+    protected void setUp() throws Exception {
+        factory = new ObligationFactory();
+        inputStream = factory.addObligation("java.io.InputStream");
+        outputStream = factory.addObligation("java.io.OutputStream");
+    }
+
+    public void testSetsAreHashConsed() {
+        ObligationSet empty = factory.createObligationSet();
+        assertTrue(empty.isEmpty());
+
+        ObligationSet inThenOut = empty.add(inputStream).add(outputStream);
+        ObligationSet outThenIn = empty.add(outputStream).add(inputStream);
+        assertSame(inThenOut, outThenIn);
+        assertEquals(1, inThenOut.getCount(inputStream.getId()));
+        assertEquals(1, inThenOut.getCount(outputStream.getId()));
+        assertTrue(inThenOut.getId() != empty.getId());
+
+        assertSame(empty, inThenOut.remove(inputStream).remove(outputStream));
+        assertSame(empty, empty.remove(inputStream));
+        assertEquals(0, empty.getCount(inputStream.getId()));
+    }
+
+    public void testTablesAreNotShared() {
+        ObligationSet empty = factory.createObligationSet();
+        ObligationSet otherEmpty = factory.createObligationSet();
+        assertNotSame(empty, otherEmpty);
+        assertEquals(empty, otherEmpty);
+
+        ObligationSet inputStreams = empty.add(inputStream);
+        ObligationSet otherInputStreams = otherEmpty.add(inputStream);
+        assertNotSame(inputStreams, otherInputStreams);
+        assertEquals(inputStreams, otherInputStreams);
+        assertEquals(inputStreams.getId(), otherInputStreams.getId());
+    }
+
+    public void testStateSetUpdatesStates() throws Exception {
+        ObligationSet empty = factory.createObligationSet();
+        StateSet stateSet = new StateSet(empty);
+        stateSet.addObligation(inputStream, 1);
+        stateSet.addObligation(inputStream, 2);
+
+        ObligationSet twoInputStreams = empty.add(inputStream).add(inputStream);
+        assertEquals(1, stateSet.getAllObligationSets().size());
+        assertSame(twoInputStreams, stateSet.stateIterator().next().getObligationSet());
+
+        stateSet.deleteObligation(inputStream, 3);
+        stateSet.deleteObligation(inputStream, 4);
+        assertTrue(stateSet.isEmpty());
+    }
+}
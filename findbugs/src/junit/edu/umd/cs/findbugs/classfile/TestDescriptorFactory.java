@@ -0,0 +1,93 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.classfile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.umd.cs.findbugs.InterningStats;
+
+public class TestDescriptorFactory {
+
+    @After
+    public void tearDown() {
+        DescriptorFactory.clearInstance();
+    }
+
+    @Test
+    public void testInterning() {
+        DescriptorFactory.clearInstance();
+        DescriptorFactory factory = DescriptorFactory.instance();
+        ClassDescriptor c = factory.getClassDescriptor("com/bla/Foo");
+        assertSame(c, factory.getClassDescriptor(new String("com/bla/Foo")));
+        assertSame(c, factory.getClassDescriptorForDottedClassName("com.bla.Foo"));
+        MethodDescriptor m = factory.getMethodDescriptor("com/bla/Foo", "foo", "()V", false);
+        assertSame(m, factory.getMethodDescriptor("com/bla/Foo", "foo", "()V", false));
+
+        InterningStats stats = new InterningStats();
+        factory.reportInterningStats(stats);
+        for (InterningStats.Table table : stats.getTables()) {
+            if ("ClassDescriptor".equals(table.getName())) {
+                assertEquals(1, table.getMisses());
+                assertEquals(2, table.getHits());
+            } else if ("MethodDescriptor".equals(table.getName())) {
+                assertEquals(1, table.getMisses());
+                assertEquals(1, table.getHits());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception {
+        DescriptorFactory.clearInstance();
+        final DescriptorFactory factory = DescriptorFactory.instance();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Callable<ClassDescriptor> task = new Callable<ClassDescriptor>() {
+                @Override
+                public ClassDescriptor call() {
+                    ClassDescriptor result = null;
+                    for (int i = 0; i < 1000; i++) {
+                        ClassDescriptor d = factory.getClassDescriptor(new String("com/bla/C" + i));
+                        if (i == 500) {
+                            result = d;
+                        }
+                    }
+                    return result;
+                }
+            };
+            Future<ClassDescriptor> f1 = executor.submit(task);
+            Future<ClassDescriptor> f2 = executor.submit(task);
+            assertSame(f1.get(), f2.get());
+            assertTrue(factory.getAllClassDescriptors().size() == 1000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
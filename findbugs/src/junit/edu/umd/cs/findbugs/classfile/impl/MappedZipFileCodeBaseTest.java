@@ -0,0 +1,155 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2006, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.classfile.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.classfile.ICodeBaseEntry;
+import edu.umd.cs.findbugs.classfile.ICodeBaseIterator;
+
+public class MappedZipFileCodeBaseTest extends TestCase {
+
+    private File zipFile;
+
+    private byte[] bigContents;
+
+    @Override
+    protected void setUp() throws Exception {
+        zipFile = File.createTempFile("mapped", ".zip");
+        bigContents = new byte[100000];
+        for (int i = 0; i < bigContents.length; i++) {
+            bigContents[i] = (byte) (i % 17);
+        }
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            out.putNextEntry(new ZipEntry("a/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("a/Deflated.class"));
+            out.write(bigContents);
+            out.closeEntry();
+
+            byte[] stored = "stored".getBytes("UTF-8");
+            ZipEntry storedEntry = new ZipEntry("a/Stored.txt");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(stored.length);
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            storedEntry.setCrc(crc.getValue());
+            out.putNextEntry(storedEntry);
+            out.write(stored);
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry("a/été.txt"));
+            out.write(1);
+            out.closeEntry();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        zipFile.delete();
+    }
+
+    private static byte[] read(ICodeBaseEntry entry) throws IOException {
+        try (InputStream in = entry.openResource()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[1000];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    public void testLookup() throws Exception {
+        MappedZipFileCodeBase codeBase = new MappedZipFileCodeBase(null, zipFile);
+        try {
+            ICodeBaseEntry deflated = codeBase.lookupResource("a/Deflated.class");
+            assertNotNull(deflated);
+            assertEquals(bigContents.length, deflated.getNumBytes());
+            assertTrue(java.util.Arrays.equals(bigContents, read(deflated)));
+
+            ICodeBaseEntry stored = codeBase.lookupResource("a/Stored.txt");
+            assertNotNull(stored);
+            assertEquals("stored", new String(read(stored), "UTF-8"));
+
+            assertNotNull(codeBase.lookupResource("a/été.txt"));
+            assertNull(codeBase.lookupResource("a/Missing.class"));
+            assertNull(codeBase.lookupResource("a/Deflated.clas"));
+        } finally {
+            codeBase.close();
+        }
+        assertNull(codeBase.lookupResource("a/Deflated.class"));
+    }
+
+    public void testIterator() throws Exception {
+        MappedZipFileCodeBase codeBase = new MappedZipFileCodeBase(null, zipFile);
+        try {
+            Set<String> names = new HashSet<String>();
+            for (ICodeBaseIterator i = codeBase.iterator(); i.hasNext();) {
+                names.add(i.next().getResourceName());
+            }
+            assertEquals(3, names.size());
+            assertTrue(names.contains("a/Deflated.class"));
+            assertTrue(names.contains("a/Stored.txt"));
+            assertEquals(4, codeBase.getResourceNameHashCodes().length);
+        } finally {
+            codeBase.close();
+        }
+    }
+
+    public void testClassPathIndex() throws Exception {
+        MappedZipFileCodeBase first = new MappedZipFileCodeBase(null, zipFile);
+        MappedZipFileCodeBase second = new MappedZipFileCodeBase(null, zipFile);
+        ClassPathImpl classPath = new ClassPathImpl();
+        classPath.addCodeBase(first);
+        classPath.addCodeBase(second);
+        try {
+            assertSame(first, classPath.lookupResource("a/Stored.txt").getCodeBase());
+        } finally {
+            classPath.close();
+        }
+    }
+
+    public void testNotAZipFile() throws Exception {
+        File file = File.createTempFile("notazip", ".zip");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(new byte[100]);
+            }
+            new MappedZipFileCodeBase(null, file);
+            fail();
+        } catch (IOException e) {
+            // expected
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2006, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.classfile.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.classfile.ICodeBaseEntry;
+
+public class NestedZipFileCodeBaseTest extends TestCase {
+
+    private File zipFile;
+
+    private static byte[] makeJar(String entryName, String contents) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry(entryName));
+            out.write(contents.getBytes("UTF-8"));
+            out.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        zipFile = File.createTempFile("outer", ".zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            byte[] stored = makeJar("p/Stored.class", "stored");
+            ZipEntry storedEntry = new ZipEntry("lib/stored.jar");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(stored.length);
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            storedEntry.setCrc(crc.getValue());
+            out.putNextEntry(storedEntry);
+            out.write(stored);
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry("lib/deflated.jar"));
+            out.write(makeJar("p/Deflated.class", "deflated"));
+            out.closeEntry();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        zipFile.delete();
+    }
+
+    private static String read(ICodeBaseEntry entry) throws Exception {
+        try (InputStream in = entry.openResource()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) >= 0) {
+                out.write(b);
+            }
+            return new String(out.toByteArray(), "UTF-8");
+        }
+    }
+
+    private void checkNested(String jarName, String className, String contents) throws Exception {
+        MappedZipFileCodeBase parent = new MappedZipFileCodeBase(null, zipFile);
+        NestedZipFileCodeBase nested = new NestedZipFileCodeBase(new NestedZipFileCodeBaseLocator(parent, jarName));
+        try {
+            ICodeBaseEntry entry = nested.lookupResource(className);
+            assertNotNull(entry);
+            assertSame(nested, entry.getCodeBase());
+            assertEquals(contents, read(entry));
+            assertTrue(nested.iterator().hasNext());
+        } finally {
+            nested.close();
+            parent.close();
+        }
+    }
+
+    public void testStoredNestedJar() throws Exception {
+        checkNested("lib/stored.jar", "p/Stored.class", "stored");
+    }
+
+    public void testDeflatedNestedJar() throws Exception {
+        checkNested("lib/deflated.jar", "p/Deflated.class", "deflated");
+    }
+
+    public void testInterruptKeepsInterruptStatus() throws Exception {
+        MappedZipFileCodeBase parent = new MappedZipFileCodeBase(null, zipFile);
+        Thread.currentThread().interrupt();
+        try {
+            new NestedZipFileCodeBase(new NestedZipFileCodeBaseLocator(parent, "lib/deflated.jar")).close();
+            fail("interrupt ignored");
+        } catch (InterruptedIOException e) {
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+            parent.close();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.umd.cs.findbugs.BugInstance;
+
+public class FilterIndexTest {
+
+    private Filter filter;
+
+    private final List<BugInstance> bugs = new ArrayList<BugInstance>();
+
+    private static AndMatcher match(Matcher... matchers) {
+        AndMatcher and = new AndMatcher();
+        for (Matcher m : matchers) {
+            and.addChild(m);
+        }
+        return and;
+    }
+
+    @Before
+    public void setUp() {
+        filter = new Filter();
+        for (int i = 0; i < 20; i++) {
+            filter.addChild(match(new ClassMatcher("com.example.Class" + i), new BugMatcher("", "UUF_UNUSED_FIELD", "")));
+        }
+        filter.addChild(match(new ClassMatcher("~com\\.example\\.pkg\\..*")));
+        filter.addChild(match(new BugMatcher("", "", "PERFORMANCE")));
+        filter.addChild(match(new BugMatcher("NP", "", "")));
+        filter.addChild(match(new ClassMatcher("~.*Test"), new BugMatcher("", "DM_EXIT", "")));
+        filter.addChild(match(new ClassMatcher("~(com|org)\\.other\\.[^.]+")));
+
+        String[] classes = { "com.example.Class3", "com.example.Class30", "com.example.pkg.Foo", "com.example.pkgFoo",
+                "com.other.Bar", "org.other.Bar", "org.other.sub.Bar", "com.example.FooTest" };
+        String[] types = { "UUF_UNUSED_FIELD", "DM_EXIT", "NP_NULL_ON_SOME_PATH", "SIC_INNER_SHOULD_BE_STATIC" };
+        for (String className : classes) {
+            for (String type : types) {
+                bugs.add(new BugInstance(type, 2).addClass(className));
+            }
+        }
+    }
+
+    /** Match by trying each enabled child in turn, as Filter used to. */
+    private boolean linearMatch(BugInstance bug) {
+        for (Matcher child : filter.getChildren()) {
+            if (filter.isEnabled(child) && child.match(bug)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkSameAsLinear() {
+        int matched = 0;
+        for (BugInstance bug : bugs) {
+            boolean expected = linearMatch(bug);
+            assertEquals(bug.getType() + " in " + bug.getPrimaryClass().getClassName(), expected, filter.match(bug));
+            if (expected) {
+                matched++;
+            }
+        }
+        assertTrue(matched > 0);
+        assertTrue(matched < bugs.size());
+    }
+
+    @Test
+    public void matchesLikeLinearSearch() {
+        checkSameAsLinear();
+    }
+
+    @Test
+    public void followsChangesToFilter() {
+        checkSameAsLinear();
+        Matcher first = filter.getChildren().iterator().next();
+        filter.disable(first);
+        checkSameAsLinear();
+        filter.enable(first);
+
+        AndMatcher and = new AndMatcher();
+        filter.addChild(and);
+        // An empty And matches everything
+        assertTrue(filter.match(bugs.get(bugs.size() - 1)));
+        and.addChild(new ClassMatcher("com.example.FooTest"));
+        checkSameAsLinear();
+        filter.removeChild(and);
+        checkSameAsLinear();
+    }
+
+    @Test
+    public void followsChangesThroughChildIterator() {
+        AndMatcher and = match(new ClassMatcher("com.example.FooTest"), new BugMatcher("", "SIC_INNER_SHOULD_BE_STATIC", ""));
+        filter.addChild(and);
+        checkSameAsLinear();
+        Iterator<Matcher> i = and.childIterator();
+        i.next();
+        i.remove();
+        checkSameAsLinear();
+    }
+
+    @Test
+    public void countsChangesPerTree() {
+        int count = filter.getModificationCount();
+        Filter other = new Filter();
+        other.addChild(match(new ClassMatcher("com.example.Other")));
+        assertEquals(count, filter.getModificationCount());
+
+        AndMatcher and = match(new ClassMatcher("com.example.FooTest"));
+        AndMatcher shared = match(and);
+        filter.addChild(shared);
+        other.addChild(shared);
+        other.removeChild(shared);
+        count = filter.getModificationCount();
+        int otherCount = other.getModificationCount();
+        and.addChild(new BugMatcher("", "DM_EXIT", ""));
+        assertTrue(filter.getModificationCount() != count);
+        assertEquals(otherCount, other.getModificationCount());
+    }
+
+    @Test
+    public void setsAnyMatches() {
+        AndMatcher and = match(new ClassMatcher("com.example.pkg.Foo"));
+        for (int i = 0; i < 10; i++) {
+            filter.addChild(match(new ClassMatcher("com.example.Unused" + i)));
+        }
+        filter.addChild(and);
+        assertFalse(and.anyMatches());
+        assertTrue(filter.match(new BugInstance("DM_EXIT", 2).addClass("com.example.pkg.Foo")));
+        // The earlier package matcher matches first, as it would without the index
+        assertFalse(and.anyMatches());
+    }
+
+    @Test
+    public void literalPrefix() {
+        assertEquals("com.example.", FilterIndex.getLiteralPrefix("com\\.example\\..*"));
+        assertEquals("com.example.", FilterIndex.getLiteralPrefix("com\\.example\\.[^.]+"));
+        assertEquals("com.example", FilterIndex.getLiteralPrefix("com\\.examples?"));
+        assertEquals("com.exampl", FilterIndex.getLiteralPrefix("com\\.example*"));
+        assertEquals("com.example", FilterIndex.getLiteralPrefix("com\\.example+"));
+        assertEquals("", FilterIndex.getLiteralPrefix(".*Test"));
+        assertEquals("", FilterIndex.getLiteralPrefix("(?i)com\\.example"));
+        assertEquals("", FilterIndex.getLiteralPrefix("com\\.a|org\\.b"));
+        assertEquals("Foo", FilterIndex.getLiteralPrefix("Foo\\d+"));
+        assertEquals("Foo$Bar", FilterIndex.getLiteralPrefix("Foo\\$Bar"));
+    }
+}
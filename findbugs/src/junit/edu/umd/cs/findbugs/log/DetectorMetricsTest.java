@@ -0,0 +1,108 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2003-2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.log;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.classfile.ClassDescriptor;
+import edu.umd.cs.findbugs.classfile.DescriptorFactory;
+
+public class DetectorMetricsTest extends TestCase {
+
+    /**
+     * Record a visit which took the given time, in wall and CPU time, and
+     * allocated ten bytes per nanosecond.
+     */
+    private static void visit(DetectorMetrics metrics, int pass, String detector, ClassDescriptor c, int declaredMethods,
+            long nanos) {
+        metrics.record(pass, detector, c, declaredMethods, nanos, nanos, 10 * nanos);
+    }
+
+    public void testAggregatesPerPassAndDetector() {
+        DetectorMetrics metrics = new DetectorMetrics(10);
+        ClassDescriptor a = DescriptorFactory.createClassDescriptor("p/A");
+        ClassDescriptor b = DescriptorFactory.createClassDescriptor("p/B");
+        visit(metrics, 1, "FindFoo", a, 3, 100);
+        visit(metrics, 1, "FindFoo", b, 4, 250);
+        visit(metrics, 2, "FindFoo", a, 3, 40);
+
+        List<DetectorMetrics.DetectorCost> costs = metrics.getDetectorCosts();
+        assertEquals(2, costs.size());
+        // Most expensive first
+        DetectorMetrics.DetectorCost first = costs.get(0);
+        assertEquals("FindFoo", first.getDetectorName());
+        assertEquals(1, first.getPass());
+        assertEquals(2, first.getClasses());
+        assertEquals(7, first.getDeclaredMethods());
+        assertEquals(350, first.getWallTime());
+        assertEquals(350, first.getCpuTime());
+        assertEquals(3500, first.getAllocatedBytes());
+        DetectorMetrics.DetectorCost second = costs.get(1);
+        assertEquals("FindFoo", second.getDetectorName());
+        assertEquals(2, second.getPass());
+        assertEquals(1, second.getClasses());
+        assertEquals(3, second.getDeclaredMethods());
+        assertEquals(40, second.getWallTime());
+        assertEquals(40, second.getCpuTime());
+        assertEquals(400, second.getAllocatedBytes());
+    }
+
+    public void testKeepsSlowestClasses() {
+        DetectorMetrics metrics = new DetectorMetrics(2);
+        ClassDescriptor a = DescriptorFactory.createClassDescriptor("p/A");
+        ClassDescriptor b = DescriptorFactory.createClassDescriptor("p/B");
+        ClassDescriptor c = DescriptorFactory.createClassDescriptor("p/C");
+        visit(metrics, 1, "FindFoo", a, 1, 1000);
+        visit(metrics, 1, "FindFoo", b, 1, 200000);
+        visit(metrics, 1, "FindFoo", c, 1, 20000);
+
+        List<DetectorMetrics.ClassCost> slowest = metrics.getSlowestClasses();
+        assertEquals(2, slowest.size());
+        assertEquals("p.B", slowest.get(0).getClassName());
+        assertEquals(200000, slowest.get(0).getWallTime());
+        assertEquals(200000, slowest.get(0).getCpuTime());
+        assertEquals("p.C", slowest.get(1).getClassName());
+        assertEquals(20000, slowest.get(1).getWallTime());
+        assertEquals(20000, slowest.get(1).getCpuTime());
+        assertEquals(221000, metrics.getDetectorCosts().get(0).getWallTime());
+    }
+
+    public void testWrite() {
+        DetectorMetrics metrics = new DetectorMetrics(5);
+        visit(metrics, 0, "Find\"Foo\"", DescriptorFactory.createClassDescriptor("p/A"), 2, 5);
+
+        StringWriter csv = new StringWriter();
+        metrics.writeCSV(new PrintWriter(csv));
+        String[] lines = csv.toString().split("\\r?\\n");
+        assertEquals(3, lines.length);
+        assertEquals("detector,0,\"Find\"\"Foo\"\"\",,1,2,5,5,50", lines[1]);
+        assertEquals("class,0,\"Find\"\"Foo\"\"\",p.A,1,2,5,5,50", lines[2]);
+
+        StringWriter json = new StringWriter();
+        metrics.writeJSON(new PrintWriter(json));
+        assertTrue(json.toString().contains("{\"pass\": 0, \"detector\": \"Find\\\"Foo\\\"\", \"classes\": 1, \"declaredMethods\": 2, "
+                + "\"wallTimeNanos\": 5, \"cpuTimeNanos\": 5, \"allocatedBytes\": 50}"));
+        assertTrue(json.toString().contains("{\"pass\": 0, \"detector\": \"Find\\\"Foo\\\"\", \"class\": \"p.A\", "
+                + "\"declaredMethods\": 2, \"wallTimeNanos\": 5, \"cpuTimeNanos\": 5, \"allocatedBytes\": 50}"));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * FindBugs - Find Bugs in Java programs
+ * Copyright (C) 2006,2008 University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.util;
+
+import junit.framework.TestCase;
+
+public class ConcurrentMapCacheTest extends TestCase {
+
+    public void testBounded() {
+        ConcurrentMapCache<Integer, String> cache = new ConcurrentMapCache<Integer, String>(10);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, Integer.toString(i));
+            assertTrue(cache.size() <= 10);
+        }
+        assertEquals("99", cache.get(99));
+        assertNull(cache.get(0));
+    }
+
+    public void testReferencedEntryGetsSecondChance() {
+        ConcurrentMapCache<Integer, String> cache = new ConcurrentMapCache<Integer, String>(3);
+        cache.put(1, "1");
+        cache.put(2, "2");
+        cache.put(3, "3");
+        assertEquals("1", cache.get(1));
+        cache.put(4, "4");
+        assertEquals("1", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(3, cache.size());
+    }
+
+    public void testPutIfAbsent() {
+        ConcurrentMapCache<String, String> cache = new ConcurrentMapCache<String, String>(3);
+        assertNull(cache.putIfAbsent("a", "x"));
+        assertEquals("x", cache.putIfAbsent("a", "y"));
+        assertTrue(cache.replace("a", "x", "z"));
+        assertEquals("z", cache.get("a"));
+        assertTrue(cache.remove("a", "z"));
+        assertTrue(cache.isEmpty());
+    }
+
+    public void testRemovedKeysLeaveQueue() {
+        ConcurrentMapCache<Integer, String> cache = new ConcurrentMapCache<Integer, String>(3);
+        for (int i = 0; i < 100; i++) {
+            cache.put(1, "1");
+            cache.remove(1);
+            cache.putIfAbsent(2, "2");
+            cache.remove(2, "2");
+        }
+        assertEquals(0, cache.queuedKeys());
+        cache.put(1, "1");
+        cache.put(1, "one");
+        assertEquals(1, cache.queuedKeys());
+        cache.put(2, "2");
+        cache.put(3, "3");
+        cache.put(4, "4");
+        assertNull(cache.get(1));
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.queuedKeys());
+    }
+
+    public void testConcurrentPuts() throws InterruptedException {
+        final ConcurrentMapCache<Integer, Integer> cache = new ConcurrentMapCache<Integer, Integer>(50);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int base = t * 1000;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        cache.put(base + i, i);
+                        cache.get(base + i / 2);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(cache.size() <= 50 + threads.length);
+    }
+}
@@ -0,0 +1,91 @@
+package edu.umd.cs.findbugs.workflow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class ParallelWorkflowTest extends TestCase {
+
+    private static List<Integer> range(int n) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    private static List<Integer> concatenate(List<Integer> list, int numThreads) {
+        List<List<Integer>> chunks = ParallelWorkflow.processChunks(list, numThreads,
+                new ParallelWorkflow.ChunkTask<Integer, List<Integer>>() {
+            @Override
+            public List<Integer> process(List<Integer> chunk) {
+                return new ArrayList<Integer>(chunk);
+            }
+        });
+        List<Integer> result = new ArrayList<Integer>();
+        for (List<Integer> chunk : chunks) {
+            result.addAll(chunk);
+        }
+        return result;
+    }
+
+    public void testChunksInOrder() {
+        List<Integer> list = range(1000);
+        assertEquals(list, concatenate(list, 1));
+        assertEquals(list, concatenate(list, 3));
+        assertEquals(list, concatenate(list, 8));
+    }
+
+    public void testResultsHandledInOrder() {
+        final List<Integer> result = new ArrayList<Integer>();
+        ParallelWorkflow.processChunks(range(1000), 4, 7, new ParallelWorkflow.ChunkTask<Integer, List<Integer>>() {
+            @Override
+            public List<Integer> process(List<Integer> chunk) {
+                assertTrue(chunk.size() <= 7);
+                return new ArrayList<Integer>(chunk);
+            }
+        }, new ParallelWorkflow.ResultHandler<List<Integer>>() {
+            @Override
+            public void handle(List<Integer> chunk) {
+                result.addAll(chunk);
+            }
+        });
+        assertEquals(range(1000), result);
+    }
+
+    public void testRejectsFewerThanOneThread() {
+        assertEquals(2, ParallelWorkflow.parseNumThreads("2"));
+        for (String argument : new String[] { "0", "-1" }) {
+            try {
+                ParallelWorkflow.parseNumThreads(argument);
+                fail(argument);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    public void testSmallLists() {
+        assertEquals(range(0), concatenate(range(0), 4));
+        assertEquals(range(1), concatenate(range(1), 4));
+        assertEquals(range(5), concatenate(range(5), 4));
+    }
+
+    public void testExceptionPropagated() {
+        try {
+            ParallelWorkflow.processChunks(range(100), 4, new ParallelWorkflow.ChunkTask<Integer, Void>() {
+                @Override
+                public Void process(List<Integer> chunk) {
+                    if (chunk.contains(50)) {
+                        throw new IllegalArgumentException("50");
+                    }
+                    return null;
+                }
+            });
+            fail("exception was not propagated");
+        } catch (IllegalArgumentException e) {
+            assertEquals("50", e.getMessage());
+        }
+    }
+}
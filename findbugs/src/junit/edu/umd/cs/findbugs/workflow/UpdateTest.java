@@ -0,0 +1,186 @@
+package edu.umd.cs.findbugs.workflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+import edu.umd.cs.findbugs.BugCollection;
+import edu.umd.cs.findbugs.BugInstance;
+import edu.umd.cs.findbugs.Project;
+import edu.umd.cs.findbugs.SortedBugCollection;
+import edu.umd.cs.findbugs.SourceLineAnnotation;
+
+public class UpdateTest extends TestCase {
+
+    /**
+     * Analysis results of three versions of a small program. Between the
+     * versions classes are moved to another package and renamed, methods
+     * are renamed, priorities change, and bugs come, go and come back.
+     */
+    private static BugCollection version(int v) {
+        SortedBugCollection bugs = new SortedBugCollection(new Project());
+        bugs.setAnalysisTimestamp(1000000000000L + v * 86400000L);
+        bugs.getProjectStats().setTimestamp(bugs.getAnalysisTimestamp());
+        bugs.setTimestamp(bugs.getAnalysisTimestamp());
+        String fooPackage = v == 0 ? "com.a" : "com.b";
+        String barName = v < 2 ? "com.a.Bar" : "com.a.BarImpl";
+        String runName = v == 0 ? "run" : "execute";
+
+        addClass(bugs, fooPackage + ".Foo");
+        addClass(bugs, "com.a.Baz");
+        addClass(bugs, barName);
+        if (v > 0) {
+            addClass(bugs, "com.c.Added");
+        }
+
+        add(bugs, "NP_NULL_ON_SOME_PATH", 1, fooPackage + ".Foo", "get", 10);
+        add(bugs, "NP_NULL_ON_SOME_PATH", 2, fooPackage + ".Foo", "get", 20);
+        add(bugs, "UUF_UNUSED_FIELD", 2, fooPackage + ".Foo", "<init>", 5);
+        add(bugs, "RV_RETURN_VALUE_IGNORED", v == 0 ? 2 : 1, "com.a.Baz", runName, 30);
+        add(bugs, "NP_NULL_ON_SOME_PATH", 1, "com.a.Baz", runName, 31 + v);
+        add(bugs, "SIC_INNER_SHOULD_BE_STATIC", 3, barName, "<init>", 1);
+        if (v != 1) {
+            add(bugs, "DM_EXIT", 2, "com.a.Baz", "exit", 50);
+        }
+        if (v > 0) {
+            add(bugs, "DM_EXIT", 1, "com.c.Added", "main", 7);
+        }
+        return bugs;
+    }
+
+    private static void addClass(BugCollection bugs, String className) {
+        bugs.getProjectStats().addClass(className, sourceFile(className), false, 100);
+    }
+
+    private static void add(BugCollection bugs, String type, int priority, String className, String methodName, int line) {
+        BugInstance bug = new BugInstance(type, priority);
+        bug.addClass(className, sourceFile(className));
+        bug.addMethod(className, methodName, "()V", false);
+        bug.addSourceLine(new SourceLineAnnotation(className, sourceFile(className), line, line, 0, 0));
+        bugs.add(bug);
+    }
+
+    private static String sourceFile(String className) {
+        return className.substring(className.lastIndexOf('.') + 1) + ".java";
+    }
+
+    private static Update update(boolean indexMatches, boolean sloppyMatch) {
+        Update update = new Update();
+        update.verbose = false;
+        update.indexMatches = indexMatches;
+        update.sloppyMatch = sloppyMatch;
+        return update;
+    }
+
+    private static BugCollection history(boolean indexMatches, boolean sloppyMatch) {
+        return history(indexMatches, sloppyMatch, false);
+    }
+
+    private static BugCollection history(boolean indexMatches, boolean sloppyMatch, boolean reuseBugs) {
+        BugCollection history = version(0);
+        for (int v = 1; v <= 2; v++) {
+            history = update(indexMatches, sloppyMatch).mergeCollections(history, version(v), true, false, reuseBugs);
+        }
+        return history;
+    }
+
+    private static String xml(BugCollection bugs) throws IOException {
+        StringWriter out = new StringWriter();
+        bugs.writeXML(out);
+        return comparable(out.toString());
+    }
+
+    /**
+     * Remove the time and memory measured when a summary is written, the
+     * profile of the classes that read the inputs, and the counters of the
+     * annotation pools, which depend on how the bugs were read and added
+     * rather than on the bugs.
+     */
+    private static String comparable(String xml) {
+        return xml.replaceAll(" (cpu_seconds|clock_seconds|peak_mbytes|gc_seconds)=\"[^\"]*\"", "")
+                .replaceAll("(?s)<FindBugsProfile>.*</FindBugsProfile>", "")
+                .replaceAll("(?s)<InterningStats>.*</InterningStats>", "");
+    }
+
+    private static List<String> summary(BugCollection bugs) {
+        List<String> result = new ArrayList<String>();
+        for (BugInstance bug : bugs) {
+            result.add(bug.getInstanceKey() + " " + bug.getPriority() + " " + bug.getFirstVersion() + ".."
+                    + bug.getLastVersion() + " " + bug.isIntroducedByChangeOfExistingClass() + " "
+                    + bug.isRemovedByChangeOfPersistingClass());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public void testIndexedMatchIsSameAsUnindexed() {
+        assertEquals(summary(history(false, false)), summary(history(true, false)));
+    }
+
+    public void testIndexedSloppyMatchIsSameAsUnindexed() {
+        assertEquals(summary(history(false, true)), summary(history(true, true)));
+    }
+
+    public void testMergeReusingBugsIsSameAsCopying() throws Exception {
+        assertEquals(xml(history(true, false, false)), xml(history(true, false, true)));
+        assertEquals(xml(history(true, true, false)), xml(history(true, true, true)));
+    }
+
+    public void testStreamingMergeIsSameAsInMemory() throws Exception {
+        File dir = Files.createTempDirectory("update").toFile();
+        try {
+            List<String> inputs = new ArrayList<String>();
+            for (int v = 0; v <= 2; v++) {
+                File input = new File(dir, "v" + v + ".xml");
+                version(v).writeXML(input.getPath());
+                inputs.add(input.getPath());
+            }
+            for (String[] options : new String[][] { {}, { "-sloppyMatch" }, { "-noPackageMoves" }, { "-withMessages" } }) {
+                String[] output = new String[2];
+                for (int streaming = 0; streaming < 2; streaming++) {
+                    File outputFile = new File(dir, "history" + streaming + ".xml");
+                    List<String> args = new ArrayList<String>(Arrays.asList(options));
+                    args.addAll(Arrays.asList("-quiet", "-output", outputFile.getPath()));
+                    Update update = new Update();
+                    if (streaming == 1) {
+                        args.add("-streaming");
+                        // Spill the bugs read to several runs
+                        update.streamingRunSize = 2;
+                    }
+                    args.addAll(inputs);
+                    update.doit(args.toArray(new String[args.size()]));
+                    output[streaming] = comparable(new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8));
+                }
+                assertEquals(Arrays.toString(options), output[0], output[1]);
+            }
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    public void testMatchesMovedAndResurrectedBugs() {
+        BugCollection history = history(true, false);
+        int live = 0;
+        for (BugInstance bug : history) {
+            String className = bug.getPrimaryClass().getClassName();
+            if (className.equals("com.b.Foo") || className.equals("com.a.Baz") && bug.getType().equals("DM_EXIT")) {
+                assertEquals(bug.toString(), 0, bug.getFirstVersion());
+                assertFalse(bug.toString(), bug.isDead());
+            }
+            if (!bug.isDead()) {
+                live++;
+            }
+        }
+        assertEquals(version(2).getCollection().size(), live);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * XML input/output support for FindBugs
+ * Copyright (C) 2004, University of Maryland
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package edu.umd.cs.findbugs.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import junit.framework.TestCase;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class BinaryXMLOutputTest extends TestCase {
+
+    /**
+     * Records the SAX events of a document, ignoring whitespace-only text
+     * (the indentation OutputStreamXMLOutput adds).
+     */
+    static class EventRecorder extends DefaultHandler {
+        final List<String> events = new ArrayList<String>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            flushText();
+            StringBuilder buf = new StringBuilder("<").append(qName);
+            for (int i = 0; i < attributes.getLength(); i++) {
+                buf.append(' ').append(attributes.getQName(i)).append('=').append(attributes.getValue(i));
+            }
+            events.add(buf.toString());
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            flushText();
+            events.add("</" + qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        private void flushText() {
+            if (text.toString().trim().length() > 0) {
+                events.add(text.toString());
+            }
+            text.setLength(0);
+        }
+    }
+
+    private static void writeDocument(XMLOutput xmlOutput) throws IOException {
+        try {
+            xmlOutput.beginDocument();
+            xmlOutput.openTag("BugCollection", new XMLAttributeList().addAttribute("version", "3.1.0")
+                    .addAttribute("release", ""));
+            for (int i = 0; i < 3; i++) {
+                xmlOutput.startTag("BugInstance");
+                xmlOutput.addAttribute("type", "NP_NULL_ON_SOME_PATH");
+                xmlOutput.addAttribute("priority", String.valueOf(i));
+                xmlOutput.stopTag(false);
+                xmlOutput.openCloseTag("Class", new XMLAttributeList().addAttribute("classname", "com.example.Foo<Bar>"));
+                xmlOutput.openTag("LongMessage");
+                xmlOutput.writeText("Possible null & \u00fcnexpected \"dereference\" of x in Foo.bar()");
+                xmlOutput.closeTag("LongMessage");
+                xmlOutput.openCloseTag("Empty");
+                xmlOutput.closeTag("BugInstance");
+            }
+            xmlOutput.openTag("Details");
+            xmlOutput.writeCDATA("<p>Some <b>HTML</b></p>");
+            xmlOutput.closeTag("Details");
+            xmlOutput.closeTag("BugCollection");
+        } finally {
+            xmlOutput.finish();
+        }
+    }
+
+    public void testRoundTripMatchesXML() throws Exception {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        writeDocument(new OutputStreamXMLOutput(xml));
+        EventRecorder fromXML = new EventRecorder();
+        XMLReader xr = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
+        xr.setContentHandler(fromXML);
+        xr.parse(new InputSource(new ByteArrayInputStream(xml.toByteArray())));
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        writeDocument(new BinaryXMLOutput(binary));
+        EventRecorder fromBinary = new EventRecorder();
+        ByteArrayInputStream in = new ByteArrayInputStream(binary.toByteArray());
+        assertTrue(BinaryXMLInput.isBinaryXML(in));
+        new BinaryXMLInput(in).parse(fromBinary);
+
+        assertEquals(fromXML.events, fromBinary.events);
+        assertTrue(binary.size() < xml.size() / 2);
+    }
+
+    public void testXMLIsNotBinary() throws Exception {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        writeDocument(new OutputStreamXMLOutput(xml));
+        ByteArrayInputStream in = new ByteArrayInputStream(xml.toByteArray());
+        assertFalse(BinaryXMLInput.isBinaryXML(in));
+        assertEquals('<', in.read());
+    }
+
+    public void testTruncatedDocument() throws Exception {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        writeDocument(new BinaryXMLOutput(binary));
+        byte[] bytes = binary.toByteArray();
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes, 0, bytes.length / 2);
+        try {
+            new BinaryXMLInput(in).parse(new EventRecorder());
+            fail("truncated document was accepted");
+        } catch (IOException e) {
+            assert true;
+        }
+    }
+}